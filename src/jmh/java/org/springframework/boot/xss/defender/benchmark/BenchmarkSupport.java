@@ -0,0 +1,51 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.util.List;
+
+/**
+ * The shared parameters of the benchmarks.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+final class BenchmarkSupport {
+
+    /**
+     * The size parameter value which means every corpus line is an input text as it is.
+     */
+    static final String LINE_SIZE = "line";
+
+    /**
+     * The logback configuration of the forked benchmark jvm, which prints errors only.
+     */
+    static final String LOGBACK_CONFIGURATION = "-Dlogback.configurationFile=logback-benchmark.xml";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Create a defender by the strategy parameter, one of 'trim', 'trim-escape', 'escape' and 'throw'.
+     */
+    static XssDefender defender(String strategy) {
+        if ("trim-escape".equals(strategy)) {
+            return new XssDefender(DefenseStrategy.TRIM.name(), true);
+        }
+        return new XssDefender(DefenseStrategy.of(strategy).name(), false);
+    }
+
+    /**
+     * Create the input texts by the size parameter, either {@link #LINE_SIZE} or the length of a single input text.
+     */
+    static String[] inputs(XssCorpus corpus, String size) {
+        if (LINE_SIZE.equals(size)) {
+            List<String> lines = corpus.lines();
+            return lines.toArray(new String[0]);
+        }
+        return new String[]{corpus.text(Integer.parseInt(size))};
+    }
+
+}
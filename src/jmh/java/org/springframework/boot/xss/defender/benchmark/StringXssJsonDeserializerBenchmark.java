@@ -0,0 +1,75 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@link StringXssJsonDeserializer}, deserializing a JSON array of corpus strings.
+ * The 'disabled' strategy is the baseline of plain jackson deserialization.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class StringXssJsonDeserializerBenchmark {
+
+    @Param({"disabled", "trim", "trim-escape", "escape", "throw"})
+    private String strategy;
+
+    @Param({"BENIGN", "ATTACK"})
+    private XssCorpus corpus;
+
+    @Param({BenchmarkSupport.LINE_SIZE, "4096"})
+    private String size;
+
+    private ObjectMapper objectMapper;
+
+    private JavaType listType;
+
+    private String json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        final boolean isXssDefenderEnabled = !"disabled".equals(strategy);
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(isXssDefenderEnabled,
+                BenchmarkSupport.defender(isXssDefenderEnabled ? strategy : "trim")));
+        objectMapper = new ObjectMapper().registerModule(module);
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, String.class);
+        json = new ObjectMapper().writeValueAsString(Arrays.asList(BenchmarkSupport.inputs(corpus, size)));
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        try {
+            return objectMapper.readValue(json, listType);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+}
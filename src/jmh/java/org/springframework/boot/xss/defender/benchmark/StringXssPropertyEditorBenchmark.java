@@ -0,0 +1,66 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.support.StringXssPropertyEditor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@link StringXssPropertyEditor}, the way html FORM parameters are bound.
+ * The 'disabled' strategy is the baseline of whitespace trimming only.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class StringXssPropertyEditorBenchmark {
+
+    @Param({"disabled", "trim", "trim-escape", "escape", "throw"})
+    private String strategy;
+
+    @Param({"BENIGN", "ATTACK"})
+    private XssCorpus corpus;
+
+    @Param({BenchmarkSupport.LINE_SIZE, "4096"})
+    private String size;
+
+    private StringXssPropertyEditor editor;
+
+    private String[] inputs;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        final boolean isXssDefenderEnabled = !"disabled".equals(strategy);
+        editor = new StringXssPropertyEditor(isXssDefenderEnabled, BenchmarkSupport.defender(isXssDefenderEnabled ? strategy : "trim"));
+        inputs = BenchmarkSupport.inputs(corpus, size);
+    }
+
+    @Benchmark
+    public Object setAsText() {
+        try {
+            editor.setAsText(inputs[index++ % inputs.length]);
+            return editor.getValue();
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.ThrowXssSanitizer;
+import org.springframework.boot.xss.defender.sanitizer.XssPatternAutomaton;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ThrowXssSanitizer} with and without the {@link XssPatternAutomaton} in front of jsoup.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class ThrowXssSanitizerBenchmark {
+
+    @Param({"BENIGN", "ATTACK"})
+    private XssCorpus corpus;
+
+    @Param({BenchmarkSupport.LINE_SIZE, "256", "4096"})
+    private String size;
+
+    private String[] inputs;
+
+    private int index;
+
+    private ThrowXssSanitizer jsoupOnly;
+
+    private ThrowXssSanitizer automaton;
+
+    @Setup
+    public void setup() {
+        inputs = BenchmarkSupport.inputs(corpus, size);
+        jsoupOnly = new ThrowXssSanitizer(SafelistType.BASIC.create());
+        automaton = new ThrowXssSanitizer(SafelistType.BASIC.create(), XssPatternAutomaton.defaults(), true);
+    }
+
+    @Benchmark
+    public boolean jsoupOnly() {
+        return isRejected(jsoupOnly, inputs[index++ % inputs.length]);
+    }
+
+    @Benchmark
+    public boolean automaton() {
+        return isRejected(automaton, inputs[index++ % inputs.length]);
+    }
+
+    private static boolean isRejected(ThrowXssSanitizer sanitizer, String text) {
+        try {
+            sanitizer.sanitize(text);
+            return false;
+        } catch (XssRiskDetectedException e) {
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link XssDefender#defend(String)} for every defense strategy.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class XssDefenderBenchmark {
+
+    @Param({"trim", "trim-escape", "escape", "throw"})
+    private String strategy;
+
+    @Param({"BENIGN", "ATTACK"})
+    private XssCorpus corpus;
+
+    @Param({BenchmarkSupport.LINE_SIZE, "256", "4096"})
+    private String size;
+
+    private XssDefender xssDefender;
+
+    private String[] inputs;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        xssDefender = BenchmarkSupport.defender(strategy);
+        inputs = BenchmarkSupport.inputs(corpus, size);
+    }
+
+    @Benchmark
+    public Object defend() {
+        final String input = inputs[index++ % inputs.length];
+        try {
+            return xssDefender.defend(input);
+        } catch (XssRiskDetectedException e) {
+            return e;
+        }
+    }
+
+}
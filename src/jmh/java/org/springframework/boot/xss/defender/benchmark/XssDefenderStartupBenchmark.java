@@ -0,0 +1,139 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderAuditConfiguration;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderConfiguration;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderMetricsConfiguration;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderReactiveConfiguration;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderReloadConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark of the servlet auto configuration, it measures the refresh time of a whole application context,
+ * and counts the beans of the context. The 'scanning' registration is the former component scanning of the whole
+ * package of the XSS defender in addition to the auto configuration, the baseline 'none' is the application
+ * without the XSS defender.
+ * <p>
+ * The 'tiny' application has a single controller, the 'large' one has {@value #LARGE_BEANS} more beans.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 30)
+@Fork(value = 3, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class XssDefenderStartupBenchmark {
+
+    /**
+     * The count of the additional beans of the 'large' application.
+     */
+    static final int LARGE_BEANS = 2000;
+
+    @Param({"none", "auto-configuration", "scanning"})
+    private String registration;
+
+    @Param({"tiny", "large"})
+    private String application;
+
+    private WebApplicationContextRunner contextRunner;
+
+    @RestController
+    public static class SampleController {
+        @PostMapping("/sample/{id}")
+        public String sample(@PathVariable String id, @RequestBody Map<String, String> body) {
+            return id + body;
+        }
+
+        @GetMapping("/sample/{id}")
+        public String sample(@PathVariable String id) {
+            return id;
+        }
+    }
+
+    /**
+     * A plain bean of the large application.
+     */
+    public static class SampleService {
+    }
+
+    /**
+     * The former registration, which scanned the whole package of the XSS defender,
+     * the test and benchmark classes on the classpath are excluded.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ComponentScan(basePackageClasses = XssDefender.class,
+            excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = ".*(Test|Benchmark)(\\$.*)?"))
+    public static class ScanningConfiguration {
+    }
+
+    /**
+     * The counters reported in addition to the refresh time, JMH sums them over the measurement iterations,
+     * so the bean count of a context is the reported value divided by the iteration count.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public int beans;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+                        WebMvcAutoConfiguration.class))
+                .withUserConfiguration(SampleController.class);
+        if (!"none".equals(registration)) {
+            runner = runner.withConfiguration(AutoConfigurations.of(XssDefenderConfiguration.class, XssDefenderReactiveConfiguration.class,
+                    XssDefenderAuditConfiguration.class, XssDefenderMetricsConfiguration.class, XssDefenderReloadConfiguration.class));
+        }
+        if ("scanning".equals(registration)) {
+            runner = runner.withUserConfiguration(ScanningConfiguration.class);
+        }
+        if ("large".equals(application)) {
+            runner = runner.withInitializer(context -> {
+                for (int i = 0; i < LARGE_BEANS; i++) {
+                    ((GenericApplicationContext) context).registerBean("sampleService" + i, SampleService.class);
+                }
+            });
+        }
+        contextRunner = runner;
+    }
+
+    @Benchmark
+    public void refresh(Counters counters) {
+        contextRunner.run(context -> counters.beans = context.getBeanDefinitionCount());
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link XssEscaper#HTML_BODY} against {@link HtmlUtils#htmlEscape(String, String)},
+ * the allocation per operation is reported by the gc profiler as 'gc.alloc.rate.norm'.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class XssEscaperBenchmark {
+
+    @Param({"BENIGN", "ATTACK"})
+    private XssCorpus corpus;
+
+    @Param({BenchmarkSupport.LINE_SIZE, "256", "4096"})
+    private String size;
+
+    private String[] inputs;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        inputs = BenchmarkSupport.inputs(corpus, size);
+    }
+
+    @Benchmark
+    public String htmlUtils() {
+        return HtmlUtils.htmlEscape(inputs[index++ % inputs.length], StandardCharsets.UTF_8.name());
+    }
+
+    @Benchmark
+    public String xssEscaper() {
+        return XssEscaper.HTML_BODY.escape(inputs[index++ % inputs.length]);
+    }
+
+}
@@ -0,0 +1,143 @@
+package org.springframework.boot.xss.defender.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderConfiguration;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * End-to-end benchmark of the rejected requests of the {@code THROW} strategy, a FORM and a JSON body of
+ * {@value #FIELDS} risky fields, through the spring webmvc dispatcher. The 'default' rejection fills in the stack traces
+ * and records a binding error for every field, the 'early' one rejects the whole request by
+ * {@link XssRequestRejectedException} at the first field, both with the 400 response of the controller advice.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkSupport.LOGBACK_CONFIGURATION)
+public class XssRejectionBenchmark {
+
+    /**
+     * The count of the risky fields of a request.
+     */
+    static final int FIELDS = 20;
+
+    static final String RISKY_TEXT = "<script>alert(document.cookie)</script>";
+
+    @Param({"default", "stackless", "early", "early-stackless"})
+    private String rejection;
+
+    private AnnotationConfigWebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private MockHttpServletRequestBuilder form;
+
+    private MockHttpServletRequestBuilder json;
+
+    public static class Form {
+        private List<String> values = new ArrayList<>();
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        public void setValues(List<String> values) {
+            this.values = values;
+        }
+    }
+
+    @RestController
+    public static class SampleController {
+        @PostMapping("/form")
+        public String form(@ModelAttribute Form form) {
+            return "ok";
+        }
+
+        @PostMapping("/json")
+        public String json(@RequestBody Map<String, String> body) {
+            return "ok";
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, XssDefenderConfiguration.class})
+    public static class SampleConfiguration {
+    }
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        TestPropertyValues.of("spring.xss-defender.strategy=throw",
+                "spring.xss-defender.rejection.response-enabled=true",
+                "spring.xss-defender.rejection.early=" + rejection.startsWith("early"),
+                "spring.xss-defender.rejection.stack-trace-enabled=" + !rejection.endsWith("stackless")).applyTo(context);
+        context.register(SampleConfiguration.class, SampleController.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        form = post("/form");
+        StringBuilder body = new StringBuilder("{");
+        for (int i = 0; i < FIELDS; i++) {
+            form.param("values[" + i + "]", RISKY_TEXT);
+            body.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":\"").append(RISKY_TEXT).append('"');
+        }
+        json = post("/json").contentType(MediaType.APPLICATION_JSON).content(body.append('}').toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int form() throws Exception {
+        return mockMvc.perform(form).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int json() throws Exception {
+        return mockMvc.perform(json).andReturn().getResponse().getStatus();
+    }
+
+}
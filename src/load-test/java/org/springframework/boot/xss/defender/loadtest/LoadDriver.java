@@ -0,0 +1,103 @@
+package org.springframework.boot.xss.defender.loadtest;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drive a {@link MockMvc} with a fixed count of threads, each of them sends the requests back to back,
+ * and records the latency of every request into its own array, so that the threads never contend on the recording.
+ * The warmup requests are sent by all the threads as well, but not recorded.
+ *
+ * @author codeboyzhou
+ * @see LoadResult
+ * @since 1.0.0
+ */
+public final class LoadDriver {
+
+    private final int threads;
+
+    private final int warmupRequests;
+
+    private final int requests;
+
+    /**
+     * @param threads        The count of the concurrent threads
+     * @param warmupRequests The count of the unrecorded requests of each thread
+     * @param requests       The count of the recorded requests of each thread
+     */
+    public LoadDriver(int threads, int warmupRequests, int requests) {
+        Assert.isTrue(threads > 0, "threads must be positive");
+        Assert.isTrue(warmupRequests >= 0, "warmupRequests must not be negative");
+        Assert.isTrue(requests > 0, "requests must be positive");
+        this.threads = threads;
+        this.warmupRequests = warmupRequests;
+        this.requests = requests;
+    }
+
+    /**
+     * Send the requests in turn, every request must succeed.
+     *
+     * @param mockMvc  The application under load
+     * @param builders The requests, the thread {@code t} starts from the request {@code t}, so the threads don't move in lockstep
+     * @return The throughput and the latency percentiles of the recorded requests
+     */
+    public LoadResult run(MockMvc mockMvc, List<RequestBuilder> builders) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            this.phase(executor, mockMvc, builders, warmupRequests);
+            final long[][] latencies = new long[threads][];
+            final long start = System.nanoTime();
+            final List<Future<long[]>> futures = this.submit(executor, mockMvc, builders, requests);
+            for (int t = 0; t < threads; t++) {
+                latencies[t] = futures.get(t).get();
+            }
+            final long elapsed = System.nanoTime() - start;
+            final long[] merged = new long[threads * requests];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(latencies[t], 0, merged, t * requests, requests);
+            }
+            return new LoadResult(merged, elapsed);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void phase(ExecutorService executor, MockMvc mockMvc, List<RequestBuilder> builders, int count) throws Exception {
+        for (Future<long[]> future : this.submit(executor, mockMvc, builders, count)) {
+            future.get();
+        }
+    }
+
+    private List<Future<long[]>> submit(ExecutorService executor, MockMvc mockMvc, List<RequestBuilder> builders, int count) {
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final List<Future<long[]>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            futures.add(executor.submit(() -> {
+                final long[] latencies = new long[count];
+                ready.countDown();
+                ready.await();
+                for (int i = 0; i < count; i++) {
+                    final RequestBuilder builder = builders.get((offset + i) % builders.size());
+                    final long start = System.nanoTime();
+                    final int status = mockMvc.perform(builder).andReturn().getResponse().getStatus();
+                    latencies[i] = System.nanoTime() - start;
+                    Assert.state(status == 200, () -> "Unexpected response status: " + status);
+                }
+                return latencies;
+            }));
+        }
+        return futures;
+    }
+
+}
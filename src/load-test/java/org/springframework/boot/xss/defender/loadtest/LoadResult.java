@@ -0,0 +1,104 @@
+package org.springframework.boot.xss.defender.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The throughput and the latency percentiles of a load run, the percentiles are the nearest-rank ones
+ * of all the recorded latencies, without any histogram approximation.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+public final class LoadResult {
+
+    /**
+     * The sorted latencies, kept for merging the results of several rounds.
+     */
+    private final long[] latencies;
+
+    private final long elapsedNanos;
+
+    private final int requests;
+
+    private final double throughput;
+
+    private final long p50;
+
+    private final long p99;
+
+    private final long p999;
+
+    /**
+     * @param latencies    The latencies of all the requests in nanoseconds, they are sorted in place
+     * @param elapsedNanos The wall time of the whole run
+     */
+    LoadResult(long[] latencies, long elapsedNanos) {
+        Arrays.sort(latencies);
+        this.latencies = latencies;
+        this.elapsedNanos = elapsedNanos;
+        this.requests = latencies.length;
+        this.throughput = latencies.length * 1e9 / elapsedNanos;
+        this.p50 = percentile(latencies, 0.5);
+        this.p99 = percentile(latencies, 0.99);
+        this.p999 = percentile(latencies, 0.999);
+    }
+
+    /**
+     * Merge the results of several rounds into one, as if they were a single run.
+     */
+    public static LoadResult merge(List<LoadResult> results) {
+        int requests = 0;
+        long elapsedNanos = 0;
+        for (LoadResult result : results) {
+            requests += result.requests;
+            elapsedNanos += result.elapsedNanos;
+        }
+        final long[] latencies = new long[requests];
+        int offset = 0;
+        for (LoadResult result : results) {
+            System.arraycopy(result.latencies, 0, latencies, offset, result.requests);
+            offset += result.requests;
+        }
+        return new LoadResult(latencies, elapsedNanos);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        final int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * The requests per second.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * The latency percentiles in nanoseconds.
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%,.0f req/s, p50=%.1fus, p99=%.1fus, p999=%.1fus",
+                throughput, p50 / 1e3, p99 / 1e3, p999 / 1e3);
+    }
+
+}
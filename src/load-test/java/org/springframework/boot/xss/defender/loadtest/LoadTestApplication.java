@@ -0,0 +1,97 @@
+package org.springframework.boot.xss.defender.loadtest;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * The sample application under load, a controller binding the same request by FORM and by JSON,
+ * so that the whole stack of the XSS defender is on the request path, including the interceptor.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoadTestApplication {
+
+    @RestController
+    public static class SampleController {
+
+        @PostMapping("/load-test/form")
+        public int form(@ModelAttribute SampleRequest request) {
+            return request.length();
+        }
+
+        @PostMapping("/load-test/json")
+        public int json(@RequestBody SampleRequest request) {
+            return request.length();
+        }
+
+    }
+
+    /**
+     * The bound request, the response is the total length of the bound values, so nothing is optimized away.
+     */
+    public static class SampleRequest {
+
+        private String name;
+
+        private String title;
+
+        private String comment;
+
+        private List<String> tags;
+
+        int length() {
+            int length = length(name) + length(title) + length(comment);
+            if (tags != null) {
+                for (String tag : tags) {
+                    length += length(tag);
+                }
+            }
+            return length;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package org.springframework.boot.xss.defender.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderAuditConfiguration;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The end-to-end overhead of the XSS defender on a Spring MVC request, including the interceptor, the FORM binding
+ * and the JSON binding. The same sample application is booted without and with the XSS defender, and driven
+ * by the same multi-threaded load of the versioned corpora.
+ * <p>
+ * The build fails if the p50 or p99 latency of a scenario with the XSS defender exceeds the one without it
+ * by more than the configured ratio. The report is written into 'target/xss-load-test-report.json'.
+ * Run it with {@code mvn -Pload-test test}, the options are the system properties prefixed by 'xss.load-test.'.
+ *
+ * @author codeboyzhou
+ * @see LoadDriver
+ * @since 1.0.0
+ */
+class XssDefenderOverheadLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssDefenderOverheadLoadTest.class);
+
+    static final String PREFIX = "xss.load-test.";
+
+    /**
+     * More threads than processors would measure the scheduler instead of the application.
+     */
+    static final int THREADS = Integer.getInteger(PREFIX + "threads", Runtime.getRuntime().availableProcessors());
+
+    static final int WARMUP_REQUESTS = Integer.getInteger(PREFIX + "warmup-requests", 2000);
+
+    static final int REQUESTS = Integer.getInteger(PREFIX + "requests", 2000);
+
+    /**
+     * The rounds of each scenario, the applications without and with the XSS defender take turns,
+     * so that a drift of the machine, for example, the JIT or a noisy neighbour, affects both of them.
+     */
+    static final int ROUNDS = Integer.getInteger(PREFIX + "rounds", 5);
+
+    /**
+     * The maximum latency ratios with and without the XSS defender. About one in two benign requests carries a value
+     * with markup, for example, {@code a < b}, which goes through jsoup, so the thresholds leave room for it.
+     */
+    static final double MAX_BENIGN_OVERHEAD = Double.parseDouble(System.getProperty(PREFIX + "max-overhead.benign", "2.5"));
+
+    static final double MAX_ATTACK_OVERHEAD = Double.parseDouble(System.getProperty(PREFIX + "max-overhead.attack", "8.0"));
+
+    static final String REPORT = System.getProperty(PREFIX + "report", "target/xss-load-test-report.json");
+
+    /**
+     * The count of the corpus lines in one request, three fields and three tags.
+     */
+    static final int VALUES_PER_REQUEST = 6;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void overheadWithinThreshold() throws Exception {
+        final LoadDriver driver = new LoadDriver(THREADS, WARMUP_REQUESTS, REQUESTS);
+        final List<Map<String, Object>> scenarios = new ArrayList<>();
+        final List<String> violations = new ArrayList<>();
+        this.application(false).run(baselineContext -> this.application(true).run(defendedContext -> {
+            final MockMvc baselineMockMvc = mockMvc(baselineContext);
+            final MockMvc defendedMockMvc = mockMvc(defendedContext);
+            for (XssCorpus corpus : XssCorpus.values()) {
+                final double maxOverhead = corpus == XssCorpus.BENIGN ? MAX_BENIGN_OVERHEAD : MAX_ATTACK_OVERHEAD;
+                for (String endpoint : Arrays.asList("form", "json")) {
+                    final List<RequestBuilder> requests = this.requests(endpoint, corpus.lines());
+                    final List<LoadResult> baselineRounds = new ArrayList<>();
+                    final List<LoadResult> defendedRounds = new ArrayList<>();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        baselineRounds.add(driver.run(baselineMockMvc, requests));
+                        defendedRounds.add(driver.run(defendedMockMvc, requests));
+                    }
+                    final LoadResult baseline = LoadResult.merge(baselineRounds);
+                    final LoadResult defended = LoadResult.merge(defendedRounds);
+                    final String name = endpoint + "/" + corpus.name().toLowerCase(Locale.ROOT);
+                    scenarios.add(scenario(name, corpus, maxOverhead, baseline, defended));
+                    logger.info("{} baseline: {}, defended: {}", name, baseline, defended);
+                    check(name, "p50", baseline.getP50(), defended.getP50(), maxOverhead, violations);
+                    check(name, "p99", baseline.getP99(), defended.getP99(), maxOverhead, violations);
+                }
+            }
+        }));
+        this.report(scenarios);
+        Assertions.assertTrue(violations.isEmpty(), () -> "The XSS defender overhead regressed: " + violations);
+    }
+
+    /**
+     * The sample application without or with the XSS defender.
+     */
+    private WebApplicationContextRunner application(boolean isXssDefenderEnabled) {
+        return new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+                        WebMvcAutoConfiguration.class, XssDefenderConfiguration.class, XssDefenderAuditConfiguration.class))
+                .withUserConfiguration(LoadTestApplication.class)
+                .withPropertyValues("spring.xss-defender.enabled=" + isXssDefenderEnabled);
+    }
+
+    private static MockMvc mockMvc(WebApplicationContext context) {
+        final Filter[] filters = context.getBeansOfType(FilterRegistrationBean.class).values().stream()
+                .map(registration -> ((FilterRegistrationBean<?>) registration).getFilter()).toArray(Filter[]::new);
+        return MockMvcBuilders.webAppContextSetup(context).addFilters(filters).build();
+    }
+
+    /**
+     * Build one request for every corpus line, the values of a request are the consecutive lines from it.
+     */
+    private List<RequestBuilder> requests(String endpoint, List<String> lines) throws IOException {
+        final List<RequestBuilder> requests = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            final String[] values = new String[VALUES_PER_REQUEST];
+            for (int j = 0; j < VALUES_PER_REQUEST; j++) {
+                values[j] = lines.get((i + j) % lines.size());
+            }
+            final List<String> tags = Arrays.asList(values[3], values[4], values[5]);
+            if ("form".equals(endpoint)) {
+                final MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.post("/load-test/form")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("name", values[0])
+                        .param("title", values[1])
+                        .param("comment", values[2]);
+                tags.forEach(tag -> builder.param("tags", tag));
+                requests.add(builder);
+            } else {
+                final Map<String, Object> body = new LinkedHashMap<>();
+                body.put("name", values[0]);
+                body.put("title", values[1]);
+                body.put("comment", values[2]);
+                body.put("tags", tags);
+                requests.add(MockMvcRequestBuilders.post("/load-test/json")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(body)));
+            }
+        }
+        return requests;
+    }
+
+    private static void check(String name, String percentile, long baseline, long defended, double maxOverhead, List<String> violations) {
+        final double overhead = (double) defended / baseline;
+        if (overhead > maxOverhead) {
+            violations.add(String.format(Locale.ROOT, "%s %s %.2fx > %.2fx", name, percentile, overhead, maxOverhead));
+        }
+    }
+
+    private static Map<String, Object> scenario(String name, XssCorpus corpus, double maxOverhead, LoadResult baseline, LoadResult defended) {
+        final Map<String, Object> overhead = new LinkedHashMap<>();
+        overhead.put("throughput", baseline.getThroughput() / defended.getThroughput());
+        overhead.put("p50", (double) defended.getP50() / baseline.getP50());
+        overhead.put("p99", (double) defended.getP99() / baseline.getP99());
+        overhead.put("p999", (double) defended.getP999() / baseline.getP999());
+        final Map<String, Object> scenario = new LinkedHashMap<>();
+        scenario.put("name", name);
+        scenario.put("corpus", corpus.location());
+        scenario.put("maxOverhead", maxOverhead);
+        scenario.put("baseline", baseline);
+        scenario.put("defended", defended);
+        scenario.put("overhead", overhead);
+        return scenario;
+    }
+
+    private void report(List<Map<String, Object>> scenarios) throws IOException {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", THREADS);
+        report.put("warmupRequests", WARMUP_REQUESTS);
+        report.put("requests", REQUESTS);
+        report.put("rounds", ROUNDS);
+        report.put("latencyUnit", "ns");
+        report.put("scenarios", scenarios);
+        final File file = new File(REPORT);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.springframework.boot.xss.defender.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.reactive.XssDefenderJackson2JsonDecoder;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * The throughput of the reactive JSON decoding, the small bodies are decoded on the event loop,
+ * and the large ones on the bounded scheduler. Run it with {@code mvn -Pload-test test},
+ * the options are the system properties prefixed by 'xss.load-test.'.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderJackson2JsonDecoder
+ * @since 1.0.0
+ */
+class XssDefenderReactiveThroughputLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssDefenderReactiveThroughputLoadTest.class);
+
+    static final int REQUESTS = Integer.getInteger(XssDefenderOverheadLoadTest.PREFIX + "reactive-requests", 100);
+
+    static final ParameterizedTypeReference<List<String>> STRING_LIST = new ParameterizedTypeReference<List<String>>() {
+    };
+
+    @RestController
+    static class EchoController {
+        @PostMapping("/load-test/json")
+        Mono<List<String>> json(@RequestBody Mono<List<String>> body) {
+            return body;
+        }
+    }
+
+    Scheduler scheduler;
+
+    WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(true, new XssDefender(DefenseStrategy.TRIM.name(), false)));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(module);
+        scheduler = Schedulers.newBoundedElastic(2, 16, "xss-defender");
+        client = WebTestClient.bindToController(new EchoController())
+                .httpMessageCodecs(configurer -> configurer.defaultCodecs()
+                        .jackson2JsonDecoder(new XssDefenderJackson2JsonDecoder(objectMapper, scheduler, 1024)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    List<String> postJson(List<String> body) {
+        return client.post().uri("/load-test/json").contentType(MediaType.APPLICATION_JSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody(STRING_LIST).returnResult().getResponseBody();
+    }
+
+    @Test
+    void throughput() {
+        List<String> small = XssCorpus.BENIGN.lines().subList(0, 8);
+        List<String> large = XssCorpus.ATTACK.lines();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            Assertions.assertEquals(small.size(), postJson(small).size());
+            Assertions.assertEquals(large.size(), postJson(large).size());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Reactive JSON throughput: {} requests/s", String.format("%.1f", 2 * REQUESTS / seconds));
+    }
+
+}
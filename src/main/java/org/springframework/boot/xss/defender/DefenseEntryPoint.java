@@ -0,0 +1,57 @@
+package org.springframework.boot.xss.defender;
+
+/**
+ * The enums of the entry points where the input text comes into {@link XssDefender}.
+ *
+ * @author codeboyzhou
+ * @see XssDefender
+ * @since 1.0.0
+ */
+public enum DefenseEntryPoint {
+
+    /**
+     * The JSON parameters, processed by {@link org.springframework.boot.xss.defender.support.StringXssJsonDeserializer}.
+     */
+    JSON,
+
+    /**
+     * The html FORM parameters, processed by {@link org.springframework.boot.xss.defender.support.StringXssPropertyEditor}.
+     */
+    FORM,
+
+    /**
+     * The query or FORM parameters read from the request directly, processed by
+     * {@link org.springframework.boot.xss.defender.filter.XssDefenderRequestWrapper}.
+     */
+    PARAMETER,
+
+    /**
+     * The request headers, processed by {@link org.springframework.boot.xss.defender.filter.XssDefenderRequestWrapper}.
+     */
+    HEADER,
+
+    /**
+     * The request cookies, processed by {@link org.springframework.boot.xss.defender.filter.XssDefenderRequestWrapper}.
+     */
+    COOKIE,
+
+    /**
+     * The raw text request bodies and the text parts of multipart requests, processed by
+     * {@link org.springframework.boot.xss.defender.support.StringXssHttpMessageConverter} and
+     * {@link org.springframework.boot.xss.defender.filter.XssDefenderPart}.
+     */
+    BODY,
+
+    /**
+     * The input text processed by application code directly.
+     */
+    OTHER;
+
+    /**
+     * The lower case name, for example, used as a metric tag value.
+     */
+    public String tagValue() {
+        return name().toLowerCase();
+    }
+
+}
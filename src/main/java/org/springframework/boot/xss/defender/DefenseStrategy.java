@@ -3,6 +3,9 @@ package org.springframework.boot.xss.defender;
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
 import org.springframework.boot.xss.defender.exception.UnsupportedXssDefenseStrategyException;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.util.StringUtils;
 import org.springframework.web.util.HtmlUtils;
 
 /**
@@ -22,27 +25,45 @@ public enum DefenseStrategy {
 
     /**
      * If this value is used, the {@link XssDefender} will escape all the risky XSS characters held by
-     * input text when XSS risk detected, {@link HtmlUtils#htmlEscape(String, String)} will finish it actually.
+     * input text when XSS risk detected, {@link XssEscaper#HTML_BODY} will finish it actually,
+     * which is compatible with {@link HtmlUtils#htmlEscape(String, String)}.
      */
     ESCAPE,
 
     /**
      * If this value is used, the {@link XssDefender} will throw an runtime exception directly when XSS risk detected.
      *
-     * @see UnsupportedXssDefenseStrategyException
+     * @see XssRiskDetectedException
      */
     THROW;
 
-    static boolean isTrim(String defenseStrategy) {
-        return TRIM.name().equalsIgnoreCase(defenseStrategy);
-    }
-
-    static boolean isEscape(String defenseStrategy) {
-        return ESCAPE.name().equalsIgnoreCase(defenseStrategy);
+    /**
+     * Resolve the XSS defense strategy ignoring case, {@link #TRIM} is the default value if no strategy is configured.
+     *
+     * @param defenseStrategy The configured XSS defense strategy
+     * @return The resolved XSS defense strategy
+     * @throws UnsupportedXssDefenseStrategyException If the configured XSS defense strategy is unsupported
+     */
+    public static DefenseStrategy of(String defenseStrategy) {
+        if (!StringUtils.hasText(defenseStrategy)) {
+            return TRIM;
+        }
+        for (DefenseStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(defenseStrategy.trim())) {
+                return strategy;
+            }
+        }
+        throw new UnsupportedXssDefenseStrategyException(defenseStrategy);
     }
 
-    static boolean isThrow(String defenseStrategy) {
-        return THROW.name().equalsIgnoreCase(defenseStrategy);
+    /**
+     * The lower case description of this strategy, for example, {@code trim-escape}, used as a metric tag value.
+     *
+     * @param escapeAfterTrim Whether continue to escape the input text after XSS safe trim
+     */
+    public String describe(boolean escapeAfterTrim) {
+        final String name = name().toLowerCase();
+        return this == TRIM && escapeAfterTrim ? name + "-escape" : name;
     }
 
 }
@@ -1,55 +1,206 @@
 package org.springframework.boot.xss.defender;
 
-import org.jsoup.Jsoup;
-import org.jsoup.safety.Safelist;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.audit.XssDetectionPublisher;
 import org.springframework.boot.xss.defender.autoconfigure.XssDefenderProperties;
+import org.springframework.boot.xss.defender.cache.XssSanitizationCache;
 import org.springframework.boot.xss.defender.exception.UnsupportedXssDefenseStrategyException;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
 import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.metrics.XssDefenderMetrics;
+import org.springframework.boot.xss.defender.sanitizer.EscapeXssSanitizer;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssCanonicalizer;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizer;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.boot.xss.defender.shadow.XssShadowEvaluator;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
-import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.nio.charset.StandardCharsets;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class is mainly responsible for processing the actual input text.
- * Implements different defense logic according to the different XSS defense strategy.
+ * Implements different defense logic according to the different XSS defense strategy,
+ * the defense logic is compiled into an immutable {@link XssSanitizer} when constructing.
  *
  * @author codeboyzhou
  * @since 1.0.0
  */
 public class XssDefender {
 
-    private static final Logger logger = LoggerFactory.getLogger(XssDefender.class);
-
     /**
      * Empty string constant.
      */
     public static final String EMPTY_STRING = "";
 
     /**
-     * Escaped empty string constant, for printing more clear log information.
+     * The default maximum count of characters of a segment, when a long input text is sanitized in segments.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * The sanitizer of the input text exceeding a limit of the {@link XssInputGuard} with the escape action.
+     */
+    private static final XssSanitizer ESCAPE_ONLY_SANITIZER = new EscapeXssSanitizer();
+
+    /**
+     * The minimum count of values sanitized by a task of the parallel batch, so that a task outweighs its scheduling.
+     */
+    private static final int MIN_BATCH_TASK_SIZE = 256;
+
+    /**
+     * The request attribute of the first rejection of the request, when the early rejection is enabled.
      */
-    private static final String ESCAPED_EMPTY_STRING = "\"\"";
+    private static final String REJECTION_ATTRIBUTE = XssDefender.class.getName() + ".REJECTION";
 
     /**
-     * The XSS defense strategy.
+     * The compiled sanitizer.
      *
-     * @see DefenseStrategy
+     * @see XssSanitizerChain
      */
-    private final String defenseStrategy;
+    private final XssSanitizer sanitizer;
 
     /**
-     * Whether continue to escape the input text after XSS safe trim.
+     * Whether plain text can skip the sanitizer.
      *
-     * @see XssDefenderProperties#isEscapeAfterTrimEnabled()
+     * @see XssSanitizer#preservesPlainText()
+     */
+    private final boolean skipPlainText;
+
+    /**
+     * Whether the sanitizer parses the markup, so that the segments of a long input text carry the open tags.
+     *
+     * @see XssSanitizer#parsesMarkup()
+     */
+    private final boolean parsesMarkup;
+
+    /**
+     * Whether the nested encodings are decoded before a sanitizer which rejects the risky text, so that the plain text
+     * with an escape marker can't skip the sanitizer, for example, {@code %253Cscript%253E}.
+     *
+     * @see XssCanonicalizer
+     */
+    private final boolean canonicalizing;
+
+    /**
+     * Whether the sanitizer rejects the risky text, so that the input text exceeding a limit is never escaped or truncated.
+     *
+     * @see XssInputGuard#checkLength(int, boolean)
+     * @see XssInputGuard#checkMarkup(String, boolean)
+     */
+    private final boolean rejectsRisk;
+
+    /**
+     * The optional cache of sanitization results, {@code null} if the cache is disabled.
+     */
+    private final XssSanitizationCache cache;
+
+    /**
+     * The metrics recorder, {@link XssDefenderMetrics#NONE} if the metrics are disabled.
+     */
+    private final XssDefenderMetrics metrics;
+
+    /**
+     * Whether to measure the elapsed time of the sanitizer.
      */
-    private final boolean needEscapeAfterTrim;
+    private final boolean timed;
 
+    /**
+     * The publisher of the modified or rejected input text, {@link XssDetectionPublisher#NONE} if the audit is disabled.
+     */
+    private final XssDetectionPublisher detectionPublisher;
+
+    /**
+     * The optional shadow evaluation of a candidate policy, {@code null} if it's disabled.
+     */
+    private final XssShadowEvaluator shadowEvaluator;
+
+    /**
+     * Whether to observe the result of the sanitizer, for the metrics, the audit or the shadow evaluation.
+     */
+    private final boolean observed;
+
+    /**
+     * The optional limits of the input text, {@code null} if the limits are disabled.
+     */
+    private final XssInputGuard inputGuard;
+
+    /**
+     * The pool to sanitize the large batches in parallel, {@code null} if the batches are always sanitized inline.
+     */
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * The batches of at least this many values are sanitized in parallel.
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Whether the first rejected input text rejects the whole request.
+     *
+     * @see XssRequestRejectedException
+     */
+    private final boolean earlyRejection;
+
+    /**
+     * Whether the {@link XssRequestRejectedException} fills in its stack trace.
+     */
+    private final boolean stackTraceEnabled;
+
+    /**
+     * Create an instance with the {@link SafelistType#BASIC} safelist.
+     *
+     * @param defenseStrategy     The XSS defense strategy
+     * @param needEscapeAfterTrim Whether continue to escape the input text after XSS safe trim
+     * @throws UnsupportedXssDefenseStrategyException If the XSS defense strategy is unsupported
+     * @see XssDefenderProperties#isEscapeAfterTrimEnabled()
+     */
     public XssDefender(String defenseStrategy, boolean needEscapeAfterTrim) {
-        this.defenseStrategy = defenseStrategy;
-        this.needEscapeAfterTrim = needEscapeAfterTrim;
+        this(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.of(defenseStrategy), SafelistType.BASIC.create(), needEscapeAfterTrim)
+                .build());
+    }
+
+    public XssDefender(XssSanitizer sanitizer) {
+        this(builder(sanitizer));
+    }
+
+    private XssDefender(Builder builder) {
+        this.canonicalizing = builder.canonicalizer != null && builder.sanitizer.rejectsRisk();
+        this.sanitizer = canonicalizing ? builder.canonicalizer.before(builder.sanitizer) : builder.sanitizer;
+        this.skipPlainText = builder.sanitizer.preservesPlainText();
+        this.parsesMarkup = builder.sanitizer.parsesMarkup();
+        this.rejectsRisk = builder.sanitizer.rejectsRisk();
+        this.cache = builder.cache;
+        this.metrics = builder.metrics;
+        this.timed = builder.metrics != XssDefenderMetrics.NONE;
+        this.detectionPublisher = builder.detectionPublisher;
+        this.shadowEvaluator = builder.shadowEvaluator;
+        this.observed = timed || builder.detectionPublisher != XssDetectionPublisher.NONE || builder.shadowEvaluator != null;
+        this.inputGuard = builder.inputGuard;
+        this.forkJoinPool = builder.forkJoinPool;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.earlyRejection = builder.earlyRejection;
+        this.stackTraceEnabled = builder.stackTraceEnabled;
+    }
+
+    /**
+     * Create a builder to assemble the compiled sanitizer with the optional features.
+     *
+     * @param sanitizer The compiled sanitizer
+     */
+    public static Builder builder(XssSanitizer sanitizer) {
+        return new Builder(sanitizer);
     }
 
     /**
@@ -59,83 +210,592 @@ public class XssDefender {
      * @return The safe text without XSS risk
      */
     public String defend(String text) {
-        return StringUtils.hasText(text) ? this.doDefend(text) : EMPTY_STRING;
+        return this.defend(text, DefenseEntryPoint.OTHER);
     }
 
     /**
-     * A helper method of {@link #defend(String)}
+     * Process the actual input text.
+     *
+     * @param text       The actual input text
+     * @param entryPoint The entry point of the input text
+     * @return The safe text without XSS risk
      */
-    private String doDefend(String text) {
-        // Trim leading and trailing whitespace.
-        text = StringUtils.trimWhitespace(text);
+    public String defend(String text, DefenseEntryPoint entryPoint) {
+        return this.defend(text, entryPoint, null);
+    }
 
-        if (DefenseStrategy.isTrim(defenseStrategy)) {
-            return this.trim(text);
-        } else if (DefenseStrategy.isEscape(defenseStrategy)) {
-            return this.escape(text);
-        } else if (DefenseStrategy.isThrow(defenseStrategy)) {
-            this.checkAndThrow(text);
-        } else {
-            throw new UnsupportedXssDefenseStrategyException(defenseStrategy);
-        }
+    /**
+     * Process the actual input text.
+     *
+     * @param text       The actual input text
+     * @param entryPoint The entry point of the input text
+     * @param field      The name of the JSON field, parameter, header or cookie, only used by the audit, nullable
+     * @return The safe text without XSS risk
+     */
+    public String defend(String text, DefenseEntryPoint entryPoint, String field) {
+        return StringUtils.hasText(text) ? this.doDefend(text, entryPoint, field) : EMPTY_STRING;
+    }
 
-        return text;
+    /**
+     * Process a range of the character buffer in place, for example, the text buffer of a json parser.
+     * Only the final result string is allocated, and leading and trailing whitespace are skipped without copying.
+     *
+     * @param buffer     The character buffer holding the actual input text
+     * @param offset     The start offset of the input text
+     * @param length     The length of the input text
+     * @param entryPoint The entry point of the input text
+     * @return The safe text without XSS risk
+     */
+    public String defend(char[] buffer, int offset, int length, DefenseEntryPoint entryPoint) {
+        return this.defend(buffer, offset, length, entryPoint, null);
     }
 
     /**
-     * Trim all the XSS risky characters, and check if the escape-after-trim option is set {@code true}.
+     * Process a range of the character buffer in place, for example, the text buffer of a json parser.
      *
-     * @param text The actual input text
+     * @param buffer     The character buffer holding the actual input text
+     * @param offset     The start offset of the input text
+     * @param length     The length of the input text
+     * @param entryPoint The entry point of the input text
+     * @param field      The name of the JSON field, parameter, header or cookie, only used by the audit, nullable
      * @return The safe text without XSS risk
+     * @see #defend(char[], int, int, DefenseEntryPoint)
      */
-    private String trim(String text) {
-        String safeText = Jsoup.clean(text, Safelist.basic());
-        if (needEscapeAfterTrim) {
-            safeText = HtmlUtils.htmlEscape(safeText, StandardCharsets.UTF_8.name());
+    public String defend(char[] buffer, int offset, int length, DefenseEntryPoint entryPoint, String field) {
+        int begin = offset;
+        int end = offset + length;
+        while (begin < end && Character.isWhitespace(buffer[begin])) {
+            begin++;
+        }
+        while (end > begin && Character.isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+
+        if (begin == end) {
+            return EMPTY_STRING;
         }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("Trim text to prevent XSS risk, escape-after-trim option: {}, input: {}, output: {}",
-                    needEscapeAfterTrim, text, safeText.isEmpty() ? ESCAPED_EMPTY_STRING : safeText);
+        metrics.recordInspected(entryPoint, end - begin);
+        if (inputGuard != null) {
+            final int verdict = this.checkLength(end - begin, entryPoint, field);
+            if (verdict == XssInputGuard.ESCAPE_ONLY) {
+                return this.sanitize(ESCAPE_ONLY_SANITIZER, new String(buffer, begin, end - begin), entryPoint, field);
+            }
+            if (verdict != XssInputGuard.PASS) {
+                // The text beyond the limit is never copied.
+                end = verdict == 0 ? begin : begin + truncatedLength(buffer[begin + verdict - 1], verdict);
+            }
         }
 
-        if (safeText.length() != text.length() && logger.isWarnEnabled()) {
-            logger.warn("XSS risk detected in the input parameter: {}, escape-after-trim option: {}, cleaned text: {}",
-                    text, needEscapeAfterTrim, safeText.isEmpty() ? ESCAPED_EMPTY_STRING : safeText);
+        final String text = new String(buffer, begin, end - begin);
+        if (skipPlainText && XssPreScanner.isPlainText(buffer, begin, end - begin)
+                && !(canonicalizing && XssCanonicalizer.containsEscapeMarker(buffer, begin, end - begin))) {
+            metrics.recordFastPath(entryPoint);
+            return text;
         }
 
-        return safeText;
+        return this.guardAndSanitize(text, entryPoint, field);
     }
 
     /**
-     * Escape all the XSS risky characters.
+     * Process a long input text, for example, a request body, in segments of {@link #DEFAULT_CHUNK_SIZE} characters.
      *
-     * @param text The actual input text
-     * @return The safe text without XSS risk
+     * @see #defend(Reader, int, DefenseEntryPoint, String)
      */
-    private String escape(String text) {
-        final String safeText = HtmlUtils.htmlEscape(text, StandardCharsets.UTF_8.name());
-        if (logger.isWarnEnabled()) {
-            logger.warn("XSS risk detected in the input parameter: {}, escaped text: {}", text, safeText);
+    public Reader defend(Reader reader, DefenseEntryPoint entryPoint, String field) {
+        return this.defend(reader, DEFAULT_CHUNK_SIZE, entryPoint, field);
+    }
+
+    /**
+     * Process a long input text read from a reader, it's sanitized lazily in segments of at most the chunk size
+     * while the returned reader is read, so that the memory stays the same whatever the length of the input text.
+     * The state of the markup is carried across the segments, and an input text no longer than the chunk size gives
+     * exactly the same output as {@link #defend(String, DefenseEntryPoint, String)}.
+     * <p>
+     * The maximum length of the {@link XssInputGuard} applies to the whole input text, the other limits to every segment.
+     *
+     * @param reader     The reader of the actual input text, it's closed with the returned reader
+     * @param chunkSize  The maximum count of characters of a segment
+     * @param entryPoint The entry point of the input text
+     * @param field      The name of the part, only used by the audit, nullable
+     * @return A reader of the safe text without XSS risk
+     */
+    public Reader defend(Reader reader, int chunkSize, DefenseEntryPoint entryPoint, String field) {
+        Assert.notNull(reader, "Reader must not be null");
+        Assert.isTrue(chunkSize > 0, "The chunk size must be positive");
+        return new XssDefendingReader(this, reader, chunkSize, entryPoint, field);
+    }
+
+    /**
+     * Process all the input texts of a batch, the batches of at least the parallel threshold are split across
+     * the fork join pool, and the smaller ones are processed inline, both give exactly the same output.
+     * <p>
+     * A {@code null} element is kept as {@code null}. If several elements are rejected, the exception of the first one
+     * is thrown, as if the batch was processed in order, though the elements after it may have been processed as well.
+     *
+     * @param texts      The actual input texts
+     * @param entryPoint The entry point of the input texts
+     * @param field      The name of the JSON field, parameter, header or cookie, only used by the audit, nullable
+     * @return A new array of the safe texts without XSS risk, in the same order
+     * @see Builder#bulk(ForkJoinPool, int)
+     */
+    public String[] defendAll(String[] texts, DefenseEntryPoint entryPoint, String field) {
+        final String[] safeTexts = new String[texts.length];
+        if (!this.isParallel(texts.length)) {
+            this.defendRange(texts, safeTexts, 0, texts.length, entryPoint, field);
+            return safeTexts;
         }
-        return safeText;
+
+        final int taskSize = Math.max(MIN_BATCH_TASK_SIZE, texts.length / (forkJoinPool.getParallelism() * 4));
+        final BatchFailure failure = new BatchFailure();
+        forkJoinPool.invoke(new BatchTask(this, texts, safeTexts, 0, texts.length, taskSize, entryPoint, field,
+                RequestContextHolder.getRequestAttributes(), failure));
+        if (failure.exception != null) {
+            throw failure.exception;
+        }
+        return safeTexts;
     }
 
     /**
-     * Check if the input text is xss-safe, an exception will be thrown if the answer is false.
+     * Process all the input texts of a batch.
      *
-     * @param text The actual input text
+     * @return A new list of the safe texts without XSS risk, in the same order
+     * @see #defendAll(String[], DefenseEntryPoint, String)
+     */
+    public List<String> defendAll(List<String> texts, DefenseEntryPoint entryPoint, String field) {
+        return new ArrayList<>(Arrays.asList(this.defendAll(texts.toArray(new String[0]), entryPoint, field)));
+    }
+
+    /**
+     * Process all the values of a map, the keys are kept as they are.
+     *
+     * @return A new map of the safe values without XSS risk, in the iteration order of the input map
+     * @see #defendAll(String[], DefenseEntryPoint, String)
+     */
+    public <K> Map<K, String> defendAll(Map<K, String> texts, DefenseEntryPoint entryPoint, String field) {
+        final String[] safeTexts = this.defendAll(texts.values().toArray(new String[0]), entryPoint, field);
+        final Map<K, String> safeMap = new LinkedHashMap<>((int) (texts.size() / 0.75f) + 1);
+        int i = 0;
+        for (K key : texts.keySet()) {
+            safeMap.put(key, safeTexts[i++]);
+        }
+        return safeMap;
+    }
+
+    /**
+     * Process a segment of a long input text, the leading and trailing whitespace has been trimmed,
+     * and the maximum length has been checked against the whole input text.
+     *
+     * @param escapeOnly Whether the segment is escaped without going through the sanitizer
+     * @see XssDefendingReader
+     */
+    String defendSegment(String segment, boolean escapeOnly, DefenseEntryPoint entryPoint, String field) {
+        metrics.recordInspected(entryPoint, segment.length());
+        if (escapeOnly) {
+            return this.sanitize(ESCAPE_ONLY_SANITIZER, segment, entryPoint, field);
+        }
+        if (skipPlainText && XssPreScanner.isPlainText(segment) && !(canonicalizing && XssCanonicalizer.containsEscapeMarker(segment))) {
+            metrics.recordFastPath(entryPoint);
+            return segment;
+        }
+        return this.guardAndSanitize(segment, entryPoint, field);
+    }
+
+    /**
+     * Check the maximum length of the {@link XssInputGuard} against the length of a whole input text read so far.
+     *
+     * @return {@link XssInputGuard#PASS}, {@link XssInputGuard#ESCAPE_ONLY}, or the length to cut the input text at
+     */
+    int checkLength(long length, DefenseEntryPoint entryPoint, String field) {
+        return inputGuard == null ? XssInputGuard.PASS : this.checkLength((int) Math.min(length, Integer.MAX_VALUE), entryPoint, field);
+    }
+
+    boolean parsesMarkup() {
+        return parsesMarkup;
+    }
+
+    /**
+     * The budget of the request depends on the order of the values, so a batch is never split while it's enforced.
+     */
+    private boolean isParallel(int size) {
+        return forkJoinPool != null && parallelThreshold > 0 && size >= parallelThreshold
+                && (inputGuard == null || !inputGuard.isRequestBudgetEnforced());
+    }
+
+    private void defendRange(String[] texts, String[] safeTexts, int from, int to, DefenseEntryPoint entryPoint, String field) {
+        for (int i = from; i < to; i++) {
+            safeTexts[i] = texts[i] == null ? null : this.defend(texts[i], entryPoint, field);
+        }
+    }
+
+    /**
+     * A helper method of {@link #defend(String, DefenseEntryPoint, String)}
+     */
+    private String doDefend(String text, DefenseEntryPoint entryPoint, String field) {
+        // Trim leading and trailing whitespace.
+        text = StringUtils.trimWhitespace(text);
+        metrics.recordInspected(entryPoint, text.length());
+
+        if (inputGuard != null) {
+            final int verdict = this.checkLength(text.length(), entryPoint, field);
+            if (verdict == XssInputGuard.ESCAPE_ONLY) {
+                return this.sanitize(ESCAPE_ONLY_SANITIZER, text, entryPoint, field);
+            }
+            if (verdict != XssInputGuard.PASS) {
+                text = truncate(text, verdict);
+            }
+        }
+
+        // Plain text is returned as it is by all the built-in strategies, so there is no need to go through jsoup.
+        if (skipPlainText && XssPreScanner.isPlainText(text) && !(canonicalizing && XssCanonicalizer.containsEscapeMarker(text))) {
+            metrics.recordFastPath(entryPoint);
+            return text;
+        }
+
+        return this.guardAndSanitize(text, entryPoint, field);
+    }
+
+    /**
+     * Check the tags and the budget of the request before the input text is handed over to the sanitizer.
+     */
+    private String guardAndSanitize(String text, DefenseEntryPoint entryPoint, String field) {
+        if (earlyRejection) {
+            this.checkRejected();
+        }
+        if (inputGuard != null) {
+            final int verdict;
+            try {
+                verdict = inputGuard.checkMarkup(text, rejectsRisk);
+            } catch (XssRiskDetectedException e) {
+                throw this.reject(e, entryPoint, field);
+            }
+            if (verdict == XssInputGuard.ESCAPE_ONLY) {
+                return this.sanitize(ESCAPE_ONLY_SANITIZER, text, entryPoint, field);
+            }
+            if (verdict != XssInputGuard.PASS) {
+                text = truncate(text, verdict);
+            }
+        }
+        return this.sanitize(sanitizer, text, entryPoint, field);
+    }
+
+    private int checkLength(int length, DefenseEntryPoint entryPoint, String field) {
+        try {
+            return inputGuard.checkLength(length, rejectsRisk);
+        } catch (XssRiskDetectedException e) {
+            throw this.reject(e, entryPoint, field);
+        }
+    }
+
+    /**
+     * Throw the first rejection of the current request again, the rest of a rejected request is never sanitized.
+     */
+    private void checkRejected() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        final Object rejection = attributes == null ? null : attributes.getAttribute(REJECTION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (rejection != null) {
+            throw (XssRequestRejectedException) rejection;
+        }
+    }
+
+    /**
+     * Turn the rejected input text into the rejection of the whole request if the early rejection is enabled.
+     *
+     * @return The exception to throw
+     */
+    private RuntimeException reject(XssRiskDetectedException e, DefenseEntryPoint entryPoint, String field) {
+        if (!earlyRejection) {
+            return e;
+        }
+        final XssRequestRejectedException rejection = new XssRequestRejectedException(entryPoint, field, e, stackTraceEnabled);
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REJECTION_ATTRIBUTE, rejection, RequestAttributes.SCOPE_REQUEST);
+        }
+        return rejection;
+    }
+
+    /**
+     * Cut the text at the given length, without splitting a surrogate pair.
+     */
+    private static String truncate(String text, int length) {
+        return length == 0 ? EMPTY_STRING : text.substring(0, truncatedLength(text.charAt(length - 1), length));
+    }
+
+    private static int truncatedLength(char lastChar, int length) {
+        return Character.isHighSurrogate(lastChar) ? length - 1 : length;
+    }
+
+    /**
+     * Run the sanitizer, record the elapsed time if the metrics are enabled, publish the modified or rejected input text
+     * if the audit is enabled, and offer the input text to the shadow evaluation if it's enabled.
+     */
+    private String sanitize(XssSanitizer sanitizer, String text, DefenseEntryPoint entryPoint, String field) {
+        if (!observed) {
+            try {
+                return this.sanitize(sanitizer, text);
+            } catch (XssRiskDetectedException e) {
+                throw this.reject(e, entryPoint, field);
+            }
+        }
+
+        final long start = timed ? System.nanoTime() : 0L;
+        try {
+            final String safeText = this.sanitize(sanitizer, text);
+            final boolean modified = !safeText.equals(text);
+            if (timed) {
+                metrics.recordSanitized(entryPoint, System.nanoTime() - start, modified);
+            }
+            if (modified) {
+                detectionPublisher.publish(entryPoint, field, text, safeText);
+            }
+            this.shadow(sanitizer, entryPoint, field, text, safeText);
+            return safeText;
+        } catch (XssRiskDetectedException e) {
+            if (timed) {
+                metrics.recordRejected(entryPoint, System.nanoTime() - start);
+            }
+            detectionPublisher.publish(entryPoint, field, text, null);
+            this.shadow(sanitizer, entryPoint, field, text, null);
+            throw this.reject(e, entryPoint, field);
+        }
+    }
+
+    /**
+     * The text escaped by the {@link XssInputGuard} is never evaluated, the candidate policy shares the same limits.
+     */
+    private void shadow(XssSanitizer sanitizer, DefenseEntryPoint entryPoint, String field, String text, String safeText) {
+        if (shadowEvaluator != null && sanitizer != ESCAPE_ONLY_SANITIZER) {
+            shadowEvaluator.offer(entryPoint, field, text, safeText);
+        }
+    }
+
+    /**
+     * Run the sanitizer, through the cache if it's enabled.
+     */
+    private String sanitize(XssSanitizer sanitizer, String text) {
+        return cache == null || sanitizer == ESCAPE_ONLY_SANITIZER ? sanitizer.sanitize(text) : cache.get(text, sanitizer);
+    }
+
+    /**
+     * The first rejected element of a parallel batch, by the index.
+     */
+    private static final class BatchFailure {
+
+        private int index = Integer.MAX_VALUE;
+
+        private RuntimeException exception;
+
+        synchronized void record(int index, RuntimeException exception) {
+            if (index < this.index) {
+                this.index = index;
+                this.exception = exception;
+            }
+        }
+
+        synchronized boolean precedes(int index) {
+            return this.index < index;
+        }
+
+    }
+
+    /**
+     * A range of a parallel batch, it's split in halves until it's small enough. The request of the caller is bound
+     * to the worker thread while the range is processed, so that the audit knows the controller method.
      */
-    private void checkAndThrow(String text) {
-        final boolean isValidText = Jsoup.isValid(text, Safelist.basic());
+    private static final class BatchTask extends RecursiveAction {
+
+        private final XssDefender xssDefender;
+
+        private final String[] texts;
+
+        private final String[] safeTexts;
 
-        if (isValidText && logger.isDebugEnabled()) {
-            logger.debug("Checking XSS risk, the input text is safe: {}", text);
+        private final int from;
+
+        private final int to;
+
+        private final int taskSize;
+
+        private final DefenseEntryPoint entryPoint;
+
+        private final String field;
+
+        private final RequestAttributes requestAttributes;
+
+        private final BatchFailure failure;
+
+        BatchTask(XssDefender xssDefender, String[] texts, String[] safeTexts, int from, int to, int taskSize,
+                  DefenseEntryPoint entryPoint, String field, RequestAttributes requestAttributes, BatchFailure failure) {
+            this.xssDefender = xssDefender;
+            this.texts = texts;
+            this.safeTexts = safeTexts;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+            this.entryPoint = entryPoint;
+            this.field = field;
+            this.requestAttributes = requestAttributes;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > taskSize) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(this.subtask(from, middle), this.subtask(middle, to));
+                return;
+            }
+            // The elements after a rejected one don't matter.
+            if (failure.precedes(from)) {
+                return;
+            }
+
+            final RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            int index = from;
+            try {
+                for (; index < to; index++) {
+                    safeTexts[index] = texts[index] == null ? null : xssDefender.defend(texts[index], entryPoint, field);
+                }
+            } catch (RuntimeException e) {
+                failure.record(index, e);
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
         }
 
-        if (!isValidText) {
-            throw new XssRiskDetectedException(text);
+        private BatchTask subtask(int from, int to) {
+            return new BatchTask(xssDefender, texts, safeTexts, from, to, taskSize, entryPoint, field, requestAttributes, failure);
         }
+
+    }
+
+    /**
+     * The builder of {@link XssDefender}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private final XssSanitizer sanitizer;
+
+        private XssSanitizationCache cache;
+
+        private XssDefenderMetrics metrics = XssDefenderMetrics.NONE;
+
+        private XssDetectionPublisher detectionPublisher = XssDetectionPublisher.NONE;
+
+        private XssInputGuard inputGuard;
+
+        private ForkJoinPool forkJoinPool;
+
+        private int parallelThreshold;
+
+        private XssShadowEvaluator shadowEvaluator;
+
+        private XssCanonicalizer canonicalizer;
+
+        private boolean earlyRejection;
+
+        private boolean stackTraceEnabled = true;
+
+        private Builder(XssSanitizer sanitizer) {
+            Assert.notNull(sanitizer, "XssSanitizer must not be null");
+            this.sanitizer = sanitizer;
+        }
+
+        /**
+         * Put a cache in front of the sanitizer.
+         *
+         * @param cache The cache of sanitization results, nullable
+         */
+        public Builder cache(XssSanitizationCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Record the metrics.
+         *
+         * @param metrics The metrics recorder, nullable
+         */
+        public Builder metrics(XssDefenderMetrics metrics) {
+            this.metrics = metrics == null ? XssDefenderMetrics.NONE : metrics;
+            return this;
+        }
+
+        /**
+         * Publish the modified or rejected input text.
+         *
+         * @param detectionPublisher The publisher of detection events, nullable
+         */
+        public Builder detectionPublisher(XssDetectionPublisher detectionPublisher) {
+            this.detectionPublisher = detectionPublisher == null ? XssDetectionPublisher.NONE : detectionPublisher;
+            return this;
+        }
+
+        /**
+         * Check the limits of the input text before the sanitizer.
+         *
+         * @param inputGuard The limits of the input text, nullable
+         */
+        public Builder inputGuard(XssInputGuard inputGuard) {
+            this.inputGuard = inputGuard;
+            return this;
+        }
+
+        /**
+         * Sanitize the large batches in parallel.
+         *
+         * @param forkJoinPool      The pool to split the large batches across, nullable
+         * @param parallelThreshold The batches of at least this many values are sanitized in parallel, never if it's not positive
+         * @see XssDefender#defendAll(String[], DefenseEntryPoint, String)
+         */
+        public Builder bulk(ForkJoinPool forkJoinPool, int parallelThreshold) {
+            this.forkJoinPool = forkJoinPool;
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Offer a sample of the sanitized input texts to the shadow evaluation of a candidate policy.
+         *
+         * @param shadowEvaluator The shadow evaluation, nullable
+         */
+        public Builder shadowEvaluator(XssShadowEvaluator shadowEvaluator) {
+            this.shadowEvaluator = shadowEvaluator;
+            return this;
+        }
+
+        /**
+         * Decode the nested encodings before a sanitizer which rejects the risky text, the canonical form is checked only if
+         * the decoding reveals markup, and the input text is returned intact. It's ignored by the sanitizer which rewrites
+         * the risky text, since its result of the input text is safe as it is.
+         *
+         * @param canonicalizer The canonicalizer of the input text, nullable
+         * @see XssCanonicalizer#canonicalizeIfRisky(String)
+         */
+        public Builder canonicalizer(XssCanonicalizer canonicalizer) {
+            this.canonicalizer = canonicalizer;
+            return this;
+        }
+
+        /**
+         * Reject the whole request at the first rejected input text, by an {@link XssRequestRejectedException}
+         * which aborts the parsing and the binding of the request, the rest of the request is rejected at once.
+         *
+         * @param earlyRejection    Whether the first rejected input text rejects the whole request
+         * @param stackTraceEnabled Whether the {@link XssRequestRejectedException} fills in its stack trace
+         */
+        public Builder earlyRejection(boolean earlyRejection, boolean stackTraceEnabled) {
+            this.earlyRejection = earlyRejection;
+            this.stackTraceEnabled = stackTraceEnabled;
+            return this;
+        }
+
+        public XssDefender build() {
+            return new XssDefender(this);
+        }
+
     }
 
 }
@@ -0,0 +1,733 @@
+package org.springframework.boot.xss.defender;
+
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A reader of the safe text of a long input text, for example, a request body, which is read from the source reader
+ * and sanitized in segments of at most a fixed count of characters, so that the memory stays the same whatever the size
+ * of the input text.
+ * <p>
+ * A single-pass scanner, an approximation of the html tokenizer, follows the whole input text and carries its state across
+ * the segments. A segment preferably ends where no element is open, otherwise at a whitespace or a tag outside any tag,
+ * comment or raw text. If the sanitizer parses the markup, the next segment starts with the open tags, and if a single
+ * tag, comment or raw text is longer than a segment, with the tag, the attribute or the comment opener as well, so that
+ * every segment is sanitized in the same context as the whole input text would be. An element split by a segment end is
+ * closed by the sanitizer and opened again by the next segment, so the safe text keeps the content of the whole input text,
+ * but not always its structure. A segment of a sanitizer which returns the input text as it is, for example,
+ * the {@code THROW} strategy, is written without the carried tags.
+ * <p>
+ * The segments are sanitized by {@link XssDefender} one by one, the maximum length of {@link XssInputGuard} applies to
+ * the whole input text, and the other limits to every segment. Like any reader, it's not thread-safe.
+ *
+ * @author codeboyzhou
+ * @see XssDefender#defend(Reader, int, DefenseEntryPoint, String)
+ * @since 1.0.0
+ */
+final class XssDefendingReader extends Reader {
+
+    /**
+     * The maximum count of open elements carried over to the next segment, the deeper ones are only counted.
+     */
+    private static final int MAX_CARRIED_DEPTH = 16;
+
+    /**
+     * The maximum length of a start tag carried as it is, a longer one is carried without the attributes.
+     */
+    private static final int MAX_CARRIED_TAG_LENGTH = 256;
+
+    /**
+     * The maximum length of a tag name or an attribute name kept by the scanner.
+     */
+    private static final int MAX_NAME_LENGTH = 32;
+
+    /**
+     * The maximum length of the carried prefix of a segment.
+     */
+    private static final int MAX_PREFIX_LENGTH = MAX_CARRIED_DEPTH * MAX_CARRIED_TAG_LENGTH + 2 * MAX_NAME_LENGTH + 8;
+
+    private static final Set<String> VOID_TAGS = setOf("area", "base", "br", "col", "embed", "hr", "img", "input",
+            "keygen", "link", "meta", "param", "source", "track", "wbr");
+
+    /**
+     * The tags whose content is raw text or escapable raw text rather than markup.
+     */
+    private static final Set<String> RAW_TEXT_TAGS = setOf("iframe", "noembed", "noframes", "plaintext", "script", "style",
+            "textarea", "title", "xmp");
+
+    /**
+     * The tags which close an open element of the same name, for example, a paragraph starts after another one.
+     */
+    private static final Set<String> SIBLING_TAGS = setOf("dd", "dt", "li", "option", "p", "td", "th", "tr");
+
+    private static final int DATA = 0;
+
+    private static final int TAG_OPEN = 1;
+
+    private static final int TAG_NAME = 2;
+
+    private static final int END_TAG_OPEN = 3;
+
+    private static final int ATTRIBUTE_NAME = 4;
+
+    private static final int ATTRIBUTE_VALUE_START = 5;
+
+    private static final int UNQUOTED_VALUE = 6;
+
+    private static final int QUOTED_VALUE = 7;
+
+    private static final int MARKUP_DECLARATION = 8;
+
+    private static final int COMMENT = 9;
+
+    private static final int BOGUS_COMMENT = 10;
+
+    private static final int RAW_TEXT = 11;
+
+    private final XssDefender xssDefender;
+
+    private final Reader source;
+
+    private final int chunkSize;
+
+    private final DefenseEntryPoint entryPoint;
+
+    private final String field;
+
+    /**
+     * Whether the sanitizer parses the markup, otherwise the segments are independent of each other.
+     */
+    private final boolean carriesTags;
+
+    /**
+     * The carried prefix of the current segment, followed by the characters read from the source.
+     */
+    private final char[] buffer;
+
+    private int prefixLength;
+
+    private int count;
+
+    private boolean endOfInput;
+
+    /**
+     * The last position to end the segment at where no element is open, or {@code -1}.
+     */
+    private int topLevelCut = -1;
+
+    /**
+     * The last position to end the segment at outside any tag, comment or raw text, or {@code -1}.
+     */
+    private int dataCut = -1;
+
+    /**
+     * The open elements at the {@link #dataCut}.
+     */
+    private OpenElement dataCutElements;
+
+    /**
+     * The count of characters read from the source so far.
+     */
+    private long consumed;
+
+    /**
+     * Whether the rest of the input text is escaped without going through the sanitizer.
+     */
+    private boolean escapeOnly;
+
+    /**
+     * Whether the previous segment is written as it is, so that its open elements are not closed.
+     */
+    private boolean previousUnchanged;
+
+    /**
+     * Whether any segment has been written, the leading whitespace of the input text is skipped.
+     */
+    private boolean started;
+
+    /**
+     * The whitespace after the last segment, it's written only if another segment follows, like a trimmed text.
+     */
+    private final StringBuilder heldWhitespace = new StringBuilder();
+
+    private String output = XssDefender.EMPTY_STRING;
+
+    private int outputPosition;
+
+    private boolean finished;
+
+    // The state of the scanner.
+
+    private int state = DATA;
+
+    private OpenElement openElements;
+
+    /**
+     * The count of the open elements beyond {@link #MAX_CARRIED_DEPTH}.
+     */
+    private int uncarriedDepth;
+
+    private final StringBuilder tagName = new StringBuilder(MAX_NAME_LENGTH);
+
+    private final StringBuilder attributeName = new StringBuilder(MAX_NAME_LENGTH);
+
+    /**
+     * The source text of the current start tag, up to {@link #MAX_CARRIED_TAG_LENGTH}.
+     */
+    private final StringBuilder tagText = new StringBuilder(MAX_CARRIED_TAG_LENGTH);
+
+    private boolean endTag;
+
+    /**
+     * Whether the attribute name is finished by a whitespace or a slash, the next name character starts another attribute.
+     */
+    private boolean attributeNameFinished;
+
+    /**
+     * The last two characters of the current tag, a start tag is self-closing if it ends with a slash.
+     */
+    private char lastTagChar;
+
+    private char previousTagChar;
+
+    private char quote;
+
+    /**
+     * The count of the consecutive dashes of a comment, or of the markup declaration.
+     */
+    private int dashes;
+
+    private boolean commentBang;
+
+    private int commentLength;
+
+    /**
+     * The element of the raw text, and how many characters of its end tag are matched.
+     */
+    private String rawTextTag;
+
+    private int rawTextMatch;
+
+    XssDefendingReader(XssDefender xssDefender, Reader source, int chunkSize, DefenseEntryPoint entryPoint, String field) {
+        this.xssDefender = xssDefender;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.entryPoint = entryPoint;
+        this.field = field;
+        this.carriesTags = xssDefender.parsesMarkup();
+        this.buffer = new char[chunkSize + MAX_PREFIX_LENGTH];
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (outputPosition == output.length()) {
+            if (finished) {
+                return -1;
+            }
+            this.nextSegment();
+        }
+        final int n = Math.min(length, output.length() - outputPosition);
+        output.getChars(outputPosition, outputPosition + n, chars, offset);
+        outputPosition += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        output = XssDefender.EMPTY_STRING;
+        outputPosition = 0;
+        source.close();
+    }
+
+    /**
+     * Read the source until the buffer is full, and sanitize the next segment.
+     */
+    private void nextSegment() throws IOException {
+        final int limit = prefixLength + chunkSize;
+        while (count < limit && !endOfInput) {
+            final int n = source.read(buffer, count, limit - count);
+            if (n < 0) {
+                endOfInput = true;
+            } else {
+                this.scan(count, count + n);
+                count += n;
+            }
+        }
+        if (count == prefixLength) {
+            finished = true;
+            return;
+        }
+
+        int cut;
+        String nextPrefix = XssDefender.EMPTY_STRING;
+        if (endOfInput) {
+            cut = count;
+        } else if (topLevelCut > prefixLength) {
+            cut = topLevelCut;
+        } else if (dataCut > prefixLength) {
+            cut = dataCut;
+            nextPrefix = carriedTags(dataCutElements);
+        } else {
+            cut = this.forcedCut();
+            nextPrefix = carriedTags(openElements) + this.carriedState();
+        }
+
+        final long before = consumed;
+        consumed += cut - prefixLength;
+        if (!escapeOnly) {
+            final int verdict = xssDefender.checkLength(consumed, entryPoint, field);
+            if (verdict == XssInputGuard.ESCAPE_ONLY) {
+                escapeOnly = true;
+            } else if (verdict != XssInputGuard.PASS) {
+                // The text beyond the limit is never read.
+                cut = (int) Math.max(prefixLength, prefixLength + verdict - before);
+                if (cut > prefixLength && Character.isHighSurrogate(buffer[cut - 1])) {
+                    cut--;
+                }
+                finished = true;
+            }
+        }
+
+        this.emit(cut);
+        if (!finished) {
+            this.compact(cut, carriesTags ? nextPrefix : XssDefender.EMPTY_STRING);
+        }
+    }
+
+    /**
+     * The position to end a segment at, if there is no better one, the incomplete end of a comment or a raw text
+     * and a high surrogate are left to the next segment.
+     */
+    private int forcedCut() {
+        int cut = count;
+        if (state == COMMENT) {
+            cut -= commentBang ? dashes + 1 : dashes;
+        } else if (state == RAW_TEXT) {
+            cut -= rawTextMatch;
+        }
+        cut = Math.max(cut, prefixLength + 1);
+        return Character.isHighSurrogate(buffer[cut - 1]) && cut - 1 > prefixLength ? cut - 1 : cut;
+    }
+
+    /**
+     * Sanitize the segment before the cut, the whitespace around it is kept unless it's around the whole input text.
+     */
+    private void emit(int cut) {
+        int begin = prefixLength;
+        int end = cut;
+        if (prefixLength == 0) {
+            while (begin < end && Character.isWhitespace(buffer[begin])) {
+                begin++;
+            }
+            if (started) {
+                heldWhitespace.append(buffer, 0, begin);
+            }
+        }
+        while (end > begin && Character.isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        if (begin < end) {
+            final String segment = prefixLength == 0 ? new String(buffer, begin, end - begin)
+                    : new String(buffer, 0, prefixLength) + new String(buffer, begin, end - begin);
+            final String safeSegment = xssDefender.defendSegment(segment, escapeOnly, entryPoint, field);
+            final boolean unchanged = safeSegment.equals(segment);
+            if (!safeSegment.isEmpty()) {
+                builder.append(heldWhitespace);
+                heldWhitespace.setLength(0);
+                // The open elements of the previous segment are closed by this one.
+                builder.append(unchanged && previousUnchanged ? safeSegment.substring(prefixLength) : safeSegment);
+                started = true;
+            }
+            previousUnchanged = unchanged;
+        }
+
+        if (started) {
+            heldWhitespace.append(buffer, end, cut - end);
+            // The whitespace is bounded as well, so it's written if there is too much of it.
+            if (heldWhitespace.length() > chunkSize) {
+                builder.append(heldWhitespace);
+                heldWhitespace.setLength(0);
+            }
+        }
+        output = builder.toString();
+        outputPosition = 0;
+    }
+
+    /**
+     * Move the rest of the buffer after the prefix of the next segment.
+     */
+    private void compact(int cut, String nextPrefix) {
+        final int rest = count - cut;
+        final int nextPrefixLength = nextPrefix.length();
+        System.arraycopy(buffer, cut, buffer, nextPrefixLength, rest);
+        nextPrefix.getChars(0, nextPrefixLength, buffer, 0);
+        final int shift = nextPrefixLength - cut;
+        topLevelCut = topLevelCut > cut ? topLevelCut + shift : -1;
+        if (dataCut > cut) {
+            dataCut += shift;
+        } else {
+            dataCut = -1;
+            dataCutElements = null;
+        }
+        prefixLength = nextPrefixLength;
+        count = nextPrefixLength + rest;
+    }
+
+    /**
+     * The start tags of the open elements, from the outermost one.
+     */
+    private static String carriedTags(OpenElement elements) {
+        if (elements == null) {
+            return XssDefender.EMPTY_STRING;
+        }
+        final String[] tags = new String[elements.depth];
+        for (OpenElement element = elements; element != null; element = element.parent) {
+            tags[element.depth - 1] = element.startTag;
+        }
+        return String.join(XssDefender.EMPTY_STRING, tags);
+    }
+
+    /**
+     * The opener of the tag, the comment or the raw text which is not finished at the end of the segment.
+     */
+    private String carriedState() {
+        switch (state) {
+            case TAG_OPEN:
+                return "<";
+            case END_TAG_OPEN:
+                return "</";
+            case TAG_NAME:
+                return (endTag ? "</" : "<") + tagName;
+            case ATTRIBUTE_NAME:
+                return this.openedTag() + attributeName;
+            case ATTRIBUTE_VALUE_START:
+            case UNQUOTED_VALUE:
+                return this.openedTag() + this.carriedAttributeName() + '=';
+            case QUOTED_VALUE:
+                return this.openedTag() + this.carriedAttributeName() + '=' + quote;
+            case MARKUP_DECLARATION:
+            case BOGUS_COMMENT:
+                return "<!";
+            case COMMENT:
+                return "<!--";
+            case RAW_TEXT:
+                return '<' + rawTextTag + '>';
+            default:
+                return XssDefender.EMPTY_STRING;
+        }
+    }
+
+    private String openedTag() {
+        return (endTag ? "</" : "<") + tagName + ' ';
+    }
+
+    private String carriedAttributeName() {
+        return attributeName.length() == 0 ? "x" : attributeName.toString();
+    }
+
+    /**
+     * Follow the characters of the buffer, and record the positions to end a segment at.
+     */
+    private void scan(int from, int to) {
+        for (int i = from; i < to; i++) {
+            final char c = buffer[i];
+            if (state == DATA && (c == '<' || Character.isWhitespace(c))) {
+                this.recordCut(i);
+            }
+            final int previousState = state;
+            this.scan(c);
+            // Right after an end tag or a comment, so that the end tag stays in the segment of its element.
+            if (state == DATA && previousState != DATA && (endTag || previousState < TAG_NAME || previousState > QUOTED_VALUE)) {
+                this.recordCut(i + 1);
+            }
+        }
+    }
+
+    private void recordCut(int position) {
+        if (openElements == null && uncarriedDepth == 0) {
+            topLevelCut = position;
+        }
+        dataCut = position;
+        dataCutElements = openElements;
+    }
+
+    private void scan(char c) {
+        switch (state) {
+            case DATA:
+                if (c == '<') {
+                    state = TAG_OPEN;
+                    tagText.setLength(0);
+                    tagText.append(c);
+                }
+                return;
+            case TAG_OPEN:
+                this.tagOpen(c);
+                return;
+            case END_TAG_OPEN:
+                if (isAsciiLetter(c)) {
+                    this.startTagName(c, true);
+                } else {
+                    state = c == '>' ? DATA : BOGUS_COMMENT;
+                }
+                return;
+            case TAG_NAME:
+                this.appendTagText(c);
+                if (c == '>') {
+                    this.finishTag();
+                } else if (c == '/' || Character.isWhitespace(c)) {
+                    this.startAttribute();
+                } else {
+                    appendName(tagName, c);
+                }
+                return;
+            case ATTRIBUTE_NAME:
+                this.attributeName(c);
+                return;
+            case ATTRIBUTE_VALUE_START:
+                this.appendTagText(c);
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                    state = QUOTED_VALUE;
+                } else if (c == '>') {
+                    this.finishTag();
+                } else if (!Character.isWhitespace(c)) {
+                    state = UNQUOTED_VALUE;
+                }
+                return;
+            case UNQUOTED_VALUE:
+                this.appendTagText(c);
+                if (c == '>') {
+                    this.finishTag();
+                } else if (Character.isWhitespace(c)) {
+                    this.startAttribute();
+                }
+                return;
+            case QUOTED_VALUE:
+                this.appendTagText(c);
+                if (c == quote) {
+                    this.startAttribute();
+                }
+                return;
+            case MARKUP_DECLARATION:
+                if (c == '-' && dashes == 0) {
+                    dashes = 1;
+                } else if (c == '-') {
+                    state = COMMENT;
+                    dashes = 0;
+                    commentBang = false;
+                    commentLength = 0;
+                } else {
+                    state = c == '>' ? DATA : BOGUS_COMMENT;
+                }
+                return;
+            case COMMENT:
+                this.comment(c);
+                return;
+            case BOGUS_COMMENT:
+                if (c == '>') {
+                    state = DATA;
+                }
+                return;
+            case RAW_TEXT:
+                this.rawText(c);
+                return;
+            default:
+                throw new IllegalStateException("Unknown scanner state: " + state);
+        }
+    }
+
+    private void tagOpen(char c) {
+        if (isAsciiLetter(c)) {
+            this.startTagName(c, false);
+        } else if (c == '/') {
+            state = END_TAG_OPEN;
+        } else if (c == '!') {
+            state = MARKUP_DECLARATION;
+            dashes = 0;
+        } else if (c == '?') {
+            state = BOGUS_COMMENT;
+        } else {
+            state = DATA;
+            this.scan(c);
+        }
+    }
+
+    private void startTagName(char c, boolean isEndTag) {
+        state = TAG_NAME;
+        endTag = isEndTag;
+        lastTagChar = 0;
+        tagName.setLength(0);
+        appendName(tagName, c);
+        this.appendTagText(c);
+    }
+
+    private void startAttribute() {
+        state = ATTRIBUTE_NAME;
+        attributeName.setLength(0);
+        attributeNameFinished = false;
+    }
+
+    private void attributeName(char c) {
+        this.appendTagText(c);
+        if (c == '>') {
+            this.finishTag();
+        } else if (c == '=' && attributeName.length() > 0) {
+            state = ATTRIBUTE_VALUE_START;
+        } else if (c == '/' || Character.isWhitespace(c)) {
+            // The whitespace before the equals sign is allowed, so the name is kept until another one starts.
+            attributeNameFinished = attributeName.length() > 0;
+        } else {
+            if (attributeNameFinished) {
+                attributeName.setLength(0);
+                attributeNameFinished = false;
+            }
+            appendName(attributeName, c);
+        }
+    }
+
+    private void comment(char c) {
+        if (c == '>' && (commentLength == 0 || commentLength == 1 && dashes == 1 || dashes >= 2)) {
+            state = DATA;
+            return;
+        }
+        commentLength++;
+        if (c == '-') {
+            dashes = commentBang ? 1 : dashes + 1;
+            commentBang = false;
+        } else if (c == '!' && dashes >= 2 && !commentBang) {
+            commentBang = true;
+        } else {
+            dashes = 0;
+            commentBang = false;
+        }
+    }
+
+    private void rawText(char c) {
+        if (rawTextMatch < 2 + rawTextTag.length()) {
+            final char expected = rawTextMatch == 0 ? '<' : rawTextMatch == 1 ? '/' : rawTextTag.charAt(rawTextMatch - 2);
+            if (toLowerCase(c) == expected && !"plaintext".equals(rawTextTag)) {
+                rawTextMatch++;
+            } else {
+                rawTextMatch = c == '<' ? 1 : 0;
+            }
+            return;
+        }
+        if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+            endTag = true;
+            lastTagChar = 0;
+            tagName.setLength(0);
+            tagName.append(rawTextTag);
+            rawTextMatch = 0;
+            if (c == '>') {
+                this.finishTag();
+            } else {
+                this.startAttribute();
+            }
+        } else {
+            rawTextMatch = c == '<' ? 1 : 0;
+        }
+    }
+
+    /**
+     * Update the open elements when a tag is finished.
+     */
+    private void finishTag() {
+        state = DATA;
+        final String name = tagName.toString();
+        if (endTag) {
+            this.closeElement(name);
+            return;
+        }
+        if (RAW_TEXT_TAGS.contains(name)) {
+            state = RAW_TEXT;
+            rawTextTag = name;
+            rawTextMatch = 0;
+            return;
+        }
+        if (VOID_TAGS.contains(name) || previousTagChar == '/') {
+            return;
+        }
+        if (SIBLING_TAGS.contains(name) && openElements != null && uncarriedDepth == 0 && openElements.name.equals(name)) {
+            openElements = openElements.parent;
+        }
+        if (openElements != null && openElements.depth == MAX_CARRIED_DEPTH) {
+            uncarriedDepth++;
+            return;
+        }
+        final String startTag = tagText.length() < MAX_CARRIED_TAG_LENGTH ? tagText.toString() : '<' + name + '>';
+        openElements = new OpenElement(name, startTag, openElements);
+    }
+
+    private void closeElement(String name) {
+        if (uncarriedDepth > 0) {
+            uncarriedDepth--;
+            return;
+        }
+        for (OpenElement element = openElements; element != null; element = element.parent) {
+            if (element.name.equals(name)) {
+                openElements = element.parent;
+                return;
+            }
+        }
+    }
+
+    private void appendTagText(char c) {
+        previousTagChar = lastTagChar;
+        lastTagChar = c;
+        if (tagText.length() < MAX_CARRIED_TAG_LENGTH) {
+            tagText.append(c);
+        }
+    }
+
+    private static void appendName(StringBuilder name, char c) {
+        if (name.length() < MAX_NAME_LENGTH) {
+            name.append(toLowerCase(c));
+        }
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static Set<String> setOf(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    /**
+     * An open element, the open elements are an immutable linked stack, so that the ones at a position are kept for free.
+     */
+    private static final class OpenElement {
+
+        private final String name;
+
+        private final String startTag;
+
+        private final OpenElement parent;
+
+        private final int depth;
+
+        private OpenElement(String name, String startTag, OpenElement parent) {
+            this.name = name;
+            this.startTag = startTag;
+            this.parent = parent;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.springframework.boot.xss.defender;
+
+/**
+ * A single-pass pre-scanner which decides whether an input text is plain text, that means it holds no
+ * markup-significant characters at all, so that the {@link XssDefender} can return it as it is, without
+ * building any DOM or allocating any new string.
+ * <p>
+ * A text is NOT plain text if it contains any of the following characters:
+ * <ul>
+ *     <li>markup characters {@code <}, {@code >}, the entity (encoded form) opener {@code &}, and quotes {@code "}, {@code '}</li>
+ *     <li>control characters, including {@code \t}, {@code \r}, {@code \n}, {@code DEL} and the C1 controls</li>
+ *     <li>the no-break space {@code U+00A0}, which would be written back as {@code &nbsp;}</li>
+ *     <li>two consecutive spaces, which would be collapsed by the html serializer</li>
+ * </ul>
+ * For any plain text, all the defense strategies will produce exactly the same text as the input.
+ *
+ * @author codeboyzhou
+ * @see XssDefender
+ * @since 1.0.0
+ */
+public final class XssPreScanner {
+
+    /**
+     * The upper bound (exclusive) of the character lookup table.
+     */
+    private static final int TABLE_SIZE = 0xA1;
+
+    /**
+     * A lookup table for the markup-significant characters below {@link #TABLE_SIZE}.
+     */
+    private static final boolean[] MARKUP_SIGNIFICANT = new boolean[TABLE_SIZE];
+
+    static {
+        for (char c = 0; c < ' '; c++) {
+            MARKUP_SIGNIFICANT[c] = true;
+        }
+        for (char c = 0x7F; c < TABLE_SIZE; c++) {
+            MARKUP_SIGNIFICANT[c] = true;
+        }
+        MARKUP_SIGNIFICANT['<'] = true;
+        MARKUP_SIGNIFICANT['>'] = true;
+        MARKUP_SIGNIFICANT['&'] = true;
+        MARKUP_SIGNIFICANT['"'] = true;
+        MARKUP_SIGNIFICANT['\''] = true;
+    }
+
+    private XssPreScanner() {
+    }
+
+    /**
+     * Check if the input text is plain text.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return {@code true} if the input text holds no markup-significant characters
+     */
+    public static boolean isPlainText(String text) {
+        char previous = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            final char c = text.charAt(i);
+            if (isMarkupSignificant(c, previous)) {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a range of the character buffer is plain text, without creating any string.
+     *
+     * @param buffer The character buffer, must not be {@code null}
+     * @param offset The start offset of the range
+     * @param length The length of the range
+     * @return {@code true} if the range holds no markup-significant characters
+     */
+    public static boolean isPlainText(char[] buffer, int offset, int length) {
+        char previous = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            final char c = buffer[i];
+            if (isMarkupSignificant(c, previous)) {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    private static boolean isMarkupSignificant(char c, char previous) {
+        return (c < TABLE_SIZE && MARKUP_SIGNIFICANT[c]) || (c == ' ' && previous == ' ');
+    }
+
+}
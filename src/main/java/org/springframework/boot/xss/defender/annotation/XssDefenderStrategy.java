@@ -0,0 +1,37 @@
+package org.springframework.boot.xss.defender.annotation;
+
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicyRegistry;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.annotation.*;
+
+/**
+ * This annotation overrides the configured XSS defense strategy for a controller annotated by {@link Controller}
+ * or {@link RestController}, or for a single controller method. The annotation on the method takes precedence.
+ * <p>
+ * The override is resolved only once at startup, see {@link XssHandlerPolicyRegistry}.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderIgnore
+ * @see XssHandlerPolicyRegistry
+ * @since 1.0.0
+ */
+@Inherited
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface XssDefenderStrategy {
+
+    /**
+     * The XSS defense strategy.
+     */
+    DefenseStrategy value();
+
+    /**
+     * Whether continue to escape the input text after XSS safe trim, default value is {@code false}.
+     */
+    boolean escapeAfterTrim() default false;
+
+}
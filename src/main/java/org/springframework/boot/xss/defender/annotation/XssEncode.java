@@ -0,0 +1,35 @@
+package org.springframework.boot.xss.defender.annotation;
+
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.boot.xss.defender.support.StringXssJsonSerializer;
+import org.springframework.boot.xss.defender.support.XssBeanSerializerModifier;
+
+import java.lang.annotation.*;
+
+/**
+ * This annotation encodes the String values of a JSON response for an output context, so that the text stored
+ * before the XSS defender was adopted is safe to render. It can be used on a field or a getter, a class for all
+ * its String properties, or a package in the {@code package-info.java}, the annotation on the property takes precedence.
+ * <p>
+ * It can also be used on a controller method or a controller class, for all the String values of its JSON responses,
+ * the annotation on a property takes precedence over the controller method.
+ * <p>
+ * It works only if {@code spring.xss-defender.json.output-encoding-enabled} is {@code true}.
+ *
+ * @author codeboyzhou
+ * @see StringXssJsonSerializer
+ * @see XssBeanSerializerModifier
+ * @since 1.0.0
+ */
+@Inherited
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.TYPE, ElementType.PACKAGE})
+public @interface XssEncode {
+
+    /**
+     * The output context, default value is {@code XssEscaper.HTML_BODY}.
+     */
+    XssEscaper value() default XssEscaper.HTML_BODY;
+
+}
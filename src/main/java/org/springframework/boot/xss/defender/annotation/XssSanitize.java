@@ -0,0 +1,78 @@
+package org.springframework.boot.xss.defender.annotation;
+
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.support.XssBeanDeserializerModifier;
+
+import java.lang.annotation.*;
+
+/**
+ * This annotation selects the XSS policy of the String properties of a JSON request body, including the elements of
+ * the {@code String[]} and the collection of String properties. It can be used on a field,
+ * a setter, a creator parameter, a class for all its String properties, or a package in the {@code package-info.java}
+ * as the default of all the classes in it. The annotation on the property takes precedence, then the class, then the package.
+ * <p>
+ * The policies are resolved only once for each type, see {@link XssBeanDeserializerModifier}. A controller method
+ * annotated by {@link XssDefenderIgnore} still ignores all the properties.
+ *
+ * @author codeboyzhou
+ * @see XssBeanDeserializerModifier
+ * @since 1.0.0
+ */
+@Inherited
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE, ElementType.PACKAGE})
+public @interface XssSanitize {
+
+    /**
+     * The XSS policy, default value is {@code Policy.DEFAULT}.
+     */
+    Policy value() default Policy.DEFAULT;
+
+    /**
+     * Whether continue to escape the input text after XSS safe trim, default value is {@code false}.
+     * <p>
+     * NOTICE: It won't be work unless the value of {@link Policy} is {@code TRIM}.
+     */
+    boolean escapeAfterTrim() default false;
+
+    /**
+     * The XSS policy of a property.
+     */
+    enum Policy {
+
+        /**
+         * Follow the configured defense strategy and the controller method, the same as the properties without annotation.
+         */
+        DEFAULT,
+
+        /**
+         * Keep the value as it is, for example, a password, a token or a base64 blob.
+         */
+        NONE,
+
+        /**
+         * @see DefenseStrategy#TRIM
+         */
+        TRIM,
+
+        /**
+         * @see DefenseStrategy#ESCAPE
+         */
+        ESCAPE,
+
+        /**
+         * @see DefenseStrategy#THROW
+         */
+        THROW;
+
+        /**
+         * The defense strategy of the policy, {@code null} for {@link #DEFAULT} and {@link #NONE}.
+         */
+        public DefenseStrategy strategy() {
+            return this == DEFAULT || this == NONE ? null : DefenseStrategy.valueOf(name());
+        }
+
+    }
+
+}
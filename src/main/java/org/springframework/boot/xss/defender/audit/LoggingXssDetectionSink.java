@@ -0,0 +1,36 @@
+package org.springframework.boot.xss.defender.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * A sink which writes the events into the application log at WARN level.
+ *
+ * @author codeboyzhou
+ * @see XssDetectionSink
+ * @since 1.0.0
+ */
+public class LoggingXssDetectionSink implements XssDetectionSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingXssDetectionSink.class);
+
+    @Override
+    public void accept(List<XssDetectionEvent> events) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        for (XssDetectionEvent event : events) {
+            if (event.isRejected()) {
+                logger.warn("XSS risk detected and rejected, strategy: {}, entry point: {}, handler: {}, field: {}, input: {}",
+                        event.getStrategy(), event.getEntryPoint().tagValue(), event.getHandler(), event.getField(), event.getInput());
+            } else {
+                logger.warn("XSS risk detected, strategy: {}, entry point: {}, handler: {}, field: {}, input: {}, output: {}",
+                        event.getStrategy(), event.getEntryPoint().tagValue(), event.getHandler(), event.getField(),
+                        event.getInput(), event.getOutput());
+            }
+        }
+    }
+
+}
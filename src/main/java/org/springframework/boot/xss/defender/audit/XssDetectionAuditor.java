@@ -0,0 +1,388 @@
+package org.springframework.boot.xss.defender.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The asynchronous pipeline of {@link XssDetectionEvent}. The request threads publish the events into a lock-free
+ * ring buffer without blocking, the events are dropped if the buffer is full. A background thread drains the buffer,
+ * samples the events, limits the rate of every handler and field, and delivers them to the {@link XssDetectionSink} in batches.
+ *
+ * @author codeboyzhou
+ * @see XssDetectionPublisher
+ * @since 1.0.0
+ */
+public class XssDetectionAuditor implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssDetectionAuditor.class);
+
+    /**
+     * The request attribute of the matched controller method, the same as {@code HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE},
+     * spring webmvc is not referenced, so that it also works in the reactive web application.
+     */
+    private static final String BEST_MATCHING_HANDLER_ATTRIBUTE = "org.springframework.web.servlet.HandlerMapping.bestMatchingHandler";
+
+    /**
+     * The rate limiting window.
+     */
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final XssDetectionRingBuffer<XssDetectionEvent> buffer;
+
+    private final List<XssDetectionSink> sinks;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final double sampleRate;
+
+    private final int maxEventsPerKeyPerSecond;
+
+    private final int maxInputLength;
+
+    /**
+     * The rate limiting windows by key, in access order, it's only accessed by the background thread.
+     */
+    private final Map<String, Window> windows;
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile long sampledOut;
+
+    private volatile long rateLimited;
+
+    private volatile long delivered;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    private XssDetectionAuditor(Builder builder) {
+        this.buffer = new XssDetectionRingBuffer<>(builder.bufferSize);
+        this.sinks = Collections.unmodifiableList(new ArrayList<>(builder.sinks));
+        this.batchSize = builder.batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.flushIntervalMillis);
+        this.sampleRate = builder.sampleRate;
+        this.maxEventsPerKeyPerSecond = builder.maxEventsPerKeyPerSecond;
+        this.maxInputLength = builder.maxInputLength;
+        final int maxKeys = builder.maxKeys;
+        this.windows = new LinkedHashMap<String, Window>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Return a publisher for the given defense strategy.
+     *
+     * @param strategy The description of the defense strategy
+     */
+    public XssDetectionPublisher publisher(String strategy) {
+        return new Publisher(strategy);
+    }
+
+    /**
+     * Start the background thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::drain, "xss-detection-auditor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the background thread after the published events are delivered.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hand an event over to the background thread, it never blocks.
+     *
+     * @return {@code false} if the event is dropped because the buffer is full
+     */
+    public boolean offer(XssDetectionEvent event) {
+        if (buffer.offer(event)) {
+            published.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long sampledOutCount() {
+        return sampledOut;
+    }
+
+    public long rateLimitedCount() {
+        return rateLimited;
+    }
+
+    public long deliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * The loop of the background thread.
+     */
+    private void drain() {
+        final List<XssDetectionEvent> batch = new ArrayList<>(batchSize);
+        final List<XssDetectionEvent> unmodifiableBatch = Collections.unmodifiableList(batch);
+        boolean stopping = false;
+        while (true) {
+            int drained = 0;
+            XssDetectionEvent event;
+            while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+                drained++;
+                if (this.admit(event)) {
+                    batch.add(event);
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.deliver(unmodifiableBatch);
+                batch.clear();
+            }
+            if (drained == 0) {
+                if (stopping) {
+                    return;
+                }
+                // Drain once more after the stop signal, so that the events published before are not lost.
+                stopping = !running;
+                if (!stopping) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sample the event and limit the rate of its key.
+     */
+    private boolean admit(XssDetectionEvent event) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut++;
+            return false;
+        }
+        if (maxEventsPerKeyPerSecond > 0) {
+            final String key = event.getStrategy() + '|' + event.getEntryPoint() + '|' + event.getHandler() + '|' + event.getField();
+            final long now = System.nanoTime();
+            Window window = windows.get(key);
+            if (window == null) {
+                window = new Window(now);
+                windows.put(key, window);
+            } else if (now - window.start >= WINDOW_NANOS) {
+                window.start = now;
+                window.count = 0;
+            }
+            if (++window.count > maxEventsPerKeyPerSecond) {
+                rateLimited++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void deliver(List<XssDetectionEvent> batch) {
+        for (XssDetectionSink sink : sinks) {
+            try {
+                sink.accept(batch);
+            } catch (RuntimeException e) {
+                logger.error("Failed to deliver XSS detection events to the sink: {}", sink, e);
+            }
+        }
+        delivered += batch.size();
+    }
+
+    private String truncate(String text) {
+        return text == null || text.length() <= maxInputLength ? text : text.substring(0, maxInputLength);
+    }
+
+    /**
+     * The rate limiting window of a key.
+     */
+    private static final class Window {
+
+        private long start;
+
+        private int count;
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+    }
+
+    /**
+     * The publisher which stamps the defense strategy and the controller method.
+     */
+    private final class Publisher implements XssDetectionPublisher {
+
+        private final String strategy;
+
+        private Publisher(String strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public XssDetectionPublisher withStrategy(String strategy) {
+            return Objects.equals(this.strategy, strategy) ? this : new Publisher(strategy);
+        }
+
+        @Override
+        public void publish(DefenseEntryPoint entryPoint, String field, String input, String output) {
+            final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            final Object handler = attributes == null ? null : attributes.getAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            offer(new XssDetectionEvent(System.currentTimeMillis(), strategy, entryPoint, handler, field,
+                    truncate(input), input.length(), truncate(output)));
+        }
+
+    }
+
+    /**
+     * The builder of {@link XssDetectionAuditor}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private final List<XssDetectionSink> sinks = new ArrayList<>();
+
+        private int bufferSize = 8192;
+
+        private int batchSize = 256;
+
+        private long flushIntervalMillis = 100;
+
+        private double sampleRate = 1.0;
+
+        private int maxEventsPerKeyPerSecond = 10;
+
+        private int maxKeys = 1024;
+
+        private int maxInputLength = 256;
+
+        private Builder() {
+        }
+
+        public Builder sink(XssDetectionSink sink) {
+            Assert.notNull(sink, "XssDetectionSink must not be null");
+            this.sinks.add(sink);
+            return this;
+        }
+
+        /**
+         * @param bufferSize The capacity of the ring buffer, rounded up to the next power of two
+         */
+        public Builder bufferSize(int bufferSize) {
+            Assert.isTrue(bufferSize > 0, "bufferSize must be positive");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param batchSize The maximum count of events delivered to the sinks at once
+         */
+        public Builder batchSize(int batchSize) {
+            Assert.isTrue(batchSize > 0, "batchSize must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param flushIntervalMillis How long the background thread sleeps when the buffer is empty
+         */
+        public Builder flushIntervalMillis(long flushIntervalMillis) {
+            Assert.isTrue(flushIntervalMillis > 0, "flushIntervalMillis must be positive");
+            this.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        /**
+         * @param sampleRate The ratio of events to keep, from {@code 0.0} to {@code 1.0}
+         */
+        public Builder sampleRate(double sampleRate) {
+            Assert.isTrue(sampleRate >= 0.0 && sampleRate <= 1.0, "sampleRate must be between 0.0 and 1.0");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param maxEventsPerKeyPerSecond The maximum count of events per second for the same strategy, entry point,
+         *                                 handler and field, no limit if it's not positive
+         */
+        public Builder maxEventsPerKeyPerSecond(int maxEventsPerKeyPerSecond) {
+            this.maxEventsPerKeyPerSecond = maxEventsPerKeyPerSecond;
+            return this;
+        }
+
+        /**
+         * @param maxKeys The maximum count of keys tracked by the rate limiter, the least recently used ones are forgotten
+         */
+        public Builder maxKeys(int maxKeys) {
+            Assert.isTrue(maxKeys > 0, "maxKeys must be positive");
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        /**
+         * @param maxInputLength The maximum length of the input and output text kept in the event
+         */
+        public Builder maxInputLength(int maxInputLength) {
+            Assert.isTrue(maxInputLength >= 0, "maxInputLength must not be negative");
+            this.maxInputLength = maxInputLength;
+            return this;
+        }
+
+        public XssDetectionAuditor build() {
+            return new XssDetectionAuditor(this);
+        }
+
+    }
+
+}
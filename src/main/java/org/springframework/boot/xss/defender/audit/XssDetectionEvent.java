@@ -0,0 +1,112 @@
+package org.springframework.boot.xss.defender.audit;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+
+/**
+ * The immutable event of an input text which is modified or rejected by the XSS defender.
+ * The input and output text are truncated, so that a large payload won't be kept in memory.
+ *
+ * @author codeboyzhou
+ * @see XssDetectionAuditor
+ * @since 1.0.0
+ */
+public final class XssDetectionEvent {
+
+    /**
+     * The epoch milliseconds when the event is published.
+     */
+    private final long timestamp;
+
+    /**
+     * The description of the defense strategy, for example, {@code trim-escape}.
+     */
+    private final String strategy;
+
+    private final DefenseEntryPoint entryPoint;
+
+    /**
+     * The controller method, formatted lazily, nullable.
+     */
+    private final Object handler;
+
+    /**
+     * The name of the JSON field, parameter, header or cookie, nullable.
+     */
+    private final String field;
+
+    /**
+     * The truncated input text.
+     */
+    private final String input;
+
+    /**
+     * The length of the input text before truncation.
+     */
+    private final int inputLength;
+
+    /**
+     * The truncated output text, {@code null} if the input text is rejected.
+     */
+    private final String output;
+
+    public XssDetectionEvent(long timestamp, String strategy, DefenseEntryPoint entryPoint, Object handler,
+                             String field, String input, int inputLength, String output) {
+        this.timestamp = timestamp;
+        this.strategy = strategy;
+        this.entryPoint = entryPoint;
+        this.handler = handler;
+        this.field = field;
+        this.input = input;
+        this.inputLength = inputLength;
+        this.output = output;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public DefenseEntryPoint getEntryPoint() {
+        return entryPoint;
+    }
+
+    /**
+     * The description of the controller method, {@code null} if it's not a controller request.
+     */
+    public String getHandler() {
+        return handler == null ? null : handler.toString();
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public int getInputLength() {
+        return inputLength;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Whether the input text is rejected, for example, by the {@code THROW} strategy.
+     */
+    public boolean isRejected() {
+        return output == null;
+    }
+
+    @Override
+    public String toString() {
+        return "XssDetectionEvent{strategy=" + strategy + ", entryPoint=" + entryPoint.tagValue() + ", handler=" + getHandler()
+                + ", field=" + field + ", input=" + input + ", inputLength=" + inputLength + ", output=" + output + '}';
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.springframework.boot.xss.defender.audit;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+
+/**
+ * The publisher of {@link XssDetectionEvent}, it's called by {@link XssDefender} on the request thread,
+ * so implementations must hand the event over and must not block.
+ *
+ * @author codeboyzhou
+ * @see XssDetectionAuditor
+ * @since 1.0.0
+ */
+public interface XssDetectionPublisher {
+
+    /**
+     * The publisher which publishes nothing.
+     */
+    XssDetectionPublisher NONE = new XssDetectionPublisher() {
+    };
+
+    /**
+     * Return a publisher for the given defense strategy.
+     *
+     * @param strategy The description of the defense strategy
+     */
+    default XssDetectionPublisher withStrategy(String strategy) {
+        return this;
+    }
+
+    /**
+     * Publish an input text which has been modified or rejected.
+     *
+     * @param entryPoint The entry point of the input text
+     * @param field      The name of the JSON field, parameter, header or cookie, nullable
+     * @param input      The input text
+     * @param output     The output text, {@code null} if the input text is rejected
+     */
+    default void publish(DefenseEntryPoint entryPoint, String field, String input, String output) {
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.springframework.boot.xss.defender.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free ring buffer with multiple producers and a single consumer, package-private.
+ * Every slot carries a sequence number, so that a producer claims a slot with one CAS and never waits for the consumer,
+ * and {@link #offer(Object)} fails fast when the buffer is full.
+ *
+ * @param <E> The type of the elements
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+final class XssDetectionRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * The sequence of every slot, it's equal to the position of the producer when the slot is free,
+     * and one ahead of the position of the consumer when the slot is published.
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong producerPosition = new AtomicLong();
+
+    /**
+     * The position of the consumer, it's only accessed by the single consumer thread.
+     */
+    private long consumerPosition;
+
+    /**
+     * @param capacity The capacity, rounded up to the next power of two
+     */
+    XssDetectionRingBuffer(int capacity) {
+        final int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Add an element, it can be called by any thread.
+     *
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = producerPosition.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Remove an element, it must be called by the single consumer thread.
+     *
+     * @return The element, {@code null} if the buffer is empty
+     */
+    E poll() {
+        final long position = consumerPosition;
+        final int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        final E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        consumerPosition = position + 1;
+        return element;
+    }
+
+}
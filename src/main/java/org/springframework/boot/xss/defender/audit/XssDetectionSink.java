@@ -0,0 +1,23 @@
+package org.springframework.boot.xss.defender.audit;
+
+import java.util.List;
+
+/**
+ * The destination of {@link XssDetectionEvent}, for example, the application log, a message queue or a SIEM system.
+ * It's called by the background thread of {@link XssDetectionAuditor} with a batch of events, never concurrently.
+ *
+ * @author codeboyzhou
+ * @see LoggingXssDetectionSink
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface XssDetectionSink {
+
+    /**
+     * Accept a batch of events.
+     *
+     * @param events The unmodifiable batch of events, it's only valid during this call
+     */
+    void accept(List<XssDetectionEvent> events);
+
+}
@@ -0,0 +1,50 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.xss.defender.audit.LoggingXssDetectionSink;
+import org.springframework.boot.xss.defender.audit.XssDetectionAuditor;
+import org.springframework.boot.xss.defender.audit.XssDetectionSink;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Add the asynchronous audit auto configuration, all the {@link XssDetectionSink} beans receive the detection events.
+ *
+ * @author codeboyzhou
+ * @see XssDetectionAuditor
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(XssDefenderProperties.class)
+@ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX, name = {"enabled", "audit.enabled"}, havingValue = "true", matchIfMissing = true)
+public class XssDefenderAuditConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public XssDetectionAuditor xssDetectionAuditor(XssDefenderProperties properties, ObjectProvider<XssDetectionSink> sinks) {
+        XssDefenderProperties.Audit audit = properties.getAudit();
+        XssDetectionAuditor.Builder builder = XssDetectionAuditor.builder()
+                .bufferSize(audit.getBufferSize())
+                .batchSize(audit.getBatchSize())
+                .flushIntervalMillis(audit.getFlushIntervalMillis())
+                .sampleRate(audit.getSampleRate())
+                .maxEventsPerKeyPerSecond(audit.getMaxEventsPerKeyPerSecond())
+                .maxKeys(audit.getMaxKeys())
+                .maxInputLength(audit.getMaxInputLength());
+        sinks.orderedStream().forEach(builder::sink);
+        XssDetectionAuditor auditor = builder.build();
+        auditor.start();
+        return auditor;
+    }
+
+    /**
+     * Write the detection events into the application log, enabled by 'spring.xss-defender.audit.log-enabled'.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".audit", name = "log-enabled", havingValue = "true", matchIfMissing = true)
+    public LoggingXssDetectionSink loggingXssDetectionSink() {
+        return new LoggingXssDetectionSink();
+    }
+
+}
@@ -1,81 +1,175 @@
 package org.springframework.boot.xss.defender.autoconfigure;
 
-import com.fasterxml.jackson.databind.JsonDeserializer;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
-import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.boot.xss.defender.annotation.XssDefenderIgnore;
+import org.springframework.boot.xss.defender.annotation.XssDefenderStrategy;
+import org.springframework.boot.xss.defender.filter.XssDefenderFilter;
+import org.springframework.boot.xss.defender.filter.XssDefenderMultipartResolver;
+import org.springframework.boot.xss.defender.filter.XssRejectionFilter;
 import org.springframework.boot.xss.defender.interceptor.XssDefenderInterceptor;
-import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
-import org.springframework.boot.xss.defender.support.StringXssPropertyEditor;
+import org.springframework.boot.xss.defender.support.StringXssHttpMessageConverter;
+import org.springframework.boot.xss.defender.support.XssDefenderBinderAdvice;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicyRegistry;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssRejectionAdvice;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
-import org.springframework.web.bind.WebDataBinder;
-import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-import java.beans.PropertyEditor;
+import java.util.List;
 
 /**
  * Add some auto configuration, for example, register interceptors, and some essential java beans.
+ * It's registered in {@code META-INF/spring.factories}, the beans are declared explicitly without any component scanning,
+ * and each of them backs off if the application defines its own one. The beans shared with the reactive web application
+ * are declared by {@link XssDefenderPolicyConfiguration}.
  *
  * @author codeboyzhou
  * @see XssDefenderProperties
  * @see XssDefenderInterceptor
  * @since 1.0.0
  */
-@ComponentScan(basePackageClasses = XssDefender.class)
+@Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(XssDefenderProperties.class)
+@Import(XssDefenderPolicyConfiguration.class)
 @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
 public class XssDefenderConfiguration implements WebMvcConfigurer {
 
     /**
-     * Let spring web container load interceptor.
+     * The policy table of the controller methods, resolved lazily, because the interceptor is registered
+     * while the handler mapping which the registry depends on is being created.
      */
-    @Autowired
-    private XssDefenderInterceptor interceptor;
+    private final ObjectProvider<XssHandlerPolicyRegistry> policyRegistry;
 
     /**
-     * A properties object for spring boot auto configuration.
+     * The holder of the current XSS policy, resolved lazily like the policy registry.
      */
-    private XssDefenderProperties properties;
+    private final ObjectProvider<XssPolicyHolder> policyHolder;
 
-    /**
-     * An instance of {@link XssDefender}
-     */
-    private XssDefender xssDefender;
+    private final XssDefenderProperties properties;
+
+    public XssDefenderConfiguration(ObjectProvider<XssHandlerPolicyRegistry> policyRegistry,
+                                    ObjectProvider<XssPolicyHolder> policyHolder, XssDefenderProperties properties) {
+        this.policyRegistry = policyRegistry;
+        this.policyHolder = policyHolder;
+        this.properties = properties;
+    }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(interceptor).order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new XssDefenderInterceptor(policyRegistry.getObject())).order(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    /**
+     * Read the raw text bodies bound to {@code @RequestBody String} in chunks before the default string converter,
+     * enabled by 'spring.xss-defender.body.enabled'. It's not a bean, so the HTTP clients are not affected.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        final XssDefenderProperties.Body body = properties.getBody();
+        if (!body.isEnabled()) {
+            return;
+        }
+        int index = 0;
+        while (index < converters.size() && !(converters.get(index) instanceof StringHttpMessageConverter)) {
+            index++;
+        }
+        converters.add(index == converters.size() ? 0 : index, new StringXssHttpMessageConverter(policyHolder.getObject(),
+                MediaType.parseMediaTypes(body.getMediaTypes()), body.getChunkSize()));
     }
 
+    /**
+     * The XSS policies of all the controller methods, resolved from the annotation {@link XssDefenderIgnore}
+     * and {@link XssDefenderStrategy} once at startup.
+     */
     @Bean
-    public XssDefender xssDefender() {
-        return new XssDefender(properties.getStrategy(), properties.isEscapeAfterTrimEnabled());
+    @ConditionalOnMissingBean
+    public XssHandlerPolicyRegistry xssHandlerPolicyRegistry(XssPolicyHolder policyHolder,
+                                                             ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        return new XssHandlerPolicyRegistry(policyHolder, handlerMappings);
+    }
+
+    /**
+     * The optional servlet filter for the request parameters, headers and cookies read by the application code directly,
+     * enabled by 'spring.xss-defender.request-filter.enabled'.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".request-filter", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<XssDefenderFilter> xssDefenderFilter(XssPolicyHolder policyHolder) {
+        FilterRegistrationBean<XssDefenderFilter> registration = new FilterRegistrationBean<>(new XssDefenderFilter(policyHolder));
+        registration.setOrder(OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER);
+        return registration;
+    }
+
+    /**
+     * The servlet filter which turns the rejection escaping from the filter chain into a 400 response,
+     * enabled by 'spring.xss-defender.rejection.response-enabled'. It's ordered before the request filter.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".rejection", name = "response-enabled", havingValue = "true")
+    public FilterRegistrationBean<XssRejectionFilter> xssRejectionFilter() {
+        FilterRegistrationBean<XssRejectionFilter> registration = new FilterRegistrationBean<>(new XssRejectionFilter());
+        registration.setOrder(OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER - 1);
+        return registration;
+    }
+
+    /**
+     * The controller advice which turns the rejection into a 400 response with a structured body,
+     * enabled by 'spring.xss-defender.rejection.response-enabled'.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".rejection", name = "response-enabled", havingValue = "true")
+    public XssRejectionAdvice xssRejectionAdvice() {
+        return new XssRejectionAdvice();
     }
 
     /**
      * Customize a property editor for html FORM parameter, so as to process potential XSS risk in the parameter.
+     * The {@code InitBinder} method is declared by a controller advice, because it doesn't work in a configuration.
      */
-    @InitBinder
-    public void initBinder(WebDataBinder binder) {
-        PropertyEditor customPropertyEditor = new StringXssPropertyEditor(properties.isEnabled(), xssDefender);
-        binder.registerCustomEditor(String.class, customPropertyEditor);
+    @Bean
+    @ConditionalOnMissingBean
+    public XssDefenderBinderAdvice xssDefenderBinderAdvice(XssPolicyHolder policyHolder) {
+        return new XssDefenderBinderAdvice(policyHolder);
     }
 
     /**
-     * Customize a deserializer for JSON parameter, so as to process potential XSS risk in the parameter.
+     * Decorate the text parts of the multipart requests parsed by the servlet container,
+     * enabled by 'spring.xss-defender.body.enabled'.
      */
     @Bean
-    public Jackson2ObjectMapperBuilderCustomizer xssDefenderJacksonCustomizer() {
-        JsonDeserializer<String> customJsonDeserializer = new StringXssJsonDeserializer(properties.isEnabled(), xssDefender);
-        return builder -> builder.deserializerByType(String.class, customJsonDeserializer);
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".body", name = "enabled", havingValue = "true")
+    public static BeanPostProcessor xssDefenderMultipartResolverPostProcessor(ObjectProvider<XssPolicyHolder> policyHolder,
+                                                                              ObjectProvider<XssDefenderProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof StandardServletMultipartResolver)) {
+                    return bean;
+                }
+                final XssDefenderProperties.Body body = properties.getObject().getBody();
+                return new XssDefenderMultipartResolver((MultipartResolver) bean, policyHolder.getObject(),
+                        MediaType.parseMediaTypes(body.getMediaTypes()), body.getChunkSize());
+            }
+        };
     }
 
 }
@@ -0,0 +1,328 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.audit.XssDetectionAuditor;
+import org.springframework.boot.xss.defender.audit.XssDetectionPublisher;
+import org.springframework.boot.xss.defender.cache.XssSanitizationCache;
+import org.springframework.boot.xss.defender.filter.XssNamePolicy;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.metrics.XssDefenderMetrics;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssCanonicalizer;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizer;
+import org.springframework.boot.xss.defender.sanitizer.XssPatternAutomaton;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.boot.xss.defender.shadow.XssShadowEvaluator;
+import org.springframework.boot.xss.defender.support.JsonNodeXssJsonDeserializer;
+import org.springframework.boot.xss.defender.support.StringContainerXssJsonDeserializer;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+import org.springframework.boot.xss.defender.support.StringXssJsonSerializer;
+import org.springframework.boot.xss.defender.support.UntypedXssJsonDeserializer;
+import org.springframework.boot.xss.defender.support.XssBeanDeserializerModifier;
+import org.springframework.boot.xss.defender.support.XssBeanSerializerModifier;
+import org.springframework.boot.xss.defender.support.XssJsonTreeLimits;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The shared factory methods of the servlet and reactive auto configuration, package-private.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderConfiguration
+ * @see XssDefenderReactiveConfiguration
+ * @since 1.0.0
+ */
+final class XssDefenderFactory {
+
+    /**
+     * The name of the dedicated pool bean to sanitize the large batches in parallel.
+     */
+    static final String FORK_JOIN_POOL_BEAN_NAME = "xssDefenderForkJoinPool";
+
+    /**
+     * The description of the snapshot whose global {@link XssDefender} is defined by the application.
+     */
+    static final String CUSTOM_DESCRIPTION = "custom";
+
+    private XssDefenderFactory() {
+    }
+
+    /**
+     * Compile the configured defense strategy and the custom {@link XssSanitizer} beans into one {@link XssDefender},
+     * an unsupported defense strategy will fail the application startup.
+     */
+    static XssDefender createXssDefender(XssDefenderProperties properties, ObjectProvider<XssSanitizer> customSanitizers,
+                                         ObjectProvider<XssSanitizationCache> cache, ObjectProvider<XssDefenderMetrics> metrics,
+                                         ObjectProvider<XssDetectionAuditor> auditor, ObjectProvider<XssInputGuard> inputGuard,
+                                         ObjectProvider<ForkJoinPool> forkJoinPool, ObjectProvider<XssShadowEvaluator> shadowEvaluator) {
+        XssSanitizerChain.Builder builder = XssSanitizerChain.builder()
+                .detection(createPatternAutomaton(properties), properties.getDetection().isConfirmAmbiguous())
+                .stackTraceEnabled(properties.getRejection().isStackTraceEnabled())
+                .trimEngine(properties.getEngine())
+                .strategy(DefenseStrategy.of(properties.getStrategy()), properties.getSafelist().create(), properties.isEscapeAfterTrimEnabled());
+        customSanitizers.orderedStream().forEach(builder::add);
+        XssDefenderMetrics globalMetrics = metrics.getIfAvailable();
+        return XssDefender.builder(builder.build())
+                .cache(cache.getIfAvailable())
+                .metrics(globalMetrics == null ? null : globalMetrics.withStrategy(properties.describeStrategy()))
+                .detectionPublisher(publisher(auditor, properties.describeStrategy()))
+                .canonicalizer(createCanonicalizer(properties))
+                .inputGuard(inputGuard.getIfAvailable())
+                .bulk(forkJoinPool.getIfAvailable(ForkJoinPool::commonPool), properties.getBulk().getParallelThreshold())
+                .shadowEvaluator(shadowEvaluator.getIfAvailable())
+                .earlyRejection(properties.getRejection().isEarly(), properties.getRejection().isStackTraceEnabled())
+                .build();
+    }
+
+    /**
+     * Compile the configuration into one immutable {@link XssPolicySnapshot}, including the global {@link XssDefender},
+     * the factory of the overridden defense strategies, and the name policies of the request filter.
+     * The cache, the limits, the metrics, the audit, the bulk pool and the shadow evaluation are shared by all the versions.
+     * <p>
+     * The {@link XssDefender} bean defined by the application, if any, replaces the global one of every version,
+     * the overridden defense strategies and the request filter policies are still compiled from the configuration.
+     *
+     * @param customXssDefender The {@link XssDefender} bean defined by the application, nullable
+     */
+    static XssPolicySnapshot compilePolicy(long version, XssDefenderProperties properties, XssDefender customXssDefender,
+                                           ObjectProvider<XssSanitizer> customSanitizers,
+                                           ObjectProvider<XssSanitizationCache> cache, ObjectProvider<XssDefenderMetrics> metrics,
+                                           ObjectProvider<XssDetectionAuditor> auditor, ObjectProvider<XssInputGuard> inputGuard,
+                                           ObjectProvider<ForkJoinPool> forkJoinPool, ObjectProvider<XssShadowEvaluator> shadowEvaluator) {
+        XssPolicySnapshot snapshot = XssPolicySnapshot.builder(version, customXssDefender != null ? customXssDefender
+                        : createXssDefender(properties, customSanitizers, cache, metrics, auditor, inputGuard, forkJoinPool, shadowEvaluator))
+                .enabled(properties.isEnabled())
+                .description(customXssDefender != null ? CUSTOM_DESCRIPTION : properties.describeStrategy())
+                .xssDefenderFactory(overridingXssDefenderFactory(properties, customSanitizers, cache, metrics, auditor, inputGuard, forkJoinPool))
+                .build();
+        XssDefenderProperties.RequestFilter requestFilter = properties.getRequestFilter();
+        if (!requestFilter.isEnabled()) {
+            return snapshot;
+        }
+        Function<String, XssDefender> policyResolver = requestFilterPolicyResolver(properties, snapshot);
+        return snapshot.withNamePolicies(
+                namePolicy(requestFilter.getDefaultParameterPolicy(), requestFilter.getParameters(), false, policyResolver),
+                namePolicy(requestFilter.getDefaultHeaderPolicy(), requestFilter.getHeaders(), true, policyResolver),
+                namePolicy(requestFilter.getDefaultCookiePolicy(), requestFilter.getCookies(), false, policyResolver));
+    }
+
+    /**
+     * Find the {@link XssDefender} bean defined by the application. The auto-configured one backs off if there is any,
+     * so there is none if the auto-configured one is defined, it's taken from the policy holder itself.
+     *
+     * @return The unique or primary {@link XssDefender} bean defined by the application, {@code null} if there is none
+     */
+    static XssDefender customXssDefender(ConfigurableListableBeanFactory beanFactory, ObjectProvider<XssDefender> xssDefenders) {
+        for (String name : beanFactory.getBeanNamesForType(XssDefender.class, true, false)) {
+            if (beanFactory.containsBeanDefinition(name) && isAutoConfigured(beanFactory.getBeanDefinition(name))) {
+                return null;
+            }
+        }
+        return xssDefenders.getIfUnique();
+    }
+
+    private static boolean isAutoConfigured(BeanDefinition definition) {
+        if (!(definition instanceof AnnotatedBeanDefinition)) {
+            return false;
+        }
+        final MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+        return factoryMethod != null && XssDefenderPolicyConfiguration.class.getName().equals(factoryMethod.getDeclaringClassName());
+    }
+
+    /**
+     * Bind the latest configuration from the environment into a new properties object, the bound one is left untouched.
+     */
+    static XssDefenderProperties bindProperties(Environment environment) {
+        return Binder.get(environment).bindOrCreate(XssDefenderProperties.PREFIX, XssDefenderProperties.class);
+    }
+
+    /**
+     * The factory of the {@link XssDefender} overriding the defense strategy, which shares
+     * the custom sanitizers, the cache, the metrics and the audit with the global {@link XssDefender}.
+     */
+    static BiFunction<DefenseStrategy, Boolean, XssDefender> overridingXssDefenderFactory(XssDefenderProperties properties,
+                                                                                          ObjectProvider<XssSanitizer> customSanitizers,
+                                                                                          ObjectProvider<XssSanitizationCache> cache,
+                                                                                          ObjectProvider<XssDefenderMetrics> metrics,
+                                                                                          ObjectProvider<XssDetectionAuditor> auditor, ObjectProvider<XssInputGuard> inputGuard,
+                                                                                          ObjectProvider<ForkJoinPool> forkJoinPool) {
+        XssPatternAutomaton automaton = createPatternAutomaton(properties);
+        XssCanonicalizer canonicalizer = createCanonicalizer(properties);
+        return (strategy, escapeAfterTrim) -> {
+            XssSanitizerChain.Builder builder = XssSanitizerChain.builder()
+                    .detection(automaton, properties.getDetection().isConfirmAmbiguous())
+                    .stackTraceEnabled(properties.getRejection().isStackTraceEnabled())
+                    .trimEngine(properties.getEngine())
+                    .strategy(strategy, properties.getSafelist().create(), escapeAfterTrim);
+            customSanitizers.orderedStream().forEach(builder::add);
+            XssDefenderMetrics globalMetrics = metrics.getIfAvailable();
+            return XssDefender.builder(builder.build())
+                    .cache(cache.getIfAvailable())
+                    .metrics(globalMetrics == null ? null : globalMetrics.withStrategy(strategy.describe(escapeAfterTrim)))
+                    .detectionPublisher(publisher(auditor, strategy.describe(escapeAfterTrim)))
+                    .canonicalizer(canonicalizer)
+                    .inputGuard(inputGuard.getIfAvailable())
+                    .bulk(forkJoinPool.getIfAvailable(ForkJoinPool::commonPool), properties.getBulk().getParallelThreshold())
+                    .earlyRejection(properties.getRejection().isEarly(), properties.getRejection().isStackTraceEnabled())
+                    .build();
+        };
+    }
+
+    /**
+     * The shadow evaluation of the candidate policy, the candidate shares the custom sanitizers, the detection and the limits
+     * of the input text with the global {@link XssDefender}, but neither the metrics nor the audit.
+     */
+    static XssShadowEvaluator createShadowEvaluator(XssDefenderProperties properties, ObjectProvider<XssSanitizer> customSanitizers) {
+        XssDefenderProperties.Shadow shadow = properties.getShadow();
+        DefenseStrategy strategy = DefenseStrategy.of(shadow.getStrategy());
+        SafelistType safelist = shadow.getSafelist() == null ? properties.getSafelist() : shadow.getSafelist();
+        XssSanitizerChain.Builder builder = XssSanitizerChain.builder()
+                .detection(createPatternAutomaton(properties), properties.getDetection().isConfirmAmbiguous())
+                .trimEngine(properties.getEngine())
+                .strategy(strategy, safelist.create(), shadow.isEscapeAfterTrimEnabled());
+        customSanitizers.orderedStream().forEach(builder::add);
+        XssDefender candidate = XssDefender.builder(builder.build())
+                .canonicalizer(createCanonicalizer(properties))
+                .inputGuard(properties.getGuard().isEnabled() ? createInputGuard(properties) : null)
+                .build();
+        return XssShadowEvaluator.builder(candidate, strategy.describe(shadow.isEscapeAfterTrimEnabled()))
+                .sampleRate(shadow.getSampleRate())
+                .threads(shadow.getThreads())
+                .queueSize(shadow.getQueueSize())
+                .maxExamples(shadow.getMaxExamples())
+                .maxInputLength(shadow.getMaxInputLength())
+                .build();
+    }
+
+    /**
+     * The automaton of the {@code THROW} strategy, the one of the built-in patterns is shared if no extra pattern is configured.
+     */
+    static XssPatternAutomaton createPatternAutomaton(XssDefenderProperties properties) {
+        XssDefenderProperties.Detection detection = properties.getDetection();
+        if (!detection.isEnabled()) {
+            return null;
+        }
+        if (detection.getRejectPatterns().isEmpty() && detection.getSuspiciousPatterns().isEmpty() && !detection.isRejectEncodedTags()) {
+            return XssPatternAutomaton.defaults();
+        }
+        XssPatternAutomaton.Builder builder = XssPatternAutomaton.builder()
+                .reject(detection.getRejectPatterns())
+                .suspicious(detection.getSuspiciousPatterns());
+        if (detection.isRejectEncodedTags()) {
+            builder.rejectEncodedTags();
+        }
+        return builder.build();
+    }
+
+    /**
+     * The canonicalizer of the nested encodings before the detection of the {@code THROW} strategy, {@code null} if it's disabled.
+     */
+    static XssCanonicalizer createCanonicalizer(XssDefenderProperties properties) {
+        XssDefenderProperties.Detection detection = properties.getDetection();
+        return detection.isCanonicalize() ? new XssCanonicalizer(detection.getMaxDecodeRounds()) : null;
+    }
+
+    private static XssDetectionPublisher publisher(ObjectProvider<XssDetectionAuditor> auditor, String strategy) {
+        XssDetectionAuditor detectionAuditor = auditor.getIfAvailable();
+        return detectionAuditor == null ? null : detectionAuditor.publisher(strategy);
+    }
+
+    static XssSanitizationCache createCache(XssDefenderProperties properties) {
+        XssDefenderProperties.Cache cache = properties.getCache();
+        return new XssSanitizationCache(cache.getMaximumSize(), cache.getMaximumTotalChars(),
+                cache.getMaximumValueLength(), cache.getConcurrencyLevel());
+    }
+
+    /**
+     * The Jackson module binding the deserializers of the properties annotated by
+     * {@link org.springframework.boot.xss.defender.annotation.XssSanitize}, the batch deserializers
+     * of the JSON arrays of strings, the deserializers of the untyped JSON, and the serializers of the JSON responses
+     * selected by {@link org.springframework.boot.xss.defender.annotation.XssEncode}, registered by spring boot as a bean.
+     */
+    static Module createJacksonModule(XssDefenderProperties properties, XssPolicyHolder policyHolder) {
+        SimpleModule module = new SimpleModule("XssDefenderModule");
+        module.setDeserializerModifier(new XssBeanDeserializerModifier(policyHolder));
+        module.addDeserializer(String[].class, StringContainerXssJsonDeserializer.forStringArray());
+        XssDefenderProperties.Json json = properties.getJson();
+        if (json.isUntypedEnabled()) {
+            StringXssJsonDeserializer stringDeserializer = new StringXssJsonDeserializer(policyHolder);
+            XssJsonTreeLimits limits = new XssJsonTreeLimits(json.getMaxDepth(), json.getMaxNodes());
+            module.addDeserializer(Object.class, new UntypedXssJsonDeserializer(stringDeserializer, limits));
+            module.addDeserializer(JsonNode.class, new JsonNodeXssJsonDeserializer<>(JsonNode.class, stringDeserializer, limits));
+            module.addDeserializer(ObjectNode.class, new JsonNodeXssJsonDeserializer<>(ObjectNode.class, stringDeserializer, limits));
+            module.addDeserializer(ArrayNode.class, new JsonNodeXssJsonDeserializer<>(ArrayNode.class, stringDeserializer, limits));
+        }
+        if (json.isOutputEncodingEnabled()) {
+            module.setSerializerModifier(new XssBeanSerializerModifier());
+            module.addSerializer(String.class, StringXssJsonSerializer.HANDLER);
+        }
+        return module;
+    }
+
+    /**
+     * The dedicated pool of the bulk sanitization, its worker threads are named after the XSS defender.
+     */
+    static ForkJoinPool createForkJoinPool(XssDefenderProperties properties) {
+        return new ForkJoinPool(properties.getBulk().getParallelism(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("xss-defender-bulk-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    static XssInputGuard createInputGuard(XssDefenderProperties properties) {
+        XssDefenderProperties.Guard guard = properties.getGuard();
+        return XssInputGuard.builder()
+                .maxLength(guard.getMaxLength(), guard.getLengthAction())
+                .maxTags(guard.getMaxTags(), guard.getMaxDepth(), guard.getMarkupAction())
+                .requestBudget(guard.getRequestBudget(), guard.getBudgetAction())
+                .stackTraceEnabled(properties.getRejection().isStackTraceEnabled())
+                .build();
+    }
+
+    /**
+     * The resolver of the request filter policies, the same strategy shares one {@link XssDefender} of the snapshot.
+     *
+     * @see XssDefenderProperties.RequestFilter
+     */
+    static Function<String, XssDefender> requestFilterPolicyResolver(XssDefenderProperties properties, XssPolicySnapshot snapshot) {
+        return policy -> {
+            if (XssDefenderProperties.POLICY_NONE.equalsIgnoreCase(policy)) {
+                return null;
+            }
+            if (!StringUtils.hasText(policy) || XssDefenderProperties.POLICY_DEFAULT.equalsIgnoreCase(policy)) {
+                return snapshot.getXssDefender();
+            }
+            return snapshot.xssDefender(DefenseStrategy.of(policy), properties.isEscapeAfterTrimEnabled());
+        };
+    }
+
+    static XssNamePolicy namePolicy(String defaultPolicy, Map<String, String> policies, boolean ignoreCase,
+                                    Function<String, XssDefender> policyResolver) {
+        Map<String, XssDefender> xssDefenders = new HashMap<>();
+        policies.forEach((name, policy) -> xssDefenders.put(name, policyResolver.apply(policy)));
+        return new XssNamePolicy(policyResolver.apply(defaultPolicy), xssDefenders, ignoreCase);
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.xss.defender.audit.XssDetectionAuditor;
+import org.springframework.boot.xss.defender.cache.XssSanitizationCache;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.metrics.MicrometerXssDefenderMetrics;
+import org.springframework.boot.xss.defender.metrics.XssDefenderMetrics;
+import org.springframework.boot.xss.defender.shadow.XssShadowDivergence;
+import org.springframework.boot.xss.defender.shadow.XssShadowEvaluator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Add Micrometer metrics auto configuration, it takes effect only when a {@link MeterRegistry} is present.
+ *
+ * @author codeboyzhou
+ * @see MicrometerXssDefenderMetrics
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@EnableConfigurationProperties(XssDefenderProperties.class)
+@ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class XssDefenderMetricsConfiguration {
+
+    @Bean
+    public XssDefenderMetrics xssDefenderMetrics(MeterRegistry registry, XssDefenderProperties properties,
+                                                 ObjectProvider<XssSanitizationCache> cache,
+                                                 ObjectProvider<XssDetectionAuditor> auditor,
+                                                 ObjectProvider<XssInputGuard> inputGuard,
+                                                 ObjectProvider<XssShadowEvaluator> shadowEvaluator) {
+        cache.ifAvailable(sanitizationCache -> bindCacheMetrics(registry, sanitizationCache));
+        auditor.ifAvailable(detectionAuditor -> bindAuditMetrics(registry, detectionAuditor));
+        inputGuard.ifAvailable(guard -> bindGuardMetrics(registry, guard));
+        shadowEvaluator.ifAvailable(evaluator -> bindShadowMetrics(registry, evaluator));
+        return new MicrometerXssDefenderMetrics(registry, properties.describeStrategy());
+    }
+
+    /**
+     * Expose the statistics of the sanitization results cache.
+     */
+    private static void bindCacheMetrics(MeterRegistry registry, XssSanitizationCache cache) {
+        FunctionCounter.builder("xss.defender.cache.requests", cache, XssSanitizationCache::hitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("xss.defender.cache.requests", cache, XssSanitizationCache::missCount)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("xss.defender.cache.requests", cache, XssSanitizationCache::bypassCount)
+                .tag("result", "bypass").register(registry);
+        FunctionCounter.builder("xss.defender.cache.evictions", cache, XssSanitizationCache::evictionCount)
+                .register(registry);
+        Gauge.builder("xss.defender.cache.size", cache, XssSanitizationCache::size).register(registry);
+        Gauge.builder("xss.defender.cache.chars", cache, XssSanitizationCache::totalChars).register(registry);
+    }
+
+    /**
+     * Expose the statistics of the detection events audit.
+     */
+    private static void bindAuditMetrics(MeterRegistry registry, XssDetectionAuditor auditor) {
+        FunctionCounter.builder("xss.defender.audit.events", auditor, XssDetectionAuditor::publishedCount)
+                .tag("result", "published").register(registry);
+        FunctionCounter.builder("xss.defender.audit.events", auditor, XssDetectionAuditor::droppedCount)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("xss.defender.audit.events", auditor, XssDetectionAuditor::sampledOutCount)
+                .tag("result", "sampled.out").register(registry);
+        FunctionCounter.builder("xss.defender.audit.events", auditor, XssDetectionAuditor::rateLimitedCount)
+                .tag("result", "rate.limited").register(registry);
+        FunctionCounter.builder("xss.defender.audit.events", auditor, XssDetectionAuditor::deliveredCount)
+                .tag("result", "delivered").register(registry);
+    }
+
+    /**
+     * Expose how often the limits of the input text are exceeded.
+     */
+    private static void bindGuardMetrics(MeterRegistry registry, XssInputGuard guard) {
+        FunctionCounter.builder("xss.defender.guard.trips", guard, XssInputGuard::lengthTripCount)
+                .tag("guard", "length").register(registry);
+        FunctionCounter.builder("xss.defender.guard.trips", guard, XssInputGuard::markupTripCount)
+                .tag("guard", "markup").register(registry);
+        FunctionCounter.builder("xss.defender.guard.trips", guard, XssInputGuard::budgetTripCount)
+                .tag("guard", "budget").register(registry);
+    }
+
+    /**
+     * Expose the statistics of the shadow evaluation, the divergences are tagged by the candidate policy.
+     */
+    private static void bindShadowMetrics(MeterRegistry registry, XssShadowEvaluator evaluator) {
+        FunctionCounter.builder("xss.defender.shadow.evaluations", evaluator, XssShadowEvaluator::evaluatedCount)
+                .tag("result", "evaluated").register(registry);
+        FunctionCounter.builder("xss.defender.shadow.evaluations", evaluator, XssShadowEvaluator::droppedCount)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("xss.defender.shadow.evaluations", evaluator, XssShadowEvaluator::failedCount)
+                .tag("result", "failed").register(registry);
+        for (XssShadowDivergence.Type type : XssShadowDivergence.Type.values()) {
+            FunctionCounter.builder("xss.defender.shadow.divergences", evaluator, shadow -> shadow.divergenceCount(type))
+                    .tag("candidate", evaluator.getCandidateStrategy())
+                    .tag("type", type.tagValue())
+                    .register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssSanitize;
+import org.springframework.boot.xss.defender.audit.XssDetectionAuditor;
+import org.springframework.boot.xss.defender.cache.XssSanitizationCache;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.metrics.XssDefenderMetrics;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizer;
+import org.springframework.boot.xss.defender.shadow.XssShadowEvaluator;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The beans shared by the servlet and the reactive web application, that is, the current XSS policy, everything
+ * it's compiled from, and the Jackson deserializers reading it. It's imported by {@link XssDefenderConfiguration}
+ * and {@link XssDefenderReactiveConfiguration}, which add the beans of their own web stack.
+ *
+ * @author codeboyzhou
+ * @see XssPolicyHolder
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+class XssDefenderPolicyConfiguration {
+
+    /**
+     * Compile the configuration into the current XSS policy, an unsupported defense strategy will fail the application startup.
+     * A reload binds the latest configuration from the environment again, the policy in effect is kept if it fails.
+     * The {@link XssDefender} bean defined by the application, if any, is the global one of every version.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public XssPolicyHolder xssPolicyHolder(XssDefenderProperties properties, Environment environment,
+                                           ConfigurableListableBeanFactory beanFactory, ObjectProvider<XssDefender> xssDefenders,
+                                           ObjectProvider<XssSanitizer> customSanitizers,
+                                           ObjectProvider<XssSanitizationCache> cache, ObjectProvider<XssDefenderMetrics> metrics,
+                                           ObjectProvider<XssDetectionAuditor> auditor,
+                                           ObjectProvider<XssInputGuard> inputGuard,
+                                           @Qualifier(XssDefenderFactory.FORK_JOIN_POOL_BEAN_NAME) ObjectProvider<ForkJoinPool> forkJoinPool,
+                                           ObjectProvider<XssShadowEvaluator> shadowEvaluator) {
+        XssDefender customXssDefender = XssDefenderFactory.customXssDefender(beanFactory, xssDefenders);
+        return new XssPolicyHolder(version -> XssDefenderFactory.compilePolicy(version,
+                version == 1 ? properties : XssDefenderFactory.bindProperties(environment), customXssDefender,
+                customSanitizers, cache, metrics, auditor, inputGuard, forkJoinPool, shadowEvaluator));
+    }
+
+    /**
+     * The global {@link XssDefender} compiled at startup, the one in effect after a reload is
+     * {@code XssPolicyHolder.current().getXssDefender()}. If the application defines its own one instead,
+     * the policy holder applies it to the JSON, FORM and parameter values.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public XssDefender xssDefender(XssPolicyHolder policyHolder) {
+        return policyHolder.current().getXssDefender();
+    }
+
+    /**
+     * The optional limits of the input text checked before the sanitizer, enabled by 'spring.xss-defender.guard.enabled'.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".guard", name = "enabled", havingValue = "true")
+    public XssInputGuard xssInputGuard(XssDefenderProperties properties) {
+        return XssDefenderFactory.createInputGuard(properties);
+    }
+
+    /**
+     * The dedicated pool to sanitize the large batches in parallel, enabled by 'spring.xss-defender.bulk.dedicated-pool-enabled',
+     * otherwise the common pool is used.
+     */
+    @Bean(name = XssDefenderFactory.FORK_JOIN_POOL_BEAN_NAME, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".bulk", name = "dedicated-pool-enabled", havingValue = "true")
+    public ForkJoinPool xssDefenderForkJoinPool(XssDefenderProperties properties) {
+        return XssDefenderFactory.createForkJoinPool(properties);
+    }
+
+    /**
+     * The shadow evaluation of a candidate policy on the sampled input texts, enabled by 'spring.xss-defender.shadow.enabled'.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".shadow", name = "enabled", havingValue = "true")
+    public XssShadowEvaluator xssShadowEvaluator(XssDefenderProperties properties, ObjectProvider<XssSanitizer> customSanitizers) {
+        return XssDefenderFactory.createShadowEvaluator(properties, customSanitizers);
+    }
+
+    /**
+     * The optional cache in front of the sanitizer, enabled by 'spring.xss-defender.cache.enabled'.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".cache", name = "enabled", havingValue = "true")
+    public XssSanitizationCache xssSanitizationCache(XssDefenderProperties properties) {
+        return XssDefenderFactory.createCache(properties);
+    }
+
+    /**
+     * The Jackson beans, they are skipped if Jackson is not on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ObjectMapper.class)
+    static class JacksonConfiguration {
+
+        /**
+         * Customize a deserializer for JSON parameter, so as to process potential XSS risk in the parameter.
+         */
+        @Bean
+        public Jackson2ObjectMapperBuilderCustomizer xssDefenderJacksonCustomizer(XssPolicyHolder policyHolder) {
+            JsonDeserializer<String> customJsonDeserializer = new StringXssJsonDeserializer(policyHolder);
+            return builder -> builder.deserializerByType(String.class, customJsonDeserializer);
+        }
+
+        /**
+         * Bind the deserializers of the properties annotated by {@link XssSanitize} and of the untyped JSON,
+         * spring boot registers the module into the auto-configured {@code ObjectMapper}.
+         */
+        @Bean
+        public Module xssDefenderJacksonModule(XssDefenderProperties properties, XssPolicyHolder policyHolder) {
+            return XssDefenderFactory.createJacksonModule(properties, policyHolder);
+        }
+
+    }
+
+}
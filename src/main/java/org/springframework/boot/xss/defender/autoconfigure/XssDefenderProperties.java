@@ -1,7 +1,35 @@
 package org.springframework.boot.xss.defender.autoconfigure;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
 import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.audit.XssDetectionAuditor;
+import org.springframework.boot.xss.defender.cache.XssSanitizationCache;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.boot.xss.defender.filter.XssDefenderFilter;
+import org.springframework.boot.xss.defender.filter.XssDefenderPart;
+import org.springframework.boot.xss.defender.filter.XssRejectionFilter;
+import org.springframework.boot.xss.defender.guard.GuardAction;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.metrics.MicrometerXssDefenderMetrics;
+import org.springframework.boot.xss.defender.reactive.XssDefenderJackson2JsonDecoder;
+import org.springframework.boot.xss.defender.reactive.XssDefenderWebFilter;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.TrimEngine;
+import org.springframework.boot.xss.defender.sanitizer.XssCanonicalizer;
+import org.springframework.boot.xss.defender.sanitizer.XssPatternAutomaton;
+import org.springframework.boot.xss.defender.shadow.XssShadowEvaluator;
+import org.springframework.boot.xss.defender.support.StringXssHttpMessageConverter;
+import org.springframework.boot.xss.defender.support.StringXssJsonSerializer;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssRejectionAdvice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A properties class for spring boot auto configuration. You can configure its fields
@@ -19,6 +47,16 @@ public class XssDefenderProperties {
      */
     static final String PREFIX = "spring.xss-defender";
 
+    /**
+     * The policy of the request filter which doesn't process the values.
+     */
+    public static final String POLICY_NONE = "none";
+
+    /**
+     * The policy of the request filter which follows the global strategy and the controller method.
+     */
+    public static final String POLICY_DEFAULT = "default";
+
     /**
      * Whether to enable XSS defender, default value is {@code true}.
      */
@@ -38,20 +76,1156 @@ public class XssDefenderProperties {
      */
     private boolean escapeAfterTrim = false;
 
+    /**
+     * The jsoup safelist used by {@code TRIM} and {@code THROW} strategy, default value is {@code SafelistType.BASIC}.
+     *
+     * @see SafelistType
+     */
+    private SafelistType safelist = SafelistType.BASIC;
+
+    /**
+     * The engine of {@code TRIM} strategy, default value is {@code TrimEngine.JSOUP}.
+     * Both engines produce the same output, {@code TrimEngine.STREAMING} doesn't build a document for the common input text.
+     *
+     * @see TrimEngine
+     */
+    private TrimEngine engine = TrimEngine.JSOUP;
+
+    /**
+     * The cache of sanitization results, prefix is 'spring.xss-defender.cache'.
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * The Micrometer metrics, prefix is 'spring.xss-defender.metrics'.
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * The servlet filter or the reactive web filter for the request parameters, headers and cookies, prefix is 'spring.xss-defender.request-filter'.
+     */
+    private final RequestFilter requestFilter = new RequestFilter();
+
+    /**
+     * The reactive web application support, prefix is 'spring.xss-defender.reactive'.
+     */
+    private final Reactive reactive = new Reactive();
+
+    /**
+     * The asynchronous audit of the detected XSS risk, prefix is 'spring.xss-defender.audit'.
+     */
+    private final Audit audit = new Audit();
+
+    /**
+     * The limits of the input text checked before the sanitizer, prefix is 'spring.xss-defender.guard'.
+     */
+    private final Guard guard = new Guard();
+
+    /**
+     * The single-pass detection of the {@code THROW} strategy, prefix is 'spring.xss-defender.detection'.
+     */
+    private final Detection detection = new Detection();
+
+    /**
+     * The bulk sanitization of the large batches, prefix is 'spring.xss-defender.bulk'.
+     */
+    private final Bulk bulk = new Bulk();
+
+    /**
+     * The sanitization of the untyped JSON and the encoding of the JSON responses, prefix is 'spring.xss-defender.json'.
+     */
+    private final Json json = new Json();
+
+    /**
+     * The shadow evaluation of a candidate policy, prefix is 'spring.xss-defender.shadow'.
+     */
+    private final Shadow shadow = new Shadow();
+
+    /**
+     * The reload of the XSS policy at runtime, prefix is 'spring.xss-defender.reload'.
+     */
+    private final Reload reload = new Reload();
+
+    /**
+     * The chunked sanitization of the raw text bodies and the multipart text parts, prefix is 'spring.xss-defender.body'.
+     */
+    private final Body body = new Body();
+
+    /**
+     * The rejection of the requests under the {@code THROW} strategy or the reject actions of the guard, prefix is 'spring.xss-defender.rejection'.
+     */
+    private final Rejection rejection = new Rejection();
+
     public boolean isEnabled() {
         return enabled;
     }
 
-    public void disable() {
-        this.enabled = false;
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
     }
 
     public String getStrategy() {
         return strategy;
     }
 
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
     public boolean isEscapeAfterTrimEnabled() {
         return escapeAfterTrim;
     }
 
+    public void setEscapeAfterTrim(boolean escapeAfterTrim) {
+        this.escapeAfterTrim = escapeAfterTrim;
+    }
+
+    public SafelistType getSafelist() {
+        return safelist;
+    }
+
+    public void setSafelist(SafelistType safelist) {
+        this.safelist = safelist;
+    }
+
+    public TrimEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(TrimEngine engine) {
+        this.engine = engine;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public RequestFilter getRequestFilter() {
+        return requestFilter;
+    }
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Guard getGuard() {
+        return guard;
+    }
+
+    public Detection getDetection() {
+        return detection;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Json getJson() {
+        return json;
+    }
+
+    public Shadow getShadow() {
+        return shadow;
+    }
+
+    public Reload getReload() {
+        return reload;
+    }
+
+    public Body getBody() {
+        return body;
+    }
+
+    public Rejection getRejection() {
+        return rejection;
+    }
+
+    /**
+     * The description of the configured defense strategy, for example, used as a metric tag value.
+     */
+    public String describeStrategy() {
+        return DefenseStrategy.of(strategy).describe(escapeAfterTrim);
+    }
+
+    /**
+     * The properties of sanitization results cache.
+     *
+     * @see XssSanitizationCache
+     */
+    public static class Cache {
+
+        /**
+         * Whether to cache the sanitization results, default value is {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum count of cached entries, default value is {@code 10000}.
+         */
+        private int maximumSize = 10000;
+
+        /**
+         * The maximum total characters of cached input and output text, default value is {@code 4194304}.
+         */
+        private long maximumTotalChars = 4 * 1024 * 1024;
+
+        /**
+         * The input text longer than this value will bypass the cache, default value is {@code 256}.
+         */
+        private int maximumValueLength = 256;
+
+        /**
+         * The count of lock stripes, default value is {@code 16}.
+         */
+        private int concurrencyLevel = 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getMaximumTotalChars() {
+            return maximumTotalChars;
+        }
+
+        public void setMaximumTotalChars(long maximumTotalChars) {
+            this.maximumTotalChars = maximumTotalChars;
+        }
+
+        public int getMaximumValueLength() {
+            return maximumValueLength;
+        }
+
+        public void setMaximumValueLength(int maximumValueLength) {
+            this.maximumValueLength = maximumValueLength;
+        }
+
+        public int getConcurrencyLevel() {
+            return concurrencyLevel;
+        }
+
+        public void setConcurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+        }
+
+    }
+
+    /**
+     * The properties of Micrometer metrics.
+     *
+     * @see MicrometerXssDefenderMetrics
+     */
+    public static class Metrics {
+
+        /**
+         * Whether to record Micrometer metrics when a {@code MeterRegistry} is present, default value is {@code true}.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+    }
+
+    /**
+     * The properties of the servlet filter for the request parameters, headers and cookies,
+     * the reactive web filter shares the parameter and header policies.
+     * <p>
+     * A policy is one of {@code none}, {@code default} which follows the global strategy
+     * and the controller method, or a {@link DefenseStrategy} ignoring case.
+     *
+     * @see XssDefenderFilter
+     * @see XssDefenderWebFilter
+     */
+    public static class RequestFilter {
+
+        /**
+         * Whether to process the request parameters, headers and cookies read directly, default value is {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The policy of the parameters which are not configured, default value is {@code default}.
+         */
+        private String defaultParameterPolicy = POLICY_DEFAULT;
+
+        /**
+         * The policy of the headers which are not configured, default value is {@code none}.
+         */
+        private String defaultHeaderPolicy = POLICY_NONE;
+
+        /**
+         * The policy of the cookies which are not configured, default value is {@code none}.
+         */
+        private String defaultCookiePolicy = POLICY_NONE;
+
+        /**
+         * The policies by parameter name.
+         */
+        private Map<String, String> parameters = new LinkedHashMap<>();
+
+        /**
+         * The policies by header name, case-insensitive.
+         */
+        private Map<String, String> headers = new LinkedHashMap<>();
+
+        /**
+         * The policies by cookie name.
+         */
+        private Map<String, String> cookies = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDefaultParameterPolicy() {
+            return defaultParameterPolicy;
+        }
+
+        public void setDefaultParameterPolicy(String defaultParameterPolicy) {
+            this.defaultParameterPolicy = defaultParameterPolicy;
+        }
+
+        public String getDefaultHeaderPolicy() {
+            return defaultHeaderPolicy;
+        }
+
+        public void setDefaultHeaderPolicy(String defaultHeaderPolicy) {
+            this.defaultHeaderPolicy = defaultHeaderPolicy;
+        }
+
+        public String getDefaultCookiePolicy() {
+            return defaultCookiePolicy;
+        }
+
+        public void setDefaultCookiePolicy(String defaultCookiePolicy) {
+            this.defaultCookiePolicy = defaultCookiePolicy;
+        }
+
+        public Map<String, String> getParameters() {
+            return parameters;
+        }
+
+        public void setParameters(Map<String, String> parameters) {
+            this.parameters = parameters;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        public Map<String, String> getCookies() {
+            return cookies;
+        }
+
+        public void setCookies(Map<String, String> cookies) {
+            this.cookies = cookies;
+        }
+
+    }
+
+    /**
+     * The properties of the reactive web application support.
+     *
+     * @see XssDefenderJackson2JsonDecoder
+     */
+    public static class Reactive {
+
+        /**
+         * Whether to decode the large JSON bodies on a bounded scheduler instead of the event loop, default value is {@code false}.
+         */
+        private boolean offloadEnabled = false;
+
+        /**
+         * The JSON bodies of at least this many bytes are decoded on the bounded scheduler, default value is {@code 65536}.
+         */
+        private int offloadThreshold = 64 * 1024;
+
+        /**
+         * The maximum count of the scheduler threads, default value is the count of available processors.
+         */
+        private int offloadThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The maximum count of the pending tasks per scheduler thread, the JSON bodies are decoded on the event loop
+         * when the scheduler is saturated, default value is {@code 256}.
+         */
+        private int offloadQueueSize = 256;
+
+        public boolean isOffloadEnabled() {
+            return offloadEnabled;
+        }
+
+        public void setOffloadEnabled(boolean offloadEnabled) {
+            this.offloadEnabled = offloadEnabled;
+        }
+
+        public int getOffloadThreshold() {
+            return offloadThreshold;
+        }
+
+        public void setOffloadThreshold(int offloadThreshold) {
+            this.offloadThreshold = offloadThreshold;
+        }
+
+        public int getOffloadThreads() {
+            return offloadThreads;
+        }
+
+        public void setOffloadThreads(int offloadThreads) {
+            this.offloadThreads = offloadThreads;
+        }
+
+        public int getOffloadQueueSize() {
+            return offloadQueueSize;
+        }
+
+        public void setOffloadQueueSize(int offloadQueueSize) {
+            this.offloadQueueSize = offloadQueueSize;
+        }
+
+    }
+
+    /**
+     * The properties of the asynchronous audit of the detected XSS risk.
+     *
+     * @see XssDetectionAuditor
+     */
+    public static class Audit {
+
+        /**
+         * Whether to publish the modified or rejected input text to the audit sinks, default value is {@code true}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether to write the audit events into the application log, default value is {@code true}.
+         */
+        private boolean logEnabled = true;
+
+        /**
+         * The capacity of the ring buffer, the events are dropped when it's full, default value is {@code 8192}.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * The maximum count of events delivered to the sinks at once, default value is {@code 256}.
+         */
+        private int batchSize = 256;
+
+        /**
+         * How long the background thread sleeps when there is no event, default value is {@code 100}.
+         */
+        private long flushIntervalMillis = 100;
+
+        /**
+         * The ratio of events to keep, from {@code 0.0} to {@code 1.0}, default value is {@code 1.0}.
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * The maximum count of events per second for the same strategy, entry point, handler and field,
+         * no limit if it's not positive, default value is {@code 10}.
+         */
+        private int maxEventsPerKeyPerSecond = 10;
+
+        /**
+         * The maximum count of keys tracked by the rate limiter, default value is {@code 1024}.
+         */
+        private int maxKeys = 1024;
+
+        /**
+         * The maximum length of the input and output text kept in the event, default value is {@code 256}.
+         */
+        private int maxInputLength = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isLogEnabled() {
+            return logEnabled;
+        }
+
+        public void setLogEnabled(boolean logEnabled) {
+            this.logEnabled = logEnabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getMaxEventsPerKeyPerSecond() {
+            return maxEventsPerKeyPerSecond;
+        }
+
+        public void setMaxEventsPerKeyPerSecond(int maxEventsPerKeyPerSecond) {
+            this.maxEventsPerKeyPerSecond = maxEventsPerKeyPerSecond;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public int getMaxInputLength() {
+            return maxInputLength;
+        }
+
+        public void setMaxInputLength(int maxInputLength) {
+            this.maxInputLength = maxInputLength;
+        }
+
+    }
+
+    /**
+     * The properties of the limits of the input text, a limit is disabled if it's not positive.
+     *
+     * @see XssInputGuard
+     */
+    public static class Guard {
+
+        /**
+         * Whether to check the limits of the input text before the sanitizer, default value is {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum length of a value, default value is {@code 1048576}.
+         */
+        private int maxLength = 1024 * 1024;
+
+        /**
+         * The action when the length of a value is exceeded, default value is {@code GuardAction.REJECT}.
+         */
+        private GuardAction lengthAction = GuardAction.REJECT;
+
+        /**
+         * The maximum count of tags in a value, default value is {@code 10000}.
+         */
+        private int maxTags = 10000;
+
+        /**
+         * The maximum nesting depth of tags in a value, default value is {@code 256}.
+         */
+        private int maxDepth = 256;
+
+        /**
+         * The action when the tags of a value are exceeded, default value is {@code GuardAction.ESCAPE}.
+         */
+        private GuardAction markupAction = GuardAction.ESCAPE;
+
+        /**
+         * The maximum total length of the values sanitized in the same request, default value is {@code 0}, no limit.
+         */
+        private long requestBudget = 0;
+
+        /**
+         * The action when the budget of the request is used up, default value is {@code GuardAction.REJECT}.
+         */
+        private GuardAction budgetAction = GuardAction.REJECT;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public GuardAction getLengthAction() {
+            return lengthAction;
+        }
+
+        public void setLengthAction(GuardAction lengthAction) {
+            this.lengthAction = lengthAction;
+        }
+
+        public int getMaxTags() {
+            return maxTags;
+        }
+
+        public void setMaxTags(int maxTags) {
+            this.maxTags = maxTags;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public GuardAction getMarkupAction() {
+            return markupAction;
+        }
+
+        public void setMarkupAction(GuardAction markupAction) {
+            this.markupAction = markupAction;
+        }
+
+        public long getRequestBudget() {
+            return requestBudget;
+        }
+
+        public void setRequestBudget(long requestBudget) {
+            this.requestBudget = requestBudget;
+        }
+
+        public GuardAction getBudgetAction() {
+            return budgetAction;
+        }
+
+        public void setBudgetAction(GuardAction budgetAction) {
+            this.budgetAction = budgetAction;
+        }
+
+    }
+
+    /**
+     * The properties of the single-pass detection of the {@code THROW} strategy,
+     * and the canonicalization of the nested encodings before it.
+     *
+     * @see XssPatternAutomaton
+     * @see XssCanonicalizer
+     */
+    public static class Detection {
+
+        /**
+         * Whether to detect the XSS risk by the automaton before jsoup, default value is {@code true}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether jsoup confirms the ambiguous text, otherwise it's rejected, default value is {@code true}.
+         */
+        private boolean confirmAmbiguous = true;
+
+        /**
+         * The extra patterns which reject the text as soon as found, ASCII and case-insensitive.
+         */
+        private List<String> rejectPatterns = new ArrayList<>();
+
+        /**
+         * The extra patterns which make the text ambiguous, ASCII and case-insensitive.
+         */
+        private List<String> suspiciousPatterns = new ArrayList<>();
+
+        /**
+         * Whether the encoded tag openers followed by a dangerous tag, for example, {@code %3Cscript} or {@code &lt;script},
+         * reject the text without the confirmation of jsoup, which reads them as plain text, default value is {@code false}.
+         */
+        private boolean rejectEncodedTags = false;
+
+        /**
+         * Whether to decode the nested URL, HTML entity and JS encodings before the detection of the {@code THROW} strategy,
+         * the input text is never replaced by its canonical form, default value is {@code false}.
+         */
+        private boolean canonicalize = false;
+
+        /**
+         * The maximum rounds of decoding, one round decodes one level of the nested encodings, default value is {@code 3}.
+         */
+        private int maxDecodeRounds = XssCanonicalizer.DEFAULT_MAX_ROUNDS;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isConfirmAmbiguous() {
+            return confirmAmbiguous;
+        }
+
+        public void setConfirmAmbiguous(boolean confirmAmbiguous) {
+            this.confirmAmbiguous = confirmAmbiguous;
+        }
+
+        public List<String> getRejectPatterns() {
+            return rejectPatterns;
+        }
+
+        public void setRejectPatterns(List<String> rejectPatterns) {
+            this.rejectPatterns = rejectPatterns;
+        }
+
+        public List<String> getSuspiciousPatterns() {
+            return suspiciousPatterns;
+        }
+
+        public void setSuspiciousPatterns(List<String> suspiciousPatterns) {
+            this.suspiciousPatterns = suspiciousPatterns;
+        }
+
+        public boolean isRejectEncodedTags() {
+            return rejectEncodedTags;
+        }
+
+        public void setRejectEncodedTags(boolean rejectEncodedTags) {
+            this.rejectEncodedTags = rejectEncodedTags;
+        }
+
+        public boolean isCanonicalize() {
+            return canonicalize;
+        }
+
+        public void setCanonicalize(boolean canonicalize) {
+            this.canonicalize = canonicalize;
+        }
+
+        public int getMaxDecodeRounds() {
+            return maxDecodeRounds;
+        }
+
+        public void setMaxDecodeRounds(int maxDecodeRounds) {
+            this.maxDecodeRounds = maxDecodeRounds;
+        }
+
+    }
+
+    /**
+     * The properties of the bulk sanitization of the large batches, for example, the JSON arrays of strings.
+     *
+     * @see XssDefender#defendAll(String[], DefenseEntryPoint, String)
+     */
+    public static class Bulk {
+
+        /**
+         * The batches of at least this many values are sanitized in parallel, never if it's not positive, default value is {@code 4096}.
+         */
+        private int parallelThreshold = 4096;
+
+        /**
+         * Whether to sanitize the large batches in a dedicated pool instead of the common pool, default value is {@code false}.
+         */
+        private boolean dedicatedPoolEnabled = false;
+
+        /**
+         * The parallelism of the dedicated pool, default value is the count of available processors.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public boolean isDedicatedPoolEnabled() {
+            return dedicatedPoolEnabled;
+        }
+
+        public void setDedicatedPoolEnabled(boolean dedicatedPoolEnabled) {
+            this.dedicatedPoolEnabled = dedicatedPoolEnabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+    }
+
+    /**
+     * The properties of the sanitization of the untyped JSON, for example, a {@code JsonNode} or a {@code Map<String, Object>},
+     * and the encoding of the JSON responses.
+     *
+     * @see XssJsonTreeLimits
+     * @see StringXssJsonSerializer
+     */
+    public static class Json {
+
+        /**
+         * Whether to sanitize the string values of the untyped JSON, default value is {@code true}.
+         */
+        private boolean untypedEnabled = true;
+
+        /**
+         * The maximum nesting depth of the untyped JSON, unlimited if it's not positive, default value is {@code 64}.
+         */
+        private int maxDepth = 64;
+
+        /**
+         * The maximum count of the untyped JSON nodes of one request body, unlimited if it's not positive, default value is {@code 100000}.
+         */
+        private int maxNodes = 100000;
+
+        /**
+         * Whether to encode the string values of the JSON responses selected by {@code @XssEncode}, default value is {@code false}.
+         */
+        private boolean outputEncodingEnabled = false;
+
+        public boolean isUntypedEnabled() {
+            return untypedEnabled;
+        }
+
+        public void setUntypedEnabled(boolean untypedEnabled) {
+            this.untypedEnabled = untypedEnabled;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public boolean isOutputEncodingEnabled() {
+            return outputEncodingEnabled;
+        }
+
+        public void setOutputEncodingEnabled(boolean outputEncodingEnabled) {
+            this.outputEncodingEnabled = outputEncodingEnabled;
+        }
+
+    }
+
+    /**
+     * The properties of the shadow evaluation of a candidate policy on the sampled input texts.
+     *
+     * @see XssShadowEvaluator
+     */
+    public static class Shadow {
+
+        /**
+         * Whether to evaluate the candidate policy, default value is {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The defense strategy of the candidate policy, default value is {@code trim}.
+         */
+        private String strategy = DefenseStrategy.TRIM.name().toLowerCase();
+
+        /**
+         * Whether the candidate policy continues to escape the input text after XSS safe trim, default value is {@code false}.
+         */
+        private boolean escapeAfterTrim = false;
+
+        /**
+         * The safelist of the candidate policy, default value is the safelist of the active policy.
+         */
+        private SafelistType safelist;
+
+        /**
+         * The fraction of the sanitized input texts to evaluate, between 0.0 and 1.0, default value is {@code 0.01}.
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * The count of the background threads, default value is {@code 1}.
+         */
+        private int threads = 1;
+
+        /**
+         * The maximum count of the input texts waiting to be evaluated, the others are dropped, default value is {@code 1024}.
+         */
+        private int queueSize = 1024;
+
+        /**
+         * The count of the latest divergences kept as examples, default value is {@code 100}.
+         */
+        private int maxExamples = 100;
+
+        /**
+         * The maximum length of the texts kept in the examples, default value is {@code 256}.
+         */
+        private int maxInputLength = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+
+        public boolean isEscapeAfterTrimEnabled() {
+            return escapeAfterTrim;
+        }
+
+        public void setEscapeAfterTrim(boolean escapeAfterTrim) {
+            this.escapeAfterTrim = escapeAfterTrim;
+        }
+
+        public SafelistType getSafelist() {
+            return safelist;
+        }
+
+        public void setSafelist(SafelistType safelist) {
+            this.safelist = safelist;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getMaxExamples() {
+            return maxExamples;
+        }
+
+        public void setMaxExamples(int maxExamples) {
+            this.maxExamples = maxExamples;
+        }
+
+        public int getMaxInputLength() {
+            return maxInputLength;
+        }
+
+        public void setMaxInputLength(int maxInputLength) {
+            this.maxInputLength = maxInputLength;
+        }
+
+    }
+
+    /**
+     * The properties of the reload of the XSS policy at runtime. The strategy, the safelist, the detection
+     * and the request filter policies are reloaded, the others are applied only at startup.
+     *
+     * @see XssPolicyHolder
+     */
+    public static class Reload {
+
+        /**
+         * Whether to reload the XSS policy when the environment changes, for example, by spring cloud refresh,
+         * and to expose the 'xssdefender' actuator endpoint, default value is {@code true}.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+    }
+
+
+    /**
+     * The properties of the chunked sanitization of the raw text bodies bound to {@code @RequestBody String}
+     * and the text parts of the multipart requests. The html FORM bodies are sanitized as the request parameters.
+     *
+     * @see StringXssHttpMessageConverter
+     * @see XssDefenderPart
+     */
+    public static class Body {
+
+        /**
+         * Whether to sanitize the raw text bodies and the multipart text parts, default value is {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The media types of the sanitized bodies and parts, default value is text/plain and text/html.
+         */
+        private List<String> mediaTypes = new ArrayList<>(Arrays.asList("text/plain", "text/html"));
+
+        /**
+         * The count of the characters sanitized at a time, default value is {@value XssDefender#DEFAULT_CHUNK_SIZE}.
+         */
+        private int chunkSize = XssDefender.DEFAULT_CHUNK_SIZE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getMediaTypes() {
+            return mediaTypes;
+        }
+
+        public void setMediaTypes(List<String> mediaTypes) {
+            this.mediaTypes = mediaTypes;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+    }
+
+
+    /**
+     * The properties of the rejection of the requests, by the {@code THROW} strategy or the reject actions of the guard.
+     * They make the rejection cheaper when the application is flooded with the risky requests.
+     *
+     * @see XssRequestRejectedException
+     * @see XssRejectionAdvice
+     * @see XssRejectionFilter
+     */
+    public static class Rejection {
+
+        /**
+         * Whether the first rejected value rejects the whole request, so that the rest of the request is neither parsed
+         * nor bound, the rejection is an {@link XssRequestRejectedException} then, default value is {@code false}.
+         */
+        private boolean early = false;
+
+        /**
+         * Whether the exceptions of the rejection fill in their stack traces, default value is {@code true}.
+         */
+        private boolean stackTraceEnabled = true;
+
+        /**
+         * Whether to register the controller advice and the servlet filter which turn the rejection into a 400 response
+         * with a structured JSON body, default value is {@code false}.
+         */
+        private boolean responseEnabled = false;
+
+        public boolean isEarly() {
+            return early;
+        }
+
+        public void setEarly(boolean early) {
+            this.early = early;
+        }
+
+        public boolean isStackTraceEnabled() {
+            return stackTraceEnabled;
+        }
+
+        public void setStackTraceEnabled(boolean stackTraceEnabled) {
+            this.stackTraceEnabled = stackTraceEnabled;
+        }
+
+        public boolean isResponseEnabled() {
+            return responseEnabled;
+        }
+
+        public void setResponseEnabled(boolean responseEnabled) {
+            this.responseEnabled = responseEnabled;
+        }
+
+    }
+
 }
@@ -0,0 +1,108 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.xss.defender.reactive.XssDefenderJackson2JsonDecoder;
+import org.springframework.boot.xss.defender.reactive.XssDefenderWebFilter;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Add the auto configuration for reactive web application, for example, the web filter and the JSON decoder,
+ * nothing here runs any blocking operation on the event loop. The beans shared with the servlet web application
+ * are declared by {@link XssDefenderPolicyConfiguration}.
+ * <p>
+ * NOTICE: The features which read the request bound to the current thread are not supported yet, there is no such
+ * request in a reactive web application:
+ * <ul>
+ *     <li>the annotation {@link org.springframework.boot.xss.defender.annotation.XssDefenderIgnore}
+ *     and {@link org.springframework.boot.xss.defender.annotation.XssDefenderStrategy}, the controller methods
+ *     always follow the configured defense strategy</li>
+ *     <li>the request budget of the guard, 'spring.xss-defender.guard.request-budget', and the early rejection,
+ *     'spring.xss-defender.rejection.early', which fail the application startup when they are enabled</li>
+ *     <li>the handler of the audit events, which is always {@code null}</li>
+ *     <li>the rejection response, 'spring.xss-defender.rejection.response-enabled', and the raw text bodies,
+ *     'spring.xss-defender.body.enabled', which are registered for the servlet web application only</li>
+ * </ul>
+ *
+ * @author codeboyzhou
+ * @see XssDefenderProperties
+ * @see XssDefenderConfiguration
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(XssDefenderProperties.class)
+@Import(XssDefenderPolicyConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class XssDefenderReactiveConfiguration {
+
+    /**
+     * The name of the bounded scheduler bean to decode the large JSON bodies.
+     */
+    private static final String SCHEDULER_BEAN_NAME = "xssDefenderScheduler";
+
+    public XssDefenderReactiveConfiguration(XssDefenderProperties properties) {
+        checkUnsupported(properties);
+    }
+
+    /**
+     * The optional web filter for the query parameters and headers read by the application code directly,
+     * enabled by 'spring.xss-defender.request-filter.enabled'.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".request-filter", name = "enabled", havingValue = "true")
+    public XssDefenderWebFilter xssDefenderWebFilter(XssPolicyHolder policyHolder) {
+        return new XssDefenderWebFilter(policyHolder);
+    }
+
+    /**
+     * The bounded scheduler to decode the large JSON bodies, enabled by 'spring.xss-defender.reactive.offload-enabled'.
+     */
+    @Bean(name = SCHEDULER_BEAN_NAME, destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".reactive", name = "offload-enabled", havingValue = "true")
+    public Scheduler xssDefenderScheduler(XssDefenderProperties properties) {
+        XssDefenderProperties.Reactive reactive = properties.getReactive();
+        return Schedulers.newBoundedElastic(reactive.getOffloadThreads(), reactive.getOffloadQueueSize(), "xss-defender");
+    }
+
+    /**
+     * Replace the default JSON decoder after the one of spring boot is registered.
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".reactive", name = "offload-enabled", havingValue = "true")
+    public CodecCustomizer xssDefenderCodecCustomizer(XssDefenderProperties properties, ObjectMapper objectMapper,
+                                                      @Qualifier(SCHEDULER_BEAN_NAME) Scheduler scheduler) {
+        int offloadThreshold = properties.getReactive().getOffloadThreshold();
+        return configurer -> configurer.defaultCodecs().jackson2JsonDecoder(
+                new XssDefenderJackson2JsonDecoder(objectMapper, scheduler, offloadThreshold));
+    }
+
+    /**
+     * Fail the application startup if a feature which needs the request bound to the current thread is enabled,
+     * rather than ignoring it silently.
+     */
+    private static void checkUnsupported(XssDefenderProperties properties) {
+        final XssDefenderProperties.Guard guard = properties.getGuard();
+        if (guard.isEnabled() && guard.getRequestBudget() > 0) {
+            throw new InvalidConfigurationPropertyValueException(XssDefenderProperties.PREFIX + ".guard.request-budget",
+                    guard.getRequestBudget(), "The request budget is not supported by the reactive web application");
+        }
+        if (properties.getRejection().isEarly()) {
+            throw new InvalidConfigurationPropertyValueException(XssDefenderProperties.PREFIX + ".rejection.early",
+                    true, "The early rejection is not supported by the reactive web application");
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.xss.defender.reload.XssPolicyEndpoint;
+import org.springframework.boot.xss.defender.reload.XssPolicyRefreshListener;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Add the reload of the XSS policy at runtime, by the spring cloud environment change events and the actuator endpoint,
+ * each of them takes effect only when its library is present. Disable both by 'spring.xss-defender.reload.enabled'.
+ *
+ * @author codeboyzhou
+ * @see XssPolicyHolder
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnBean(XssPolicyHolder.class)
+@AutoConfigureAfter({XssDefenderConfiguration.class, XssDefenderReactiveConfiguration.class})
+@ConditionalOnProperty(prefix = XssDefenderProperties.PREFIX + ".reload", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class XssDefenderReloadConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+    static class RefreshListenerConfiguration {
+
+        @Bean
+        public XssPolicyRefreshListener xssPolicyRefreshListener(XssPolicyHolder policyHolder) {
+            return new XssPolicyRefreshListener(policyHolder, XssDefenderProperties.PREFIX);
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnAvailableEndpoint(endpoint = XssPolicyEndpoint.class)
+    static class EndpointConfiguration {
+
+        @Bean
+        public XssPolicyEndpoint xssPolicyEndpoint(XssPolicyHolder policyHolder) {
+            return new XssPolicyEndpoint(policyHolder);
+        }
+
+    }
+
+}
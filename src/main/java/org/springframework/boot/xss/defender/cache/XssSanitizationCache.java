@@ -0,0 +1,279 @@
+package org.springframework.boot.xss.defender.cache;
+
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizer;
+import org.springframework.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, lock-striped cache of the sanitization results, keyed on the input text and the compiled
+ * {@link XssSanitizer} policy, so that the repeated input text doesn't go through jsoup again.
+ * <p>
+ * The cache is bounded by both the entry count and the total characters of the keys and values.
+ * The eviction is W-TinyLFU style: a new entry goes into a small LRU window first, when it's pushed out
+ * of the window, it's admitted into the main LRU region only if its estimated access frequency is higher
+ * than the one of the main region's victim. So that a burst of one-off values can't flush the hot values.
+ * <p>
+ * The input text longer than the maximum value length bypasses the cache. Exceptions thrown by
+ * the sanitizer are never cached.
+ *
+ * @author codeboyzhou
+ * @see FrequencySketch
+ * @since 1.0.0
+ */
+public final class XssSanitizationCache {
+
+    /**
+     * The percentage of the window region in each segment.
+     */
+    private static final int WINDOW_PERCENTAGE = 1;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    private final int maximumValueLength;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder bypassCount = new LongAdder();
+
+    /**
+     * Create a cache.
+     *
+     * @param maximumSize        The maximum entry count
+     * @param maximumTotalChars  The maximum total characters of the cached input and output text
+     * @param maximumValueLength The maximum length of the input text to be cached
+     * @param concurrencyLevel   The expected count of concurrently updating threads, rounded up to a power of two
+     */
+    public XssSanitizationCache(int maximumSize, long maximumTotalChars, int maximumValueLength, int concurrencyLevel) {
+        Assert.isTrue(maximumSize > 0, "maximumSize must be positive");
+        Assert.isTrue(maximumTotalChars > 0, "maximumTotalChars must be positive");
+        Assert.isTrue(concurrencyLevel > 0, "concurrencyLevel must be positive");
+        final int segmentCount = Math.min(ceilingPowerOfTwo(concurrencyLevel), Integer.highestOneBit(maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(Math.max(maximumSize / segmentCount, 1), Math.max(maximumTotalChars / segmentCount, 1));
+        }
+        this.segmentMask = segmentCount - 1;
+        this.maximumValueLength = maximumValueLength;
+    }
+
+    /**
+     * Return the cached sanitization result, or sanitize the input text and cache the result.
+     *
+     * @param text   The input text
+     * @param policy The compiled sanitizer, which is a part of the cache key
+     * @return The safe text without XSS risk
+     */
+    public String get(String text, XssSanitizer policy) {
+        if (text.length() > maximumValueLength) {
+            bypassCount.increment();
+            return policy.sanitize(text);
+        }
+
+        final int hash = text.hashCode();
+        final Segment segment = segments[(hash ^ (hash >>> 16)) & segmentMask];
+        final String cached = segment.get(text, hash, policy);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+
+        missCount.increment();
+        final String safeText = policy.sanitize(text);
+        evictionCount.add(segment.put(text, policy, safeText));
+        return safeText;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long bypassCount() {
+        return bypassCount.sum();
+    }
+
+    /**
+     * The current entry count, it's an estimation under concurrent updates.
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * The current total characters, it's an estimation under concurrent updates.
+     */
+    public long totalChars() {
+        long totalChars = 0;
+        for (Segment segment : segments) {
+            totalChars += segment.totalChars;
+        }
+        return totalChars;
+    }
+
+    /**
+     * A cached sanitization result.
+     */
+    private static final class Entry {
+
+        final String key;
+
+        final XssSanitizer policy;
+
+        final String value;
+
+        final int weight;
+
+        Entry(String key, XssSanitizer policy, String value) {
+            this.key = key;
+            this.policy = policy;
+            this.value = value;
+            this.weight = key.length() + (value == key ? 0 : value.length());
+        }
+
+    }
+
+    /**
+     * A segment of the cache, guarded by its own lock.
+     */
+    private static final class Segment {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        final LinkedHashMap<String, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+
+        final LinkedHashMap<String, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+
+        final FrequencySketch sketch;
+
+        final int maximumSize;
+
+        final int maximumWindowSize;
+
+        final long maximumTotalChars;
+
+        volatile int size;
+
+        volatile long totalChars;
+
+        Segment(int maximumSize, long maximumTotalChars) {
+            this.sketch = new FrequencySketch(maximumSize);
+            this.maximumSize = maximumSize;
+            this.maximumWindowSize = Math.max(maximumSize * WINDOW_PERCENTAGE / 100, 1);
+            this.maximumTotalChars = maximumTotalChars;
+        }
+
+        String get(String key, int hash, XssSanitizer policy) {
+            lock.lock();
+            try {
+                sketch.increment(hash);
+                Entry entry = window.get(key);
+                if (entry == null) {
+                    entry = main.get(key);
+                }
+                return entry != null && entry.policy == policy ? entry.value : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Put an entry, and return the count of evicted entries.
+         */
+        int put(String key, XssSanitizer policy, String value) {
+            final Entry entry = new Entry(key, policy, value);
+            lock.lock();
+            try {
+                int evicted = 0;
+                Entry previous = main.remove(key);
+                if (previous == null) {
+                    previous = window.remove(key);
+                }
+                if (previous != null) {
+                    unaccount(previous);
+                }
+
+                window.put(key, entry);
+                account(entry);
+                while (window.size() > maximumWindowSize) {
+                    evicted += promote(pollEldest(window));
+                }
+                while (size > maximumSize || totalChars > maximumTotalChars) {
+                    unaccount(pollEldest(main.isEmpty() ? window : main));
+                    evicted++;
+                }
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Move the window victim into the main region if it wins the frequency duel, return the count of evicted entries.
+         */
+        private int promote(Entry candidate) {
+            if (main.size() < maximumSize - maximumWindowSize) {
+                main.put(candidate.key, candidate);
+                return 0;
+            }
+
+            if (main.isEmpty()) {
+                unaccount(candidate);
+                return 1;
+            }
+
+            final Entry victim = main.values().iterator().next();
+            if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                main.remove(victim.key);
+                unaccount(victim);
+                main.put(candidate.key, candidate);
+            } else {
+                unaccount(candidate);
+            }
+            return 1;
+        }
+
+        private static Entry pollEldest(LinkedHashMap<String, Entry> region) {
+            final Iterator<Entry> iterator = region.values().iterator();
+            final Entry eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        }
+
+        private void account(Entry entry) {
+            size++;
+            totalChars += entry.weight;
+        }
+
+        private void unaccount(Entry entry) {
+            size--;
+            totalChars -= entry.weight;
+        }
+
+    }
+
+}
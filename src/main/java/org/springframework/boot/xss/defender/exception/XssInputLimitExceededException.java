@@ -0,0 +1,24 @@
+package org.springframework.boot.xss.defender.exception;
+
+import org.springframework.boot.xss.defender.guard.GuardAction;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+
+/**
+ * This runtime exception will be thrown when the input text exceeds a limit of {@link XssInputGuard},
+ * and the action of the limit is {@link GuardAction#REJECT}. The input text is not kept in the message.
+ *
+ * @author codeboyzhou
+ * @see XssInputGuard
+ * @since 1.0.0
+ */
+public class XssInputLimitExceededException extends XssRiskDetectedException {
+
+    public XssInputLimitExceededException(String message) {
+        super(message);
+    }
+
+    public XssInputLimitExceededException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.springframework.boot.xss.defender.exception;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+
+/**
+ * This runtime exception will be thrown instead of {@link XssRiskDetectedException} when the early rejection is enabled,
+ * the first XSS risk detected rejects the whole request. Unlike {@link XssRiskDetectedException}, it's not an
+ * {@link IllegalArgumentException}, so the data binder doesn't record it as a binding error of a single field
+ * and go on with the other fields, the parsing and the binding of the request are aborted at once.
+ * <p>
+ * The input text is not kept in the message, it's the cause if needed.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.support.XssRejectionAdvice
+ * @see org.springframework.boot.xss.defender.filter.XssRejectionFilter
+ * @since 1.0.0
+ */
+public class XssRequestRejectedException extends RuntimeException {
+
+    private final DefenseEntryPoint entryPoint;
+
+    /**
+     * The name of the JSON field, parameter, header or cookie, nullable.
+     */
+    private final String field;
+
+    /**
+     * @param entryPoint         The entry point of the rejected input text
+     * @param field              The name of the JSON field, parameter, header or cookie, nullable
+     * @param cause              The exception of the rejected input text
+     * @param writableStackTrace Whether the stack trace is filled in, it's skipped to make the rejection cheaper under attack
+     */
+    public XssRequestRejectedException(DefenseEntryPoint entryPoint, String field, XssRiskDetectedException cause,
+                                       boolean writableStackTrace) {
+        super("XSS risk detected in the " + entryPoint.tagValue() + (field == null ? "" : " '" + field + "'"), cause,
+                false, writableStackTrace);
+        this.entryPoint = entryPoint;
+        this.field = field;
+    }
+
+    public DefenseEntryPoint getEntryPoint() {
+        return entryPoint;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+}
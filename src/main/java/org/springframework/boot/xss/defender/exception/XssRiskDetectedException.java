@@ -12,8 +12,31 @@ import org.springframework.boot.xss.defender.DefenseStrategy;
  */
 public class XssRiskDetectedException extends IllegalArgumentException {
 
+    /**
+     * Whether the stack trace is filled in, it's still {@code false} while the super constructor runs,
+     * so the stack trace is filled in by the constructor of this class.
+     */
+    private final boolean writableStackTrace;
+
     public XssRiskDetectedException(String message) {
+        this(message, true);
+    }
+
+    /**
+     * @param message            The detail message
+     * @param writableStackTrace Whether the stack trace is filled in, it's skipped to make the rejection cheaper under attack
+     */
+    public XssRiskDetectedException(String message, boolean writableStackTrace) {
         super(message);
+        this.writableStackTrace = writableStackTrace;
+        if (writableStackTrace) {
+            super.fillInStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return writableStackTrace ? super.fillInStackTrace() : this;
     }
 
 }
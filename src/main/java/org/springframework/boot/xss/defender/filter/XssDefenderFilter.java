@@ -0,0 +1,57 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * An optional servlet filter, it wraps the request with {@link XssDefenderRequestWrapper}, so that
+ * the request parameters, headers and cookies read by the application code directly are processed too.
+ * Enable it by 'spring.xss-defender.request-filter.enabled'.
+ * <p>
+ * The current {@link XssPolicySnapshot} is read once and pinned to the request, so that the whole request,
+ * including the JSON and FORM binders, is processed by the same version of the configuration.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderRequestWrapper
+ * @since 1.0.0
+ */
+public class XssDefenderFilter extends OncePerRequestFilter {
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    public XssDefenderFilter(XssDefender defaultXssDefender, XssNamePolicy parameterPolicy,
+                             XssNamePolicy headerPolicy, XssNamePolicy cookiePolicy) {
+        this(XssPolicyHolder.of(XssPolicySnapshot.builder(0, defaultXssDefender).build()
+                .withNamePolicies(parameterPolicy, headerPolicy, cookiePolicy)));
+    }
+
+    public XssDefenderFilter(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // The request may not be bound to the thread yet at the order of this filter.
+        final XssPolicySnapshot snapshot = policyHolder.pin(new ServletRequestAttributes(request));
+        if (!snapshot.isEnabled() || !snapshot.hasNamePolicies()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        filterChain.doFilter(new XssDefenderRequestWrapper(request, snapshot.getXssDefender(), snapshot.getParameterPolicy(),
+                snapshot.getHeaderPolicy(), snapshot.getCookiePolicy()), response);
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.Part;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class decorates the text parts of a multipart request with {@link XssDefenderPart}, so that the
+ * {@code MultipartFile} and the {@code @RequestPart} bound to them read the safe content. The other parts,
+ * for example, the images, are not touched. The multipart request is still parsed by the decorated resolver.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderPart
+ * @since 1.0.0
+ */
+public class XssDefenderMultipartResolver implements MultipartResolver {
+
+    private final MultipartResolver multipartResolver;
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    /**
+     * The media types of the decorated parts.
+     */
+    private final List<MediaType> mediaTypes;
+
+    private final int chunkSize;
+
+    public XssDefenderMultipartResolver(MultipartResolver multipartResolver, XssPolicyHolder policyHolder,
+                                        List<MediaType> mediaTypes, int chunkSize) {
+        this.multipartResolver = multipartResolver;
+        this.policyHolder = policyHolder;
+        this.mediaTypes = mediaTypes;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean isMultipart(HttpServletRequest request) {
+        return multipartResolver.isMultipart(request);
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        return multipartResolver.resolveMultipart(new PartDecoratingRequest(request));
+    }
+
+    @Override
+    public void cleanupMultipart(MultipartHttpServletRequest request) {
+        multipartResolver.cleanupMultipart(request);
+    }
+
+    /**
+     * The request whose text parts are decorated.
+     */
+    private final class PartDecoratingRequest extends HttpServletRequestWrapper {
+
+        private PartDecoratingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public Collection<Part> getParts() throws IOException, ServletException {
+            final Collection<Part> parts = super.getParts();
+            final List<Part> decorated = new ArrayList<>(parts.size());
+            for (Part part : parts) {
+                decorated.add(this.decorate(part));
+            }
+            return decorated;
+        }
+
+        @Override
+        public Part getPart(String name) throws IOException, ServletException {
+            final Part part = super.getPart(name);
+            return part == null ? null : this.decorate(part);
+        }
+
+        private Part decorate(Part part) {
+            final String contentType = part.getContentType();
+            if (!StringUtils.hasText(contentType)) {
+                return part;
+            }
+            final MediaType mediaType;
+            try {
+                mediaType = MediaType.parseMediaType(contentType);
+            } catch (IllegalArgumentException e) {
+                return part;
+            }
+            for (MediaType supported : mediaTypes) {
+                if (supported.includes(mediaType)) {
+                    return new XssDefenderPart(part, policyHolder, this.resolveCharset(mediaType), chunkSize);
+                }
+            }
+            return part;
+        }
+
+        private Charset resolveCharset(MediaType mediaType) {
+            if (mediaType.getCharset() != null) {
+                return mediaType.getCharset();
+            }
+            final String encoding = getCharacterEncoding();
+            return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        }
+
+    }
+
+}
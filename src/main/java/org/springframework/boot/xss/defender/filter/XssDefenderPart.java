@@ -0,0 +1,228 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicy;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.Part;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.util.Collection;
+
+/**
+ * A decorator of a text part of a multipart request, for example, an uploaded html file, whose content is sanitized
+ * in chunks while it's read, so that the memory stays the same whatever the size of the part.
+ * The content is decoded and encoded again by the charset of the part.
+ * <p>
+ * The {@link XssHandlerPolicy} of the current controller method takes precedence over the global configuration,
+ * it's resolved when the content is read. The size is the size of the safe content, it's counted by sanitizing
+ * the content once more on the first call. Like the request itself, it's not thread-safe.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderMultipartResolver
+ * @see XssDefender#defend(Reader, int, DefenseEntryPoint, String)
+ * @since 1.0.0
+ */
+public class XssDefenderPart implements Part {
+
+    private final Part part;
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    /**
+     * The charset to decode and encode the content.
+     */
+    private final Charset charset;
+
+    private final int chunkSize;
+
+    /**
+     * The size of the safe content, counted on the first call.
+     */
+    private long size = -1;
+
+    public XssDefenderPart(Part part, XssPolicyHolder policyHolder, Charset charset, int chunkSize) {
+        this.part = part;
+        this.policyHolder = policyHolder;
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Check if an input stream is the safe content of a part, so that it's not sanitized twice,
+     * for example, by {@link org.springframework.boot.xss.defender.support.StringXssHttpMessageConverter}.
+     */
+    public static boolean isSanitized(InputStream inputStream) {
+        return inputStream instanceof SanitizedInputStream;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final XssHandlerPolicy policy = XssHandlerPolicy.current();
+        final XssPolicySnapshot snapshot = policy == null ? policyHolder.pin() : null;
+        final boolean enabled = policy == null ? snapshot.isEnabled() : policy.isEnabled();
+        if (!enabled) {
+            return part.getInputStream();
+        }
+        final XssDefender xssDefender = policy == null ? snapshot.getXssDefender() : policy.getXssDefender();
+        final Reader reader = new InputStreamReader(part.getInputStream(), charset);
+        return new SanitizedInputStream(xssDefender.defend(reader, chunkSize, DefenseEntryPoint.BODY, part.getName()), charset);
+    }
+
+    @Override
+    public long getSize() {
+        if (size < 0) {
+            try (InputStream inputStream = this.getInputStream()) {
+                size = StreamUtils.drain(inputStream);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the part: " + part.getName(), e);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Write the safe content, the file name must be absolute, since the location of the multipart configuration
+     * is only known by the servlet container.
+     */
+    @Override
+    public void write(String fileName) throws IOException {
+        final File file = new File(fileName);
+        if (!file.isAbsolute()) {
+            throw new IOException("The sanitized part can only be written to an absolute path: " + fileName);
+        }
+        try (InputStream inputStream = this.getInputStream(); OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            StreamUtils.copy(inputStream, outputStream);
+        }
+    }
+
+    @Override
+    public void delete() throws IOException {
+        part.delete();
+    }
+
+    @Override
+    public String getContentType() {
+        return part.getContentType();
+    }
+
+    @Override
+    public String getName() {
+        return part.getName();
+    }
+
+    @Override
+    public String getSubmittedFileName() {
+        return part.getSubmittedFileName();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return part.getHeader(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return part.getHeaders(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return part.getHeaderNames();
+    }
+
+    /**
+     * The safe content encoded by the charset of the part, through two fixed-size buffers.
+     */
+    private static final class SanitizedInputStream extends InputStream {
+
+        private final Reader reader;
+
+        private final CharsetEncoder encoder;
+
+        private final CharBuffer chars = CharBuffer.allocate(1024);
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+        private boolean endOfInput;
+
+        private boolean flushed;
+
+        private SanitizedInputStream(Reader reader, Charset charset) {
+            this.reader = reader;
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chars.flip();
+            bytes.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return bytes.hasRemaining() || this.fill() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!bytes.hasRemaining() && !this.fill()) {
+                return -1;
+            }
+            final int n = Math.min(len, bytes.remaining());
+            bytes.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        /**
+         * Encode the next characters of the reader, the reader is read directly into the backing array of the buffer.
+         *
+         * @return {@code false} if the end of the content is reached
+         */
+        private boolean fill() throws IOException {
+            bytes.clear();
+            while (bytes.position() == 0 && !flushed) {
+                if (!endOfInput) {
+                    chars.compact();
+                    final int n = reader.read(chars.array(), chars.position(), chars.remaining());
+                    if (n < 0) {
+                        endOfInput = true;
+                    } else {
+                        chars.position(chars.position() + n);
+                    }
+                    chars.flip();
+                }
+                if (encoder.encode(chars, bytes, endOfInput).isUnderflow() && endOfInput) {
+                    encoder.flush(bytes);
+                    flushed = true;
+                }
+            }
+            bytes.flip();
+            return bytes.hasRemaining();
+        }
+
+    }
+
+}
@@ -0,0 +1,375 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicy;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class is intended to process the XSS risk from the request parameters, headers and cookies,
+ * which are read by the application code directly, for example, {@link HttpServletRequest#getParameter(String)}.
+ * <p>
+ * The values are processed lazily on the first access, and the results are kept for the rest of the request,
+ * so the values which are never read cost nothing. If the {@link XssHandlerPolicy} of the current controller method
+ * is resolved, it takes precedence over the default {@link XssDefender}. Like the request itself, it's not thread-safe.
+ * <p>
+ * The returned parameter values are recorded in a request attribute, so that the binder doesn't process them again.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderFilter
+ * @since 1.0.0
+ */
+public class XssDefenderRequestWrapper extends HttpServletRequestWrapper {
+
+    /**
+     * The request attribute of the parameter values processed by the wrapper, by identity.
+     */
+    private static final String PROCESSED_PARAMETERS_ATTRIBUTE = XssDefenderRequestWrapper.class.getName() + ".PROCESSED_PARAMETERS";
+
+    /**
+     * The default XSS defender, it's replaced by the one of the current controller method if resolved.
+     */
+    private final XssDefender defaultXssDefender;
+
+    private final XssNamePolicy parameterPolicy;
+
+    private final XssNamePolicy headerPolicy;
+
+    private final XssNamePolicy cookiePolicy;
+
+    /**
+     * The processed parameter values by name, created on the first access.
+     */
+    private Map<String, Processed<String[]>> parameters;
+
+    /**
+     * The processed header values by case-insensitive name, created on the first access.
+     */
+    private Map<String, Processed<List<String>>> headers;
+
+    /**
+     * The processed cookies, created on the first access.
+     */
+    private Processed<Cookie[]> cookies;
+
+    /**
+     * The lazy view of the processed parameter map, created on the first access.
+     */
+    private Map<String, String[]> parameterMap;
+
+    /**
+     * The parameter values processed by the wrapper, by identity, created on the first access.
+     */
+    private Set<String> processedParameters;
+
+    public XssDefenderRequestWrapper(HttpServletRequest request, XssDefender defaultXssDefender,
+                                     XssNamePolicy parameterPolicy, XssNamePolicy headerPolicy, XssNamePolicy cookiePolicy) {
+        super(request);
+        this.defaultXssDefender = defaultXssDefender;
+        this.parameterPolicy = parameterPolicy;
+        this.headerPolicy = headerPolicy;
+        this.cookiePolicy = cookiePolicy;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        final XssDefender xssDefender = this.resolve(parameterPolicy, name);
+        if (xssDefender == null) {
+            return super.getParameter(name);
+        }
+        final String[] values = this.processParameter(name, xssDefender);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        final XssDefender xssDefender = this.resolve(parameterPolicy, name);
+        return xssDefender == null ? super.getParameterValues(name) : this.processParameter(name, xssDefender);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameterPolicy.isNone()) {
+            return super.getParameterMap();
+        }
+        if (parameterMap == null) {
+            parameterMap = new ParameterMap(super.getParameterMap());
+        }
+        return parameterMap;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        final XssDefender xssDefender = this.resolve(headerPolicy, name);
+        if (xssDefender == null) {
+            return super.getHeader(name);
+        }
+        final List<String> values = this.processHeader(name, xssDefender);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        final XssDefender xssDefender = this.resolve(headerPolicy, name);
+        return xssDefender == null ? super.getHeaders(name) : Collections.enumeration(this.processHeader(name, xssDefender));
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        if (cookiePolicy.isNone()) {
+            return super.getCookies();
+        }
+        final Object handlerPolicy = super.getAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE);
+        if (cookies == null || cookies.key != handlerPolicy) {
+            cookies = new Processed<>(handlerPolicy, this.processCookies(super.getCookies()));
+        }
+        return cookies.values;
+    }
+
+    /**
+     * Resolve the XSS defender of the name, {@code null} if the values of this name should not be processed.
+     */
+    private XssDefender resolve(XssNamePolicy policy, String name) {
+        final XssDefender xssDefender = policy.resolve(name);
+        if (xssDefender == null) {
+            return null;
+        }
+        final Object attribute = super.getAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE);
+        if (attribute instanceof XssHandlerPolicy) {
+            final XssHandlerPolicy handlerPolicy = (XssHandlerPolicy) attribute;
+            if (!handlerPolicy.isEnabled()) {
+                return null;
+            }
+            // Only the names without a configured policy follow the controller method.
+            if (xssDefender == defaultXssDefender) {
+                return handlerPolicy.getXssDefender();
+            }
+        }
+        return xssDefender;
+    }
+
+    private String[] processParameter(String name, XssDefender xssDefender) {
+        if (parameters == null) {
+            parameters = new HashMap<>();
+        }
+        Processed<String[]> processed = parameters.get(name);
+        if (processed == null || processed.key != xssDefender) {
+            final String[] values = super.getParameterValues(name);
+            processed = new Processed<>(xssDefender, values == null ? null : defend(name, values, xssDefender));
+            parameters.put(name, processed);
+            this.markProcessed(processed.values);
+        }
+        return processed.values;
+    }
+
+    private void markProcessed(String[] values) {
+        if (values == null) {
+            return;
+        }
+        if (processedParameters == null) {
+            processedParameters = Collections.newSetFromMap(new IdentityHashMap<>());
+            super.setAttribute(PROCESSED_PARAMETERS_ATTRIBUTE, processedParameters);
+        }
+        Collections.addAll(processedParameters, values);
+    }
+
+    /**
+     * Check if the parameter value of the current request has been processed by the wrapper already,
+     * so that the binder of the same value skips it.
+     *
+     * @param value The parameter value, the very instance returned by the wrapper
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean isProcessedParameter(String value) {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        final Object processed = attributes == null ? null
+                : attributes.getAttribute(PROCESSED_PARAMETERS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return processed != null && ((Set<String>) processed).contains(value);
+    }
+
+    private List<String> processHeader(String name, XssDefender xssDefender) {
+        if (headers == null) {
+            headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        }
+        Processed<List<String>> processed = headers.get(name);
+        if (processed == null || processed.key != xssDefender) {
+            final Enumeration<String> values = super.getHeaders(name);
+            final List<String> safeValues = values == null ? Collections.emptyList() : Collections.list(values);
+            safeValues.replaceAll(value -> xssDefender.defend(value, DefenseEntryPoint.HEADER, name));
+            processed = new Processed<>(xssDefender, Collections.unmodifiableList(safeValues));
+            headers.put(name, processed);
+        }
+        return processed.values;
+    }
+
+    private Cookie[] processCookies(Cookie[] cookies) {
+        if (cookies == null) {
+            return null;
+        }
+        Cookie[] safeCookies = cookies;
+        for (int i = 0; i < cookies.length; i++) {
+            final XssDefender xssDefender = this.resolve(cookiePolicy, cookies[i].getName());
+            if (xssDefender == null) {
+                continue;
+            }
+            final String value = cookies[i].getValue();
+            final String safeValue = xssDefender.defend(value, DefenseEntryPoint.COOKIE, cookies[i].getName());
+            if (!safeValue.equals(value)) {
+                // Copy on write, the original cookies might be shared by the servlet container.
+                if (safeCookies == cookies) {
+                    safeCookies = cookies.clone();
+                }
+                safeCookies[i] = (Cookie) cookies[i].clone();
+                safeCookies[i].setValue(safeValue);
+            }
+        }
+        return safeCookies;
+    }
+
+    /**
+     * Process the parameter values, the original array is returned if nothing changed.
+     */
+    private static String[] defend(String name, String[] values, XssDefender xssDefender) {
+        String[] safeValues = values;
+        for (int i = 0; i < values.length; i++) {
+            final String safeValue = xssDefender.defend(values[i], DefenseEntryPoint.PARAMETER, name);
+            if (safeValue != values[i]) {
+                if (safeValues == values) {
+                    safeValues = values.clone();
+                }
+                safeValues[i] = safeValue;
+            }
+        }
+        return safeValues;
+    }
+
+    /**
+     * The processed values, with the key they are processed by.
+     */
+    private static final class Processed<T> {
+
+        private final Object key;
+
+        private final T values;
+
+        private Processed(Object key, T values) {
+            this.key = key;
+            this.values = values;
+        }
+
+    }
+
+    /**
+     * The unmodifiable view of the parameter map, the values are processed on the first access.
+     */
+    private final class ParameterMap extends AbstractMap<String, String[]> {
+
+        private final Map<String, String[]> original;
+
+        private ParameterMap(Map<String, String[]> original) {
+            this.original = original;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return original.containsKey(key);
+        }
+
+        @Override
+        public String[] get(Object key) {
+            return key instanceof String && original.containsKey(key) ? getParameterValues((String) key) : null;
+        }
+
+        @Override
+        public int size() {
+            return original.size();
+        }
+
+        @Override
+        public Set<Entry<String, String[]>> entrySet() {
+            return new AbstractSet<Entry<String, String[]>>() {
+                @Override
+                public Iterator<Entry<String, String[]>> iterator() {
+                    final Iterator<String> names = original.keySet().iterator();
+                    return new Iterator<Entry<String, String[]>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String[]> next() {
+                            return new ParameterEntry(names.next());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return original.size();
+                }
+            };
+        }
+
+    }
+
+    /**
+     * The entry of the parameter map, the values are processed on the first access.
+     */
+    private final class ParameterEntry implements Map.Entry<String, String[]> {
+
+        private final String name;
+
+        private ParameterEntry(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getKey() {
+            return name;
+        }
+
+        @Override
+        public String[] getValue() {
+            return getParameterValues(name);
+        }
+
+        @Override
+        public String[] setValue(String[] value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return name.equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+    }
+
+}
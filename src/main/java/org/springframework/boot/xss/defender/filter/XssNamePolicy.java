@@ -0,0 +1,66 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The immutable XSS policy of the request parameters, headers or cookies by their names,
+ * the {@link XssDefender} of a name is {@code null} if the values of this name should not be processed.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderRequestWrapper
+ * @since 1.0.0
+ */
+public final class XssNamePolicy {
+
+    /**
+     * The XSS defender of the names which are not configured, nullable.
+     */
+    private final XssDefender defaultXssDefender;
+
+    /**
+     * The XSS defenders of the configured names, the value is {@code null} if the name should not be processed.
+     */
+    private final Map<String, XssDefender> xssDefenders;
+
+    /**
+     * Whether no value will be processed by this policy.
+     */
+    private final boolean none;
+
+    /**
+     * @param defaultXssDefender The XSS defender of the names which are not configured, nullable
+     * @param xssDefenders       The XSS defenders of the configured names, the value is nullable
+     * @param ignoreCase         Whether the names are case-insensitive, for example, the request headers
+     */
+    public XssNamePolicy(XssDefender defaultXssDefender, Map<String, XssDefender> xssDefenders, boolean ignoreCase) {
+        final Map<String, XssDefender> copy = ignoreCase ? new TreeMap<>(String.CASE_INSENSITIVE_ORDER) : new HashMap<>();
+        copy.putAll(xssDefenders);
+        this.defaultXssDefender = defaultXssDefender;
+        this.xssDefenders = Collections.unmodifiableMap(copy);
+        this.none = defaultXssDefender == null && copy.values().stream().allMatch(Objects::isNull);
+    }
+
+    /**
+     * Get the XSS defender of the name.
+     *
+     * @param name The name of the parameter, header or cookie
+     * @return The XSS defender, {@code null} if the values of this name should not be processed
+     */
+    public XssDefender resolve(String name) {
+        return xssDefenders.getOrDefault(name, defaultXssDefender);
+    }
+
+    /**
+     * Whether no value will be processed by this policy, so that the request wrapper can skip it entirely.
+     */
+    public boolean isNone() {
+        return none;
+    }
+
+}
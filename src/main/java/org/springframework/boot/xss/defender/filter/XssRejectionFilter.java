@@ -0,0 +1,73 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.support.XssRejectionAdvice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A servlet filter which turns a rejection escaping from the rest of the filter chain into a 400 response with
+ * the same structured JSON body as {@link XssRejectionAdvice}, for example, the rejection of a parameter read by
+ * another filter, or of a request whose exception is not handled by any controller advice. The rejected request
+ * never reaches the error page of the servlet container.
+ * <p>
+ * The response is left as it is if it's committed already, the exception is thrown again then.
+ *
+ * @author codeboyzhou
+ * @see XssRejectionAdvice
+ * @since 1.0.0
+ */
+public class XssRejectionFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            final Throwable rejection = findRejection(e);
+            if (rejection == null || response.isCommitted()) {
+                throw e;
+            }
+            final DefenseEntryPoint entryPoint = rejection instanceof XssRequestRejectedException
+                    ? ((XssRequestRejectedException) rejection).getEntryPoint() : null;
+            final String field = rejection instanceof XssRequestRejectedException
+                    ? ((XssRequestRejectedException) rejection).getField() : null;
+            final byte[] body = XssRejectionAdvice.responseBody(entryPoint, field).getBytes(StandardCharsets.UTF_8);
+            response.reset();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Find the rejection in the cause chain, the one of the early rejection first.
+     *
+     * @return The {@link XssRequestRejectedException}, or the {@link XssRiskDetectedException}, or {@code null}
+     */
+    private static Throwable findRejection(Throwable exception) {
+        Throwable riskDetected = null;
+        for (Throwable cause = exception; cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if (cause instanceof XssRequestRejectedException) {
+                return cause;
+            }
+            if (riskDetected == null && cause instanceof XssRiskDetectedException) {
+                riskDetected = cause;
+            }
+        }
+        return riskDetected;
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.springframework.boot.xss.defender.guard;
+
+/**
+ * What the {@link XssInputGuard} does when the input text exceeds one of its limits.
+ * The {@code THROW} strategy never returns a rewritten text, so it always rejects the input text exceeding a limit.
+ *
+ * @author codeboyzhou
+ * @see XssInputGuard
+ * @since 1.0.0
+ */
+public enum GuardAction {
+
+    /**
+     * Throw {@link org.springframework.boot.xss.defender.exception.XssInputLimitExceededException}.
+     */
+    REJECT,
+
+    /**
+     * Cut the input text at the limit, and sanitize the rest as usual.
+     */
+    TRUNCATE,
+
+    /**
+     * Escape the whole input text without building any DOM, the cost is linear in the length of the input text.
+     */
+    ESCAPE
+
+}
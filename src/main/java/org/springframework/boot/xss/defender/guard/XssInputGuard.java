@@ -0,0 +1,356 @@
+package org.springframework.boot.xss.defender.guard;
+
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The limits of the input text checked before it's handed over to the sanitizer, so that a pathological payload,
+ * for example, a huge text or thousands of unclosed tags, can't pin a worker thread inside jsoup.
+ * <ul>
+ *     <li>the maximum length of a value, checked before anything else</li>
+ *     <li>the maximum count of tags and the maximum nesting depth, counted by a single pass without building any DOM</li>
+ *     <li>the maximum total length of the values sanitized in the same request, across all the fields</li>
+ * </ul>
+ * Every limit has its own {@link GuardAction}, and counts how often it's exceeded. A limit is disabled if it's not positive.
+ * The budget of the request is only enforced when the request is bound to the current thread by spring webmvc.
+ *
+ * @author codeboyzhou
+ * @see GuardAction
+ * @since 1.0.0
+ */
+public final class XssInputGuard {
+
+    /**
+     * The input text is within all the limits.
+     */
+    public static final int PASS = -1;
+
+    /**
+     * The input text should be escaped without going through the sanitizer.
+     */
+    public static final int ESCAPE_ONLY = -2;
+
+    /**
+     * The request attribute of the consumed budget.
+     */
+    private static final String BUDGET_ATTRIBUTE = XssInputGuard.class.getName() + ".BUDGET";
+
+    /**
+     * The void elements which never increase the nesting depth.
+     */
+    private static final String[] VOID_ELEMENTS = {
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"
+    };
+
+    private final int maxLength;
+
+    private final GuardAction lengthAction;
+
+    private final int maxTags;
+
+    private final int maxDepth;
+
+    private final GuardAction markupAction;
+
+    private final long requestBudget;
+
+    private final GuardAction budgetAction;
+
+    /**
+     * Whether the exception of the rejected input text fills in its stack trace.
+     */
+    private final boolean stackTraceEnabled;
+
+    private final LongAdder lengthTrips = new LongAdder();
+
+    private final LongAdder markupTrips = new LongAdder();
+
+    private final LongAdder budgetTrips = new LongAdder();
+
+    private XssInputGuard(Builder builder) {
+        this.maxLength = builder.maxLength;
+        this.lengthAction = builder.lengthAction;
+        this.maxTags = builder.maxTags;
+        this.maxDepth = builder.maxDepth;
+        this.markupAction = builder.markupAction;
+        this.requestBudget = builder.requestBudget;
+        this.budgetAction = builder.budgetAction;
+        this.stackTraceEnabled = builder.stackTraceEnabled;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Check the length of the input text, it costs nothing, so it's called before the plain text pre-scan.
+     *
+     * @param length The length of the trimmed input text
+     * @return {@link #PASS}, {@link #ESCAPE_ONLY}, or the length to cut the input text at
+     * @throws XssInputLimitExceededException If the length is exceeded and the action is {@link GuardAction#REJECT}
+     */
+    public int checkLength(int length) {
+        return this.checkLength(length, false);
+    }
+
+    /**
+     * Check the length of the input text, the exceeded length always rejects the input text of a sanitizer
+     * which rejects the risky text, for example, the {@code THROW} strategy, since it never returns a rewritten text.
+     *
+     * @param length      The length of the trimmed input text
+     * @param rejectsRisk Whether the sanitizer rejects the risky text instead of rewriting it
+     * @return {@link #PASS}, {@link #ESCAPE_ONLY}, or the length to cut the input text at
+     * @throws XssInputLimitExceededException If the length is exceeded and the action is {@link GuardAction#REJECT}
+     */
+    public int checkLength(int length, boolean rejectsRisk) {
+        if (maxLength <= 0 || length <= maxLength) {
+            return PASS;
+        }
+        lengthTrips.increment();
+        return this.trip(actionOf(lengthAction, rejectsRisk), maxLength,
+                "The length of the input text exceeds the limit: " + length + " > " + maxLength);
+    }
+
+    /**
+     * Check the tags and the budget of the request, only called for the input text which goes through the sanitizer.
+     *
+     * @param text The trimmed input text
+     * @return {@link #PASS}, {@link #ESCAPE_ONLY}, or the length to cut the input text at
+     * @throws XssInputLimitExceededException If a limit is exceeded and the action is {@link GuardAction#REJECT}
+     */
+    public int checkMarkup(String text) {
+        return this.checkMarkup(text, false);
+    }
+
+    /**
+     * Check the tags and the budget of the request, the exceeded limits always reject the input text of a sanitizer
+     * which rejects the risky text, for example, the {@code THROW} strategy, since it never returns a rewritten text.
+     *
+     * @param text        The trimmed input text
+     * @param rejectsRisk Whether the sanitizer rejects the risky text instead of rewriting it
+     * @return {@link #PASS}, {@link #ESCAPE_ONLY}, or the length to cut the input text at
+     * @throws XssInputLimitExceededException If a limit is exceeded and the action is {@link GuardAction#REJECT}
+     */
+    public int checkMarkup(String text, boolean rejectsRisk) {
+        int length = text.length();
+        if (maxTags > 0 || maxDepth > 0) {
+            final int offending = this.scanTags(text);
+            if (offending >= 0) {
+                markupTrips.increment();
+                final int verdict = this.trip(actionOf(markupAction, rejectsRisk), offending, "The tags of the input text exceed the limit: "
+                        + "max-tags=" + maxTags + ", max-depth=" + maxDepth);
+                if (verdict == ESCAPE_ONLY) {
+                    return verdict;
+                }
+                length = verdict;
+            }
+        }
+        if (requestBudget > 0) {
+            final Budget budget = currentBudget();
+            if (budget != null) {
+                final long remaining = requestBudget - budget.consumed;
+                if (length > remaining) {
+                    budgetTrips.increment();
+                    final int verdict = this.trip(actionOf(budgetAction, rejectsRisk), (int) Math.max(remaining, 0),
+                            "The sanitization budget of the request is used up: " + requestBudget);
+                    // The escaped text is not charged, the escaping costs no more than reading the text.
+                    if (verdict == ESCAPE_ONLY) {
+                        return verdict;
+                    }
+                    length = verdict;
+                }
+                budget.consumed += length;
+            }
+        }
+        return length == text.length() ? PASS : length;
+    }
+
+    /**
+     * Whether the budget of a request is enforced for the current thread, the values are charged in order then.
+     */
+    public boolean isRequestBudgetEnforced() {
+        return requestBudget > 0 && RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    public long lengthTripCount() {
+        return lengthTrips.sum();
+    }
+
+    public long markupTripCount() {
+        return markupTrips.sum();
+    }
+
+    public long budgetTripCount() {
+        return budgetTrips.sum();
+    }
+
+    /**
+     * A sanitizer which rejects the risky text never returns a rewritten text, so every limit rejects it.
+     */
+    private static GuardAction actionOf(GuardAction action, boolean rejectsRisk) {
+        return rejectsRisk ? GuardAction.REJECT : action;
+    }
+
+    private int trip(GuardAction action, int truncateAt, String message) {
+        switch (action) {
+            case TRUNCATE:
+                return truncateAt;
+            case ESCAPE:
+                return ESCAPE_ONLY;
+            default:
+                throw new XssInputLimitExceededException(message, stackTraceEnabled);
+        }
+    }
+
+    /**
+     * Count the tags and the nesting depth in a single pass, it's an approximation of the html tokenizer
+     * which doesn't care about the attributes, the comments or the self-closing tags.
+     *
+     * @return The index of the tag exceeding a limit, or {@code -1}
+     */
+    private int scanTags(String text) {
+        int tags = 0;
+        int depth = 0;
+        for (int i = 0, last = text.length() - 1; i < last; i++) {
+            if (text.charAt(i) != '<') {
+                continue;
+            }
+            final char next = text.charAt(i + 1);
+            if (next == '/') {
+                if (depth > 0) {
+                    depth--;
+                }
+            } else if (isAsciiLetter(next)) {
+                if (maxTags > 0 && ++tags > maxTags) {
+                    return i;
+                }
+                if (!isVoidElement(text, i + 1) && maxDepth > 0 && ++depth > maxDepth) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isVoidElement(String text, int nameStart) {
+        for (String element : VOID_ELEMENTS) {
+            final int nameEnd = nameStart + element.length();
+            if (text.regionMatches(true, nameStart, element, 0, element.length())
+                    && (nameEnd == text.length() || !isAsciiLetterOrDigit(text.charAt(nameEnd)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * The budget of the current request, {@code null} if there is no request bound to the current thread.
+     */
+    private static Budget currentBudget() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Budget budget = (Budget) attributes.getAttribute(BUDGET_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (budget == null) {
+            budget = new Budget();
+            attributes.setAttribute(BUDGET_ATTRIBUTE, budget, RequestAttributes.SCOPE_REQUEST);
+        }
+        return budget;
+    }
+
+    /**
+     * The consumed budget of a request, like the request itself, it's not thread-safe.
+     */
+    private static final class Budget {
+
+        private long consumed;
+
+    }
+
+    /**
+     * The builder of {@link XssInputGuard}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private int maxLength;
+
+        private GuardAction lengthAction = GuardAction.REJECT;
+
+        private int maxTags;
+
+        private int maxDepth;
+
+        private GuardAction markupAction = GuardAction.ESCAPE;
+
+        private long requestBudget;
+
+        private GuardAction budgetAction = GuardAction.REJECT;
+
+        private boolean stackTraceEnabled = true;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxLength The maximum length of a value, no limit if it's not positive
+         * @param action    The action when the length is exceeded
+         */
+        public Builder maxLength(int maxLength, GuardAction action) {
+            Assert.notNull(action, "GuardAction must not be null");
+            this.maxLength = maxLength;
+            this.lengthAction = action;
+            return this;
+        }
+
+        /**
+         * @param maxTags  The maximum count of tags in a value, no limit if it's not positive
+         * @param maxDepth The maximum nesting depth of tags in a value, no limit if it's not positive
+         * @param action   The action when the tags are exceeded
+         */
+        public Builder maxTags(int maxTags, int maxDepth, GuardAction action) {
+            Assert.notNull(action, "GuardAction must not be null");
+            this.maxTags = maxTags;
+            this.maxDepth = maxDepth;
+            this.markupAction = action;
+            return this;
+        }
+
+        /**
+         * @param requestBudget The maximum total length of the values sanitized in the same request, no limit if it's not positive
+         * @param action        The action when the budget is used up
+         */
+        public Builder requestBudget(long requestBudget, GuardAction action) {
+            Assert.notNull(action, "GuardAction must not be null");
+            this.requestBudget = requestBudget;
+            this.budgetAction = action;
+            return this;
+        }
+
+        /**
+         * @param stackTraceEnabled Whether the exception of the rejected input text fills in its stack trace, default value is {@code true}
+         */
+        public Builder stackTraceEnabled(boolean stackTraceEnabled) {
+            this.stackTraceEnabled = stackTraceEnabled;
+            return this;
+        }
+
+        public XssInputGuard build() {
+            return new XssInputGuard(this);
+        }
+
+    }
+
+}
@@ -3,8 +3,14 @@ package org.springframework.boot.xss.defender.interceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.xss.defender.annotation.XssDefenderIgnore;
-import org.springframework.boot.xss.defender.autoconfigure.XssDefenderProperties;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.xss.defender.annotation.XssDefenderStrategy;
+import org.springframework.boot.xss.defender.annotation.XssEncode;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.boot.xss.defender.support.StringXssJsonSerializer;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicy;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicyRegistry;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
@@ -13,72 +19,46 @@ import javax.servlet.http.HttpServletResponse;
 
 /**
  * This interceptor implements {@link HandlerInterceptor}, it mainly depends on the spring framework
- * to intercept http web request {@link HttpServletRequest}, and then find or parse the annotation
- * {@link XssDefenderIgnore} in order to determine whether needs to enable the XSS strategy.
+ * to intercept http web request {@link HttpServletRequest}, and then look up the {@link XssHandlerPolicy}
+ * of the controller method, which is resolved from the annotation {@link XssDefenderIgnore} and
+ * {@link XssDefenderStrategy} at startup, and carry it in a request attribute for the JSON and FORM binders.
+ * The output context of {@link XssEncode} is carried in a request attribute for the JSON responses as well.
+ * <p>
+ * The policy is resolved against the {@link XssPolicySnapshot} pinned to the request, the current one is pinned
+ * if the request filter hasn't done it yet.
  *
  * @author codeboyzhou
  * @see XssDefenderIgnore
+ * @see XssHandlerPolicyRegistry
  * @since 1.0.0
  */
-@Configuration
 public class XssDefenderInterceptor implements HandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(XssDefenderInterceptor.class);
 
     /**
-     * A chunk of common log message, just write once.
+     * The policy table of the controller methods.
      */
-    private static final String COMMON_WARN_MESSAGE = "it might expose a risk to your http request, please make sure you really need to do this.";
+    private final XssHandlerPolicyRegistry policyRegistry;
 
-    /**
-     * A properties object for spring boot auto configuration.
-     */
-    private final XssDefenderProperties properties;
-
-    public XssDefenderInterceptor(XssDefenderProperties properties) {
+    public XssDefenderInterceptor(XssHandlerPolicyRegistry policyRegistry) {
         if (logger.isInfoEnabled()) {
             logger.info("Registered interceptor: {}", XssDefenderInterceptor.class);
         }
-        this.properties = properties;
+        this.policyRegistry = policyRegistry;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // The defender is disabled.
-        if (!properties.isEnabled()) {
-            if (logger.isWarnEnabled()) {
-                logger.warn("You have disabled the XSS defender, " + COMMON_WARN_MESSAGE);
-            }
-            return true;
-        }
-
         // Ignore if the request is not from a web controller.
-        final boolean isControllerRequest = handler instanceof HandlerMethod;
-        if (!isControllerRequest) {
-            return true;
-        }
-
-        HandlerMethod handlerMethod = (HandlerMethod) handler;
-
-        // Check the XssDefenderIgnore annotation for controller class.
-        Class<?> controller = handlerMethod.getMethod().getDeclaringClass();
-        if (controller.isAnnotationPresent(XssDefenderIgnore.class)) {
-            properties.disable();
-            if (logger.isWarnEnabled()) {
-                logger.warn("You have ignored the XSS defender for the whole class '{}', " + COMMON_WARN_MESSAGE, controller.getName());
-            }
-            return true;
-        }
-
-        // Check the XssDefenderIgnore annotation for handler method.
-        if (handlerMethod.hasMethodAnnotation(XssDefenderIgnore.class)) {
-            properties.disable();
-            if (logger.isWarnEnabled()) {
-                logger.warn("You have ignored the XSS defender for the request mapping '{}', " + COMMON_WARN_MESSAGE, request.getRequestURI());
+        if (handler instanceof HandlerMethod) {
+            XssPolicySnapshot snapshot = policyRegistry.getPolicyHolder().pin(new ServletRequestAttributes(request));
+            request.setAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE, policyRegistry.resolve((HandlerMethod) handler, snapshot));
+            XssEscaper encoding = policyRegistry.resolveEncoding((HandlerMethod) handler);
+            if (encoding != null) {
+                request.setAttribute(StringXssJsonSerializer.REQUEST_ATTRIBUTE, encoding);
             }
-            return true;
         }
-
         return true;
     }
 
@@ -0,0 +1,105 @@
+package org.springframework.boot.xss.defender.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Micrometer implementation of {@link XssDefenderMetrics}. All the meters are registered
+ * in the constructor and indexed by {@link DefenseEntryPoint}, so there is no tag building per call.
+ * <ul>
+ *     <li>{@code xss.defender.sanitize}: the latency timer of the sanitizer, the plain text fast path is not timed</li>
+ *     <li>{@code xss.defender.values.inspected}: the counter of the input text which is not blank</li>
+ *     <li>{@code xss.defender.values.fast.path}: the counter of the plain text returned by the fast path</li>
+ *     <li>{@code xss.defender.values.modified}: the counter of the input text modified by the sanitizer</li>
+ *     <li>{@code xss.defender.values.rejected}: the counter of the input text rejected by the sanitizer</li>
+ *     <li>{@code xss.defender.value.size}: the distribution summary of the input text length</li>
+ * </ul>
+ * All the meters are tagged with {@code strategy} and {@code entry.point}.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+public class MicrometerXssDefenderMetrics implements XssDefenderMetrics {
+
+    public static final String TAG_STRATEGY = "strategy";
+
+    public static final String TAG_ENTRY_POINT = "entry.point";
+
+    private final MeterRegistry registry;
+
+    private final Timer[] sanitizeTimers;
+
+    private final Counter[] inspectedCounters;
+
+    private final Counter[] fastPathCounters;
+
+    private final Counter[] modifiedCounters;
+
+    private final Counter[] rejectedCounters;
+
+    private final DistributionSummary[] sizeSummaries;
+
+    public MicrometerXssDefenderMetrics(MeterRegistry registry, String strategy) {
+        this.registry = registry;
+        final DefenseEntryPoint[] entryPoints = DefenseEntryPoint.values();
+        this.sanitizeTimers = new Timer[entryPoints.length];
+        this.inspectedCounters = new Counter[entryPoints.length];
+        this.fastPathCounters = new Counter[entryPoints.length];
+        this.modifiedCounters = new Counter[entryPoints.length];
+        this.rejectedCounters = new Counter[entryPoints.length];
+        this.sizeSummaries = new DistributionSummary[entryPoints.length];
+        for (DefenseEntryPoint entryPoint : entryPoints) {
+            final Tags tags = Tags.of(TAG_STRATEGY, strategy, TAG_ENTRY_POINT, entryPoint.tagValue());
+            final int i = entryPoint.ordinal();
+            sanitizeTimers[i] = Timer.builder("xss.defender.sanitize")
+                    .description("The latency of the XSS sanitizer").tags(tags).register(registry);
+            inspectedCounters[i] = Counter.builder("xss.defender.values.inspected")
+                    .description("The count of the input text which is not blank").tags(tags).register(registry);
+            fastPathCounters[i] = Counter.builder("xss.defender.values.fast.path")
+                    .description("The count of the plain text returned by the fast path").tags(tags).register(registry);
+            modifiedCounters[i] = Counter.builder("xss.defender.values.modified")
+                    .description("The count of the input text modified by the XSS sanitizer").tags(tags).register(registry);
+            rejectedCounters[i] = Counter.builder("xss.defender.values.rejected")
+                    .description("The count of the input text rejected by the XSS sanitizer").tags(tags).register(registry);
+            sizeSummaries[i] = DistributionSummary.builder("xss.defender.value.size")
+                    .description("The length of the input text").baseUnit("chars").tags(tags).register(registry);
+        }
+    }
+
+    @Override
+    public XssDefenderMetrics withStrategy(String strategy) {
+        return new MicrometerXssDefenderMetrics(registry, strategy);
+    }
+
+    @Override
+    public void recordInspected(DefenseEntryPoint entryPoint, int length) {
+        inspectedCounters[entryPoint.ordinal()].increment();
+        sizeSummaries[entryPoint.ordinal()].record(length);
+    }
+
+    @Override
+    public void recordFastPath(DefenseEntryPoint entryPoint) {
+        fastPathCounters[entryPoint.ordinal()].increment();
+    }
+
+    @Override
+    public void recordSanitized(DefenseEntryPoint entryPoint, long nanos, boolean modified) {
+        sanitizeTimers[entryPoint.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        if (modified) {
+            modifiedCounters[entryPoint.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void recordRejected(DefenseEntryPoint entryPoint, long nanos) {
+        sanitizeTimers[entryPoint.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        rejectedCounters[entryPoint.ordinal()].increment();
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.springframework.boot.xss.defender.metrics;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+
+/**
+ * The recorder of {@link XssDefender} metrics, it's called on the hot path for every input text,
+ * so implementations must pre-resolve everything they need and must not block.
+ *
+ * @author codeboyzhou
+ * @see MicrometerXssDefenderMetrics
+ * @since 1.0.0
+ */
+public interface XssDefenderMetrics {
+
+    /**
+     * The recorder which records nothing.
+     */
+    XssDefenderMetrics NONE = new XssDefenderMetrics() {
+    };
+
+    /**
+     * Return a recorder for the given defense strategy, for example, with the strategy tag.
+     *
+     * @param strategy The description of the defense strategy
+     */
+    default XssDefenderMetrics withStrategy(String strategy) {
+        return this;
+    }
+
+    /**
+     * Record an input text which is not blank.
+     *
+     * @param entryPoint The entry point of the input text
+     * @param length     The length of the input text, leading and trailing whitespace has been trimmed
+     */
+    default void recordInspected(DefenseEntryPoint entryPoint, int length) {
+    }
+
+    /**
+     * Record an input text which is returned as it is by the plain text fast path.
+     */
+    default void recordFastPath(DefenseEntryPoint entryPoint) {
+    }
+
+    /**
+     * Record an input text which has gone through the sanitizer.
+     *
+     * @param entryPoint The entry point of the input text
+     * @param nanos      The elapsed time in nanoseconds
+     * @param modified   Whether the input text has been modified by the sanitizer
+     */
+    default void recordSanitized(DefenseEntryPoint entryPoint, long nanos, boolean modified) {
+    }
+
+    /**
+     * Record an input text which has been rejected by the sanitizer.
+     *
+     * @param entryPoint The entry point of the input text
+     * @param nanos      The elapsed time in nanoseconds
+     */
+    default void recordRejected(DefenseEntryPoint entryPoint, long nanos) {
+    }
+
+}
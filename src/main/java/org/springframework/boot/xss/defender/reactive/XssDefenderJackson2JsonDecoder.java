@@ -0,0 +1,98 @@
+package org.springframework.boot.xss.defender.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.util.MimeType;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link Jackson2JsonDecoder} which decodes the large JSON bodies on a bounded {@link Scheduler},
+ * so that the expensive XSS sanitizing in {@link StringXssJsonDeserializer} won't block the event loop.
+ * The small JSON bodies, and the large ones when the scheduler is saturated, are decoded in place as usual.
+ *
+ * @author codeboyzhou
+ * @see StringXssJsonDeserializer
+ * @since 1.0.0
+ */
+public class XssDefenderJackson2JsonDecoder extends Jackson2JsonDecoder {
+
+    /**
+     * The bounded scheduler to decode the large JSON bodies.
+     */
+    private final Scheduler scheduler;
+
+    /**
+     * The JSON bodies of at least this many bytes are decoded on the scheduler.
+     */
+    private final int offloadThreshold;
+
+    public XssDefenderJackson2JsonDecoder(ObjectMapper objectMapper, Scheduler scheduler, int offloadThreshold, MimeType... mimeTypes) {
+        super(objectMapper, mimeTypes);
+        this.scheduler = scheduler;
+        this.offloadThreshold = offloadThreshold;
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        return DataBufferUtils.join(input, getMaxInMemorySize()).flatMap(dataBuffer -> {
+            if (dataBuffer.readableByteCount() < offloadThreshold) {
+                return Mono.justOrEmpty(decode(dataBuffer, elementType, mimeType, hints));
+            }
+            return this.decodeOnScheduler(dataBuffer, elementType, mimeType, hints);
+        }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Decode the data buffer on the scheduler, the data buffer is either decoded or released exactly once,
+     * even if the subscription is cancelled before the task runs.
+     */
+    private Mono<Object> decodeOnScheduler(DataBuffer dataBuffer, ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        return Mono.create(sink -> {
+            final AtomicBoolean claimed = new AtomicBoolean();
+            final Disposable.Swap task = Disposables.swap();
+            sink.onCancel(() -> {
+                task.dispose();
+                if (claimed.compareAndSet(false, true)) {
+                    DataBufferUtils.release(dataBuffer);
+                }
+            });
+            final Runnable decoding = () -> {
+                if (claimed.compareAndSet(false, true)) {
+                    this.decodeInto(sink, dataBuffer, elementType, mimeType, hints);
+                }
+            };
+            try {
+                task.update(scheduler.schedule(decoding));
+            } catch (RejectedExecutionException e) {
+                // Only the scheduling is rejected here, the data buffer is not released yet, so just decode it in place.
+                decoding.run();
+            }
+        });
+    }
+
+    private void decodeInto(MonoSink<Object> sink, DataBuffer dataBuffer, ResolvableType elementType, MimeType mimeType,
+                            Map<String, Object> hints) {
+        final Object value;
+        try {
+            value = decode(dataBuffer, elementType, mimeType, hints);
+        } catch (Throwable e) {
+            sink.error(e);
+            return;
+        }
+        sink.success(value);
+    }
+
+}
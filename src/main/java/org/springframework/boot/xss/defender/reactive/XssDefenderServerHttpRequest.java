@@ -0,0 +1,96 @@
+package org.springframework.boot.xss.defender.reactive;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssNamePolicy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is intended to process the XSS risk from the query parameters and headers of a reactive request.
+ * The values are processed on the first access and the results are kept for the rest of the request,
+ * only the names with an {@link XssDefender} in the {@link XssNamePolicy} are processed.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderWebFilter
+ * @since 1.0.0
+ */
+public class XssDefenderServerHttpRequest extends ServerHttpRequestDecorator {
+
+    private final XssNamePolicy parameterPolicy;
+
+    private final XssNamePolicy headerPolicy;
+
+    /**
+     * The processed query parameters, created on the first access.
+     */
+    private volatile MultiValueMap<String, String> queryParams;
+
+    /**
+     * The processed headers, created on the first access.
+     */
+    private volatile HttpHeaders headers;
+
+    public XssDefenderServerHttpRequest(ServerHttpRequest delegate, XssNamePolicy parameterPolicy, XssNamePolicy headerPolicy) {
+        super(delegate);
+        this.parameterPolicy = parameterPolicy;
+        this.headerPolicy = headerPolicy;
+    }
+
+    @Override
+    public MultiValueMap<String, String> getQueryParams() {
+        if (parameterPolicy.isNone()) {
+            return super.getQueryParams();
+        }
+        MultiValueMap<String, String> processed = queryParams;
+        if (processed == null) {
+            processed = CollectionUtils.unmodifiableMultiValueMap(
+                    process(super.getQueryParams(), new LinkedMultiValueMap<>(), parameterPolicy, DefenseEntryPoint.PARAMETER));
+            queryParams = processed;
+        }
+        return processed;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headerPolicy.isNone()) {
+            return super.getHeaders();
+        }
+        HttpHeaders processed = headers;
+        if (processed == null) {
+            processed = HttpHeaders.readOnlyHttpHeaders(process(super.getHeaders(), new HttpHeaders(), headerPolicy, DefenseEntryPoint.HEADER));
+            headers = processed;
+        }
+        return processed;
+    }
+
+    /**
+     * Copy the values into the target map, only the values of the names with an {@link XssDefender} are processed.
+     */
+    private static <T extends MultiValueMap<String, String>> T process(MultiValueMap<String, String> source, T target,
+                                                                      XssNamePolicy policy, DefenseEntryPoint entryPoint) {
+        for (Map.Entry<String, List<String>> entry : source.entrySet()) {
+            final XssDefender xssDefender = policy.resolve(entry.getKey());
+            if (xssDefender == null) {
+                target.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            final List<String> safeValues = new ArrayList<>(entry.getValue().size());
+            for (String value : entry.getValue()) {
+                // A query parameter without value, for example, '?flag', is kept as it is.
+                safeValues.add(value == null ? null : xssDefender.defend(value, entryPoint, entry.getKey()));
+            }
+            target.put(entry.getKey(), safeValues);
+        }
+        return target;
+    }
+
+}
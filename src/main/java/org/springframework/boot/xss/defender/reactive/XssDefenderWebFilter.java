@@ -0,0 +1,62 @@
+package org.springframework.boot.xss.defender.reactive;
+
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssNamePolicy;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * An optional reactive web filter, it decorates the request with {@link XssDefenderServerHttpRequest}, so that
+ * the query parameters and headers read by the application code directly are processed too.
+ * Enable it by 'spring.xss-defender.request-filter.enabled'.
+ * <p>
+ * The current {@link XssPolicySnapshot} is read once for each request, so a reload of the configuration
+ * never changes the name policies of an in-flight request.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderServerHttpRequest
+ * @since 1.0.0
+ */
+public class XssDefenderWebFilter implements WebFilter, Ordered {
+
+    /**
+     * The order of this filter, the same as the request wrapper filters of servlet web application.
+     */
+    public static final int ORDER = 0;
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    public XssDefenderWebFilter(XssNamePolicy parameterPolicy, XssNamePolicy headerPolicy) {
+        this(XssPolicyHolder.of(XssPolicySnapshot.builder(0, (XssDefender) null).build()
+                .withNamePolicies(parameterPolicy, headerPolicy, null)));
+    }
+
+    public XssDefenderWebFilter(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        XssPolicySnapshot snapshot = policyHolder.current();
+        if (!snapshot.isEnabled() || !snapshot.hasNamePolicies()) {
+            return chain.filter(exchange);
+        }
+        XssDefenderServerHttpRequest request = new XssDefenderServerHttpRequest(exchange.getRequest(),
+                snapshot.getParameterPolicy(), snapshot.getHeaderPolicy());
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+}
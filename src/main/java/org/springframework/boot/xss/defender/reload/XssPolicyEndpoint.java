@@ -0,0 +1,76 @@
+package org.springframework.boot.xss.defender.reload;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+
+import java.time.Instant;
+
+/**
+ * The actuator endpoint 'xssdefender', it reads the XSS policy in effect, and reloads it from the environment
+ * by a write operation. An invalid configuration fails the write operation, and the policy in effect is kept.
+ *
+ * @author codeboyzhou
+ * @see XssPolicyHolder
+ * @since 1.0.0
+ */
+@Endpoint(id = "xssdefender")
+public class XssPolicyEndpoint {
+
+    private final XssPolicyHolder policyHolder;
+
+    public XssPolicyEndpoint(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
+    }
+
+    @ReadOperation
+    public PolicyDescriptor policy() {
+        return new PolicyDescriptor(policyHolder.current());
+    }
+
+    @WriteOperation
+    public PolicyDescriptor reload() {
+        return new PolicyDescriptor(policyHolder.reload());
+    }
+
+    /**
+     * The description of an XSS policy snapshot.
+     */
+    public static final class PolicyDescriptor {
+
+        private final long version;
+
+        private final Instant compiledAt;
+
+        private final boolean enabled;
+
+        private final String strategy;
+
+        private PolicyDescriptor(XssPolicySnapshot snapshot) {
+            this.version = snapshot.getVersion();
+            this.compiledAt = Instant.ofEpochMilli(snapshot.getCompiledAt());
+            this.enabled = snapshot.isEnabled();
+            this.strategy = snapshot.getDescription();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Instant getCompiledAt() {
+            return compiledAt;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+    }
+
+}
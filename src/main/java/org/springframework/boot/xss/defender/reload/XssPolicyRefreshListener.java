@@ -0,0 +1,65 @@
+package org.springframework.boot.xss.defender.reload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Locale;
+
+/**
+ * Reload the XSS policy when the XSS defender properties of the environment change, for example,
+ * by the spring cloud {@code ContextRefresher}, which publishes the changed keys before it refreshes the refresh scope,
+ * so the policy is reloaded by an '/actuator/refresh' or a config server push too.
+ * <p>
+ * The other changes are ignored, so that an unrelated refresh doesn't throw away the compiled policy.
+ * If the new configuration is invalid, the error is logged and the policy in effect is kept.
+ *
+ * @author codeboyzhou
+ * @see XssPolicyHolder#reload()
+ * @since 1.0.0
+ */
+public class XssPolicyRefreshListener implements ApplicationListener<EnvironmentChangeEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssPolicyRefreshListener.class);
+
+    private final XssPolicyHolder policyHolder;
+
+    /**
+     * The canonical prefix of the XSS defender properties, without any dash or underscore.
+     */
+    private final String prefix;
+
+    /**
+     * @param policyHolder The holder of the current XSS policy
+     * @param prefix       The prefix of the XSS defender properties, for example, {@code spring.xss-defender}
+     */
+    public XssPolicyRefreshListener(XssPolicyHolder policyHolder, String prefix) {
+        this.policyHolder = policyHolder;
+        this.prefix = canonicalize(prefix) + ".";
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> canonicalize(key).startsWith(prefix))) {
+            return;
+        }
+        final XssPolicySnapshot current = policyHolder.current();
+        try {
+            policyHolder.reload();
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload the XSS policy, {} is kept", current, e);
+        }
+    }
+
+    /**
+     * The relaxed form of a property name, so that {@code spring.xss-defender.strategy} and
+     * {@code SPRING_XSSDEFENDER_STRATEGY} are the same.
+     */
+    private static String canonicalize(String key) {
+        return key.toLowerCase(Locale.ROOT).replace("-", "").replace('_', '.');
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+/**
+ * A sanitizer which escapes all the XSS risky characters, {@link XssEscaper#HTML_BODY} will finish it actually,
+ * which is compatible with {@code HtmlUtils.htmlEscape(text, "UTF-8")}, and returns the input text as it is if nothing changes.
+ * The detected XSS risk is reported by the {@link org.springframework.boot.xss.defender.audit.XssDetectionAuditor} asynchronously.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.DefenseStrategy#ESCAPE
+ * @since 1.0.0
+ */
+public class EscapeXssSanitizer implements XssSanitizer {
+
+    @Override
+    public String sanitize(String text) {
+        return XssEscaper.HTML_BODY.escape(text);
+    }
+
+    @Override
+    public boolean preservesPlainText() {
+        return true;
+    }
+
+    @Override
+    public boolean parsesMarkup() {
+        return false;
+    }
+
+}
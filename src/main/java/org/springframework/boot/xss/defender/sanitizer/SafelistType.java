@@ -0,0 +1,54 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.safety.Safelist;
+
+import java.util.function.Supplier;
+
+/**
+ * The enums of the predefined jsoup {@link Safelist}, which are used by the {@code TRIM} and {@code THROW} strategy.
+ *
+ * @author codeboyzhou
+ * @see Safelist
+ * @since 1.0.0
+ */
+public enum SafelistType {
+
+    /**
+     * @see Safelist#none()
+     */
+    NONE(Safelist::none),
+
+    /**
+     * @see Safelist#simpleText()
+     */
+    SIMPLE_TEXT(Safelist::simpleText),
+
+    /**
+     * @see Safelist#basic()
+     */
+    BASIC(Safelist::basic),
+
+    /**
+     * @see Safelist#basicWithImages()
+     */
+    BASIC_WITH_IMAGES(Safelist::basicWithImages),
+
+    /**
+     * @see Safelist#relaxed()
+     */
+    RELAXED(Safelist::relaxed);
+
+    private final Supplier<Safelist> factory;
+
+    SafelistType(Supplier<Safelist> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a new {@link Safelist} instance, the caller can customize it before use.
+     */
+    public Safelist create() {
+        return factory.get();
+    }
+
+}
@@ -0,0 +1,914 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.Jsoup;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.Tag;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A sanitizer which trims all the XSS risky characters in one pass, it tokenizes the input text and writes the safe
+ * elements and text directly into one output buffer, without building the jsoup document. The output is the same as
+ * {@link TrimXssSanitizer} with the same {@link Safelist}, including the tags, the attributes, the protocols,
+ * the enforced attributes and the pretty printing of jsoup.
+ * <p>
+ * The text, the character references, the comments, the dropped tags and the properly nested inline tags are handled natively.
+ * The input text which the tree builder of jsoup would restructure, for example, the block tags, the tables, the foreign content
+ * or the misnested tags, is handed over to {@link TrimXssSanitizer} as a whole.
+ *
+ * @author codeboyzhou
+ * @see TrimEngine#STREAMING
+ * @since 1.0.0
+ */
+public class StreamingTrimXssSanitizer implements XssSanitizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingTrimXssSanitizer.class);
+
+    /**
+     * Escaped empty string constant, for printing more clear log information.
+     */
+    private static final String ESCAPED_EMPTY_STRING = "\"\"";
+
+    /**
+     * The start tags which the tree builder of jsoup handles specially, for example, by closing the open elements,
+     * switching the insertion mode, or inserting the element somewhere else.
+     */
+    private static final Set<String> RESTRUCTURING_START_TAGS = setOf("address", "applet", "article", "aside", "base",
+            "basefont", "bgsound", "blockquote", "body", "button", "caption", "center", "col", "colgroup", "command", "dd",
+            "details", "dir", "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "frame", "frameset",
+            "h1", "h2", "h3", "h4", "h5", "h6", "head", "header", "hgroup", "hr", "html", "image", "isindex", "li", "link",
+            "listing", "marquee", "math", "menu", "meta", "nav", "nobr", "object", "ol", "optgroup", "option", "p",
+            "plaintext", "pre", "rp", "rt", "section", "select", "summary", "svg", "table", "tbody", "td", "template",
+            "textarea", "tfoot", "th", "thead", "title", "tr", "ul");
+
+    /**
+     * The end tags which the tree builder of jsoup handles specially, for example, {@code </p>} inserts an empty paragraph.
+     */
+    private static final Set<String> RESTRUCTURING_END_TAGS = setOf("address", "applet", "article", "aside", "blockquote",
+            "body", "br", "button", "center", "dd", "details", "dir", "div", "dl", "dt", "fieldset", "figcaption", "figure",
+            "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hgroup", "html", "li", "listing", "marquee",
+            "menu", "nav", "object", "ol", "p", "pre", "section", "summary", "template", "ul");
+
+    /**
+     * The formatting elements, jsoup reopens them if they are misnested.
+     */
+    private static final Set<String> FORMATTING_TAGS = setOf("a", "b", "big", "code", "em", "font", "i", "s", "small",
+            "strike", "strong", "tt", "u");
+
+    private static final Set<String> VOID_TAGS = setOf("area", "br", "embed", "img", "input", "keygen", "param", "source",
+            "track", "wbr");
+
+    /**
+     * The tags whose content is raw text rather than markup.
+     */
+    private static final Set<String> RAW_TEXT_TAGS = setOf("iframe", "noembed", "noframes", "script", "style", "xmp");
+
+    /**
+     * The raw text tags whose content is data, which is dropped with the tag.
+     */
+    private static final Set<String> DATA_TAGS = setOf("script", "style");
+
+    private static final Tag BODY_TAG = Tag.valueOf("body");
+
+    /**
+     * The maximum nesting depth handled natively, jsoup bounds the stack scans of the deeply nested elements.
+     */
+    private static final int MAX_DEPTH = 100;
+
+    /**
+     * The maximum count of attributes of a tag handled natively, jsoup drops the attributes beyond it.
+     */
+    private static final int MAX_ATTRIBUTES = 512;
+
+    private static final int BEFORE_ATTRIBUTE_NAME = 0;
+
+    private static final int ATTRIBUTE_NAME = 1;
+
+    private static final int AFTER_ATTRIBUTE_NAME = 2;
+
+    private static final int BEFORE_ATTRIBUTE_VALUE = 3;
+
+    private static final int AFTER_ATTRIBUTE_VALUE = 4;
+
+    private static final int SELF_CLOSING = 5;
+
+    private final SafelistView safelist;
+
+    /**
+     * The enforced attributes of the safe tags, the safe tags are bounded by the safelist.
+     */
+    private final Map<String, Attributes> enforcedAttributes = new ConcurrentHashMap<>();
+
+    /**
+     * The cleaner which creates the enforced attributes of the safe tags.
+     */
+    private final Cleaner cleaner;
+
+    private final TrimXssSanitizer fallback;
+
+    public StreamingTrimXssSanitizer(Safelist safelist) {
+        this.safelist = new SafelistView(safelist);
+        this.cleaner = new Cleaner(safelist);
+        this.fallback = new TrimXssSanitizer(safelist);
+    }
+
+    @Override
+    public String sanitize(String text) {
+        final String safeText = this.clean(text);
+        if (safeText == null) {
+            return fallback.sanitize(text);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Trim text to prevent XSS risk, input: {}, output: {}",
+                    text, safeText.isEmpty() ? ESCAPED_EMPTY_STRING : safeText);
+        }
+
+        return safeText;
+    }
+
+    @Override
+    public boolean preservesPlainText() {
+        return true;
+    }
+
+    /**
+     * Clean the text natively, package-private for testing.
+     *
+     * @return The safe text, or {@code null} if the text is left to jsoup
+     */
+    String clean(String text) {
+        return new Cleaning(text).run();
+    }
+
+    /**
+     * Create the enforced attributes of a safe tag by cleaning an empty element, the same as the cleaner of jsoup.
+     */
+    private Attributes createEnforcedAttributes(String tagName) {
+        final Document dirty = Document.createShell("");
+        dirty.body().appendElement(tagName);
+        return cleaner.clean(dirty).body().child(0).attributes();
+    }
+
+    private static Set<String> setOf(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiAlpha(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    /**
+     * The same as the attribute keys jsoup writes without any change.
+     */
+    private static boolean isValidKey(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c <= ' ' || c >= 0x7F && c <= 0x9F || c == '"' || c == '\'' || c == '/' || c == '=') {
+                return false;
+            }
+        }
+        return !key.isEmpty();
+    }
+
+    /**
+     * The state of cleaning one input text, it follows the tokenizer and the tree builder of jsoup,
+     * which {@link Jsoup#parseBodyFragment(String)} runs in the body insertion mode.
+     */
+    private final class Cleaning {
+
+        private final String input;
+
+        private final int length;
+
+        private final StringBuilder output;
+
+        /**
+         * The decoded characters of the pending text node.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        /**
+         * The open elements, including the dropped ones.
+         */
+        private final List<OpenElement> stack = new ArrayList<>();
+
+        /**
+         * The attributes of the current tag, with the names as they are in the input text.
+         */
+        private final List<String> attributeNames = new ArrayList<>();
+
+        private final List<String> attributeValues = new ArrayList<>();
+
+        private String pendingName;
+
+        private String pendingValue;
+
+        private boolean selfClosing;
+
+        /**
+         * The safe element which the nodes are appended to, it's the body at first.
+         */
+        private Container container = new Container(null, BODY_TAG, 0);
+
+        private int pos;
+
+        Cleaning(String input) {
+            this.input = input;
+            this.length = input.length();
+            this.output = new StringBuilder(length + 16);
+        }
+
+        String run() {
+            for (int i = 0; i < length; i++) {
+                final char c = input.charAt(i);
+                if (c < ' ' && !isWhitespace(c)) {
+                    return null;
+                }
+            }
+            while (pos < length) {
+                final int lessThan = input.indexOf('<', pos);
+                final int end = lessThan < 0 ? length : lessThan;
+                this.appendText(pos, end);
+                pos = end;
+                if (lessThan >= 0 && !this.readMarkup()) {
+                    return null;
+                }
+            }
+            this.flushText();
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                this.closeElement(stack.get(i));
+            }
+
+            // The same as the trimmed body html of jsoup.
+            int start = 0;
+            int end = output.length();
+            while (start < end && output.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && output.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return output.substring(start, end);
+        }
+
+        /**
+         * Read the markup at {@code <}.
+         *
+         * @return {@code false} if the input text is left to jsoup
+         */
+        private boolean readMarkup() {
+            final int next = pos + 1;
+            if (next >= length) {
+                text.append('<');
+                pos = next;
+                return true;
+            }
+            final char c = input.charAt(next);
+            switch (c) {
+                case '!':
+                    return this.readMarkupDeclaration(next + 1);
+                case '/':
+                    return this.readEndTagOpen(next + 1);
+                case '?':
+                    this.skipBogusComment(next);
+                    return true;
+                default:
+                    if (isAsciiAlpha(c)) {
+                        return this.readTag(next, true);
+                    }
+                    text.append('<');
+                    pos = next;
+                    return true;
+            }
+        }
+
+        private boolean readMarkupDeclaration(int start) {
+            if (input.startsWith("--", start)) {
+                this.flushText();
+                pos = this.commentEnd(start + 2);
+                return true;
+            }
+            if (input.regionMatches(true, start, "DOCTYPE", 0, 7) || input.startsWith("[CDATA[", start)) {
+                return false;
+            }
+            this.skipBogusComment(start);
+            return true;
+        }
+
+        /**
+         * Find the end of a comment, the same as the comment states of jsoup.
+         */
+        private int commentEnd(int start) {
+            int p = start;
+            while (p < length && input.charAt(p) == '-') {
+                p++;
+            }
+            if (p >= length) {
+                return length;
+            }
+            if (input.charAt(p) == '>') {
+                return p + 1;
+            }
+            for (int dashes = input.indexOf("--", p); dashes >= 0; dashes = input.indexOf("--", p)) {
+                p = dashes + 2;
+                while (p < length && input.charAt(p) == '-') {
+                    p++;
+                }
+                if (p < length && input.charAt(p) == '>') {
+                    return p + 1;
+                }
+                if (p + 1 < length && input.charAt(p) == '!' && input.charAt(p + 1) == '>') {
+                    return p + 2;
+                }
+            }
+            return length;
+        }
+
+        private void skipBogusComment(int start) {
+            this.flushText();
+            final int greaterThan = input.indexOf('>', start);
+            pos = greaterThan < 0 ? length : greaterThan + 1;
+        }
+
+        private boolean readEndTagOpen(int start) {
+            if (start >= length) {
+                text.append("</");
+                pos = length;
+                return true;
+            }
+            final char c = input.charAt(start);
+            if (isAsciiAlpha(c)) {
+                return this.readTag(start, false);
+            }
+            if (c == '>') {
+                pos = start + 1;
+                return true;
+            }
+            this.skipBogusComment(start);
+            return true;
+        }
+
+        private boolean readTag(int start, boolean isStartTag) {
+            int nameEnd = start;
+            while (nameEnd < length && !this.isTagNameEnd(input.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            final String rawName = input.substring(start, nameEnd);
+            attributeNames.clear();
+            attributeValues.clear();
+            pendingName = null;
+            selfClosing = false;
+
+            final int end;
+            if (nameEnd >= length) {
+                end = -1;
+            } else {
+                final char c = input.charAt(nameEnd);
+                if (c == '>') {
+                    end = nameEnd + 1;
+                } else if (c == '<') {
+                    end = nameEnd;
+                } else {
+                    end = this.readAttributes(nameEnd + 1, c == '/' ? SELF_CLOSING : BEFORE_ATTRIBUTE_NAME);
+                }
+            }
+            if (end < 0) {
+                // The input text ends in the tag, which is dropped by jsoup.
+                pos = length;
+                return true;
+            }
+            this.flushText();
+            pos = end;
+            final String name = rawName.toLowerCase(Locale.ENGLISH);
+            return isStartTag ? this.startTag(rawName, name) : this.endTag(name);
+        }
+
+        private boolean isTagNameEnd(char c) {
+            return isWhitespace(c) || c == '/' || c == '>' || c == '<';
+        }
+
+        /**
+         * Read the attributes of a tag, the same as the tag states of the jsoup tokenizer.
+         *
+         * @return The position after the tag, or {@code -1} if the input text ends in the tag
+         */
+        private int readAttributes(int start, int initialState) {
+            int p = start;
+            int state = initialState;
+            while (p < length) {
+                final char c = input.charAt(p);
+                switch (state) {
+                    case BEFORE_ATTRIBUTE_NAME:
+                        if (isWhitespace(c)) {
+                            p++;
+                        } else if (c == '/') {
+                            state = SELF_CLOSING;
+                            p++;
+                        } else if (c == '<' || c == '>') {
+                            this.commitAttribute();
+                            return c == '>' ? p + 1 : p;
+                        } else {
+                            p = this.readAttributeName(p);
+                            state = ATTRIBUTE_NAME;
+                        }
+                        break;
+                    case ATTRIBUTE_NAME:
+                    case AFTER_ATTRIBUTE_NAME:
+                        if (isWhitespace(c)) {
+                            state = AFTER_ATTRIBUTE_NAME;
+                            p++;
+                        } else if (c == '/') {
+                            state = SELF_CLOSING;
+                            p++;
+                        } else if (c == '=') {
+                            state = BEFORE_ATTRIBUTE_VALUE;
+                            p++;
+                        } else if (c == '>') {
+                            this.commitAttribute();
+                            return p + 1;
+                        } else {
+                            p = this.readAttributeName(p);
+                            state = ATTRIBUTE_NAME;
+                        }
+                        break;
+                    case BEFORE_ATTRIBUTE_VALUE:
+                        if (isWhitespace(c)) {
+                            p++;
+                        } else if (c == '"' || c == '\'') {
+                            final int quote = input.indexOf(c, p + 1);
+                            if (quote < 0) {
+                                return -1;
+                            }
+                            pendingValue = this.decodeAttributeValue(p + 1, quote);
+                            state = AFTER_ATTRIBUTE_VALUE;
+                            p = quote + 1;
+                        } else if (c == '>') {
+                            this.commitAttribute();
+                            return p + 1;
+                        } else {
+                            int end = p + 1;
+                            while (end < length && !isWhitespace(input.charAt(end)) && input.charAt(end) != '>') {
+                                end++;
+                            }
+                            if (end >= length) {
+                                return -1;
+                            }
+                            pendingValue = this.decodeAttributeValue(p, end);
+                            state = BEFORE_ATTRIBUTE_NAME;
+                            p = end;
+                        }
+                        break;
+                    case AFTER_ATTRIBUTE_VALUE:
+                        if (c == '/') {
+                            state = SELF_CLOSING;
+                            p++;
+                        } else if (c == '>') {
+                            this.commitAttribute();
+                            return p + 1;
+                        } else {
+                            state = BEFORE_ATTRIBUTE_NAME;
+                            p = isWhitespace(c) ? p + 1 : p;
+                        }
+                        break;
+                    default:
+                        if (c == '>') {
+                            selfClosing = true;
+                            this.commitAttribute();
+                            return p + 1;
+                        }
+                        state = BEFORE_ATTRIBUTE_NAME;
+                        break;
+                }
+            }
+            if (state == BEFORE_ATTRIBUTE_VALUE) {
+                this.commitAttribute();
+                return length;
+            }
+            return -1;
+        }
+
+        /**
+         * Read an attribute name, the first character is always a part of it, even if it's {@code =} or a quote.
+         */
+        private int readAttributeName(int start) {
+            this.commitAttribute();
+            int end = start + 1;
+            while (end < length) {
+                final char c = input.charAt(end);
+                if (isWhitespace(c) || c == '/' || c == '=' || c == '>') {
+                    break;
+                }
+                end++;
+            }
+            pendingName = input.substring(start, end);
+            pendingValue = "";
+            return end;
+        }
+
+        private void commitAttribute() {
+            if (pendingName != null) {
+                attributeNames.add(pendingName);
+                attributeValues.add(pendingValue);
+                pendingName = null;
+            }
+        }
+
+        private String decodeAttributeValue(int start, int end) {
+            final String value = input.substring(start, end);
+            return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+        }
+
+        private boolean startTag(String rawName, String name) {
+            if (RESTRUCTURING_START_TAGS.contains(name) || attributeNames.size() >= MAX_ATTRIBUTES || stack.size() >= MAX_DEPTH) {
+                return false;
+            }
+            final boolean isSafe = safelist.isSafe(name);
+            if (RAW_TEXT_TAGS.contains(name)) {
+                return !isSafe && (selfClosing || this.readRawText(rawName, DATA_TAGS.contains(name), "script".equals(name)));
+            }
+            if (VOID_TAGS.contains(name)) {
+                return !isSafe || this.openSafeElement(name, Tag.valueOf(name), true);
+            }
+            final boolean isKnown = Tag.isKnownTag(name);
+            final Tag tag = isKnown ? Tag.valueOf(name) : null;
+            if (isKnown ? tag.isEmpty() : isSafe) {
+                return false;
+            }
+            if (FORMATTING_TAGS.contains(name) && this.countOpenElements(name) >= ("a".equals(name) ? 1 : 3)) {
+                // The nested links and the repeated formatting elements are adjusted by jsoup.
+                return false;
+            }
+            final OpenElement element = new OpenElement(name, isSafe ? container : null);
+            if (isSafe && !this.openSafeElement(name, tag, false)) {
+                return false;
+            }
+            if (selfClosing) {
+                this.closeElement(element);
+            } else {
+                stack.add(element);
+            }
+            return true;
+        }
+
+        private int countOpenElements(String name) {
+            int count = 0;
+            for (OpenElement element : stack) {
+                if (element.name.equals(name)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean endTag(String name) {
+            if (RESTRUCTURING_END_TAGS.contains(name)) {
+                return false;
+            }
+            final int top = stack.size() - 1;
+            for (int i = top; i >= 0; i--) {
+                if (stack.get(i).name.equals(name)) {
+                    // The misnested element is closed implicitly by jsoup.
+                    if (i != top) {
+                        return false;
+                    }
+                    this.closeElement(stack.remove(top));
+                    return true;
+                }
+            }
+            // The end tag of an element which is not open is ignored.
+            return true;
+        }
+
+        /**
+         * Read the content of a raw text tag until its end tag, the same as the raw text states of the jsoup tokenizer.
+         */
+        private boolean readRawText(String rawName, boolean isData, boolean isScript) {
+            int p = pos;
+            while (true) {
+                final int lessThan = input.indexOf('<', p);
+                if (lessThan < 0) {
+                    this.appendRawText(pos, length, isData);
+                    pos = length;
+                    return true;
+                }
+                if (isScript && input.startsWith("<!--", lessThan)) {
+                    // The escaped script data has its own states.
+                    return false;
+                }
+                final int nameStart = lessThan + 2;
+                if (nameStart >= length || input.charAt(lessThan + 1) != '/' || !isAsciiAlpha(input.charAt(nameStart))) {
+                    p = lessThan + 1;
+                    continue;
+                }
+                int nameEnd = nameStart;
+                while (nameEnd < length && Character.isLetter(input.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                if (nameEnd >= length || nameEnd - nameStart != rawName.length()
+                        || !input.regionMatches(true, nameStart, rawName, 0, rawName.length())) {
+                    p = nameEnd;
+                    continue;
+                }
+                final char c = input.charAt(nameEnd);
+                final int end;
+                if (c == '>') {
+                    end = nameEnd + 1;
+                } else if (c == '/' || isWhitespace(c)) {
+                    end = this.readAttributes(nameEnd + 1, c == '/' ? SELF_CLOSING : BEFORE_ATTRIBUTE_NAME);
+                } else {
+                    // Not an end tag, the character is a part of the raw text.
+                    p = nameEnd + 1;
+                    continue;
+                }
+                this.appendRawText(pos, lessThan, isData);
+                this.flushText();
+                pos = end < 0 ? length : end;
+                return true;
+            }
+        }
+
+        private void appendRawText(int start, int end, boolean isData) {
+            if (!isData) {
+                text.append(input, start, end);
+            }
+        }
+
+        private void appendText(int start, int end) {
+            if (start >= end) {
+                return;
+            }
+            final int ampersand = input.indexOf('&', start);
+            if (ampersand < 0 || ampersand >= end) {
+                text.append(input, start, end);
+            } else {
+                text.append(Parser.unescapeEntities(input.substring(start, end), false));
+            }
+        }
+
+        /**
+         * Append the pending text as a text node, jsoup never merges the text nodes separated by a tag or a comment.
+         */
+        private void flushText() {
+            final int size = text.length();
+            if (size == 0) {
+                return;
+            }
+            // A single NUL character is ignored by the tree builder of jsoup.
+            if (size > 1 || text.charAt(0) != '\0') {
+                this.appendTextNode();
+            }
+            text.setLength(0);
+        }
+
+        private void appendTextNode() {
+            final Container parent = container;
+            if (parent.children == 0 && parent.tag.formatAsBlock() && !this.isBlankText()) {
+                this.indent(parent.depth);
+            }
+            boolean lastWasWhite = false;
+            for (int i = 0; i < text.length(); i++) {
+                final char c = text.charAt(i);
+                if (isWhitespace(c)) {
+                    if (!lastWasWhite) {
+                        output.append(' ');
+                        lastWasWhite = true;
+                    }
+                    continue;
+                }
+                lastWasWhite = false;
+                this.appendEscaped(c, false);
+            }
+            parent.children++;
+        }
+
+        private boolean isBlankText() {
+            for (int i = 0; i < text.length(); i++) {
+                if (!isWhitespace(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Write the start tag of a safe element, the same as the pretty printing of jsoup.
+         */
+        private boolean openSafeElement(String name, Tag tag, boolean isVoid) {
+            final Container parent = container;
+            final boolean isInlineable = tag.isInline() && !tag.isEmpty() && parent.tag.isBlock() && parent.children > 0;
+            if ((tag.formatAsBlock() || parent.tag.formatAsBlock()) && !isInlineable && output.length() > 0) {
+                this.indent(parent.depth);
+            }
+            output.append('<').append(name);
+            if (!this.appendAttributes(name, tag)) {
+                return false;
+            }
+            output.append('>');
+            parent.children++;
+            if (!isVoid) {
+                container = new Container(parent, tag, parent.depth + 1);
+            }
+            return true;
+        }
+
+        private void closeElement(OpenElement element) {
+            if (element.parent == null) {
+                return;
+            }
+            final Container closed = container;
+            if (closed.children > 0 && closed.tag.formatAsBlock()) {
+                this.indent(element.parent.depth);
+            }
+            output.append("</").append(element.name).append('>');
+            container = element.parent;
+        }
+
+        /**
+         * Write the safe attributes and the enforced attributes, the same as the cleaner of jsoup.
+         */
+        private boolean appendAttributes(String name, Tag tag) {
+            Attributes attributes = null;
+            final int size = attributeNames.size();
+            if (size > 0) {
+                final Attributes source = new Attributes();
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!this.isDuplicateAttribute(i)) {
+                        source.put(attributeNames.get(i).toLowerCase(Locale.ENGLISH), attributeValues.get(i));
+                        kept++;
+                    }
+                }
+                if (source.size() != kept) {
+                    return false;
+                }
+                // The element resolves the relative links against the empty base uri, the same as the source element of jsoup.
+                final Element element = new Element(tag, "", source);
+                attributes = new Attributes();
+                for (Attribute attribute : source) {
+                    if (safelist.isSafe(name, element, attribute)) {
+                        attributes.put(attribute);
+                    }
+                }
+            }
+            final Attributes enforced = enforcedAttributes.computeIfAbsent(name, StreamingTrimXssSanitizer.this::createEnforcedAttributes);
+            if (enforced.size() > 0) {
+                if (attributes == null) {
+                    attributes = new Attributes();
+                }
+                attributes.addAll(enforced);
+            }
+            if (attributes == null) {
+                return true;
+            }
+            for (Attribute attribute : attributes) {
+                final String key = attribute.getKey();
+                final String value = attribute.getValue();
+                if (!isValidKey(key)) {
+                    return false;
+                }
+                output.append(' ').append(key);
+                if (!(value.isEmpty() || value.equalsIgnoreCase(key)) || !Attribute.isBooleanAttribute(key)) {
+                    output.append("=\"");
+                    for (int i = 0; i < value.length(); i++) {
+                        this.appendEscaped(value.charAt(i), true);
+                    }
+                    output.append('"');
+                }
+            }
+            return true;
+        }
+
+        /**
+         * jsoup keeps the first one of the attributes with the same name, case-insensitively.
+         */
+        private boolean isDuplicateAttribute(int index) {
+            final String name = attributeNames.get(index);
+            for (int i = 0; i < index; i++) {
+                if (attributeNames.get(i).equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Escape a character in the base escape mode of jsoup.
+         */
+        private void appendEscaped(char c, boolean inAttribute) {
+            switch (c) {
+                case '&':
+                    output.append("&amp;");
+                    break;
+                case '\u00A0':
+                    output.append("&nbsp;");
+                    break;
+                case '<':
+                    output.append(inAttribute ? "<" : "&lt;");
+                    break;
+                case '>':
+                    output.append(inAttribute ? ">" : "&gt;");
+                    break;
+                case '"':
+                    output.append(inAttribute ? "&quot;" : "\"");
+                    break;
+                case '\t':
+                case '\n':
+                case '\r':
+                    output.append(c);
+                    break;
+                default:
+                    if (c < ' ') {
+                        output.append("&#x").append(Integer.toHexString(c)).append(';');
+                    } else {
+                        output.append(c);
+                    }
+            }
+        }
+
+        private void indent(int depth) {
+            output.append('\n').append(StringUtil.padding(depth));
+        }
+
+    }
+
+    /**
+     * A safe element which the nodes are appended to, with the state the pretty printing needs.
+     */
+    private static final class Container {
+
+        private final Container parent;
+
+        private final Tag tag;
+
+        /**
+         * The indentation depth of the child nodes.
+         */
+        private final int depth;
+
+        private int children;
+
+        private Container(Container parent, Tag tag, int depth) {
+            this.parent = parent;
+            this.tag = tag;
+            this.depth = depth;
+        }
+
+    }
+
+    /**
+     * An open element, the parent is the container which the safe element is appended to, {@code null} if it's dropped.
+     */
+    private static final class OpenElement {
+
+        private final String name;
+
+        private final Container parent;
+
+        private OpenElement(String name, Container parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+    }
+
+    /**
+     * A copy of the safelist, which exposes the checks of the tags and the attributes used by the jsoup cleaner.
+     */
+    private static final class SafelistView extends Safelist {
+
+        private SafelistView(Safelist safelist) {
+            super(safelist);
+        }
+
+        private boolean isSafe(String tagName) {
+            return this.isSafeTag(tagName);
+        }
+
+        private boolean isSafe(String tagName, Element element, Attribute attribute) {
+            return this.isSafeAttribute(tagName, element, attribute);
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+
+/**
+ * A sanitizer which throws an {@link XssRiskDetectedException} directly when XSS risk detected,
+ * it's the same as {@link Jsoup#isValid(String, Safelist)}, but the {@link Cleaner} is built only once.
+ * <p>
+ * If an {@link XssPatternAutomaton} is given, it makes the decision in a single pass without building any DOM,
+ * jsoup only confirms the ambiguous text, or the ambiguous text is rejected as well if the confirmation is disabled.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.DefenseStrategy#THROW
+ * @since 1.0.0
+ */
+public class ThrowXssSanitizer implements XssSanitizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThrowXssSanitizer.class);
+
+    /**
+     * The cached cleaner, it's thread-safe as long as the safelist is not modified.
+     */
+    private final Cleaner cleaner;
+
+    /**
+     * The optional automaton of the XSS indicators, {@code null} if every text is checked by jsoup.
+     */
+    private final XssPatternAutomaton automaton;
+
+    /**
+     * Whether jsoup confirms the ambiguous text, otherwise it's rejected.
+     */
+    private final boolean confirmAmbiguous;
+
+    /**
+     * Whether the exception of the rejected text fills in its stack trace.
+     */
+    private final boolean stackTraceEnabled;
+
+    public ThrowXssSanitizer(Safelist safelist) {
+        this(safelist, null, true);
+    }
+
+    /**
+     * @param safelist         The safelist to confirm the ambiguous text
+     * @param automaton        The automaton of the XSS indicators, nullable
+     * @param confirmAmbiguous Whether jsoup confirms the ambiguous text, otherwise it's rejected
+     */
+    public ThrowXssSanitizer(Safelist safelist, XssPatternAutomaton automaton, boolean confirmAmbiguous) {
+        this(safelist, automaton, confirmAmbiguous, true);
+    }
+
+    /**
+     * @param safelist          The safelist to confirm the ambiguous text
+     * @param automaton         The automaton of the XSS indicators, nullable
+     * @param confirmAmbiguous  Whether jsoup confirms the ambiguous text, otherwise it's rejected
+     * @param stackTraceEnabled Whether the exception of the rejected text fills in its stack trace
+     */
+    public ThrowXssSanitizer(Safelist safelist, XssPatternAutomaton automaton, boolean confirmAmbiguous, boolean stackTraceEnabled) {
+        this.cleaner = new Cleaner(safelist);
+        this.automaton = automaton;
+        this.confirmAmbiguous = confirmAmbiguous;
+        this.stackTraceEnabled = stackTraceEnabled;
+    }
+
+    @Override
+    public String sanitize(String text) {
+        final int verdict = automaton == null ? XssPatternAutomaton.SUSPICIOUS : automaton.scan(text);
+        if (verdict == XssPatternAutomaton.REJECT || (verdict == XssPatternAutomaton.SUSPICIOUS
+                && (!confirmAmbiguous || !cleaner.isValidBodyHtml(text)))) {
+            throw new XssRiskDetectedException(text, stackTraceEnabled);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Checking XSS risk, the input text is safe: {}", text);
+        }
+
+        return text;
+    }
+
+    @Override
+    public boolean preservesPlainText() {
+        return true;
+    }
+
+    @Override
+    public boolean rejectsRisk() {
+        return true;
+    }
+
+}
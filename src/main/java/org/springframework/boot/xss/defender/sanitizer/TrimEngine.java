@@ -0,0 +1,44 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.safety.Safelist;
+
+import java.util.function.Function;
+
+/**
+ * The enums of the engine which trims the XSS risky characters of the {@code TRIM} strategy.
+ * Both engines apply the same {@link Safelist} and produce the same output.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.DefenseStrategy#TRIM
+ * @since 1.0.0
+ */
+public enum TrimEngine {
+
+    /**
+     * The jsoup cleaner, which parses the input text into a document first.
+     *
+     * @see TrimXssSanitizer
+     */
+    JSOUP(TrimXssSanitizer::new),
+
+    /**
+     * The streaming tokenizer, which writes the output directly into one buffer without building a document.
+     *
+     * @see StreamingTrimXssSanitizer
+     */
+    STREAMING(StreamingTrimXssSanitizer::new);
+
+    private final Function<Safelist, XssSanitizer> factory;
+
+    TrimEngine(Function<Safelist, XssSanitizer> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a new sanitizer of this engine, the safelist must not be modified after that.
+     */
+    public XssSanitizer create(Safelist safelist) {
+        return factory.apply(safelist);
+    }
+
+}
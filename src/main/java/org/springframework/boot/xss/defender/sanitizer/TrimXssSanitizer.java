@@ -0,0 +1,58 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A sanitizer which trims all the XSS risky characters, it's the same as {@link Jsoup#clean(String, Safelist)},
+ * but the {@link Cleaner} is built only once. The detected XSS risk is reported by the
+ * {@link org.springframework.boot.xss.defender.audit.XssDetectionAuditor} asynchronously.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.DefenseStrategy#TRIM
+ * @since 1.0.0
+ */
+public class TrimXssSanitizer implements XssSanitizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrimXssSanitizer.class);
+
+    /**
+     * The base uri to parse input text, the same as {@link Jsoup#clean(String, Safelist)}.
+     */
+    private static final String EMPTY_BASE_URI = "";
+
+    /**
+     * Escaped empty string constant, for printing more clear log information.
+     */
+    private static final String ESCAPED_EMPTY_STRING = "\"\"";
+
+    /**
+     * The cached cleaner, it's thread-safe as long as the safelist is not modified.
+     */
+    private final Cleaner cleaner;
+
+    public TrimXssSanitizer(Safelist safelist) {
+        this.cleaner = new Cleaner(safelist);
+    }
+
+    @Override
+    public String sanitize(String text) {
+        final String safeText = cleaner.clean(Jsoup.parseBodyFragment(text, EMPTY_BASE_URI)).body().html();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Trim text to prevent XSS risk, input: {}, output: {}",
+                    text, safeText.isEmpty() ? ESCAPED_EMPTY_STRING : safeText);
+        }
+
+        return safeText;
+    }
+
+    @Override
+    public boolean preservesPlainText() {
+        return true;
+    }
+
+}
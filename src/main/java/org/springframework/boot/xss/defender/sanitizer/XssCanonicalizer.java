@@ -0,0 +1,416 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.springframework.util.Assert;
+
+/**
+ * A canonicalizer which decodes the nested encodings of the input text before the detection, for example,
+ * {@code %253Cscript%253E}, {@code &#x3C;script} or {@code <script}, which jsoup alone would keep as text.
+ * <p>
+ * Every round decodes the percent escapes (including the UTF-8 sequences and {@code %uXXXX}), the HTML character
+ * references and the JS escapes in a single pass, from one reused buffer into the other one, so that no intermediate
+ * string is created between the decoders or the rounds. The rounds stop as soon as nothing is decoded,
+ * or after the maximum rounds. The input text without any escape marker is returned as it is, without any copy.
+ * <p>
+ * The canonical form is only used to decide whether the input text is rejected, it's never returned instead of the input text.
+ *
+ * @author codeboyzhou
+ * @see #canonicalizeIfRisky(String)
+ * @since 1.0.0
+ */
+public final class XssCanonicalizer {
+
+    /**
+     * The default maximum rounds, it decodes a triple encoding, for example, {@code %25253C}.
+     */
+    public static final int DEFAULT_MAX_ROUNDS = 3;
+
+    /**
+     * The buffers longer than this are not kept by the thread.
+     */
+    private static final int MAX_REUSED_BUFFER_LENGTH = 8192;
+
+    /**
+     * The longest name of the supported named character references.
+     */
+    private static final int MAX_ENTITY_NAME_LENGTH = 7;
+
+    /**
+     * The supported named character references, the ones which can form or hide markup and script.
+     */
+    private static final String[] ENTITY_NAMES = {
+            "lt", "gt", "amp", "quot", "apos", "LT", "GT", "AMP", "QUOT", "sol", "bsol", "colon", "semi", "equals",
+            "lpar", "rpar", "grave", "percnt", "num", "period", "comma", "excl", "Tab", "NewLine", "nbsp"
+    };
+
+    private static final char[] ENTITY_CHARS = {
+            '<', '>', '&', '"', '\'', '<', '>', '&', '"', '/', '\\', ':', ';', '=',
+            '(', ')', '`', '%', '#', '.', ',', '!', '\t', '\n', '\u00A0'
+    };
+
+    /**
+     * The two decoding buffers of the current thread.
+     */
+    private static final ThreadLocal<char[][]> BUFFERS = ThreadLocal.withInitial(() -> new char[2][0]);
+
+    private final int maxRounds;
+
+    public XssCanonicalizer() {
+        this(DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * @param maxRounds The maximum rounds of decoding, one round decodes one level of the nested encodings
+     */
+    public XssCanonicalizer(int maxRounds) {
+        Assert.isTrue(maxRounds > 0, "maxRounds must be positive");
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Check if the input text holds any escape marker, {@code %}, {@code &} or {@code \}.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return {@code false} if the input text is canonical already
+     */
+    public static boolean containsEscapeMarker(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (isEscapeMarker(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a range of the character buffer holds any escape marker.
+     *
+     * @see #containsEscapeMarker(String)
+     */
+    public static boolean containsEscapeMarker(char[] buffer, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (isEscapeMarker(buffer[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEscapeMarker(char c) {
+        return c == '%' || c == '&' || c == '\\';
+    }
+
+    /**
+     * Decode the nested encodings of the input text.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return The canonical form, the same instance if nothing is decoded
+     */
+    public String canonicalize(String text) {
+        final int length = text.length();
+        if (!containsEscapeMarker(text)) {
+            return text;
+        }
+
+        final char[][] buffers = buffers(length);
+        char[] source = buffers[0];
+        char[] target = buffers[1];
+        text.getChars(0, length, source, 0);
+        int sourceLength = length;
+        boolean decoded = false;
+        for (int round = 0; round < maxRounds; round++) {
+            // Every escape sequence is longer than what it decodes into, so the target never outgrows the input text.
+            final int targetLength = decode(source, sourceLength, target);
+            if (targetLength < 0) {
+                break;
+            }
+            final char[] swap = source;
+            source = target;
+            target = swap;
+            sourceLength = targetLength;
+            decoded = true;
+            if (!containsEscapeMarker(source, 0, sourceLength)) {
+                break;
+            }
+        }
+        return decoded ? new String(source, 0, sourceLength) : text;
+    }
+
+    /**
+     * Decide the form of the input text which goes through the detection. The canonical form is taken
+     * only if the decoding reveals markup, that means more {@code <}, {@code >} or quotes than the input text,
+     * otherwise the input text is kept intact, for example, a URL with the encoded spaces.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return The canonical form if the decoding reveals markup, otherwise the same instance
+     */
+    public String canonicalizeIfRisky(String text) {
+        final String canonical = this.canonicalize(text);
+        return canonical != text && countMarkup(canonical) > countMarkup(text) ? canonical : text;
+    }
+
+    /**
+     * Put the detection of the canonical form in front of a sanitizer which rejects the risky text. The canonical form
+     * only decides, the result is always the one of the input text, so the decoded text never leaks into the application,
+     * for example, {@code &lt;b&gt;} is never returned as {@code <b>}.
+     *
+     * @param sanitizer The sanitizer which rejects the risky text, see {@link XssSanitizer#rejectsRisk()}
+     * @return A sanitizer which preserves plain text if the given one does, as long as the plain text holds no escape marker
+     */
+    public XssSanitizer before(XssSanitizer sanitizer) {
+        Assert.notNull(sanitizer, "XssSanitizer must not be null");
+        Assert.isTrue(sanitizer.rejectsRisk(), "XssSanitizer must reject the risky text");
+        final XssCanonicalizer canonicalizer = this;
+        return new XssSanitizer() {
+            @Override
+            public String sanitize(String text) {
+                final String canonical = canonicalizer.canonicalizeIfRisky(text);
+                if (canonical != text) {
+                    sanitizer.sanitize(canonical);
+                }
+                return sanitizer.sanitize(text);
+            }
+
+            @Override
+            public boolean preservesPlainText() {
+                return sanitizer.preservesPlainText();
+            }
+
+            @Override
+            public boolean parsesMarkup() {
+                return sanitizer.parsesMarkup();
+            }
+
+            @Override
+            public boolean rejectsRisk() {
+                return true;
+            }
+        };
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    private static int countMarkup(String text) {
+        int count = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '<' || c == '>' || c == '"' || c == '\'') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static char[][] buffers(int length) {
+        if (length > MAX_REUSED_BUFFER_LENGTH) {
+            return new char[][]{new char[length], new char[length]};
+        }
+        final char[][] buffers = BUFFERS.get();
+        if (buffers[0].length < length) {
+            final int capacity = Math.max(length, Math.min(MAX_REUSED_BUFFER_LENGTH, buffers[0].length * 2));
+            buffers[0] = new char[capacity];
+            buffers[1] = new char[capacity];
+        }
+        return buffers;
+    }
+
+    /**
+     * Decode one level of all the encodings in a single pass.
+     *
+     * @return The length of the decoded text in the target, or {@code -1} if nothing is decoded
+     */
+    private static int decode(char[] source, int length, char[] target) {
+        int j = 0;
+        boolean decoded = false;
+        for (int i = 0; i < length; ) {
+            final char c = source[i];
+            long result = -1L;
+            if (c == '%') {
+                result = decodePercent(source, i, length);
+            } else if (c == '&') {
+                result = decodeReference(source, i, length);
+            } else if (c == '\\') {
+                result = decodeJsEscape(source, i, length);
+            }
+
+            if (result < 0) {
+                target[j++] = c;
+                i++;
+            } else {
+                j += Character.toChars((int) result, target, j);
+                i += (int) (result >>> 32);
+                decoded = true;
+            }
+        }
+        return decoded ? j : -1;
+    }
+
+    /**
+     * Pack the decoded code point with the count of the consumed characters.
+     */
+    private static long decoded(int codePoint, int consumed) {
+        return ((long) consumed << 32) | codePoint;
+    }
+
+    /**
+     * Decode {@code %XX}, the UTF-8 sequence of {@code %XX}, or {@code %uXXXX}.
+     */
+    private static long decodePercent(char[] source, int start, int length) {
+        if (start + 5 < length && (source[start + 1] == 'u' || source[start + 1] == 'U')) {
+            final int codePoint = parseHex(source, start + 2, 4);
+            return isValid(codePoint) ? decoded(codePoint, 6) : -1L;
+        }
+
+        final int lead = percentByte(source, start, length);
+        if (lead < 0x80) {
+            return isValid(lead) ? decoded(lead, 3) : -1L;
+        }
+        final int continuations = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : lead >= 0xC2 ? 1 : -1;
+        if (continuations < 0 || lead > 0xF4) {
+            return -1L;
+        }
+        int codePoint = lead & (0x3F >> continuations);
+        for (int k = 1; k <= continuations; k++) {
+            final int next = percentByte(source, start + 3 * k, length);
+            if ((next & 0xC0) != 0x80) {
+                return -1L;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        final int minimum = continuations == 1 ? 0x80 : continuations == 2 ? 0x800 : 0x10000;
+        return codePoint >= minimum && isValid(codePoint) ? decoded(codePoint, 3 * (continuations + 1)) : -1L;
+    }
+
+    /**
+     * The byte of {@code %XX} at the start, or {@code -1}.
+     */
+    private static int percentByte(char[] source, int start, int length) {
+        return start + 2 < length && source[start] == '%' ? parseHex(source, start + 1, 2) : -1;
+    }
+
+    /**
+     * Decode {@code &#DDD;}, {@code &#xHHH;} or a supported named character reference,
+     * the semicolon is optional for the numeric ones, just like the browsers.
+     */
+    private static long decodeReference(char[] source, int start, int length) {
+        int i = start + 1;
+        if (i < length && source[i] == '#') {
+            final boolean hex = ++i < length && (source[i] == 'x' || source[i] == 'X');
+            if (hex) {
+                i++;
+            }
+            final int digitsStart = i;
+            long codePoint = 0;
+            while (i < length && i - digitsStart < 8) {
+                final int digit = hex ? hexDigit(source[i]) : source[i] >= '0' && source[i] <= '9' ? source[i] - '0' : -1;
+                if (digit < 0) {
+                    break;
+                }
+                codePoint = codePoint * (hex ? 16 : 10) + digit;
+                i++;
+            }
+            if (i == digitsStart || codePoint > Character.MAX_CODE_POINT || !isValid((int) codePoint)) {
+                return -1L;
+            }
+            if (i < length && source[i] == ';') {
+                i++;
+            }
+            return decoded((int) codePoint, i - start);
+        }
+
+        final int nameStart = i;
+        while (i < length && i - nameStart <= MAX_ENTITY_NAME_LENGTH && isAsciiLetter(source[i])) {
+            i++;
+        }
+        if (i == nameStart || i >= length || source[i] != ';') {
+            return -1L;
+        }
+        for (int k = 0; k < ENTITY_NAMES.length; k++) {
+            if (matches(ENTITY_NAMES[k], source, nameStart, i - nameStart)) {
+                return decoded(ENTITY_CHARS[k], i + 1 - start);
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Decode the JS escapes, &#92;uXXXX, &#92;u{X...} or &#92;xXX.
+     */
+    private static long decodeJsEscape(char[] source, int start, int length) {
+        if (start + 1 >= length) {
+            return -1L;
+        }
+        final char kind = source[start + 1];
+        if (kind == 'x' || kind == 'X') {
+            final int value = start + 3 < length ? parseHex(source, start + 2, 2) : -1;
+            return value < 0 ? -1L : decoded(value, 4);
+        }
+        if (kind != 'u' && kind != 'U') {
+            return -1L;
+        }
+        if (start + 2 < length && source[start + 2] == '{') {
+            int i = start + 3;
+            int codePoint = 0;
+            while (i < length && i - start - 3 < 6 && hexDigit(source[i]) >= 0) {
+                codePoint = codePoint * 16 + hexDigit(source[i]);
+                i++;
+            }
+            return i > start + 3 && i < length && source[i] == '}' && codePoint <= Character.MAX_CODE_POINT && isValid(codePoint)
+                    ? decoded(codePoint, i + 1 - start) : -1L;
+        }
+        final int codePoint = start + 5 < length ? parseHex(source, start + 2, 4) : -1;
+        return codePoint < 0 || !isValid(codePoint) ? -1L : decoded(codePoint, 6);
+    }
+
+    /**
+     * Parse the fixed count of hex digits, or {@code -1} if any of them is not a hex digit.
+     */
+    private static int parseHex(char[] source, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final int digit = hexDigit(source[i]);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * The value of an ASCII hex digit, or {@code -1}, the other digits of {@link Character#digit(char, int)} are never decoded.
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        final char lower = (char) (c | 0x20);
+        return lower >= 'a' && lower <= 'f' ? lower - 'a' + 10 : -1;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        final char lower = (char) (c | 0x20);
+        return lower >= 'a' && lower <= 'z';
+    }
+
+    /**
+     * The NUL and the surrogates are never decoded, a lone surrogate would corrupt the canonical form.
+     */
+    private static boolean isValid(int codePoint) {
+        return codePoint > 0 && (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE);
+    }
+
+    private static boolean matches(String name, char[] source, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (name.charAt(k) != source[start + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
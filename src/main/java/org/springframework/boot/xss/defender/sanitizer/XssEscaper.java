@@ -0,0 +1,324 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * The single-pass escapers of the output contexts. The input text is scanned once to find the first character
+ * to escape, the same instance is returned if there is none. Otherwise, the length of the output is counted first,
+ * so that the output is written into a builder of the exact capacity, without any intermediate growth.
+ * <p>
+ * {@link #HTML_BODY} produces exactly the same text as {@code HtmlUtils.htmlEscape(text, "UTF-8")}.
+ * <p>
+ * The escaped text can be streamed by {@link #reader(String)} as well, for example, into a {@code JsonGenerator}.
+ *
+ * @author codeboyzhou
+ * @see EscapeXssSanitizer
+ * @since 1.0.0
+ */
+public enum XssEscaper {
+
+    /**
+     * The text content of an html element, escapes {@code & < > " '}.
+     */
+    HTML_BODY(htmlTable(false)),
+
+    /**
+     * The value of a quoted html attribute, escapes the backtick in addition to {@link #HTML_BODY}.
+     */
+    HTML_ATTRIBUTE(htmlTable(true)),
+
+    /**
+     * The content of a quoted JavaScript string, which is safe inside an inline script block as well.
+     */
+    JAVASCRIPT_STRING(javaScriptTable()) {
+        @Override
+        String replacement(char c) {
+            if (c < ASCII) {
+                return table[c];
+            }
+            return c == '\u2028' ? "\\u2028" : c == '\u2029' ? "\\u2029" : null;
+        }
+    },
+
+    /**
+     * A component of an url, for example, a query parameter value, percent-encodes the UTF-8 bytes of all the characters
+     * except the unreserved ones of RFC 3986. An unpaired surrogate is encoded as the replacement character {@code U+FFFD}.
+     */
+    URL_COMPONENT(null) {
+        @Override
+        public String escape(String text) {
+            return escapeUrlComponent(text);
+        }
+
+        @Override
+        public int indexOfEscape(String text) {
+            final int length = text.length();
+            int first = 0;
+            while (first < length && isUnreserved(text.charAt(first))) {
+                first++;
+            }
+            return first;
+        }
+
+        /**
+         * The UTF-8 bytes of a code point are encoded together, so the whole text is escaped first.
+         */
+        @Override
+        public Reader reader(String text) {
+            return new StringReader(escapeUrlComponent(text));
+        }
+    };
+
+    /**
+     * The upper bound (exclusive) of the replacement tables.
+     */
+    static final int ASCII = 0x80;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * The UTF-8 encoded replacement character {@code U+FFFD}.
+     */
+    private static final byte[] REPLACEMENT_CHARACTER = {(byte) 0xEF, (byte) 0xBF, (byte) 0xBD};
+
+    /**
+     * The replacements of the ASCII characters, {@code null} if the character is kept as it is.
+     */
+    final String[] table;
+
+    XssEscaper(String[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Escape the input text for this context.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return The escaped text, the same instance if no character needs to be escaped
+     */
+    public String escape(String text) {
+        final int length = text.length();
+        final int first = this.indexOfEscape(text);
+        if (first == length) {
+            return text;
+        }
+
+        int escapedLength = first;
+        for (int i = first; i < length; i++) {
+            final String replacement = this.replacement(text.charAt(i));
+            escapedLength += replacement == null ? 1 : replacement.length();
+        }
+
+        final StringBuilder escaped = new StringBuilder(escapedLength).append(text, 0, first);
+        for (int i = first; i < length; i++) {
+            final char c = text.charAt(i);
+            final String replacement = this.replacement(c);
+            if (replacement == null) {
+                escaped.append(c);
+            } else {
+                escaped.append(replacement);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Find the first character to escape, the text before it is kept as it is.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return The index of the first character to escape, the length of the text if there is none
+     */
+    public int indexOfEscape(String text) {
+        final int length = text.length();
+        int first = 0;
+        while (first < length && this.replacement(text.charAt(first)) == null) {
+            first++;
+        }
+        return first;
+    }
+
+    /**
+     * Read the escaped text, the characters are escaped one by one as they are read, without building the escaped text.
+     *
+     * @param text The input text, must not be {@code null}
+     * @return The reader of the escaped text, it needn't be closed
+     */
+    public Reader reader(String text) {
+        return new EscapingReader(this, text);
+    }
+
+    /**
+     * The replacement of the character, {@code null} if it's kept as it is.
+     */
+    String replacement(char c) {
+        return c < ASCII ? table[c] : null;
+    }
+
+    private static String[] htmlTable(boolean attribute) {
+        final String[] table = new String[ASCII];
+        table['&'] = "&amp;";
+        table['<'] = "&lt;";
+        table['>'] = "&gt;";
+        table['"'] = "&quot;";
+        table['\''] = "&#39;";
+        if (attribute) {
+            table['`'] = "&#96;";
+        }
+        return table;
+    }
+
+    private static String[] javaScriptTable() {
+        final String[] table = new String[ASCII];
+        for (char c = 0; c < ' '; c++) {
+            table[c] = unicodeEscape(c);
+        }
+        table['\b'] = "\\b";
+        table['\t'] = "\\t";
+        table['\n'] = "\\n";
+        table['\f'] = "\\f";
+        table['\r'] = "\\r";
+        table['"'] = "\\\"";
+        table['\''] = "\\'";
+        table['\\'] = "\\\\";
+        table['/'] = "\\/";
+        // The markup characters can't close the script block or start a comment.
+        table['<'] = unicodeEscape('<');
+        table['>'] = unicodeEscape('>');
+        table['&'] = unicodeEscape('&');
+        table[0x7F] = unicodeEscape((char) 0x7F);
+        return table;
+    }
+
+    /**
+     * It's called while the enum constants are created, so it can't use the other static fields.
+     */
+    private static String unicodeEscape(char c) {
+        return String.format("\\u%04X", (int) c);
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static String escapeUrlComponent(String text) {
+        final int length = text.length();
+        int first = 0;
+        while (first < length && isUnreserved(text.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return text;
+        }
+
+        // Every encoded byte takes 3 characters.
+        int escapedLength = first;
+        for (int i = first; i < length; i++) {
+            final char c = text.charAt(i);
+            if (isUnreserved(c)) {
+                escapedLength++;
+            } else if (c < 0x80) {
+                escapedLength += 3;
+            } else if (c < 0x800) {
+                escapedLength += 6;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                escapedLength += 12;
+                i++;
+            } else {
+                escapedLength += 9;
+            }
+        }
+
+        final StringBuilder escaped = new StringBuilder(escapedLength).append(text, 0, first);
+        for (int i = first; i < length; i++) {
+            final char c = text.charAt(i);
+            if (isUnreserved(c)) {
+                escaped.append(c);
+            } else if (c < 0x80) {
+                percentEncode(c, escaped);
+            } else if (c < 0x800) {
+                percentEncode(0xC0 | (c >> 6), escaped);
+                percentEncode(0x80 | (c & 0x3F), escaped);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                percentEncode(0xF0 | (codePoint >> 18), escaped);
+                percentEncode(0x80 | (codePoint >> 12 & 0x3F), escaped);
+                percentEncode(0x80 | (codePoint >> 6 & 0x3F), escaped);
+                percentEncode(0x80 | (codePoint & 0x3F), escaped);
+            } else if (Character.isSurrogate(c)) {
+                for (byte b : REPLACEMENT_CHARACTER) {
+                    percentEncode(b & 0xFF, escaped);
+                }
+            } else {
+                percentEncode(0xE0 | (c >> 12), escaped);
+                percentEncode(0x80 | (c >> 6 & 0x3F), escaped);
+                percentEncode(0x80 | (c & 0x3F), escaped);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void percentEncode(int b, StringBuilder escaped) {
+        escaped.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    /**
+     * The reader of the escaped text, it's not thread-safe.
+     */
+    private static final class EscapingReader extends Reader {
+
+        private final XssEscaper escaper;
+
+        private final String text;
+
+        private int index;
+
+        /**
+         * The replacement which is partially read, {@code null} if there is none.
+         */
+        private String pending;
+
+        private int pendingIndex;
+
+        private EscapingReader(XssEscaper escaper, String text) {
+            this.escaper = escaper;
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length) {
+                if (pending != null) {
+                    final int n = Math.min(length - count, pending.length() - pendingIndex);
+                    pending.getChars(pendingIndex, pendingIndex + n, buffer, offset + count);
+                    count += n;
+                    pendingIndex += n;
+                    if (pendingIndex == pending.length()) {
+                        pending = null;
+                    }
+                    continue;
+                }
+                if (index == text.length()) {
+                    break;
+                }
+                final char c = text.charAt(index++);
+                final String replacement = escaper.replacement(c);
+                if (replacement == null) {
+                    buffer[offset + count++] = c;
+                } else {
+                    pending = replacement;
+                    pendingIndex = 0;
+                }
+            }
+            return count == 0 && length > 0 ? -1 : count;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,282 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precompiled, case-insensitive Aho-Corasick automaton over the known XSS indicators, for example, the tag openers,
+ * the event handlers, the script schemes and their encoded variants. It's compiled into a dense transition table once,
+ * so that {@link #scan(CharSequence)} makes the decision in a single linear pass, without any allocation.
+ * <p>
+ * There are two kinds of patterns:
+ * <ul>
+ *     <li>reject: the text is rejected as soon as one of them is found, for example, {@code <script}</li>
+ *     <li>suspicious: the text is ambiguous, for example, any other {@code <} or {@code &}, which may be safe markup</li>
+ * </ul>
+ * The encoded tag openers, for example, {@code %3Cscript} or {@code &lt;script}, are only suspicious by default,
+ * because jsoup reads them as plain text, see {@link Builder#rejectEncodedTags()}.
+ * The patterns must be ASCII, and they match ignoring case.
+ *
+ * @author codeboyzhou
+ * @see ThrowXssSanitizer
+ * @since 1.0.0
+ */
+public final class XssPatternAutomaton {
+
+    /**
+     * No pattern is found.
+     */
+    public static final int ACCEPT = 0;
+
+    /**
+     * Only suspicious patterns are found.
+     */
+    public static final int SUSPICIOUS = 1;
+
+    /**
+     * A reject pattern is found.
+     */
+    public static final int REJECT = 2;
+
+    /**
+     * The encoded forms of {@code <}.
+     */
+    private static final List<String> ENCODED_TAG_OPENERS = Arrays.asList(
+            "%3c", "\\u003c", "\\x3c", "&lt;", "&#60;", "&#060;", "&#x3c;", "&#x003c;");
+
+    /**
+     * The tags which are never allowed by any built-in safelist.
+     */
+    private static final List<String> DANGEROUS_TAGS = Arrays.asList(
+            "script", "iframe", "frame", "object", "embed", "applet", "svg", "math", "style",
+            "link", "meta", "base", "form", "body", "template");
+
+    /**
+     * The indicators which are dangerous only in a tag or an attribute value.
+     */
+    private static final List<String> AMBIGUOUS_INDICATORS = Arrays.asList(
+            "<", "&", "\u0000", "%3c", "\\u003c", "\\x3c", "javascript:", "vbscript:", "data:", "expression(", "url(",
+            "onerror=", "onload=", "onclick=", "onmouseover=", "onmouseenter=", "onfocus=", "onblur=", "oninput=",
+            "onchange=", "onsubmit=", "onkeydown=", "onkeyup=", "onanimationstart=", "ontoggle=", "onbegin=", "onpointerenter=");
+
+    /**
+     * The upper bound (exclusive) of the characters in the patterns.
+     */
+    private static final int ASCII = 0x80;
+
+    /**
+     * The lazily created automaton of the built-in patterns.
+     */
+    private static volatile XssPatternAutomaton defaults;
+
+    /**
+     * The character class of every ASCII character, the class {@code 0} is any character not in the patterns.
+     */
+    private final int[] classes;
+
+    /**
+     * The count of character classes.
+     */
+    private final int alphabetSize;
+
+    /**
+     * The transition table, the next state of a state and a character class is {@code transitions[state * alphabetSize + class]}.
+     */
+    private final int[] transitions;
+
+    /**
+     * The strongest verdict of the patterns ending at every state.
+     */
+    private final byte[] verdicts;
+
+    private XssPatternAutomaton(Map<String, Integer> patterns) {
+        this.classes = new int[ASCII];
+        int alphabet = 1;
+        for (String pattern : patterns.keySet()) {
+            for (int i = 0; i < pattern.length(); i++) {
+                final char c = pattern.charAt(i);
+                if (classes[c] == 0) {
+                    classes[c] = alphabet;
+                    if (c >= 'a' && c <= 'z') {
+                        classes[c - 'a' + 'A'] = alphabet;
+                    }
+                    alphabet++;
+                }
+            }
+        }
+        this.alphabetSize = alphabet;
+
+        // Build the trie.
+        final List<int[]> trie = new ArrayList<>();
+        final List<Byte> outputs = new ArrayList<>();
+        trie.add(newRow(alphabet));
+        outputs.add((byte) ACCEPT);
+        for (Map.Entry<String, Integer> entry : patterns.entrySet()) {
+            int state = 0;
+            for (int i = 0; i < entry.getKey().length(); i++) {
+                final int c = classes[entry.getKey().charAt(i)];
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow(alphabet));
+                    outputs.add((byte) ACCEPT);
+                }
+                state = trie.get(state)[c];
+            }
+            outputs.set(state, (byte) Math.max(outputs.get(state), entry.getValue()));
+        }
+
+        // Turn the trie into a dense automaton in breadth-first order, the missing transitions follow the failure links.
+        final int states = trie.size();
+        this.transitions = new int[states * alphabet];
+        this.verdicts = new byte[states];
+        final int[] failures = new int[states];
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < alphabet; c++) {
+            final int next = trie.get(0)[c];
+            transitions[c] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        verdicts[0] = outputs.get(0);
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            verdicts[state] = (byte) Math.max(outputs.get(state), verdicts[failures[state]]);
+            for (int c = 0; c < alphabet; c++) {
+                final int next = trie.get(state)[c];
+                final int fallback = transitions[failures[state] * alphabet + c];
+                if (next < 0) {
+                    transitions[state * alphabet + c] = fallback;
+                } else {
+                    transitions[state * alphabet + c] = next;
+                    failures[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * The automaton of the built-in patterns, it's created only once.
+     */
+    public static XssPatternAutomaton defaults() {
+        XssPatternAutomaton automaton = defaults;
+        if (automaton == null) {
+            synchronized (XssPatternAutomaton.class) {
+                automaton = defaults;
+                if (automaton == null) {
+                    automaton = builder().build();
+                    defaults = automaton;
+                }
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * Create a builder with the built-in patterns.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Scan the text in a single pass, it returns as soon as a reject pattern is found.
+     *
+     * @param text The input text
+     * @return {@link #ACCEPT}, {@link #SUSPICIOUS} or {@link #REJECT}
+     */
+    public int scan(CharSequence text) {
+        int state = 0;
+        int verdict = ACCEPT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            final char c = text.charAt(i);
+            state = transitions[state * alphabetSize + (c < ASCII ? classes[c] : 0)];
+            final int stateVerdict = verdicts[state];
+            if (stateVerdict == REJECT) {
+                return REJECT;
+            }
+            verdict |= stateVerdict;
+        }
+        return verdict;
+    }
+
+    /**
+     * The count of states, for the diagnostics.
+     */
+    public int stateCount() {
+        return verdicts.length;
+    }
+
+    private static int[] newRow(int alphabet) {
+        final int[] row = new int[alphabet];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * The builder of {@link XssPatternAutomaton}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        /**
+         * The verdicts by lower case pattern.
+         */
+        private final Map<String, Integer> patterns = new LinkedHashMap<>();
+
+        private Builder() {
+            DANGEROUS_TAGS.forEach(tag -> add("<" + tag, REJECT));
+            AMBIGUOUS_INDICATORS.forEach(pattern -> add(pattern, SUSPICIOUS));
+        }
+
+        /**
+         * Reject the encoded tag openers followed by a dangerous tag, for example, {@code %3Cscript} or {@code &lt;script},
+         * without the confirmation of jsoup. It also rejects the text which only mentions such a tag, for example,
+         * {@code Use &lt;script&gt; carefully}, so it's meant for the input which is decoded again downstream.
+         */
+        public Builder rejectEncodedTags() {
+            for (String opener : ENCODED_TAG_OPENERS) {
+                DANGEROUS_TAGS.forEach(tag -> add(opener + tag, REJECT));
+            }
+            return this;
+        }
+
+        /**
+         * Add the patterns which reject the text as soon as found.
+         */
+        public Builder reject(Collection<String> patterns) {
+            patterns.forEach(pattern -> add(pattern, REJECT));
+            return this;
+        }
+
+        /**
+         * Add the patterns which make the text ambiguous.
+         */
+        public Builder suspicious(Collection<String> patterns) {
+            patterns.forEach(pattern -> add(pattern, SUSPICIOUS));
+            return this;
+        }
+
+        private void add(String pattern, int verdict) {
+            Assert.hasLength(pattern, "The XSS pattern must not be empty");
+            for (int i = 0; i < pattern.length(); i++) {
+                Assert.isTrue(pattern.charAt(i) < ASCII, () -> "The XSS pattern must be ASCII: " + pattern);
+            }
+            patterns.merge(pattern.toLowerCase(), verdict, Math::max);
+        }
+
+        public XssPatternAutomaton build() {
+            return new XssPatternAutomaton(patterns);
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.XssPreScanner;
+
+/**
+ * The SPI of a single sanitization stage, {@link XssDefender} runs the compiled stages
+ * for every input text which is not blank. Implementations must be immutable and thread-safe,
+ * any expensive setup should be done in the constructor rather than per call.
+ * <p>
+ * Register a spring bean of this type to append a custom stage to the configured defense strategy.
+ *
+ * @author codeboyzhou
+ * @see XssSanitizerChain
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface XssSanitizer {
+
+    /**
+     * Sanitize the input text.
+     *
+     * @param text The input text, never blank, leading and trailing whitespace has been trimmed
+     * @return The safe text without XSS risk
+     */
+    String sanitize(String text);
+
+    /**
+     * Whether this sanitizer always returns the input text as it is when it is plain text,
+     * so that {@link XssDefender} can skip it for plain text, default value is {@code false}.
+     *
+     * @see XssPreScanner#isPlainText(String)
+     */
+    default boolean preservesPlainText() {
+        return false;
+    }
+
+    /**
+     * Whether this sanitizer parses the markup of the input text, so that a long input text sanitized in segments carries
+     * the open tags over to the next segment, default value is {@code true}. A sanitizer which treats every character alike,
+     * for example, an escaper, returns {@code false}.
+     *
+     * @see XssDefender#defend(java.io.Reader, int, org.springframework.boot.xss.defender.DefenseEntryPoint, String)
+     */
+    default boolean parsesMarkup() {
+        return true;
+    }
+
+    /**
+     * Whether this sanitizer rejects the risky input text by an exception rather than rewriting it, for example,
+     * the {@code THROW} strategy, default value is {@code false}.
+     *
+     * @see XssCanonicalizer#before(XssSanitizer)
+     */
+    default boolean rejectsRisk() {
+        return false;
+    }
+
+}
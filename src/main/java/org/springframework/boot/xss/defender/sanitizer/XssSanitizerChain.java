@@ -0,0 +1,188 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.safety.Safelist;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable chain of {@link XssSanitizer}, compiled by {@link Builder} only once at startup,
+ * so that there are no strategy lookups and no per-call setup on the hot path.
+ *
+ * @author codeboyzhou
+ * @see XssSanitizer
+ * @since 1.0.0
+ */
+public final class XssSanitizerChain implements XssSanitizer {
+
+    /**
+     * The compiled stages, executed in order.
+     */
+    private final XssSanitizer[] stages;
+
+    /**
+     * Whether all the stages preserve plain text.
+     */
+    private final boolean preservesPlainText;
+
+    /**
+     * Whether any stage parses the markup.
+     */
+    private final boolean parsesMarkup;
+
+    /**
+     * Whether any stage rejects the risky text.
+     */
+    private final boolean rejectsRisk;
+
+    private XssSanitizerChain(XssSanitizer[] stages) {
+        this.stages = stages;
+        boolean allPreservePlainText = true;
+        boolean anyParsesMarkup = false;
+        boolean anyRejectsRisk = false;
+        for (XssSanitizer stage : stages) {
+            allPreservePlainText &= stage.preservesPlainText();
+            anyParsesMarkup |= stage.parsesMarkup();
+            anyRejectsRisk |= stage.rejectsRisk();
+        }
+        this.preservesPlainText = allPreservePlainText;
+        this.parsesMarkup = anyParsesMarkup;
+        this.rejectsRisk = anyRejectsRisk;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String sanitize(String text) {
+        String safeText = text;
+        for (XssSanitizer stage : stages) {
+            safeText = stage.sanitize(safeText);
+        }
+        return safeText;
+    }
+
+    @Override
+    public boolean preservesPlainText() {
+        return preservesPlainText;
+    }
+
+    @Override
+    public boolean parsesMarkup() {
+        return parsesMarkup;
+    }
+
+    @Override
+    public boolean rejectsRisk() {
+        return rejectsRisk;
+    }
+
+    /**
+     * The builder of {@link XssSanitizerChain}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private final List<XssSanitizer> stages = new ArrayList<>();
+
+        /**
+         * The automaton of the {@code THROW} strategy, {@code null} if every text is checked by jsoup.
+         */
+        private XssPatternAutomaton automaton;
+
+        private boolean confirmAmbiguous = true;
+
+        private boolean stackTraceEnabled = true;
+
+        private TrimEngine trimEngine = TrimEngine.JSOUP;
+
+        private Builder() {
+        }
+
+        /**
+         * The engine of the {@code TRIM} strategy, it must be called before the strategy.
+         *
+         * @param trimEngine The engine which trims the XSS risky characters, default value is {@link TrimEngine#JSOUP}
+         */
+        public Builder trimEngine(TrimEngine trimEngine) {
+            Assert.notNull(trimEngine, "TrimEngine must not be null");
+            this.trimEngine = trimEngine;
+            return this;
+        }
+
+        /**
+         * Detect the XSS risk of the {@code THROW} strategy by the automaton first, it must be called before the strategy.
+         *
+         * @param automaton        The automaton of the XSS indicators, nullable
+         * @param confirmAmbiguous Whether jsoup confirms the ambiguous text, otherwise it's rejected
+         * @see ThrowXssSanitizer
+         */
+        public Builder detection(XssPatternAutomaton automaton, boolean confirmAmbiguous) {
+            this.automaton = automaton;
+            this.confirmAmbiguous = confirmAmbiguous;
+            return this;
+        }
+
+        /**
+         * Whether the exception of the text rejected by the {@code THROW} strategy fills in its stack trace,
+         * it must be called before the strategy.
+         *
+         * @param stackTraceEnabled Whether the stack trace is filled in, default value is {@code true}
+         * @see ThrowXssSanitizer
+         */
+        public Builder stackTraceEnabled(boolean stackTraceEnabled) {
+            this.stackTraceEnabled = stackTraceEnabled;
+            return this;
+        }
+
+        /**
+         * Append the stages of the defense strategy.
+         *
+         * @param strategy        The XSS defense strategy
+         * @param safelist        The safelist of {@code TRIM} and {@code THROW} strategy
+         * @param escapeAfterTrim Whether continue to escape the input text after XSS safe trim
+         */
+        public Builder strategy(DefenseStrategy strategy, Safelist safelist, boolean escapeAfterTrim) {
+            switch (strategy) {
+                case TRIM:
+                    trim(safelist);
+                    return escapeAfterTrim ? escape() : this;
+                case ESCAPE:
+                    return escape();
+                case THROW:
+                    return throwIfRisky(safelist);
+                default:
+                    throw new IllegalStateException("Unknown defense strategy: " + strategy);
+            }
+        }
+
+        public Builder trim(Safelist safelist) {
+            return add(trimEngine.create(safelist));
+        }
+
+        public Builder escape() {
+            return add(new EscapeXssSanitizer());
+        }
+
+        public Builder throwIfRisky(Safelist safelist) {
+            return add(new ThrowXssSanitizer(safelist, automaton, confirmAmbiguous, stackTraceEnabled));
+        }
+
+        /**
+         * Append a custom stage.
+         */
+        public Builder add(XssSanitizer stage) {
+            Assert.notNull(stage, "XssSanitizer must not be null");
+            stages.add(stage);
+            return this;
+        }
+
+        public XssSanitizerChain build() {
+            return new XssSanitizerChain(stages.toArray(new XssSanitizer[0]));
+        }
+
+    }
+
+}
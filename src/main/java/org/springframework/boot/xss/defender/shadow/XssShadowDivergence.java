@@ -0,0 +1,112 @@
+package org.springframework.boot.xss.defender.shadow;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+
+/**
+ * The immutable example of an input text on which the candidate policy diverges from the active policy.
+ * The texts are truncated, so that a large payload won't be kept in memory.
+ *
+ * @author codeboyzhou
+ * @see XssShadowEvaluator
+ * @since 1.0.0
+ */
+public final class XssShadowDivergence {
+
+    /**
+     * The kinds of divergence.
+     */
+    public enum Type {
+
+        /**
+         * Both policies accept the input text, but their outputs are different.
+         */
+        OUTPUT,
+
+        /**
+         * Only the candidate policy rejects the input text.
+         */
+        CANDIDATE_REJECTS,
+
+        /**
+         * Only the active policy rejects the input text.
+         */
+        CANDIDATE_ACCEPTS;
+
+        /**
+         * The value of the metric tag, for example, {@code candidate.rejects}.
+         */
+        public String tagValue() {
+            return name().toLowerCase().replace('_', '.');
+        }
+
+    }
+
+    /**
+     * The epoch milliseconds when the input text is evaluated.
+     */
+    private final long timestamp;
+
+    private final Type type;
+
+    private final DefenseEntryPoint entryPoint;
+
+    /**
+     * The name of the JSON field, parameter, header or cookie, nullable.
+     */
+    private final String field;
+
+    /**
+     * The truncated input text.
+     */
+    private final String input;
+
+    /**
+     * The truncated output text of the active policy, {@code null} if it's rejected.
+     */
+    private final String activeOutput;
+
+    /**
+     * The truncated output text of the candidate policy, {@code null} if it's rejected.
+     */
+    private final String candidateOutput;
+
+    public XssShadowDivergence(long timestamp, Type type, DefenseEntryPoint entryPoint, String field,
+                               String input, String activeOutput, String candidateOutput) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.entryPoint = entryPoint;
+        this.field = field;
+        this.input = input;
+        this.activeOutput = activeOutput;
+        this.candidateOutput = candidateOutput;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public DefenseEntryPoint getEntryPoint() {
+        return entryPoint;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public String getActiveOutput() {
+        return activeOutput;
+    }
+
+    public String getCandidateOutput() {
+        return candidateOutput;
+    }
+
+}
@@ -0,0 +1,269 @@
+package org.springframework.boot.xss.defender.shadow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The shadow evaluation of a candidate policy, for example, before switching from {@code escape} to {@code trim},
+ * or tightening the safelist. A sampled fraction of the input texts is copied to a bounded background executor,
+ * run through the candidate {@link XssDefender}, and compared with the output of the active policy. The divergences
+ * are counted by {@link XssShadowDivergence.Type}, and the latest ones are kept as examples.
+ * <p>
+ * The request thread only pays a sampling check and a non-blocking offer, the input text is dropped if the queue is full.
+ *
+ * @author codeboyzhou
+ * @see XssShadowDivergence
+ * @since 1.0.0
+ */
+public class XssShadowEvaluator implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssShadowEvaluator.class);
+
+    /**
+     * The candidate policy.
+     */
+    private final XssDefender candidate;
+
+    /**
+     * The description of the candidate policy, for example, {@code trim-escape}.
+     */
+    private final String candidateStrategy;
+
+    private final double sampleRate;
+
+    private final int maxExamples;
+
+    private final int maxInputLength;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The latest divergences, guarded by itself.
+     */
+    private final Deque<XssShadowDivergence> examples;
+
+    private final LongAdder evaluated = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder[] divergences = new LongAdder[XssShadowDivergence.Type.values().length];
+
+    private XssShadowEvaluator(Builder builder) {
+        this.candidate = builder.candidate;
+        this.candidateStrategy = builder.candidateStrategy;
+        this.sampleRate = builder.sampleRate;
+        this.maxExamples = builder.maxExamples;
+        this.maxInputLength = builder.maxInputLength;
+        this.examples = new ArrayDeque<>(builder.maxExamples);
+        for (int i = 0; i < divergences.length; i++) {
+            divergences[i] = new LongAdder();
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(builder.threads, builder.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(builder.queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "xss-shadow-evaluator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static Builder builder(XssDefender candidate, String candidateStrategy) {
+        return new Builder(candidate, candidateStrategy);
+    }
+
+    /**
+     * Hand a sampled input text over to the background executor, it never blocks.
+     *
+     * @param entryPoint   The entry point of the input text
+     * @param field        The name of the JSON field, parameter, header or cookie, nullable
+     * @param input        The input text
+     * @param activeOutput The output text of the active policy, {@code null} if it's rejected
+     */
+    public void offer(DefenseEntryPoint entryPoint, String field, String input, String activeOutput) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        try {
+            executor.execute(() -> this.evaluate(entryPoint, field, input, activeOutput));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Stop the background executor after the queued input texts are evaluated.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getCandidateStrategy() {
+        return candidateStrategy;
+    }
+
+    public long evaluatedCount() {
+        return evaluated.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * The count of the input texts on which the candidate policy fails unexpectedly, other than a rejection.
+     */
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long divergenceCount(XssShadowDivergence.Type type) {
+        return divergences[type.ordinal()].sum();
+    }
+
+    /**
+     * The latest divergences, from the oldest to the newest.
+     */
+    public List<XssShadowDivergence> examples() {
+        synchronized (examples) {
+            return new ArrayList<>(examples);
+        }
+    }
+
+    private void evaluate(DefenseEntryPoint entryPoint, String field, String input, String activeOutput) {
+        String candidateOutput;
+        try {
+            candidateOutput = candidate.defend(input, entryPoint, field);
+        } catch (XssRiskDetectedException e) {
+            candidateOutput = null;
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.debug("Failed to evaluate the candidate XSS policy: {}", candidateStrategy, e);
+            return;
+        }
+        evaluated.increment();
+        if (Objects.equals(activeOutput, candidateOutput)) {
+            return;
+        }
+
+        final XssShadowDivergence.Type type = activeOutput == null ? XssShadowDivergence.Type.CANDIDATE_ACCEPTS
+                : candidateOutput == null ? XssShadowDivergence.Type.CANDIDATE_REJECTS : XssShadowDivergence.Type.OUTPUT;
+        divergences[type.ordinal()].increment();
+        if (maxExamples > 0) {
+            final XssShadowDivergence divergence = new XssShadowDivergence(System.currentTimeMillis(), type, entryPoint, field,
+                    truncate(input), truncate(activeOutput), truncate(candidateOutput));
+            synchronized (examples) {
+                if (examples.size() == maxExamples) {
+                    examples.removeFirst();
+                }
+                examples.addLast(divergence);
+            }
+        }
+    }
+
+    private String truncate(String text) {
+        return text == null || text.length() <= maxInputLength ? text : text.substring(0, maxInputLength);
+    }
+
+    /**
+     * The builder of {@link XssShadowEvaluator}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private final XssDefender candidate;
+
+        private final String candidateStrategy;
+
+        private double sampleRate = 0.01;
+
+        private int threads = 1;
+
+        private int queueSize = 1024;
+
+        private int maxExamples = 100;
+
+        private int maxInputLength = 256;
+
+        private Builder(XssDefender candidate, String candidateStrategy) {
+            Assert.notNull(candidate, "The candidate XssDefender must not be null");
+            this.candidate = candidate;
+            this.candidateStrategy = candidateStrategy;
+        }
+
+        /**
+         * @param sampleRate The fraction of the input texts to evaluate, between 0 and 1
+         */
+        public Builder sampleRate(double sampleRate) {
+            Assert.isTrue(sampleRate >= 0.0 && sampleRate <= 1.0, "sampleRate must be between 0.0 and 1.0");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param threads The count of the background threads
+         */
+        public Builder threads(int threads) {
+            Assert.isTrue(threads > 0, "threads must be positive");
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param queueSize The maximum count of the input texts waiting to be evaluated
+         */
+        public Builder queueSize(int queueSize) {
+            Assert.isTrue(queueSize > 0, "queueSize must be positive");
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * @param maxExamples The count of the latest divergences kept as examples
+         */
+        public Builder maxExamples(int maxExamples) {
+            Assert.isTrue(maxExamples >= 0, "maxExamples must not be negative");
+            this.maxExamples = maxExamples;
+            return this;
+        }
+
+        /**
+         * @param maxInputLength The maximum length of the texts kept in the examples
+         */
+        public Builder maxInputLength(int maxInputLength) {
+            Assert.isTrue(maxInputLength > 0, "maxInputLength must be positive");
+            this.maxInputLength = maxInputLength;
+            return this;
+        }
+
+        public XssShadowEvaluator build() {
+            return new XssShadowEvaluator(this);
+        }
+
+    }
+
+}
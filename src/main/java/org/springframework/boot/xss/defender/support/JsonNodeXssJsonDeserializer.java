@@ -0,0 +1,140 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.JsonNodeDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.type.LogicalType;
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.io.IOException;
+
+/**
+ * This class deserializes a {@link JsonNode}, an {@link ObjectNode} or an {@link ArrayNode} in the same way as Jackson does,
+ * while the text nodes are created from the values sanitized by {@link StringXssJsonDeserializer} as the tree is built,
+ * so there is no second walk over the tree, and the text node of an unchanged value holds the string read from the parser.
+ * <p>
+ * The field names are kept as they are, because the application usually looks the values up by them.
+ * The other scalars are left to the default deserializer of Jackson, and the tree is bounded by {@link XssJsonTreeLimits}.
+ *
+ * @author codeboyzhou
+ * @see XssDefender
+ * @since 1.0.0
+ */
+public class JsonNodeXssJsonDeserializer<T extends JsonNode> extends StdDeserializer<T> {
+
+    /**
+     * The default deserializer of Jackson, which handles the scalars other than the strings.
+     */
+    private static final JsonDeserializer<? extends JsonNode> SCALAR_DESERIALIZER = JsonNodeDeserializer.getDeserializer(JsonNode.class);
+
+    private final Class<T> nodeType;
+
+    private final JsonDeserializer<String> stringDeserializer;
+
+    private final XssJsonTreeLimits limits;
+
+    /**
+     * @param nodeType           The type of the root node, {@link JsonNode}, {@link ObjectNode} or {@link ArrayNode}
+     * @param stringDeserializer The deserializer of the string values, usually the global {@link StringXssJsonDeserializer}
+     * @param limits             The limits of the tree
+     */
+    public JsonNodeXssJsonDeserializer(Class<T> nodeType, JsonDeserializer<String> stringDeserializer, XssJsonTreeLimits limits) {
+        super(nodeType);
+        this.nodeType = nodeType;
+        this.stringDeserializer = stringDeserializer;
+        this.limits = limits;
+    }
+
+    @Override
+    public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        final boolean isObject = parser.hasToken(JsonToken.START_OBJECT) || parser.hasToken(JsonToken.FIELD_NAME)
+                || parser.hasToken(JsonToken.END_OBJECT);
+        if (nodeType == ObjectNode.class && !isObject || nodeType == ArrayNode.class && !parser.hasToken(JsonToken.START_ARRAY)) {
+            return nodeType.cast(context.handleUnexpectedToken(nodeType, parser));
+        }
+        final JsonNode node = this.read(parser, context, context.getNodeFactory(), limits.counter(context),
+                XssJsonTreeLimits.enclosingDepth(parser));
+        return nodeType.cast(node);
+    }
+
+    /**
+     * The trees are untyped, the same as Jackson does.
+     */
+    @Override
+    public Object deserializeWithType(JsonParser parser, DeserializationContext context, TypeDeserializer typeDeserializer) throws IOException {
+        return typeDeserializer.deserializeTypedFromAny(parser, context);
+    }
+
+    @Override
+    public T getNullValue(DeserializationContext context) {
+        return nodeType == JsonNode.class ? nodeType.cast(NullNode.getInstance()) : null;
+    }
+
+    @Override
+    public LogicalType logicalType() {
+        return LogicalType.Untyped;
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+
+    private JsonNode read(JsonParser parser, DeserializationContext context, JsonNodeFactory factory,
+                          XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        switch (parser.currentTokenId()) {
+            case JsonTokenId.ID_START_OBJECT:
+                limits.checkDepth(depth + 1);
+                counter.count();
+                return this.readObject(parser.nextFieldName(), parser, context, factory, counter, depth + 1);
+            case JsonTokenId.ID_FIELD_NAME:
+                // The object is started by the caller, for example, a delegating creator, so it's enclosing the value.
+                limits.checkDepth(depth);
+                counter.count();
+                return this.readObject(parser.currentName(), parser, context, factory, counter, depth);
+            case JsonTokenId.ID_END_OBJECT:
+                counter.count();
+                return factory.objectNode();
+            case JsonTokenId.ID_START_ARRAY:
+                limits.checkDepth(depth + 1);
+                counter.count();
+                return this.readArray(parser, context, factory, counter, depth + 1);
+            case JsonTokenId.ID_STRING:
+                counter.count();
+                return factory.textNode(stringDeserializer.deserialize(parser, context));
+            default:
+                counter.count();
+                return SCALAR_DESERIALIZER.deserialize(parser, context);
+        }
+    }
+
+    private ObjectNode readObject(String firstName, JsonParser parser, DeserializationContext context, JsonNodeFactory factory,
+                                  XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        final ObjectNode node = factory.objectNode();
+        for (String name = firstName; name != null; name = parser.nextFieldName()) {
+            parser.nextToken();
+            node.set(name, this.read(parser, context, factory, counter, depth));
+        }
+        return node;
+    }
+
+    private ArrayNode readArray(JsonParser parser, DeserializationContext context, JsonNodeFactory factory,
+                                XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        final ArrayNode node = factory.arrayNode();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            node.add(this.read(parser, context, factory, counter, depth));
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,197 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringArrayDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.type.LogicalType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.AccessPattern;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class deserializes a JSON array into a {@code String[]} or a collection of String, the raw values are collected
+ * first, and then sanitized in one batch by {@link XssDefender#defendAll(String[], DefenseEntryPoint, String)},
+ * so that a large array can be split across the fork join pool.
+ * <p>
+ * It's only used when the elements are deserialized by {@link StringXssJsonDeserializer}. Otherwise, for example,
+ * the elements have their own deserializer, the default deserializer of Jackson is used, so is it for the input which
+ * is not a JSON array or for the merging into an existing value.
+ * <p>
+ * A property annotated by {@link org.springframework.boot.xss.defender.annotation.XssSanitize} is bound to its own
+ * instance, see {@link #forPolicy(JavaType, JsonDeserializer)}, whose elements follow the policy of the property
+ * instead of the deserializer of String.
+ *
+ * @author codeboyzhou
+ * @see XssBeanDeserializerModifier
+ * @since 1.0.0
+ */
+public class StringContainerXssJsonDeserializer<T> extends StdDeserializer<T> implements ContextualDeserializer {
+
+    /**
+     * The default deserializer of Jackson.
+     */
+    private final JsonDeserializer<T> delegate;
+
+    /**
+     * The instantiator of the collection, {@code null} for the {@code String[]}.
+     */
+    private final ValueInstantiator instantiator;
+
+    /**
+     * The deserializer of the elements, {@code null} before the contextualization, either a {@link StringXssJsonDeserializer}
+     * or the {@link StringDeserializer} of the properties which keep their values as they are.
+     */
+    private final JsonDeserializer<String> elementDeserializer;
+
+    /**
+     * Whether the deserializer of the elements is selected by the annotated property instead of the deserializer of String.
+     */
+    private final boolean boundToProperty;
+
+    /**
+     * @param type         The type of the {@code String[]} or the collection of String
+     * @param delegate     The default deserializer of Jackson
+     * @param instantiator The instantiator of the collection, {@code null} for the {@code String[]}
+     */
+    public StringContainerXssJsonDeserializer(JavaType type, JsonDeserializer<T> delegate, ValueInstantiator instantiator) {
+        this(type, delegate, instantiator, null, false);
+    }
+
+    private StringContainerXssJsonDeserializer(JavaType type, JsonDeserializer<T> delegate, ValueInstantiator instantiator,
+                                               JsonDeserializer<String> elementDeserializer, boolean boundToProperty) {
+        super(type);
+        this.delegate = delegate;
+        this.instantiator = instantiator;
+        this.elementDeserializer = elementDeserializer;
+        this.boundToProperty = boundToProperty;
+    }
+
+    /**
+     * The deserializer of {@code String[]}, it must be registered by type, because Jackson never modifies
+     * the default deserializer of {@code String[]}.
+     */
+    public static StringContainerXssJsonDeserializer<String[]> forStringArray() {
+        return new StringContainerXssJsonDeserializer<>(TypeFactory.defaultInstance().constructArrayType(String.class),
+                StringArrayDeserializer.instance, null);
+    }
+
+    /**
+     * The deserializer of a {@code String[]} or a collection of String property annotated by
+     * {@link org.springframework.boot.xss.defender.annotation.XssSanitize}, the default deserializer of Jackson
+     * is resolved by the contextualization.
+     *
+     * @param type                The type of the property
+     * @param elementDeserializer The deserializer of the policy, a {@link StringXssJsonDeserializer} or a {@link StringDeserializer}
+     */
+    public static StringContainerXssJsonDeserializer<Object> forPolicy(JavaType type, JsonDeserializer<String> elementDeserializer) {
+        return new StringContainerXssJsonDeserializer<>(type, null, null, elementDeserializer, true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property) throws JsonMappingException {
+        if (boundToProperty) {
+            // The deserializer of the type holds the default deserializer of Jackson and the instantiator of the collection,
+            // it's the one of Jackson if the elements have their own deserializer, which takes precedence then.
+            final JsonDeserializer<?> typeDeserializer = context.findContextualValueDeserializer(_valueType, property);
+            if (typeDeserializer instanceof StringContainerXssJsonDeserializer) {
+                final StringContainerXssJsonDeserializer<T> container = (StringContainerXssJsonDeserializer<T>) typeDeserializer;
+                return new StringContainerXssJsonDeserializer<>(_valueType, container.delegate, container.instantiator,
+                        elementDeserializer, true);
+            }
+            return typeDeserializer;
+        }
+        final JsonDeserializer<T> contextualDelegate = (JsonDeserializer<T>) context.handleSecondaryContextualization(delegate, property, _valueType);
+        final boolean hasContentDeserializer = property != null && property.getMember() != null
+                && context.getAnnotationIntrospector().findContentDeserializer(property.getMember()) != null;
+        final JsonDeserializer<?> elementDeserializer = hasContentDeserializer
+                ? null : context.findContextualValueDeserializer(_valueType.getContentType(), property);
+        if (elementDeserializer instanceof StringXssJsonDeserializer) {
+            return new StringContainerXssJsonDeserializer<>(_valueType, contextualDelegate, instantiator,
+                    (StringXssJsonDeserializer) elementDeserializer, false);
+        }
+        return contextualDelegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (elementDeserializer == null || !parser.isExpectedStartArrayToken()) {
+            return delegate.deserialize(parser, context);
+        }
+
+        // The name of the field holding the array, the elements don't have their own names.
+        final String field = parser.getCurrentName();
+        final List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_STRING) {
+                values.add(parser.getText());
+            } else if (token == JsonToken.VALUE_NULL) {
+                values.add(null);
+            } else if (token.isScalarValue()) {
+                values.add(parser.getValueAsString());
+            } else {
+                values.add((String) context.handleUnexpectedToken(String.class, parser));
+            }
+        }
+
+        final String[] rawValues = values.toArray(new String[0]);
+        final String[] safeValues = elementDeserializer instanceof StringXssJsonDeserializer
+                ? ((StringXssJsonDeserializer) elementDeserializer).deserializeAll(rawValues, field) : rawValues;
+        if (instantiator == null) {
+            return (T) safeValues;
+        }
+        final Collection<String> collection = (Collection<String>) instantiator.createUsingDefault(context);
+        Collections.addAll(collection, safeValues);
+        return (T) collection;
+    }
+
+    @Override
+    public T deserialize(JsonParser parser, DeserializationContext context, T intoValue) throws IOException {
+        return delegate.deserialize(parser, context, intoValue);
+    }
+
+    @Override
+    public T getNullValue(DeserializationContext context) throws JsonMappingException {
+        return delegate.getNullValue(context);
+    }
+
+    @Override
+    public Object getEmptyValue(DeserializationContext context) throws JsonMappingException {
+        return delegate.getEmptyValue(context);
+    }
+
+    @Override
+    public AccessPattern getEmptyAccessPattern() {
+        return delegate.getEmptyAccessPattern();
+    }
+
+    @Override
+    public Boolean supportsUpdate(DeserializationConfig config) {
+        return delegate.supportsUpdate(config);
+    }
+
+    @Override
+    public LogicalType logicalType() {
+        return instantiator == null ? LogicalType.Array : LogicalType.Collection;
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssDefenderPart;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class sanitizes the raw text body bound to {@code @RequestBody String}, for example, a text/plain or
+ * a text/html body. The body is read through {@link XssDefender#defend(Reader, int, DefenseEntryPoint, String)},
+ * so it's sanitized in chunks of the same size, instead of being parsed as a whole document.
+ * <p>
+ * It only reads the configured media types, and never writes, so the response is written by
+ * the {@link StringHttpMessageConverter} after it.
+ *
+ * @author codeboyzhou
+ * @see XssDefenderPart
+ * @since 1.0.0
+ */
+public class StringXssHttpMessageConverter extends StringHttpMessageConverter {
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    private final int chunkSize;
+
+    public StringXssHttpMessageConverter(XssPolicyHolder policyHolder, List<MediaType> mediaTypes, int chunkSize) {
+        super(StandardCharsets.UTF_8);
+        this.policyHolder = policyHolder;
+        this.chunkSize = chunkSize;
+        setSupportedMediaTypes(mediaTypes);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected String readInternal(Class<? extends String> clazz, HttpInputMessage inputMessage) throws IOException {
+        final MediaType contentType = inputMessage.getHeaders().getContentType();
+        final Charset charset = contentType == null || contentType.getCharset() == null ? getDefaultCharset() : contentType.getCharset();
+        final InputStream body = inputMessage.getBody();
+        final XssHandlerPolicy policy = XssHandlerPolicy.current();
+        final XssPolicySnapshot snapshot = policy == null ? policyHolder.pin() : null;
+        final boolean enabled = policy == null ? snapshot.isEnabled() : policy.isEnabled();
+        if (!enabled || XssDefenderPart.isSanitized(body)) {
+            return StreamUtils.copyToString(body, charset);
+        }
+        final XssDefender xssDefender = policy == null ? snapshot.getXssDefender() : policy.getXssDefender();
+        final Reader reader = xssDefender.defend(new InputStreamReader(body, charset), chunkSize, DefenseEntryPoint.BODY, null);
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[StreamUtils.BUFFER_SIZE];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, n);
+        }
+        return builder.toString();
+    }
+
+}
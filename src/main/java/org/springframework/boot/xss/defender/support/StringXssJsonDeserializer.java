@@ -1,9 +1,13 @@
 package org.springframework.boot.xss.defender.support;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
 import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssSanitize;
 import org.springframework.boot.xss.defender.autoconfigure.XssDefenderConfiguration;
 import org.springframework.util.StringUtils;
 
@@ -14,6 +18,16 @@ import java.io.IOException;
  * With the help of {@link JsonDeserializer} from spring framework, we can
  * customize a json deserializer and determine how to deserialize a json string,
  * and add some secondary processing logic, so as to get rid of the potential XSS risk.
+ * <p>
+ * JSON string values are inspected in place from the text buffer of {@link JsonParser},
+ * so that only one string is allocated for each value, unless the value needs to be rewritten.
+ * <p>
+ * The {@link XssHandlerPolicy} of the current controller method takes precedence over the global configuration,
+ * unless the deserializer is bound to a property annotated by {@link XssSanitize}, in which case only an ignored
+ * controller method takes precedence.
+ * <p>
+ * The XSS defender is looked up from the {@link XssPolicySnapshot} pinned to the request for every value, so that a reload
+ * of the configuration applies to the JSON parameters without rebuilding the {@code ObjectMapper}.
  *
  * @author codeboyzhou
  * @see XssDefender
@@ -23,24 +37,102 @@ import java.io.IOException;
 public class StringXssJsonDeserializer extends JsonDeserializer<String> {
 
     /**
-     * Whether the XSS defender is enabled.
+     * The holder of the current XSS policy.
      */
-    private final boolean isXssDefenderEnabled;
+    private final XssPolicyHolder policyHolder;
 
     /**
-     * An instance of {@link XssDefender}
+     * The overridden defense strategy, {@code null} for the configured one.
      */
-    private final XssDefender xssDefender;
+    private final DefenseStrategy strategy;
+
+    private final boolean escapeAfterTrim;
+
+    /**
+     * Whether the {@link XssDefender} of the current controller method takes precedence.
+     */
+    private final boolean followsHandlerPolicy;
 
     public StringXssJsonDeserializer(boolean isXssDefenderEnabled, XssDefender xssDefender) {
-        this.isXssDefenderEnabled = isXssDefenderEnabled;
-        this.xssDefender = xssDefender;
+        this(isXssDefenderEnabled, xssDefender, true);
+    }
+
+    /**
+     * @param followsHandlerPolicy Whether the {@link XssDefender} of the current controller method takes precedence,
+     *                             {@code false} for the properties annotated by {@link XssSanitize}
+     */
+    public StringXssJsonDeserializer(boolean isXssDefenderEnabled, XssDefender xssDefender, boolean followsHandlerPolicy) {
+        this(XssPolicyHolder.of(isXssDefenderEnabled, xssDefender), null, false, followsHandlerPolicy);
+    }
+
+    /**
+     * The deserializer of the configured defense strategy, which follows the reload of the configuration.
+     */
+    public StringXssJsonDeserializer(XssPolicyHolder policyHolder) {
+        this(policyHolder, null, false, true);
+    }
+
+    /**
+     * The deserializer of the properties annotated by {@link XssSanitize}, which overrides the configured defense strategy.
+     */
+    public StringXssJsonDeserializer(XssPolicyHolder policyHolder, DefenseStrategy strategy, boolean escapeAfterTrim) {
+        this(policyHolder, strategy, escapeAfterTrim, false);
+    }
+
+    private StringXssJsonDeserializer(XssPolicyHolder policyHolder, DefenseStrategy strategy, boolean escapeAfterTrim,
+                                      boolean followsHandlerPolicy) {
+        this.policyHolder = policyHolder;
+        this.strategy = strategy;
+        this.escapeAfterTrim = escapeAfterTrim;
+        this.followsHandlerPolicy = followsHandlerPolicy;
     }
 
     @Override
     public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        final XssHandlerPolicy policy = XssHandlerPolicy.current();
+        final XssPolicySnapshot snapshot = policy == null || policy.getSnapshot() == null ? policyHolder.pin() : policy.getSnapshot();
+        final boolean enabled = policy == null ? snapshot.isEnabled() : policy.isEnabled();
+        final XssDefender xssDefender = policy != null && followsHandlerPolicy ? policy.getXssDefender() : this.xssDefender(snapshot);
+
+        if (enabled && parser.hasToken(JsonToken.VALUE_STRING)) {
+            return xssDefender.defend(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(),
+                    DefenseEntryPoint.JSON, parser.getCurrentName());
+        }
+
+        // Fall back to the coerced value, for example, a number value to a String field.
         final String json = parser.getValueAsString();
-        return isXssDefenderEnabled ? xssDefender.defend(json) : StringUtils.trimWhitespace(json);
+        return enabled ? xssDefender.defend(json, DefenseEntryPoint.JSON, parser.getCurrentName()) : StringUtils.trimWhitespace(json);
+    }
+
+    /**
+     * Process all the values of a JSON array in one batch, the policy of the current controller method is resolved once.
+     *
+     * @param values The raw values, a {@code null} element is kept as {@code null}
+     * @param field  The name of the JSON field holding the array, nullable
+     * @return The safe values without XSS risk, in the same order
+     * @see StringContainerXssJsonDeserializer
+     */
+    public String[] deserializeAll(String[] values, String field) {
+        final XssHandlerPolicy policy = XssHandlerPolicy.current();
+        final XssPolicySnapshot snapshot = policy == null || policy.getSnapshot() == null ? policyHolder.pin() : policy.getSnapshot();
+        final boolean enabled = policy == null ? snapshot.isEnabled() : policy.isEnabled();
+        final XssDefender xssDefender = policy != null && followsHandlerPolicy ? policy.getXssDefender() : this.xssDefender(snapshot);
+
+        if (enabled) {
+            return xssDefender.defendAll(values, DefenseEntryPoint.JSON, field);
+        }
+        final String[] trimmedValues = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            trimmedValues[i] = StringUtils.trimWhitespace(values[i]);
+        }
+        return trimmedValues;
+    }
+
+    /**
+     * The XSS defender of this deserializer in the snapshot.
+     */
+    private XssDefender xssDefender(XssPolicySnapshot snapshot) {
+        return strategy == null ? snapshot.getXssDefender() : snapshot.xssDefender(strategy, escapeAfterTrim);
     }
 
 }
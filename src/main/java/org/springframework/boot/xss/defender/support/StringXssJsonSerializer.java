@@ -0,0 +1,116 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.boot.xss.defender.annotation.XssEncode;
+import org.springframework.boot.xss.defender.interceptor.XssDefenderInterceptor;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+
+/**
+ * This class encodes the String values of a JSON response for an output context, the characters are escaped
+ * one by one directly into the {@link JsonGenerator}, without any intermediate String. The values without
+ * any character to escape are written as they are, at the cost of a single scan.
+ * <p>
+ * The serializers of the properties annotated by {@link XssEncode} are bound by {@link XssBeanSerializerModifier}.
+ * The serializer {@link #HANDLER} is registered for all the String values, it encodes them only if the current
+ * controller method is annotated by {@link XssEncode}, which is resolved once for each response.
+ *
+ * @author codeboyzhou
+ * @see XssEncode
+ * @see XssEscaper
+ * @since 1.0.0
+ */
+public class StringXssJsonSerializer extends StdSerializer<String> {
+
+    /**
+     * The request attribute name of the {@link XssEscaper} of the current controller method.
+     *
+     * @see XssDefenderInterceptor
+     */
+    public static final String REQUEST_ATTRIBUTE = StringXssJsonSerializer.class.getName() + ".escaper";
+
+    /**
+     * The serializer following the {@link XssEncode} of the current controller method.
+     */
+    public static final StringXssJsonSerializer HANDLER = new StringXssJsonSerializer(null);
+
+    /**
+     * The attribute of the {@link SerializerProvider} holding the escaper of the current call.
+     */
+    private static final Object ESCAPER_ATTRIBUTE = REQUEST_ATTRIBUTE;
+
+    /**
+     * The placeholder of the current call without any escaper.
+     */
+    private static final Object NO_ESCAPER = new Object();
+
+    private static final StringXssJsonSerializer[] SERIALIZERS = new StringXssJsonSerializer[XssEscaper.values().length];
+
+    static {
+        for (XssEscaper escaper : XssEscaper.values()) {
+            SERIALIZERS[escaper.ordinal()] = new StringXssJsonSerializer(escaper);
+        }
+    }
+
+    /**
+     * The escaper of the output context, {@code null} for the one of the current controller method.
+     */
+    private final XssEscaper escaper;
+
+    private StringXssJsonSerializer(XssEscaper escaper) {
+        super(String.class);
+        this.escaper = escaper;
+    }
+
+    /**
+     * Get the shared serializer of the output context.
+     */
+    public static StringXssJsonSerializer of(XssEscaper escaper) {
+        return SERIALIZERS[escaper.ordinal()];
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, String value) {
+        return value.isEmpty();
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        final XssEscaper currentEscaper = escaper != null ? escaper : handlerEscaper(provider);
+        if (currentEscaper == null || currentEscaper.indexOfEscape(value) == value.length()) {
+            generator.writeString(value);
+        } else if (generator instanceof TokenBuffer) {
+            // The token buffer holds the Strings, for example, of ObjectMapper#valueToTree.
+            generator.writeString(currentEscaper.escape(value));
+        } else {
+            generator.writeString(currentEscaper.reader(value), -1);
+        }
+    }
+
+    /**
+     * The escaper of the current controller method, it's looked up only once for each call of the {@code ObjectMapper}.
+     */
+    private static XssEscaper handlerEscaper(SerializerProvider provider) {
+        Object escaper = provider.getAttribute(ESCAPER_ATTRIBUTE);
+        if (escaper == null) {
+            final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            escaper = attributes == null ? null : attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (escaper == null) {
+                escaper = NO_ESCAPER;
+            }
+            provider.setAttribute(ESCAPER_ATTRIBUTE, escaper);
+        }
+        return escaper == NO_ESCAPER ? null : (XssEscaper) escaper;
+    }
+
+    public XssEscaper getEscaper() {
+        return escaper;
+    }
+
+}
@@ -1,7 +1,8 @@
 package org.springframework.boot.xss.defender.support;
 
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
 import org.springframework.boot.xss.defender.XssDefender;
-import org.springframework.boot.xss.defender.autoconfigure.XssDefenderConfiguration;
+import org.springframework.boot.xss.defender.filter.XssDefenderRequestWrapper;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.InitBinder;
@@ -14,29 +15,31 @@ import java.beans.PropertyEditorSupport;
  * With the help of {@link WebDataBinder} from spring framework, we can use
  * the annotation {@link InitBinder} to register a custom {@link PropertyEditor}
  * for the parameter's secondary processing, so as to get rid of the potential XSS risk.
+ * <p>
+ * The {@link XssHandlerPolicy} of the current controller method takes precedence over the global configuration,
+ * otherwise the {@link XssPolicySnapshot} pinned to the request is applied. The parameter values processed by
+ * {@link XssDefenderRequestWrapper} already are bound as they are.
  *
  * @author codeboyzhou
  * @see XssDefender
  * @see PropertyEditorSupport
- * @see XssDefenderConfiguration
+ * @see XssDefenderBinderAdvice
  * @see WebDataBinder#registerCustomEditor(Class, PropertyEditor)
  * @since 1.0.0
  */
 public class StringXssPropertyEditor extends PropertyEditorSupport {
 
     /**
-     * Whether the XSS defender is enabled.
+     * The holder of the current XSS policy.
      */
-    private final boolean isXssDefenderEnabled;
-
-    /**
-     * An instance of {@link XssDefender}
-     */
-    private final XssDefender xssDefender;
+    private final XssPolicyHolder policyHolder;
 
     public StringXssPropertyEditor(boolean isXssDefenderEnabled, XssDefender xssDefender) {
-        this.isXssDefenderEnabled = isXssDefenderEnabled;
-        this.xssDefender = xssDefender;
+        this(XssPolicyHolder.of(isXssDefenderEnabled, xssDefender));
+    }
+
+    public StringXssPropertyEditor(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
     }
 
     @Override
@@ -46,7 +49,15 @@ public class StringXssPropertyEditor extends PropertyEditorSupport {
 
     @Override
     public void setAsText(String text) throws IllegalArgumentException {
-        final String safeText = isXssDefenderEnabled ? xssDefender.defend(text) : StringUtils.trimWhitespace(text);
+        if (text != null && XssDefenderRequestWrapper.isProcessedParameter(text)) {
+            super.setAsText(text);
+            return;
+        }
+        final XssHandlerPolicy policy = XssHandlerPolicy.current();
+        final XssPolicySnapshot snapshot = policy == null ? policyHolder.pin() : null;
+        final boolean enabled = policy == null ? snapshot.isEnabled() : policy.isEnabled();
+        final XssDefender xssDefender = policy == null ? snapshot.getXssDefender() : policy.getXssDefender();
+        final String safeText = enabled ? xssDefender.defend(text, DefenseEntryPoint.FORM) : StringUtils.trimWhitespace(text);
         super.setAsText(safeText);
     }
 
@@ -0,0 +1,123 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.UntypedObjectDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.type.LogicalType;
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class deserializes the untyped JSON values, for example, a {@code Map<String, Object>}, a {@code List<Object>}
+ * or an {@code Object} field, into the same maps, lists and scalars as Jackson does, while the string values are
+ * sanitized by {@link StringXssJsonDeserializer} as the tree is built, so there is no second walk over the tree.
+ * <p>
+ * The field names are kept as they are, because the application usually looks the values up by them.
+ * The other scalars are left to the default untyped deserializer of Jackson, and the tree is bounded by {@link XssJsonTreeLimits}.
+ *
+ * @author codeboyzhou
+ * @see XssDefender
+ * @since 1.0.0
+ */
+public class UntypedXssJsonDeserializer extends StdDeserializer<Object> {
+
+    /**
+     * The default untyped deserializer of Jackson, which handles the scalars other than the strings.
+     */
+    private static final JsonDeserializer<Object> SCALAR_DESERIALIZER = UntypedObjectDeserializer.Vanilla.std;
+
+    private final JsonDeserializer<String> stringDeserializer;
+
+    private final XssJsonTreeLimits limits;
+
+    /**
+     * @param stringDeserializer The deserializer of the string values, usually the global {@link StringXssJsonDeserializer}
+     * @param limits             The limits of the tree
+     */
+    public UntypedXssJsonDeserializer(JsonDeserializer<String> stringDeserializer, XssJsonTreeLimits limits) {
+        super(Object.class);
+        this.stringDeserializer = stringDeserializer;
+        this.limits = limits;
+    }
+
+    @Override
+    public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        return this.read(parser, context, limits.counter(context), XssJsonTreeLimits.enclosingDepth(parser));
+    }
+
+    @Override
+    public Object deserializeWithType(JsonParser parser, DeserializationContext context, TypeDeserializer typeDeserializer) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            limits.counter(context).count();
+            return stringDeserializer.deserialize(parser, context);
+        }
+        return SCALAR_DESERIALIZER.deserializeWithType(parser, context, typeDeserializer);
+    }
+
+    @Override
+    public LogicalType logicalType() {
+        return LogicalType.Untyped;
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+
+    private Object read(JsonParser parser, DeserializationContext context, XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        switch (parser.currentTokenId()) {
+            case JsonTokenId.ID_START_OBJECT:
+                limits.checkDepth(depth + 1);
+                counter.count();
+                return this.readObject(parser.nextFieldName(), parser, context, counter, depth + 1);
+            case JsonTokenId.ID_FIELD_NAME:
+                // The object is started by the caller, for example, a delegating creator, so it's enclosing the value.
+                limits.checkDepth(depth);
+                counter.count();
+                return this.readObject(parser.currentName(), parser, context, counter, depth);
+            case JsonTokenId.ID_END_OBJECT:
+                counter.count();
+                return new LinkedHashMap<>(2);
+            case JsonTokenId.ID_START_ARRAY:
+                limits.checkDepth(depth + 1);
+                counter.count();
+                return this.readArray(parser, context, counter, depth + 1);
+            case JsonTokenId.ID_STRING:
+                counter.count();
+                return stringDeserializer.deserialize(parser, context);
+            default:
+                counter.count();
+                return SCALAR_DESERIALIZER.deserialize(parser, context);
+        }
+    }
+
+    private Map<String, Object> readObject(String firstName, JsonParser parser, DeserializationContext context,
+                                           XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (String name = firstName; name != null; name = parser.nextFieldName()) {
+            parser.nextToken();
+            map.put(name, this.read(parser, context, counter, depth));
+        }
+        return map;
+    }
+
+    private Object readArray(JsonParser parser, DeserializationContext context, XssJsonTreeLimits.Counter counter, int depth) throws IOException {
+        final List<Object> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(this.read(parser, context, counter, depth));
+        }
+        return context.isEnabled(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY) ? list.toArray() : list;
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.std.StringCollectionDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssSanitize;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * This class binds a deserializer to every String, {@code String[]} or collection of String property selected
+ * by the annotation {@link XssSanitize}.
+ * Jackson calls it only once for each type, when the deserializer of the type is built, so that the runtime cost
+ * of a property is the pre-bound deserializer, without any annotation lookup.
+ * <p>
+ * The properties without any annotation, on the property, the class or the package, are left to the global
+ * {@link StringXssJsonDeserializer}, so are the properties with an explicit {@code @JsonDeserialize}.
+ * <p>
+ * The collections of String are bound to {@link StringContainerXssJsonDeserializer}, so that their elements
+ * are sanitized in one batch, the one of {@code String[]} is registered by type instead. The {@code String[]} and
+ * the collection of String properties selected by the annotation are bound to their own
+ * {@link StringContainerXssJsonDeserializer}, whose elements follow the policy of the property.
+ * <p>
+ * The bound deserializers look up their {@link XssDefender} from the current {@link XssPolicySnapshot},
+ * so they survive a reload of the configuration.
+ *
+ * @author codeboyzhou
+ * @see XssSanitize
+ * @since 1.0.0
+ */
+public class XssBeanDeserializerModifier extends BeanDeserializerModifier {
+
+    /**
+     * The holder of the current XSS policy, which creates the {@link XssDefender} overriding the configured defense strategy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    /**
+     * The deserializers by the description of the defense strategy, shared by all the properties.
+     */
+    private final Map<String, JsonDeserializer<String>> deserializers = new ConcurrentHashMap<>();
+
+    public XssBeanDeserializerModifier(boolean isXssDefenderEnabled, BiFunction<DefenseStrategy, Boolean, XssDefender> xssDefenderFactory) {
+        this(XssPolicyHolder.of(XssPolicySnapshot.builder(0, null).enabled(isXssDefenderEnabled).xssDefenderFactory(xssDefenderFactory).build()));
+    }
+
+    public XssBeanDeserializerModifier(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
+    }
+
+    @Override
+    public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+        final Class<?> beanClass = beanDesc.getBeanClass();
+        final XssSanitize typeAnnotation = findTypeAnnotation(beanClass);
+        final ValueInstantiator instantiator = builder.getValueInstantiator();
+        final SettableBeanProperty[] creatorProperties = instantiator == null || !instantiator.canCreateFromObjectWith()
+                ? null : instantiator.getFromObjectArguments(config);
+        final List<SettableBeanProperty> properties = new ArrayList<>();
+        builder.getProperties().forEachRemaining(properties::add);
+        for (SettableBeanProperty property : properties) {
+            final JavaType type = property.getType();
+            final boolean isString = type.getRawClass() == String.class;
+            if (!(isString || isStringContainer(type)) || property.hasValueDeserializer()) {
+                continue;
+            }
+            final XssSanitize propertyAnnotation = property.getAnnotation(XssSanitize.class);
+            final XssSanitize annotation = propertyAnnotation != null ? propertyAnnotation : typeAnnotation;
+            final JsonDeserializer<String> elementDeserializer = annotation == null ? null : this.deserializer(annotation);
+            if (elementDeserializer != null) {
+                final JsonDeserializer<?> deserializer = isString
+                        ? elementDeserializer : StringContainerXssJsonDeserializer.forPolicy(type, elementDeserializer);
+                builder.addOrReplaceProperty(property.withValueDeserializer(deserializer), true);
+                replaceCreatorProperty(creatorProperties, property, deserializer);
+            }
+        }
+        return builder;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonDeserializer<?> modifyCollectionDeserializer(DeserializationConfig config, CollectionType type, BeanDescription beanDesc,
+                                                            JsonDeserializer<?> deserializer) {
+        if (deserializer instanceof StringCollectionDeserializer) {
+            final ValueInstantiator instantiator = ((StringCollectionDeserializer) deserializer).getValueInstantiator();
+            if (instantiator != null && instantiator.canCreateUsingDefault()) {
+                return new StringContainerXssJsonDeserializer<>(type, (JsonDeserializer<Collection<String>>) deserializer, instantiator);
+            }
+        }
+        return deserializer;
+    }
+
+    /**
+     * Whether the type is a {@code String[]} or a collection of String.
+     */
+    private static boolean isStringContainer(JavaType type) {
+        return (type.isArrayType() || type.isCollectionLikeType()) && type.getContentType().getRawClass() == String.class;
+    }
+
+    /**
+     * The creator properties are read from the value instantiator instead of the builder, so they are replaced in place.
+     */
+    private static void replaceCreatorProperty(SettableBeanProperty[] creatorProperties, SettableBeanProperty property,
+                                               JsonDeserializer<?> deserializer) {
+        if (creatorProperties == null) {
+            return;
+        }
+        for (int i = 0; i < creatorProperties.length; i++) {
+            if (creatorProperties[i] == property) {
+                creatorProperties[i] = property.withValueDeserializer(deserializer);
+            }
+        }
+    }
+
+    /**
+     * The annotation of the class, or the package of the class.
+     */
+    private static XssSanitize findTypeAnnotation(Class<?> beanClass) {
+        final XssSanitize annotation = AnnotatedElementUtils.findMergedAnnotation(beanClass, XssSanitize.class);
+        final Package beanPackage = beanClass.getPackage();
+        return annotation != null || beanPackage == null ? annotation : beanPackage.getAnnotation(XssSanitize.class);
+    }
+
+    /**
+     * The deserializer of the policy, {@code null} if the policy follows the global {@link StringXssJsonDeserializer}.
+     */
+    private JsonDeserializer<String> deserializer(XssSanitize annotation) {
+        final XssSanitize.Policy policy = annotation.value();
+        if (policy == XssSanitize.Policy.DEFAULT) {
+            return null;
+        }
+        if (policy == XssSanitize.Policy.NONE) {
+            return StringDeserializer.instance;
+        }
+        final DefenseStrategy strategy = policy.strategy();
+        final boolean escapeAfterTrim = annotation.escapeAfterTrim();
+        return deserializers.computeIfAbsent(strategy.describe(escapeAfterTrim), key ->
+                new StringXssJsonDeserializer(policyHolder, strategy, escapeAfterTrim));
+    }
+
+}
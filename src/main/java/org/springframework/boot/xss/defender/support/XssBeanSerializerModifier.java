@@ -0,0 +1,53 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.springframework.boot.xss.defender.annotation.XssEncode;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.util.List;
+
+/**
+ * This class binds a {@link StringXssJsonSerializer} to every String property selected by the annotation {@link XssEncode}.
+ * Jackson calls it only once for each type, when the serializer of the type is built, so that the runtime cost
+ * of a property is the pre-bound serializer, without any annotation lookup.
+ * <p>
+ * The properties without any annotation, on the property, the class or the package, are left to the global serializer,
+ * so are the properties with an explicit {@code @JsonSerialize}.
+ *
+ * @author codeboyzhou
+ * @see XssEncode
+ * @since 1.0.0
+ */
+public class XssBeanSerializerModifier extends BeanSerializerModifier {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+        final XssEncode typeAnnotation = findTypeAnnotation(beanDesc.getBeanClass());
+        for (BeanPropertyWriter property : beanProperties) {
+            if (property.getType().getRawClass() != String.class || property.hasSerializer()) {
+                continue;
+            }
+            final XssEncode propertyAnnotation = property.getAnnotation(XssEncode.class);
+            final XssEncode annotation = propertyAnnotation != null ? propertyAnnotation : typeAnnotation;
+            if (annotation != null) {
+                property.assignSerializer((JsonSerializer<Object>) (JsonSerializer<?>) StringXssJsonSerializer.of(annotation.value()));
+            }
+        }
+        return beanProperties;
+    }
+
+    /**
+     * The annotation of the class, or the package of the class.
+     */
+    private static XssEncode findTypeAnnotation(Class<?> beanClass) {
+        final XssEncode annotation = AnnotatedElementUtils.findMergedAnnotation(beanClass, XssEncode.class);
+        final Package beanPackage = beanClass.getPackage();
+        return annotation != null || beanPackage == null ? annotation : beanPackage.getAnnotation(XssEncode.class);
+    }
+
+}
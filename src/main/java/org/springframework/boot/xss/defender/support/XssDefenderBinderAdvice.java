@@ -0,0 +1,72 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.springframework.beans.PropertyAccessException;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.validation.BindingErrorProcessor;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+/**
+ * This class registers {@link StringXssPropertyEditor} into the {@link WebDataBinder} of every controller,
+ * so that the html FORM parameters, the query parameters and the path variables bound to String are sanitized.
+ * An {@link InitBinder} method works only in a controller or a {@link ControllerAdvice}, so it's registered
+ * as a bean by the auto configuration.
+ *
+ * @author codeboyzhou
+ * @see StringXssPropertyEditor
+ * @since 1.0.0
+ */
+@ControllerAdvice
+public class XssDefenderBinderAdvice {
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    public XssDefenderBinderAdvice(XssPolicyHolder policyHolder) {
+        this.policyHolder = policyHolder;
+    }
+
+    /**
+     * Customize a property editor for html FORM parameter, so as to process potential XSS risk in the parameter.
+     * The early rejection of the request is thrown again instead of being recorded as a binding error.
+     */
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        binder.registerCustomEditor(String.class, new StringXssPropertyEditor(policyHolder));
+        binder.setBindingErrorProcessor(new RejectingBindingErrorProcessor(binder.getBindingErrorProcessor()));
+    }
+
+    /**
+     * The bean wrapper records every exception of the property editor as a binding error of the field,
+     * so the {@link XssRequestRejectedException} is unwrapped and thrown again, the other errors are processed as usual.
+     */
+    private static final class RejectingBindingErrorProcessor implements BindingErrorProcessor {
+
+        private final BindingErrorProcessor bindingErrorProcessor;
+
+        private RejectingBindingErrorProcessor(BindingErrorProcessor bindingErrorProcessor) {
+            this.bindingErrorProcessor = bindingErrorProcessor;
+        }
+
+        @Override
+        public void processMissingFieldError(String missingField, BindingResult bindingResult) {
+            bindingErrorProcessor.processMissingFieldError(missingField, bindingResult);
+        }
+
+        @Override
+        public void processPropertyAccessException(PropertyAccessException ex, BindingResult bindingResult) {
+            for (Throwable cause = ex.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+                if (cause instanceof XssRequestRejectedException) {
+                    throw (XssRequestRejectedException) cause;
+                }
+            }
+            bindingErrorProcessor.processPropertyAccessException(ex, bindingResult);
+        }
+
+    }
+
+}
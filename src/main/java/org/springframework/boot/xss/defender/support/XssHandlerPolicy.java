@@ -0,0 +1,83 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.interceptor.XssDefenderInterceptor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * The immutable XSS policy of a controller method, resolved by {@link XssHandlerPolicyRegistry} at startup,
+ * and carried in a request attribute by {@link XssDefenderInterceptor}, so that the JSON and FORM binders
+ * can apply it without any shared mutable state.
+ * <p>
+ * The policy belongs to the {@link XssPolicySnapshot} pinned to the request, so that a reload of the configuration
+ * never changes the policy of an in-flight request.
+ *
+ * @author codeboyzhou
+ * @see XssHandlerPolicyRegistry
+ * @since 1.0.0
+ */
+public final class XssHandlerPolicy {
+
+    /**
+     * The request attribute name of the current policy.
+     */
+    public static final String REQUEST_ATTRIBUTE = XssHandlerPolicy.class.getName();
+
+    /**
+     * The policy of a controller method ignoring the XSS defender.
+     */
+    public static final XssHandlerPolicy IGNORED = new XssHandlerPolicy(null, false, null);
+
+    /**
+     * The snapshot which this policy belongs to, {@code null} if it's not compiled from a snapshot.
+     */
+    private final XssPolicySnapshot snapshot;
+
+    /**
+     * Whether the XSS defender is enabled.
+     */
+    private final boolean enabled;
+
+    /**
+     * The XSS defender to apply, {@code null} if the XSS defender is disabled.
+     */
+    private final XssDefender xssDefender;
+
+    private XssHandlerPolicy(XssPolicySnapshot snapshot, boolean enabled, XssDefender xssDefender) {
+        this.snapshot = snapshot;
+        this.enabled = enabled;
+        this.xssDefender = xssDefender;
+    }
+
+    public static XssHandlerPolicy of(XssDefender xssDefender) {
+        return new XssHandlerPolicy(null, true, xssDefender);
+    }
+
+    static XssHandlerPolicy of(XssPolicySnapshot snapshot, boolean enabled, XssDefender xssDefender) {
+        return new XssHandlerPolicy(snapshot, enabled, xssDefender);
+    }
+
+    /**
+     * Get the policy of the current request.
+     *
+     * @return The policy of the current request, {@code null} if it's not a controller request
+     */
+    public static XssHandlerPolicy current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (XssHandlerPolicy) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public XssDefender getXssDefender() {
+        return xssDefender;
+    }
+
+    public XssPolicySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,196 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssDefenderIgnore;
+import org.springframework.boot.xss.defender.annotation.XssDefenderStrategy;
+import org.springframework.boot.xss.defender.annotation.XssEncode;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * The table of {@link XssHandlerPolicy} for every controller method, built once at startup from all the
+ * {@link RequestMappingHandlerMapping}, by parsing the annotation {@link XssDefenderIgnore}, {@link XssDefenderStrategy}
+ * and {@link XssEncode}.
+ * The annotation on the controller method takes precedence over the one on the controller class.
+ * <p>
+ * A controller method missed at startup, for example, registered later, is resolved on its first request.
+ * <p>
+ * Only the annotations are parsed at startup, the policy itself is taken from the {@link XssPolicySnapshot}
+ * pinned to the request, so that a reload of the configuration applies to the annotated controller methods too.
+ *
+ * @author codeboyzhou
+ * @see XssHandlerPolicy
+ * @since 1.0.0
+ */
+public class XssHandlerPolicyRegistry implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssHandlerPolicyRegistry.class);
+
+    /**
+     * A chunk of common log message, just write once.
+     */
+    private static final String COMMON_WARN_MESSAGE = "it might expose a risk to your http request, please make sure you really need to do this.";
+
+    /**
+     * The holder of the current XSS policy.
+     */
+    private final XssPolicyHolder policyHolder;
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    /**
+     * The parsed annotations of the controller methods.
+     */
+    private final Map<Method, Rule> rules = new ConcurrentHashMap<>();
+
+    public XssHandlerPolicyRegistry(XssDefender defaultXssDefender,
+                                    BiFunction<DefenseStrategy, Boolean, XssDefender> xssDefenderFactory,
+                                    ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this(XssPolicyHolder.of(XssPolicySnapshot.builder(0, defaultXssDefender).xssDefenderFactory(xssDefenderFactory).build()),
+                handlerMappings);
+    }
+
+    public XssHandlerPolicyRegistry(XssPolicyHolder policyHolder, ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.policyHolder = policyHolder;
+        this.handlerMappings = handlerMappings;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        handlerMappings.orderedStream().forEach(mapping -> mapping.getHandlerMethods().values().forEach(this::rule));
+        if (logger.isInfoEnabled()) {
+            logger.info("Resolved XSS policies for {} controller methods, {} of them are ignored or overridden",
+                    rules.size(), rules.values().stream().filter(rule -> rule.ignored || rule.strategy != null).count());
+        }
+    }
+
+    public XssPolicyHolder getPolicyHolder() {
+        return policyHolder;
+    }
+
+    /**
+     * Get the policy of the controller method in the current snapshot.
+     *
+     * @param handlerMethod The controller method
+     * @return The policy of the controller method
+     */
+    public XssHandlerPolicy resolve(HandlerMethod handlerMethod) {
+        return this.resolve(handlerMethod, policyHolder.current());
+    }
+
+    /**
+     * Get the policy of the controller method in the snapshot, it costs only two map lookups after startup.
+     *
+     * @param handlerMethod The controller method
+     * @param snapshot      The snapshot pinned to the request
+     * @return The policy of the controller method
+     */
+    public XssHandlerPolicy resolve(HandlerMethod handlerMethod, XssPolicySnapshot snapshot) {
+        final Rule rule = this.rule(handlerMethod);
+        if (rule.ignored) {
+            return XssHandlerPolicy.IGNORED;
+        }
+        return rule.strategy == null ? snapshot.getDefaultHandlerPolicy() : snapshot.handlerPolicy(rule.strategy, rule.escapeAfterTrim);
+    }
+
+    /**
+     * Get the output context of the JSON responses of the controller method, which doesn't depend on the configuration.
+     *
+     * @param handlerMethod The controller method
+     * @return The escaper of the annotation {@link XssEncode}, {@code null} if the controller method is not annotated
+     */
+    public XssEscaper resolveEncoding(HandlerMethod handlerMethod) {
+        return this.rule(handlerMethod).encoding;
+    }
+
+    private Rule rule(HandlerMethod handlerMethod) {
+        final Rule rule = rules.get(handlerMethod.getMethod());
+        return rule != null ? rule : rules.computeIfAbsent(handlerMethod.getMethod(), method -> this.parse(handlerMethod));
+    }
+
+    private Rule parse(HandlerMethod handlerMethod) {
+        final XssEscaper encoding = parseEncoding(handlerMethod);
+
+        // Check the annotations for handler method first.
+        if (handlerMethod.hasMethodAnnotation(XssDefenderIgnore.class)) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("You have ignored the XSS defender for the controller method '{}', " + COMMON_WARN_MESSAGE, handlerMethod);
+            }
+            return new Rule(true, null, false, encoding);
+        }
+
+        final XssDefenderStrategy methodStrategy = handlerMethod.getMethodAnnotation(XssDefenderStrategy.class);
+        if (methodStrategy != null) {
+            return new Rule(false, methodStrategy.value(), methodStrategy.escapeAfterTrim(), encoding);
+        }
+
+        // Then check the annotations for controller class.
+        final Class<?> controller = handlerMethod.getBeanType();
+        if (AnnotatedElementUtils.hasAnnotation(controller, XssDefenderIgnore.class)) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("You have ignored the XSS defender for the whole class '{}', " + COMMON_WARN_MESSAGE, controller.getName());
+            }
+            return new Rule(true, null, false, encoding);
+        }
+
+        final XssDefenderStrategy classStrategy = AnnotatedElementUtils.findMergedAnnotation(controller, XssDefenderStrategy.class);
+        if (classStrategy != null) {
+            return new Rule(false, classStrategy.value(), classStrategy.escapeAfterTrim(), encoding);
+        }
+        return encoding == null ? Rule.DEFAULT : new Rule(false, null, false, encoding);
+    }
+
+    /**
+     * The annotation {@link XssEncode} on the controller method takes precedence over the one on the controller class.
+     */
+    private static XssEscaper parseEncoding(HandlerMethod handlerMethod) {
+        XssEncode annotation = handlerMethod.getMethodAnnotation(XssEncode.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), XssEncode.class);
+        }
+        return annotation == null ? null : annotation.value();
+    }
+
+    /**
+     * The parsed annotations of a controller method, which don't depend on the configuration.
+     */
+    private static final class Rule {
+
+        static final Rule DEFAULT = new Rule(false, null, false, null);
+
+        final boolean ignored;
+
+        /**
+         * The overridden defense strategy, {@code null} for the configured one.
+         */
+        final DefenseStrategy strategy;
+
+        final boolean escapeAfterTrim;
+
+        /**
+         * The output context of the JSON responses, {@code null} if they are not encoded.
+         */
+        final XssEscaper encoding;
+
+        Rule(boolean ignored, DefenseStrategy strategy, boolean escapeAfterTrim, XssEscaper encoding) {
+            this.ignored = ignored;
+            this.strategy = strategy;
+            this.escapeAfterTrim = escapeAfterTrim;
+            this.encoding = encoding;
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+
+/**
+ * The limits of the untyped JSON trees, for example, a {@code JsonNode} or a {@code Map<String, Object>},
+ * so that the work of building and sanitizing a tree is bounded. The depth includes the enclosing arrays and objects,
+ * for example, the bean holding an untyped field, and the nodes are counted across all the untyped values
+ * of one {@code ObjectMapper} call.
+ *
+ * @author codeboyzhou
+ * @see UntypedXssJsonDeserializer
+ * @see JsonNodeXssJsonDeserializer
+ * @since 1.0.0
+ */
+public final class XssJsonTreeLimits {
+
+    /**
+     * No limit at all.
+     */
+    public static final XssJsonTreeLimits UNLIMITED = new XssJsonTreeLimits(0, 0);
+
+    /**
+     * The attribute of the {@link DeserializationContext} holding the node counter of the current call.
+     */
+    private static final Object COUNTER_ATTRIBUTE = XssJsonTreeLimits.class.getName() + ".counter";
+
+    private final int maxDepth;
+
+    private final int maxNodes;
+
+    /**
+     * @param maxDepth The maximum nesting depth of the JSON arrays and objects, unlimited if it's not positive
+     * @param maxNodes The maximum count of the untyped JSON nodes of one call, unlimited if it's not positive
+     */
+    public XssJsonTreeLimits(int maxDepth, int maxNodes) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Get the node counter of the current call, it's created on the first untyped value.
+     */
+    Counter counter(DeserializationContext context) {
+        if (maxNodes <= 0) {
+            return new Counter();
+        }
+        Counter counter = (Counter) context.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            counter = new Counter();
+            context.setAttribute(COUNTER_ATTRIBUTE, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Count the arrays and objects enclosing the current value, the one just started by the current token is excluded.
+     * It's called only once for each untyped value, the depth of the nested values is tracked by the caller.
+     */
+    static int enclosingDepth(JsonParser parser) {
+        JsonStreamContext context = parser.getParsingContext();
+        if (parser.hasToken(JsonToken.START_OBJECT) || parser.hasToken(JsonToken.START_ARRAY)) {
+            context = context.getParent();
+        }
+        int depth = 0;
+        for (; context != null && !context.inRoot(); context = context.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Check the depth of an array or an object.
+     *
+     * @throws XssInputLimitExceededException If the maximum depth is exceeded
+     */
+    void checkDepth(int depth) {
+        if (maxDepth > 0 && depth > maxDepth) {
+            throw new XssInputLimitExceededException("The JSON exceeds the maximum depth of " + maxDepth);
+        }
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * The mutable node counter of one call.
+     */
+    final class Counter {
+
+        private int nodes;
+
+        /**
+         * Count a node.
+         *
+         * @throws XssInputLimitExceededException If the maximum count of nodes is exceeded
+         */
+        void count() {
+            if (++nodes > maxNodes && maxNodes > 0) {
+                throw new XssInputLimitExceededException("The JSON exceeds the maximum count of " + maxNodes + " nodes");
+            }
+        }
+
+    }
+
+}
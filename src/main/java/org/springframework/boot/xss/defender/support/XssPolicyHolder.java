@@ -0,0 +1,130 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * The holder of the current {@link XssPolicySnapshot}. The hot path costs a single volatile read, without any lock,
+ * and the reload compiles a complete new snapshot off the hot path before it's published by one atomic swap.
+ * <p>
+ * A request reads the snapshot once and pins it in a request attribute, so that all the values of the request,
+ * for example, the parameters, the headers and the JSON body, are processed by the same version of the configuration,
+ * even if a reload happens in the middle of the request.
+ *
+ * @author codeboyzhou
+ * @see XssPolicySnapshot
+ * @since 1.0.0
+ */
+public class XssPolicyHolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(XssPolicyHolder.class);
+
+    /**
+     * The compiler of the snapshot of a version, {@code null} if the snapshot can't be reloaded.
+     */
+    private final LongFunction<XssPolicySnapshot> compiler;
+
+    private final AtomicReference<XssPolicySnapshot> snapshot;
+
+    /**
+     * Hold the snapshot compiled by the compiler, the first version is compiled immediately.
+     *
+     * @param compiler The compiler of the snapshot of a version, it reads the latest configuration every time
+     */
+    public XssPolicyHolder(LongFunction<XssPolicySnapshot> compiler) {
+        Assert.notNull(compiler, "compiler must not be null");
+        this.compiler = compiler;
+        this.snapshot = new AtomicReference<>(compiler.apply(1));
+    }
+
+    private XssPolicyHolder(XssPolicySnapshot snapshot) {
+        this.compiler = null;
+        this.snapshot = new AtomicReference<>(snapshot);
+    }
+
+    /**
+     * Hold a fixed snapshot, it can still be replaced by {@link #swap(XssPolicySnapshot)}, but not reloaded.
+     */
+    public static XssPolicyHolder of(XssPolicySnapshot snapshot) {
+        Assert.notNull(snapshot, "XssPolicySnapshot must not be null");
+        return new XssPolicyHolder(snapshot);
+    }
+
+    /**
+     * Hold a fixed snapshot of the global XSS defender, without any overridden defense strategy.
+     */
+    public static XssPolicyHolder of(boolean isXssDefenderEnabled, XssDefender xssDefender) {
+        return of(XssPolicySnapshot.builder(0, xssDefender).enabled(isXssDefenderEnabled).build());
+    }
+
+    /**
+     * Get the current snapshot, it's a single volatile read.
+     */
+    public XssPolicySnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Get the snapshot pinned to the request bound to the current thread, see {@link #pin(RequestAttributes)}.
+     * Every reader of a request goes through it, so that a reload in the middle of the request is never observed.
+     */
+    public XssPolicySnapshot pin() {
+        return this.pin(RequestContextHolder.getRequestAttributes());
+    }
+
+    /**
+     * Get the snapshot pinned to the request, the current snapshot is pinned if there is none yet.
+     * A fixed holder returns its own snapshot, so that it never reads the one pinned by the holder of the application.
+     *
+     * @param attributes The attributes of the request, the current snapshot is returned if it's {@code null}
+     * @return The snapshot of the request
+     */
+    public XssPolicySnapshot pin(RequestAttributes attributes) {
+        if (attributes == null || compiler == null) {
+            return snapshot.get();
+        }
+        XssPolicySnapshot pinned = (XssPolicySnapshot) attributes.getAttribute(XssPolicySnapshot.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (pinned == null) {
+            pinned = snapshot.get();
+            attributes.setAttribute(XssPolicySnapshot.REQUEST_ATTRIBUTE, pinned, RequestAttributes.SCOPE_REQUEST);
+        }
+        return pinned;
+    }
+
+    /**
+     * Compile the latest configuration into a new snapshot and publish it, the current snapshot is kept if the compiler fails.
+     * The reloads are serialized, while the readers are never blocked.
+     *
+     * @return The new snapshot
+     * @throws IllegalStateException If the snapshot can't be reloaded
+     * @throws RuntimeException      If the latest configuration is invalid, for example, an unsupported defense strategy
+     */
+    public synchronized XssPolicySnapshot reload() {
+        Assert.state(compiler != null, "The XSS policy is fixed and can't be reloaded");
+        final XssPolicySnapshot reloaded = compiler.apply(snapshot.get().getVersion() + 1);
+        this.swap(reloaded);
+        return reloaded;
+    }
+
+    /**
+     * Publish a snapshot compiled elsewhere, the in-flight requests keep their pinned snapshots.
+     *
+     * @return The previous snapshot
+     */
+    public XssPolicySnapshot swap(XssPolicySnapshot newSnapshot) {
+        Assert.notNull(newSnapshot, "XssPolicySnapshot must not be null");
+        final XssPolicySnapshot previous = snapshot.getAndSet(newSnapshot);
+        if (logger.isInfoEnabled()) {
+            logger.info("Swapped the XSS policy from {} to {}", previous, newSnapshot);
+        }
+        return previous;
+    }
+
+}
@@ -0,0 +1,272 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssNamePolicy;
+import org.springframework.util.Assert;
+
+import java.util.function.BiFunction;
+
+/**
+ * The immutable XSS policy compiled from one version of the configuration, for example, the global {@link XssDefender},
+ * the {@link XssDefender} of every overridden defense strategy, and the name policies of the request filter.
+ * It's published as a whole by {@link XssPolicyHolder}, so that a request never sees a half-applied configuration.
+ * <p>
+ * The {@link XssDefender} of every overridden defense strategy is created when the snapshot is compiled, there are only
+ * a few of them, and then shared by all the controller methods and the JSON properties with the same override,
+ * so the readers only index a final array, without any lock.
+ *
+ * @author codeboyzhou
+ * @see XssPolicyHolder
+ * @since 1.0.0
+ */
+public final class XssPolicySnapshot {
+
+    /**
+     * The request attribute name of the snapshot pinned to the current request.
+     */
+    public static final String REQUEST_ATTRIBUTE = XssPolicySnapshot.class.getName();
+
+    private final long version;
+
+    private final long compiledAt;
+
+    private final boolean enabled;
+
+    private final String description;
+
+    /**
+     * The global XSS defender of the configured defense strategy.
+     */
+    private final XssDefender xssDefender;
+
+    /**
+     * The name policies of the request filter, {@code null} if there is no request filter.
+     */
+    private final XssNamePolicy parameterPolicy;
+
+    private final XssNamePolicy headerPolicy;
+
+    private final XssNamePolicy cookiePolicy;
+
+    /**
+     * The policy of the controller methods without any annotation.
+     */
+    private final XssHandlerPolicy defaultHandlerPolicy;
+
+    /**
+     * The XSS defenders of the overridden defense strategies by {@link #index(DefenseStrategy, boolean)},
+     * shared by the copies of this snapshot, {@code null} if there is no factory.
+     */
+    private final XssDefender[] xssDefenders;
+
+    /**
+     * The policies of the overridden defense strategies by {@link #index(DefenseStrategy, boolean)},
+     * {@code null} if there is no factory.
+     */
+    private final XssHandlerPolicy[] handlerPolicies;
+
+    private XssPolicySnapshot(Builder builder) {
+        this.version = builder.version;
+        this.compiledAt = System.currentTimeMillis();
+        this.enabled = builder.enabled;
+        this.description = builder.description;
+        this.xssDefender = builder.xssDefender;
+        this.parameterPolicy = null;
+        this.headerPolicy = null;
+        this.cookiePolicy = null;
+        this.defaultHandlerPolicy = XssHandlerPolicy.of(this, enabled, xssDefender);
+        this.xssDefenders = compileXssDefenders(builder.xssDefenderFactory);
+        this.handlerPolicies = this.compileHandlerPolicies();
+    }
+
+    private XssPolicySnapshot(XssPolicySnapshot snapshot, XssNamePolicy parameterPolicy, XssNamePolicy headerPolicy,
+                              XssNamePolicy cookiePolicy) {
+        this.version = snapshot.version;
+        this.compiledAt = snapshot.compiledAt;
+        this.enabled = snapshot.enabled;
+        this.description = snapshot.description;
+        this.xssDefender = snapshot.xssDefender;
+        this.parameterPolicy = parameterPolicy;
+        this.headerPolicy = headerPolicy;
+        this.cookiePolicy = cookiePolicy;
+        this.defaultHandlerPolicy = XssHandlerPolicy.of(this, enabled, xssDefender);
+        this.xssDefenders = snapshot.xssDefenders;
+        this.handlerPolicies = this.compileHandlerPolicies();
+    }
+
+    /**
+     * @param version     The version of the configuration, increased by every reload
+     * @param xssDefender The global XSS defender of the configured defense strategy
+     */
+    public static Builder builder(long version, XssDefender xssDefender) {
+        return new Builder(version, xssDefender);
+    }
+
+    /**
+     * A copy of this snapshot with the name policies of the request filter, the name policies are usually resolved
+     * by {@link #xssDefender(DefenseStrategy, boolean)}, so the copy shares the overridden XSS defenders with this one.
+     */
+    public XssPolicySnapshot withNamePolicies(XssNamePolicy parameterPolicy, XssNamePolicy headerPolicy, XssNamePolicy cookiePolicy) {
+        return new XssPolicySnapshot(this, parameterPolicy, headerPolicy, cookiePolicy);
+    }
+
+    /**
+     * Get the XSS defender of the overridden defense strategy, it's created only once for each snapshot.
+     */
+    public XssDefender xssDefender(DefenseStrategy strategy, boolean escapeAfterTrim) {
+        Assert.state(xssDefenders != null, "The XSS policy has no factory to override the defense strategy");
+        return xssDefenders[index(strategy, escapeAfterTrim)];
+    }
+
+    /**
+     * Get the policy of the controller methods overriding the defense strategy, it's created only once for each snapshot.
+     */
+    public XssHandlerPolicy handlerPolicy(DefenseStrategy strategy, boolean escapeAfterTrim) {
+        Assert.state(handlerPolicies != null, "The XSS policy has no factory to override the defense strategy");
+        return handlerPolicies[index(strategy, escapeAfterTrim)];
+    }
+
+    /**
+     * The index of a defense strategy and escape-after-trim option in the compiled arrays.
+     */
+    private static int index(DefenseStrategy strategy, boolean escapeAfterTrim) {
+        return strategy.ordinal() * 2 + (escapeAfterTrim ? 1 : 0);
+    }
+
+    /**
+     * Create the XSS defender of every defense strategy and escape-after-trim option, the options with the same description
+     * share one XSS defender, for example, the escape-after-trim option makes no difference to {@code ESCAPE}.
+     */
+    private static XssDefender[] compileXssDefenders(BiFunction<DefenseStrategy, Boolean, XssDefender> xssDefenderFactory) {
+        if (xssDefenderFactory == null) {
+            return null;
+        }
+        final XssDefender[] xssDefenders = new XssDefender[DefenseStrategy.values().length * 2];
+        for (DefenseStrategy strategy : DefenseStrategy.values()) {
+            final XssDefender xssDefender = xssDefenderFactory.apply(strategy, false);
+            xssDefenders[index(strategy, false)] = xssDefender;
+            xssDefenders[index(strategy, true)] = strategy.describe(true).equals(strategy.describe(false))
+                    ? xssDefender : xssDefenderFactory.apply(strategy, true);
+        }
+        return xssDefenders;
+    }
+
+    /**
+     * Create the policy of every overridden defense strategy, the same XSS defender shares one policy.
+     */
+    private XssHandlerPolicy[] compileHandlerPolicies() {
+        if (xssDefenders == null) {
+            return null;
+        }
+        final XssHandlerPolicy[] policies = new XssHandlerPolicy[xssDefenders.length];
+        for (int i = 0; i < xssDefenders.length; i++) {
+            policies[i] = i % 2 == 1 && xssDefenders[i] == xssDefenders[i - 1]
+                    ? policies[i - 1] : XssHandlerPolicy.of(this, enabled, xssDefenders[i]);
+        }
+        return policies;
+    }
+
+    public XssHandlerPolicy getDefaultHandlerPolicy() {
+        return defaultHandlerPolicy;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The epoch milliseconds when this snapshot is compiled.
+     */
+    public long getCompiledAt() {
+        return compiledAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The description of the configured defense strategy, for example, {@code trim-escape}.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    public XssDefender getXssDefender() {
+        return xssDefender;
+    }
+
+    public XssNamePolicy getParameterPolicy() {
+        return parameterPolicy;
+    }
+
+    public XssNamePolicy getHeaderPolicy() {
+        return headerPolicy;
+    }
+
+    public XssNamePolicy getCookiePolicy() {
+        return cookiePolicy;
+    }
+
+    /**
+     * Whether the request filter has any name policy in this snapshot.
+     */
+    public boolean hasNamePolicies() {
+        return parameterPolicy != null || headerPolicy != null || cookiePolicy != null;
+    }
+
+    @Override
+    public String toString() {
+        return "XssPolicySnapshot{version=" + version + ", enabled=" + enabled + ", description=" + description + "}";
+    }
+
+    /**
+     * The builder of {@link XssPolicySnapshot}, it's not thread-safe.
+     */
+    public static final class Builder {
+
+        private final long version;
+
+        private final XssDefender xssDefender;
+
+        private boolean enabled = true;
+
+        private String description;
+
+        private BiFunction<DefenseStrategy, Boolean, XssDefender> xssDefenderFactory;
+
+        private Builder(long version, XssDefender xssDefender) {
+            Assert.isTrue(version >= 0, "version must not be negative");
+            this.version = version;
+            this.xssDefender = xssDefender;
+        }
+
+        /**
+         * @param enabled Whether the XSS defender is enabled, the values are trimmed only if it's disabled
+         */
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        /**
+         * @param xssDefenderFactory The factory of the {@link XssDefender} overriding the configured defense strategy
+         */
+        public Builder xssDefenderFactory(BiFunction<DefenseStrategy, Boolean, XssDefender> xssDefenderFactory) {
+            this.xssDefenderFactory = xssDefenderFactory;
+            return this;
+        }
+
+        public XssPolicySnapshot build() {
+            return new XssPolicySnapshot(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * This class turns the rejected requests into a 400 response with a structured JSON body, for example,
+ * {@code {"status":400,"error":"Bad Request","message":"XSS risk detected","entryPoint":"json","field":"name"}}.
+ * The entry point and the field are only known by the {@link XssRequestRejectedException} of the early rejection.
+ * <p>
+ * The exception is matched as the cause as well, for example, of the {@code HttpMessageNotReadableException} thrown
+ * by the JSON binder. The body is written as a string, so it doesn't depend on Jackson, and the input text is never echoed.
+ *
+ * @author codeboyzhou
+ * @see org.springframework.boot.xss.defender.filter.XssRejectionFilter
+ * @since 1.0.0
+ */
+@ControllerAdvice
+public class XssRejectionAdvice {
+
+    @ExceptionHandler(XssRequestRejectedException.class)
+    public ResponseEntity<String> handleRequestRejected(XssRequestRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                .body(responseBody(exception.getEntryPoint(), exception.getField()));
+    }
+
+    @ExceptionHandler(XssRiskDetectedException.class)
+    public ResponseEntity<String> handleRiskDetected(XssRiskDetectedException exception) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                .body(responseBody(null, null));
+    }
+
+    /**
+     * The JSON body of a rejected request.
+     *
+     * @param entryPoint The entry point of the rejected input text, nullable
+     * @param field      The name of the JSON field, parameter, header or cookie, nullable
+     */
+    public static String responseBody(DefenseEntryPoint entryPoint, String field) {
+        final StringBuilder builder = new StringBuilder(128)
+                .append("{\"status\":").append(HttpStatus.BAD_REQUEST.value())
+                .append(",\"error\":\"").append(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .append("\",\"message\":\"XSS risk detected\"");
+        if (entryPoint != null) {
+            builder.append(",\"entryPoint\":\"").append(entryPoint.tagValue()).append('"');
+        }
+        if (field != null) {
+            appendJsonString(builder.append(",\"field\":"), field);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Append a JSON string, the markup characters are escaped as well, since the field name comes from the request.
+     */
+    private static void appendJsonString(StringBuilder builder, String text) {
+        builder.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < ' ' || c == '<' || c == '>' || c == '&' || c == '\'' || c == '\u2028' || c == '\u2029') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+}
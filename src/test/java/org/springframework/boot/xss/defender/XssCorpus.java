@@ -0,0 +1,74 @@
+package org.springframework.boot.xss.defender;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The versioned input corpora shared by tests and benchmarks, one input text per line,
+ * located in the classpath directory 'corpus'.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+public enum XssCorpus {
+
+    /**
+     * Production-like benign input text, for example, names, ids, addresses and product titles.
+     */
+    BENIGN("corpus/benign-v1.txt"),
+
+    /**
+     * The XSS filter evasion vectors from the OWASP cheat sheet, with some encoded variants.
+     */
+    ATTACK("corpus/owasp-xss-v1.txt");
+
+    private final String location;
+
+    XssCorpus(String location) {
+        this.location = location;
+    }
+
+    /**
+     * The classpath location, which carries the version of the corpus.
+     */
+    public String location() {
+        return location;
+    }
+
+    public List<String> lines() {
+        ClassPathResource resource = new ClassPathResource(location);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            return Collections.unmodifiableList(lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Concatenate the lines with a space repeatedly, until the text reaches the given length.
+     */
+    public String text(int length) {
+        List<String> lines = lines();
+        StringBuilder builder = new StringBuilder(length + 128);
+        for (int i = 0; builder.length() < length; i++) {
+            builder.append(lines.get(i % lines.size())).append(' ');
+        }
+        return builder.substring(0, length);
+    }
+
+}
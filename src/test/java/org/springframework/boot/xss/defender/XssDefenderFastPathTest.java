@@ -0,0 +1,118 @@
+package org.springframework.boot.xss.defender;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential junit test for the plain text fast path of {@link XssDefender},
+ * the results must be identical to the original implementation without fast path.
+ *
+ * @author codeboyzhou
+ * @see XssPreScanner
+ * @since 1.0.0
+ */
+class XssDefenderFastPathTest {
+
+    /**
+     * The characters to build random input texts, mixing plain characters and markup-significant characters.
+     */
+    static final String ALPHABET = "aZ09.-_@:/%;=() \u00A0\u2028\u3000\t\n\r\f\u000B\u0000\u007F\u0085\u00e9\u4e2d<>&\"'#!xX";
+
+    static final int RANDOM_SAMPLES = 2000;
+
+    static final List<String> CORPUS = new ArrayList<>(Arrays.asList(
+            "john.doe", "john doe", "john  doe", "550e8400-e29b-41d4-a716-446655440000", "12345", "-3.14",
+            "user@example.com", "https://example.com/path?q=1#top", "中文测试", "café",
+            "emoji 😀 text", "a\u00A0b", "a\tb", "a\nb", "a\r\nb", "a\u0000b", "a\u007Fb", "a\u0085b",
+            "a\u2028b", "a\u3000b", "5 > 3", "3 < 5", "Tom & Jerry", "it's", "say \"hi\"", "&amp;", "&lt;script&gt;",
+            "<b>bold</b>", "<script>alert(1)</script>", "<img src=x onerror=alert(1)>", "a < b > c"
+    ));
+
+    static {
+        Random random = new Random(20220501L);
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int j = random.nextInt(16); j >= 0; j--) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            CORPUS.add(builder.toString());
+        }
+    }
+
+    @Test
+    void plainTextIsReturnedAsTheSameInstance() {
+        XssDefender xssDefender = new XssDefender(DefenseStrategy.TRIM.name(), true);
+        for (String text : Arrays.asList("john.doe", "john doe", "12345", "中文")) {
+            Assertions.assertTrue(XssPreScanner.isPlainText(text), text);
+            Assertions.assertSame(text, xssDefender.defend(text));
+        }
+    }
+
+    @Test
+    void sameResultsAsJsoupWhenDefenseStrategyIsTrim() {
+        assertSameResults(DefenseStrategy.TRIM, false);
+    }
+
+    @Test
+    void sameResultsAsJsoupWhenDefenseStrategyIsTrimAndEscape() {
+        assertSameResults(DefenseStrategy.TRIM, true);
+    }
+
+    @Test
+    void sameResultsAsHtmlUtilsWhenDefenseStrategyIsEscape() {
+        assertSameResults(DefenseStrategy.ESCAPE, false);
+    }
+
+    @Test
+    void sameResultsAsJsoupWhenDefenseStrategyIsThrow() {
+        assertSameResults(DefenseStrategy.THROW, false);
+    }
+
+    private static void assertSameResults(DefenseStrategy strategy, boolean escapeAfterTrim) {
+        XssDefender xssDefender = new XssDefender(strategy.name(), escapeAfterTrim);
+        for (String text : CORPUS) {
+            String expected;
+            try {
+                expected = referenceDefend(strategy, escapeAfterTrim, text);
+            } catch (XssRiskDetectedException e) {
+                Assertions.assertThrowsExactly(XssRiskDetectedException.class, () -> xssDefender.defend(text), text);
+                continue;
+            }
+            Assertions.assertEquals(expected, xssDefender.defend(text), text);
+        }
+    }
+
+    /**
+     * The original implementation of {@link XssDefender#defend(String)}, without any fast path.
+     */
+    private static String referenceDefend(DefenseStrategy strategy, boolean escapeAfterTrim, String text) {
+        if (!StringUtils.hasText(text)) {
+            return XssDefender.EMPTY_STRING;
+        }
+        text = StringUtils.trimWhitespace(text);
+        switch (strategy) {
+            case TRIM:
+                String safeText = Jsoup.clean(text, Safelist.basic());
+                return escapeAfterTrim ? HtmlUtils.htmlEscape(safeText, StandardCharsets.UTF_8.name()) : safeText;
+            case ESCAPE:
+                return HtmlUtils.htmlEscape(text, StandardCharsets.UTF_8.name());
+            default:
+                if (!Jsoup.isValid(text, Safelist.basic())) {
+                    throw new XssRiskDetectedException(text);
+                }
+                return text;
+        }
+    }
+
+}
@@ -4,7 +4,23 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.xss.defender.exception.UnsupportedXssDefenseStrategyException;
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
 import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.guard.GuardAction;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Junit test for {@link XssDefender}
@@ -62,8 +78,134 @@ class XssDefenderTest {
     @Test
     void defendWhenDefenseStrategyNotSupported() {
         final String str = "ignore";
-        XssDefender unsupportedStrategy = new XssDefender(str, Mockito.anyBoolean());
-        Assertions.assertThrowsExactly(UnsupportedXssDefenseStrategyException.class, () -> unsupportedStrategy.defend(str), str);
+        Assertions.assertThrowsExactly(UnsupportedXssDefenseStrategyException.class, () -> new XssDefender(str, false), str);
+    }
+
+    static XssDefender bulkXssDefender(DefenseStrategy strategy, ForkJoinPool forkJoinPool, int parallelThreshold) {
+        return XssDefender.builder(XssSanitizerChain.builder().strategy(strategy, SafelistType.BASIC.create(), false).build())
+                .bulk(forkJoinPool, parallelThreshold)
+                .build();
+    }
+
+    @Test
+    void defendAllInParallelGivesTheSameOutput() {
+        List<String> texts = new ArrayList<>();
+        while (texts.size() < 20000) {
+            texts.addAll(XssCorpus.BENIGN.lines());
+            texts.addAll(XssCorpus.ATTACK.lines());
+            texts.add(null);
+            texts.add(SPACE_STRING);
+        }
+        String[] input = texts.toArray(new String[0]);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            String[] sequential = bulkXssDefender(DefenseStrategy.TRIM, null, 0).defendAll(input, DefenseEntryPoint.JSON, "texts");
+            XssDefender parallelXssDefender = bulkXssDefender(DefenseStrategy.TRIM, forkJoinPool, 1024);
+            Assertions.assertArrayEquals(sequential, parallelXssDefender.defendAll(input, DefenseEntryPoint.JSON, "texts"));
+            Assertions.assertEquals(Arrays.asList(sequential), parallelXssDefender.defendAll(texts, DefenseEntryPoint.JSON, "texts"));
+            Assertions.assertNull(sequential[texts.indexOf(null)]);
+            Assertions.assertEquals(XssDefender.EMPTY_STRING, sequential[texts.indexOf(SPACE_STRING)]);
+
+            Map<Integer, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < input.length; i++) {
+                map.put(i, input[i]);
+            }
+            Map<Integer, String> safeMap = parallelXssDefender.defendAll(map, DefenseEntryPoint.JSON, "texts");
+            Assertions.assertArrayEquals(sequential, safeMap.values().toArray(new String[0]));
+            Assertions.assertArrayEquals(map.keySet().toArray(), safeMap.keySet().toArray());
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void defendAllInParallelThrowsTheFirstRejection() {
+        String[] input = new String[10000];
+        Arrays.fill(input, "XssDefenderTest");
+        input[3000] = "<script>alert(3000)</script>";
+        input[9000] = "<script>alert(9000)</script>";
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            XssDefender parallelXssDefender = bulkXssDefender(DefenseStrategy.THROW, forkJoinPool, 1024);
+            for (int i = 0; i < 10; i++) {
+                XssRiskDetectedException e = Assertions.assertThrows(XssRiskDetectedException.class,
+                        () -> parallelXssDefender.defendAll(input, DefenseEntryPoint.JSON, null));
+                Assertions.assertEquals(input[3000], e.getMessage());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+
+    @Test
+    void earlyRejectionRejectsTheWholeRequest() {
+        XssDefender xssDefender = XssDefender.builder(XssSanitizerChain.builder().stackTraceEnabled(false)
+                        .strategy(DefenseStrategy.THROW, SafelistType.BASIC.create(), false).build())
+                .earlyRejection(true, false)
+                .build();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            XssRequestRejectedException rejection = Assertions.assertThrows(XssRequestRejectedException.class,
+                    () -> xssDefender.defend("<script>alert(1)</script>", DefenseEntryPoint.JSON, "name"));
+            Assertions.assertEquals(DefenseEntryPoint.JSON, rejection.getEntryPoint());
+            Assertions.assertEquals("name", rejection.getField());
+            Assertions.assertEquals(0, rejection.getStackTrace().length);
+            Assertions.assertInstanceOf(XssRiskDetectedException.class, rejection.getCause());
+            Assertions.assertEquals(0, rejection.getCause().getStackTrace().length);
+            // The rest of the request is rejected without being sanitized, the plain text still skips the sanitizer.
+            Assertions.assertSame(rejection, Assertions.assertThrows(XssRequestRejectedException.class,
+                    () -> xssDefender.defend("<b>XssDefenderTest</b>", DefenseEntryPoint.FORM, null)));
+            Assertions.assertEquals("XssDefenderTest", xssDefender.defend("XssDefenderTest"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        // Another request is not affected.
+        Assertions.assertEquals("<b>XssDefenderTest</b>", xssDefender.defend("<b>XssDefenderTest</b>"));
+    }
+
+    static XssDefender guardedXssDefenderThrow(XssInputGuard guard) {
+        return XssDefender.builder(XssSanitizerChain.builder().strategy(DefenseStrategy.THROW, SafelistType.BASIC.create(), false).build())
+                .inputGuard(guard)
+                .build();
+    }
+
+    @Test
+    void exceededLimitsAreRejectedByTheThrowStrategy() {
+        final String text = "<b>hello</b> world";
+        for (GuardAction action : new GuardAction[]{GuardAction.ESCAPE, GuardAction.TRUNCATE}) {
+            XssInputGuard lengthGuard = XssInputGuard.builder().maxLength(10, action).build();
+            XssDefender lengthXssDefender = guardedXssDefenderThrow(lengthGuard);
+            Assertions.assertThrows(XssInputLimitExceededException.class, () -> lengthXssDefender.defend(text), action.name());
+            Assertions.assertThrows(XssInputLimitExceededException.class,
+                    () -> lengthXssDefender.defend(text.toCharArray(), 0, text.length(), DefenseEntryPoint.JSON), action.name());
+            Assertions.assertEquals("<b>hi</b>", lengthXssDefender.defend("<b>hi</b>"));
+            Assertions.assertEquals(2, lengthGuard.lengthTripCount());
+
+            XssDefender tagsXssDefender = guardedXssDefenderThrow(XssInputGuard.builder().maxTags(1, 0, action).build());
+            Assertions.assertThrows(XssInputLimitExceededException.class, () -> tagsXssDefender.defend(text + "<i>!</i>"), action.name());
+            Assertions.assertEquals(text, tagsXssDefender.defend(text));
+
+            XssInputGuard budgetGuard = XssInputGuard.builder().requestBudget(20, action).build();
+            XssDefender budgetXssDefender = guardedXssDefenderThrow(budgetGuard);
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            try {
+                Assertions.assertEquals(text, budgetXssDefender.defend(text));
+                Assertions.assertThrows(XssInputLimitExceededException.class, () -> budgetXssDefender.defend(text), action.name());
+                Assertions.assertEquals(1, budgetGuard.budgetTripCount());
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }
+    }
+
+    @Test
+    void rejectionKeepsTheStackTraceByDefault() {
+        XssDefender xssDefenderThrow = new XssDefender(DefenseStrategy.THROW.name(), false);
+        XssRiskDetectedException e = Assertions.assertThrows(XssRiskDetectedException.class,
+                () -> xssDefenderThrow.defend("<script>alert(1)</script>"));
+        Assertions.assertNotEquals(0, e.getStackTrace().length);
+        Assertions.assertEquals(0, new XssRiskDetectedException("stackless", false).getStackTrace().length);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package org.springframework.boot.xss.defender;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.guard.GuardAction;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Junit test for {@link XssDefendingReader}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefendingReaderTest {
+
+    static final String DOCUMENT = "<p>XssDefenderTest <b>bold</b> text</p><script>alert(document.cookies);</script>"
+            + "<a href=\"javascript:alert(1)\" title=\"a > b\">link</a><!-- <script>alert(2)</script> -->"
+            + "<style>body { background: url(javascript:alert(3)) }</style><i>end</i>";
+
+    static String read(XssDefender xssDefender, String text, int chunkSize) throws IOException {
+        Reader reader = xssDefender.defend(new StringReader(text), chunkSize, DefenseEntryPoint.BODY, null);
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[5];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, n);
+        }
+        return builder.toString();
+    }
+
+    static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void shortInputIsSanitizedAsAWhole() throws IOException {
+        XssDefender xssDefender = new XssDefender(DefenseStrategy.TRIM.name(), false);
+        Assertions.assertEquals(xssDefender.defend(DOCUMENT), read(xssDefender, DOCUMENT, XssDefender.DEFAULT_CHUNK_SIZE));
+        Assertions.assertEquals(XssDefender.EMPTY_STRING, read(xssDefender, "   ", XssDefender.DEFAULT_CHUNK_SIZE));
+    }
+
+    @Test
+    void escapedChunksEqualTheWholeText() throws IOException {
+        XssDefender xssDefender = new XssDefender(DefenseStrategy.ESCAPE.name(), false);
+        String text = repeat(DOCUMENT, 20);
+        for (int chunkSize : new int[]{1000, 16, 7}) {
+            Assertions.assertEquals(xssDefender.defend(text), read(xssDefender, text, chunkSize));
+        }
+    }
+
+    @Test
+    void riskAcrossChunksIsDetected() throws IOException {
+        XssDefender xssDefender = new XssDefender(DefenseStrategy.THROW.name(), false);
+        String safeText = repeat("XssDefenderTest <b>bold</b> text ", 20);
+        Assertions.assertEquals(xssDefender.defend(safeText), read(xssDefender, safeText, 16));
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> read(xssDefender, safeText + DOCUMENT, 16));
+    }
+
+    @Test
+    void trimmedChunksDropTheScriptsAcrossBoundaries() throws IOException {
+        XssDefender xssDefender = new XssDefender(DefenseStrategy.TRIM.name(), false);
+        String text = repeat(DOCUMENT, 20);
+        String whole = xssDefender.defend(text);
+        // The segments end where no element is open, only the whitespace between them differs.
+        for (int chunkSize : new int[]{1000, 300}) {
+            Assertions.assertEquals(whole.replaceAll("\\s", ""), read(xssDefender, text, chunkSize).replaceAll("\\s", ""));
+        }
+        // The elements are split, the content is kept.
+        for (int chunkSize : new int[]{64, 7}) {
+            String result = read(xssDefender, text, chunkSize);
+            Assertions.assertEquals(whole.replaceAll("<[^>]*>|\\s", ""), result.replaceAll("<[^>]*>|\\s", ""));
+            Assertions.assertFalse(result.contains("alert"));
+        }
+    }
+
+    @Test
+    void maxLengthIsCheckedOnTheWholeInput() throws IOException {
+        String text = repeat("1234<b>5678</b>", 10);
+        XssInputGuard reject = XssInputGuard.builder().maxLength(100, GuardAction.REJECT).build();
+        XssDefender rejecting = XssDefender.builder(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false).build()).inputGuard(reject).build();
+        Assertions.assertThrows(XssInputLimitExceededException.class, () -> read(rejecting, text, 32));
+
+        XssInputGuard truncate = XssInputGuard.builder().maxLength(100, GuardAction.TRUNCATE).build();
+        XssDefender truncating = XssDefender.builder(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false).build()).inputGuard(truncate).build();
+        Assertions.assertEquals(truncating.defend(text.substring(0, 100)).replaceAll("\\s", ""),
+                read(truncating, text, 32).replaceAll("\\s", ""));
+    }
+
+}
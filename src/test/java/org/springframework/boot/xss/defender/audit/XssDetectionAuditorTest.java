@@ -0,0 +1,168 @@
+package org.springframework.boot.xss.defender.audit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Junit test for {@link XssDetectionAuditor}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDetectionAuditorTest {
+
+    final List<XssDetectionEvent> events = new CopyOnWriteArrayList<>();
+
+    final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    final XssDetectionSink sink = batch -> {
+        batchSizes.add(batch.size());
+        events.addAll(batch);
+    };
+
+    static XssDefender xssDefender(DefenseStrategy strategy, XssDetectionAuditor auditor) {
+        XssSanitizerChain sanitizer = XssSanitizerChain.builder().strategy(strategy, SafelistType.BASIC.create(), false).build();
+        return XssDefender.builder(sanitizer).detectionPublisher(auditor.publisher(strategy.describe(false))).build();
+    }
+
+    @Test
+    void publishModifiedAndRejectedTextOnly() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).maxInputLength(16).build();
+        auditor.start();
+        XssDefender trimXssDefender = xssDefender(DefenseStrategy.TRIM, auditor);
+        trimXssDefender.defend("XssDefenderTest", DefenseEntryPoint.FORM);
+        trimXssDefender.defend("<b>XssDefenderTest</b>", DefenseEntryPoint.FORM);
+        trimXssDefender.defend("XssDefenderTest<script>alert(1);</script>", DefenseEntryPoint.JSON, "name");
+        XssDefender throwXssDefender = xssDefender(DefenseStrategy.THROW, auditor);
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> throwXssDefender.defend("<script>alert(1);</script>"));
+        auditor.close();
+
+        Assertions.assertEquals(2, events.size());
+        XssDetectionEvent trimmed = events.get(0);
+        Assertions.assertEquals("trim", trimmed.getStrategy());
+        Assertions.assertEquals(DefenseEntryPoint.JSON, trimmed.getEntryPoint());
+        Assertions.assertEquals("name", trimmed.getField());
+        Assertions.assertNull(trimmed.getHandler());
+        Assertions.assertEquals("XssDefenderTest<", trimmed.getInput());
+        Assertions.assertEquals(41, trimmed.getInputLength());
+        Assertions.assertEquals("XssDefenderTest", trimmed.getOutput());
+        Assertions.assertFalse(trimmed.isRejected());
+
+        XssDetectionEvent rejected = events.get(1);
+        Assertions.assertEquals("throw", rejected.getStrategy());
+        Assertions.assertTrue(rejected.isRejected());
+        Assertions.assertEquals(2, auditor.deliveredCount());
+    }
+
+    @Test
+    void deliverInBatches() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).batchSize(8).maxEventsPerKeyPerSecond(0).build();
+        XssDetectionPublisher publisher = auditor.publisher("trim");
+        for (int i = 0; i < 20; i++) {
+            publisher.publish(DefenseEntryPoint.FORM, "name", "<b>" + i, "" + i);
+        }
+        auditor.start();
+        auditor.close();
+        Assertions.assertEquals(20, events.size());
+        Assertions.assertEquals("0", events.get(0).getOutput());
+        Assertions.assertEquals("19", events.get(19).getOutput());
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 8));
+        Assertions.assertEquals(3, batchSizes.size());
+    }
+
+    @Test
+    void limitRatePerKey() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).maxEventsPerKeyPerSecond(10).build();
+        XssDetectionPublisher publisher = auditor.publisher("trim");
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(DefenseEntryPoint.FORM, "name", "<b>", "");
+            publisher.publish(DefenseEntryPoint.FORM, "other", "<b>", "");
+        }
+        auditor.start();
+        auditor.close();
+        Assertions.assertEquals(20, auditor.deliveredCount());
+        Assertions.assertEquals(180, auditor.rateLimitedCount());
+    }
+
+    @Test
+    void sampleEvents() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).sampleRate(0.0).build();
+        auditor.publisher("trim").publish(DefenseEntryPoint.FORM, "name", "<b>", "");
+        auditor.start();
+        auditor.close();
+        Assertions.assertTrue(events.isEmpty());
+        Assertions.assertEquals(1, auditor.sampledOutCount());
+    }
+
+    @Test
+    void dropWhenBufferIsFull() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).bufferSize(4).build();
+        XssDetectionPublisher publisher = auditor.publisher("trim");
+        for (int i = 0; i < 6; i++) {
+            publisher.publish(DefenseEntryPoint.FORM, "field" + i, "<b>", "");
+        }
+        Assertions.assertEquals(4, auditor.publishedCount());
+        Assertions.assertEquals(2, auditor.droppedCount());
+    }
+
+    @Test
+    void isolateFailingSink() {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder()
+                .sink(batch -> {
+                    throw new IllegalStateException("XssDetectionAuditorTest");
+                })
+                .sink(sink)
+                .build();
+        auditor.publisher("trim").publish(DefenseEntryPoint.FORM, "name", "<b>", "");
+        auditor.start();
+        auditor.close();
+        Assertions.assertEquals(1, events.size());
+    }
+
+    @Test
+    void publishConcurrently() throws InterruptedException {
+        XssDetectionAuditor auditor = XssDetectionAuditor.builder().sink(sink).bufferSize(256).maxEventsPerKeyPerSecond(0).build();
+        auditor.start();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            XssDetectionPublisher publisher = auditor.publisher("producer-" + t);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    publisher.publish(DefenseEntryPoint.FORM, "name", "<b>", String.valueOf(i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        auditor.close();
+
+        Assertions.assertEquals(20000, auditor.publishedCount() + auditor.droppedCount());
+        Assertions.assertEquals(auditor.publishedCount(), events.size());
+        for (int t = 0; t < 4; t++) {
+            // The events of the same producer keep their order.
+            String strategy = "producer-" + t;
+            int previous = -1;
+            for (XssDetectionEvent event : events) {
+                if (event.getStrategy().equals(strategy)) {
+                    int current = Integer.parseInt(event.getOutput());
+                    Assertions.assertTrue(current > previous);
+                    previous = current;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssDefenderMultipartResolver;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.support.XssDefenderBinderAdvice;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssRejectionAdvice;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Junit test for {@link XssDefenderConfiguration}, based on {@link WebApplicationContextRunner}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderConfigurationTest {
+
+    static final String RISKY_TEXT = "XssDefenderTest<script>alert(1);</script>";
+
+    static final String SAFE_TEXT = "XssDefenderTest";
+
+    static class Form {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @RestController
+    static class EchoController {
+        @PostMapping("/form")
+        String form(@ModelAttribute Form form) {
+            return form.getName();
+        }
+
+        @GetMapping("/query")
+        String query(@RequestParam String q) {
+            return q;
+        }
+
+        @PostMapping("/json")
+        String json(@RequestBody Map<String, String> body) {
+            return body.get("name");
+        }
+
+        @PostMapping("/text")
+        String text(@RequestBody String body) {
+            return body;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class CustomXssDefenderConfiguration {
+        @Bean
+        XssDefender customXssDefender() {
+            return new XssDefender("escape", false);
+        }
+    }
+
+    final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+                    MultipartAutoConfiguration.class, WebMvcAutoConfiguration.class, XssDefenderConfiguration.class,
+                    XssDefenderAuditConfiguration.class, XssDefenderReloadConfiguration.class))
+            .withUserConfiguration(EchoController.class);
+
+    MockMvc mockMvc(WebApplicationContext context) {
+        return MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void formQueryAndJsonParametersAreSanitized() {
+        contextRunner.run(context -> {
+            MockMvc mockMvc = mockMvc(context);
+            mockMvc.perform(post("/form").param("name", RISKY_TEXT)).andExpect(content().string(SAFE_TEXT));
+            mockMvc.perform(get("/query").param("q", RISKY_TEXT)).andExpect(content().string(SAFE_TEXT));
+            mockMvc.perform(post("/json").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"" + RISKY_TEXT + "\"}"))
+                    .andExpect(content().string(SAFE_TEXT));
+        });
+    }
+
+    @Test
+    void onlyTheAutoConfiguredBeansAreRegistered() {
+        contextRunner.run(context -> {
+            Assertions.assertSame(XssDefenderConfiguration.class, context.getBean(XssDefenderConfiguration.class).getClass());
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssDefenderReactiveConfiguration.class).length);
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssDefenderMetricsConfiguration.class).length);
+            Assertions.assertEquals(1, context.getBeanNamesForType(XssDefenderBinderAdvice.class).length);
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssInputGuard.class).length);
+        });
+    }
+
+    @Test
+    void customBeansTakePrecedence() {
+        contextRunner.withUserConfiguration(CustomXssDefenderConfiguration.class).run(context -> {
+            Assertions.assertEquals(1, context.getBeanNamesForType(XssDefender.class).length);
+            Assertions.assertSame(context.getBean("customXssDefender"), context.getBean(XssDefender.class));
+            Assertions.assertSame(context.getBean(XssDefender.class), context.getBean(XssPolicyHolder.class).current().getXssDefender());
+            MockMvc mockMvc = mockMvc(context);
+            String escaped = "XssDefenderTest&lt;script&gt;alert(1);&lt;/script&gt;";
+            mockMvc.perform(post("/form").param("name", RISKY_TEXT)).andExpect(content().string(escaped));
+            mockMvc.perform(post("/json").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"" + RISKY_TEXT + "\"}"))
+                    .andExpect(content().string(escaped));
+        });
+    }
+
+    @Test
+    void requestFilterParametersAreNotSanitizedTwice() {
+        contextRunner.withPropertyValues("spring.xss-defender.strategy=escape", "spring.xss-defender.request-filter.enabled=true")
+                .run(context -> {
+                    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                            .addFilters(((FilterRegistrationBean<?>) context.getBean("xssDefenderFilter")).getFilter())
+                            .build();
+                    String escaped = "&lt;b&gt;x&lt;/b&gt;";
+                    mockMvc.perform(post("/form").param("name", "<b>x</b>")).andExpect(content().string(escaped));
+                    mockMvc.perform(get("/query").param("q", "<b>x</b>")).andExpect(content().string(escaped));
+                });
+    }
+
+    @Test
+    void rawTextBodyIsSanitizedWhenEnabled() {
+        contextRunner.run(context -> mockMvc(context).perform(post("/text").contentType(MediaType.TEXT_PLAIN).content(RISKY_TEXT))
+                .andExpect(content().string(RISKY_TEXT)));
+        contextRunner.withPropertyValues("spring.xss-defender.body.enabled=true").run(context -> {
+            MockMvc mockMvc = mockMvc(context);
+            mockMvc.perform(post("/text").contentType(MediaType.TEXT_PLAIN).content(RISKY_TEXT)).andExpect(content().string(SAFE_TEXT));
+            mockMvc.perform(post("/text").contentType(MediaType.TEXT_HTML).content(RISKY_TEXT)).andExpect(content().string(SAFE_TEXT));
+            mockMvc.perform(post("/text").contentType(MediaType.APPLICATION_XML).content(RISKY_TEXT)).andExpect(content().string(RISKY_TEXT));
+            Assertions.assertInstanceOf(XssDefenderMultipartResolver.class, context.getBean(DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME));
+        });
+    }
+
+    @Test
+    void earlyRejectionIsTurnedIntoABadRequest() {
+        contextRunner.withPropertyValues("spring.xss-defender.strategy=throw", "spring.xss-defender.rejection.early=true",
+                "spring.xss-defender.rejection.stack-trace-enabled=false", "spring.xss-defender.rejection.response-enabled=true").run(context -> {
+            MockMvc mockMvc = mockMvc(context);
+            mockMvc.perform(post("/form").param("name", RISKY_TEXT))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().json("{\"status\":400,\"message\":\"XSS risk detected\",\"entryPoint\":\"form\"}"));
+            mockMvc.perform(post("/json").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"" + RISKY_TEXT + "\"}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().json("{\"status\":400,\"entryPoint\":\"json\",\"field\":\"name\"}"));
+            mockMvc.perform(get("/query").param("q", SAFE_TEXT)).andExpect(content().string(SAFE_TEXT));
+            Assertions.assertEquals(1, context.getBeanNamesForType(XssRejectionAdvice.class).length);
+        });
+    }
+
+    @Test
+    void nothingIsRegisteredWhenDisabled() {
+        contextRunner.withPropertyValues("spring.xss-defender.enabled=false").run(context -> {
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssPolicyHolder.class).length);
+            mockMvc(context).perform(post("/form").param("name", RISKY_TEXT)).andExpect(content().string(RISKY_TEXT));
+        });
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.springframework.boot.xss.defender.autoconfigure;
+
+import com.fasterxml.jackson.databind.Module;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.guard.XssInputGuard;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicyRegistry;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+
+/**
+ * Junit test for {@link XssDefenderReactiveConfiguration}, based on {@link ReactiveWebApplicationContextRunner}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderReactiveConfigurationTest {
+
+    @Configuration(proxyBeanMethods = false)
+    static class CustomXssDefenderConfiguration {
+        @Bean
+        XssDefender customXssDefender() {
+            return new XssDefender("escape", false);
+        }
+    }
+
+    final ReactiveWebApplicationContextRunner contextRunner = new ReactiveWebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, XssDefenderConfiguration.class,
+                    XssDefenderReactiveConfiguration.class));
+
+    @Test
+    void sharedBeansAreRegistered() {
+        contextRunner.withPropertyValues("spring.xss-defender.guard.enabled=true").run(context -> {
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssDefenderConfiguration.class).length);
+            Assertions.assertEquals(0, context.getBeanNamesForType(XssHandlerPolicyRegistry.class).length);
+            Assertions.assertSame(context.getBean(XssPolicyHolder.class).current().getXssDefender(), context.getBean(XssDefender.class));
+            Assertions.assertEquals(1, context.getBeanNamesForType(XssInputGuard.class).length);
+            Assertions.assertTrue(context.getBean("xssDefenderJacksonModule") instanceof Module);
+        });
+    }
+
+    @Test
+    void customXssDefenderIsApplied() {
+        contextRunner.withUserConfiguration(CustomXssDefenderConfiguration.class).run(context ->
+                Assertions.assertSame(context.getBean("customXssDefender"), context.getBean(XssPolicyHolder.class).current().getXssDefender()));
+    }
+
+    @Test
+    void unsupportedFeaturesFailTheStartup() {
+        contextRunner.withPropertyValues("spring.xss-defender.guard.enabled=true", "spring.xss-defender.guard.request-budget=1024")
+                .run(context -> Assertions.assertInstanceOf(InvalidConfigurationPropertyValueException.class,
+                        NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure())));
+        contextRunner.withPropertyValues("spring.xss-defender.rejection.early=true")
+                .run(context -> Assertions.assertInstanceOf(InvalidConfigurationPropertyValueException.class,
+                        NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure())));
+        // The request budget is not enforced without the guard.
+        contextRunner.withPropertyValues("spring.xss-defender.guard.request-budget=1024")
+                .run(context -> Assertions.assertNull(context.getStartupFailure()));
+    }
+
+}
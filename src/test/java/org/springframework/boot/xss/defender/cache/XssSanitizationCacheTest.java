@@ -0,0 +1,113 @@
+package org.springframework.boot.xss.defender.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junit test for {@link XssSanitizationCache}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssSanitizationCacheTest {
+
+    static final XssSanitizer IDENTITY = String::toString;
+
+    @Test
+    void cacheIsKeyedOnInputAndPolicy() {
+        AtomicInteger calls = new AtomicInteger();
+        XssSanitizer upperCase = text -> {
+            calls.incrementAndGet();
+            return text.toUpperCase();
+        };
+        XssSanitizer lowerCase = String::toLowerCase;
+        XssSanitizationCache cache = new XssSanitizationCache(100, 10000, 64, 4);
+
+        Assertions.assertEquals("<B>", cache.get("<b>", upperCase));
+        Assertions.assertEquals("<B>", cache.get("<b>", upperCase));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals("<b>", cache.get("<b>", lowerCase));
+        Assertions.assertEquals(1, cache.hitCount());
+        Assertions.assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void longInputBypassesCache() {
+        XssSanitizationCache cache = new XssSanitizationCache(100, 10000, 4, 1);
+        Assertions.assertEquals("<script>", cache.get("<script>", IDENTITY));
+        Assertions.assertEquals(1, cache.bypassCount());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void exceptionIsNotCached() {
+        XssSanitizationCache cache = new XssSanitizationCache(100, 10000, 64, 1);
+        XssSanitizer throwing = text -> {
+            throw new IllegalArgumentException(text);
+        };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> cache.get("<script>", throwing));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void cacheIsBoundedByEntriesAndChars() {
+        XssSanitizationCache bySize = new XssSanitizationCache(64, Long.MAX_VALUE, 64, 4);
+        XssSanitizationCache byChars = new XssSanitizationCache(10000, 1000, 64, 4);
+        for (int i = 0; i < 10000; i++) {
+            bySize.get("<i>" + i, IDENTITY);
+            byChars.get("<i>" + i, IDENTITY);
+        }
+        Assertions.assertTrue(bySize.size() <= 64);
+        Assertions.assertTrue(byChars.totalChars() <= 1000);
+        Assertions.assertTrue(bySize.evictionCount() > 0);
+        Assertions.assertTrue(byChars.evictionCount() > 0);
+    }
+
+    @Test
+    void frequentInputSurvivesScan() {
+        XssSanitizationCache cache = new XssSanitizationCache(100, Long.MAX_VALUE, 64, 1);
+        for (int i = 0; i < 10; i++) {
+            cache.get("<b>hot</b>", IDENTITY);
+        }
+        // A scan of one-off values, shorter than the aging period of the frequency sketch.
+        for (int i = 0; i < 500; i++) {
+            cache.get("<i>" + i, IDENTITY);
+        }
+        final long hits = cache.hitCount();
+        cache.get("<b>hot</b>", IDENTITY);
+        Assertions.assertEquals(hits + 1, cache.hitCount());
+    }
+
+    @Test
+    void concurrentAccess() throws Exception {
+        XssSanitizationCache cache = new XssSanitizationCache(128, 4096, 64, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        final String text = "<i>" + (i % 300);
+                        Assertions.assertEquals(text.toUpperCase(), cache.get(text, String::toUpperCase));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(cache.size() <= 128);
+        Assertions.assertTrue(cache.totalChars() <= 4096);
+    }
+
+}
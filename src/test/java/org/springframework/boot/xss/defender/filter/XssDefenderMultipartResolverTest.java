@@ -0,0 +1,87 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.support.XssPolicyHolder;
+import org.springframework.boot.xss.defender.support.XssPolicySnapshot;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Junit test for {@link XssDefenderMultipartResolver} and {@link XssDefenderPart}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderMultipartResolverTest {
+
+    static final String RISKY_TEXT = "XssDefenderTest<script>alert(1);</script>";
+
+    static final String SAFE_TEXT = "XssDefenderTest";
+
+    static MockPart part(String name, String fileName, String contentType, String content) {
+        MockPart part = new MockPart(name, fileName, content.getBytes(StandardCharsets.UTF_8));
+        part.getHeaders().setContentType(MediaType.parseMediaType(contentType));
+        return part;
+    }
+
+    static MultipartHttpServletRequest resolve(boolean enabled) {
+        XssPolicyHolder policyHolder = new XssPolicyHolder(version ->
+                XssPolicySnapshot.builder(version, new XssDefender("trim", false)).enabled(enabled).build());
+        XssDefenderMultipartResolver resolver = new XssDefenderMultipartResolver(new StandardServletMultipartResolver(), policyHolder,
+                Arrays.asList(MediaType.TEXT_PLAIN, MediaType.TEXT_HTML), XssDefender.DEFAULT_CHUNK_SIZE);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE);
+        request.addPart(part("text", "text.txt", "text/plain", RISKY_TEXT));
+        request.addPart(part("html", "page.html", "text/html;charset=UTF-8", "<p>" + RISKY_TEXT + "</p>"));
+        request.addPart(part("data", "data.bin", "application/octet-stream", RISKY_TEXT));
+        Assertions.assertTrue(resolver.isMultipart(request));
+        return resolver.resolveMultipart(request);
+    }
+
+    @Test
+    void textPartsAreSanitized() throws IOException {
+        MultipartHttpServletRequest request = resolve(true);
+        MultipartFile text = request.getFile("text");
+        Assertions.assertNotNull(text);
+        Assertions.assertEquals(SAFE_TEXT, new String(text.getBytes(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(SAFE_TEXT.length(), text.getSize());
+        MultipartFile html = request.getFile("html");
+        Assertions.assertNotNull(html);
+        Assertions.assertEquals("<p>" + SAFE_TEXT + "</p>", new String(html.getBytes(), StandardCharsets.UTF_8));
+        MultipartFile data = request.getFile("data");
+        Assertions.assertNotNull(data);
+        Assertions.assertEquals(RISKY_TEXT, new String(data.getBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sanitizedPartIsWrittenToAnAbsolutePath(@TempDir Path directory) throws IOException {
+        MultipartFile text = resolve(true).getFile("text");
+        Assertions.assertNotNull(text);
+        File file = directory.resolve("text.txt").toFile();
+        text.transferTo(file);
+        Assertions.assertEquals(SAFE_TEXT, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        Assertions.assertThrows(IOException.class, () -> text.transferTo(new File("relative.txt")));
+    }
+
+    @Test
+    void partsAreReadAsIsWhenDisabled() throws IOException {
+        MultipartFile text = resolve(false).getFile("text");
+        Assertions.assertNotNull(text);
+        Assertions.assertEquals(RISKY_TEXT, new String(text.getBytes(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.metrics.XssDefenderMetrics;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.boot.xss.defender.support.XssHandlerPolicy;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.Cookie;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Junit test for {@link XssDefenderRequestWrapper}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderRequestWrapperTest {
+
+    static final String RISKY_TEXT = "XssDefenderTest<script>alert(1);</script>";
+
+    final Map<DefenseEntryPoint, Integer> inspected = new EnumMap<>(DefenseEntryPoint.class);
+
+    XssDefender trimXssDefender;
+
+    XssDefender headerXssDefender;
+
+    XssDefender throwXssDefender;
+
+    MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        XssDefenderMetrics metrics = new XssDefenderMetrics() {
+            @Override
+            public void recordInspected(DefenseEntryPoint entryPoint, int length) {
+                inspected.merge(entryPoint, 1, Integer::sum);
+            }
+        };
+        trimXssDefender = XssDefender.builder(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false).build()).metrics(metrics).build();
+        headerXssDefender = XssDefender.builder(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.NONE.create(), false).build()).metrics(metrics).build();
+        throwXssDefender = new XssDefender(DefenseStrategy.THROW.name(), false);
+
+        request = new MockHttpServletRequest();
+        request.addParameter("name", RISKY_TEXT);
+        request.addParameter("names", RISKY_TEXT, "XssDefenderTest");
+        request.addParameter("raw", RISKY_TEXT);
+        request.addParameter("strict", RISKY_TEXT);
+        request.addHeader("X-Forwarded-Host", RISKY_TEXT);
+        request.addHeader("X-Unread", RISKY_TEXT);
+        request.addHeader("Accept", "text/html");
+        request.setCookies(new Cookie("session", "<b>a&b</b>"), new Cookie("theme", RISKY_TEXT));
+    }
+
+    XssDefenderRequestWrapper wrap() {
+        return new XssDefenderRequestWrapper(request, trimXssDefender,
+                new XssNamePolicy(trimXssDefender, policies("raw", null, "strict", throwXssDefender), false),
+                new XssNamePolicy(null, policies("x-forwarded-host", headerXssDefender, "x-unread", headerXssDefender), true),
+                new XssNamePolicy(null, Collections.singletonMap("theme", trimXssDefender), false));
+    }
+
+    static Map<String, XssDefender> policies(String name1, XssDefender xssDefender1, String name2, XssDefender xssDefender2) {
+        Map<String, XssDefender> policies = new HashMap<>();
+        policies.put(name1, xssDefender1);
+        policies.put(name2, xssDefender2);
+        return policies;
+    }
+
+    @Test
+    void processParametersLazily() {
+        XssDefenderRequestWrapper wrapper = wrap();
+        Assertions.assertTrue(inspected.isEmpty());
+
+        Assertions.assertEquals("XssDefenderTest", wrapper.getParameter("name"));
+        Assertions.assertEquals("XssDefenderTest", wrapper.getParameter("name"));
+        Assertions.assertArrayEquals(new String[]{"XssDefenderTest", "XssDefenderTest"}, wrapper.getParameterValues("names"));
+        Assertions.assertEquals(RISKY_TEXT, wrapper.getParameter("raw"));
+        Assertions.assertNull(wrapper.getParameter("missing"));
+        // The memoized values are not processed again.
+        Assertions.assertEquals(3, inspected.get(DefenseEntryPoint.PARAMETER));
+
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> wrapper.getParameter("strict"));
+    }
+
+    @Test
+    void processParameterMapLazily() {
+        Map<String, String[]> parameterMap = wrap().getParameterMap();
+        Assertions.assertEquals(4, parameterMap.size());
+        Assertions.assertTrue(inspected.isEmpty());
+        Assertions.assertArrayEquals(new String[]{"XssDefenderTest"}, parameterMap.get("name"));
+        Assertions.assertArrayEquals(new String[]{RISKY_TEXT}, parameterMap.get("raw"));
+        Assertions.assertEquals(1, inspected.get(DefenseEntryPoint.PARAMETER));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> parameterMap.put("name", new String[0]));
+    }
+
+    @Test
+    void processConfiguredHeadersOnly() {
+        XssDefenderRequestWrapper wrapper = wrap();
+        Assertions.assertEquals("XssDefenderTest", wrapper.getHeader("x-forwarded-host"));
+        Assertions.assertEquals(Collections.singletonList("XssDefenderTest"), Collections.list(wrapper.getHeaders("X-FORWARDED-HOST")));
+        Assertions.assertEquals("text/html", wrapper.getHeader("Accept"));
+        Assertions.assertNull(wrapper.getHeader("X-Missing"));
+        Assertions.assertEquals(1, inspected.get(DefenseEntryPoint.HEADER));
+    }
+
+    @Test
+    void processConfiguredCookiesOnly() {
+        Cookie[] cookies = wrap().getCookies();
+        Assertions.assertSame(request.getCookies()[0], cookies[0]);
+        Assertions.assertEquals("XssDefenderTest", cookies[1].getValue());
+        Assertions.assertEquals(RISKY_TEXT, request.getCookies()[1].getValue());
+    }
+
+    @Test
+    void followHandlerPolicy() {
+        XssDefenderRequestWrapper wrapper = wrap();
+        request.setAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE, XssHandlerPolicy.IGNORED);
+        Assertions.assertEquals(RISKY_TEXT, wrapper.getParameter("name"));
+        Assertions.assertEquals(RISKY_TEXT, wrapper.getHeader("X-Forwarded-Host"));
+
+        request.setAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE, XssHandlerPolicy.of(throwXssDefender));
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> wrapper.getParameter("name"));
+        // The configured policy of the name takes precedence over the controller method.
+        Assertions.assertEquals("XssDefenderTest", wrapper.getHeader("X-Forwarded-Host"));
+    }
+
+}
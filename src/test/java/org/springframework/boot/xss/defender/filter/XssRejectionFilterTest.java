@@ -0,0 +1,60 @@
+package org.springframework.boot.xss.defender.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.exception.XssRequestRejectedException;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.NestedServletException;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Junit test for {@link XssRejectionFilter}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssRejectionFilterTest {
+
+    static MockHttpServletResponse filter(RuntimeException exception) throws ServletException, IOException {
+        Servlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+                throw new NestedServletException("Request processing failed", exception);
+            }
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new XssRejectionFilter().doFilter(new MockHttpServletRequest("POST", "/"), response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    @Test
+    void rejectionIsTurnedIntoABadRequest() throws ServletException, IOException {
+        XssRiskDetectedException riskDetected = new XssRiskDetectedException("<script>alert(1)</script>", false);
+        MockHttpServletResponse response = filter(new XssRequestRejectedException(DefenseEntryPoint.PARAMETER, "<q>", riskDetected, false));
+        Assertions.assertEquals(400, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        Assertions.assertEquals("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"XSS risk detected\","
+                + "\"entryPoint\":\"parameter\",\"field\":\"\\u003cq\\u003e\"}", response.getContentAsString());
+
+        response = filter(new IllegalStateException(riskDetected));
+        Assertions.assertEquals(400, response.getStatus());
+        Assertions.assertEquals("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"XSS risk detected\"}", response.getContentAsString());
+    }
+
+    @Test
+    void otherExceptionsAreThrownAgain() {
+        Assertions.assertThrows(NestedServletException.class, () -> filter(new IllegalStateException("other")));
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.springframework.boot.xss.defender.guard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Junit test for {@link XssInputGuard}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssInputGuardTest {
+
+    static XssDefender xssDefender(XssInputGuard inputGuard) {
+        return XssDefender.builder(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false).build()).inputGuard(inputGuard).build();
+    }
+
+    static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void maxLength() {
+        XssInputGuard reject = XssInputGuard.builder().maxLength(8, GuardAction.REJECT).build();
+        Assertions.assertEquals("12345678", xssDefender(reject).defend("  12345678  "));
+        Assertions.assertThrows(XssInputLimitExceededException.class, () -> xssDefender(reject).defend("123456789"));
+        Assertions.assertEquals(1, reject.lengthTripCount());
+
+        XssInputGuard truncate = XssInputGuard.builder().maxLength(8, GuardAction.TRUNCATE).build();
+        Assertions.assertEquals("1234<b>5</b>", xssDefender(truncate).defend("1234<b>5678</b>"));
+        // A surrogate pair is never split.
+        Assertions.assertEquals("1234567", xssDefender(truncate).defend("1234567😀"));
+        char[] buffer = "  1234<i>5678</i>  ".toCharArray();
+        Assertions.assertEquals("1234<i>5</i>", xssDefender(truncate).defend(buffer, 0, buffer.length, DefenseEntryPoint.JSON));
+
+        XssInputGuard escape = XssInputGuard.builder().maxLength(8, GuardAction.ESCAPE).build();
+        Assertions.assertEquals("1234&lt;b&gt;5678&lt;/b&gt;", xssDefender(escape).defend("1234<b>5678</b>"));
+    }
+
+    @Test
+    void maxTagsAndDepth() {
+        XssInputGuard guard = XssInputGuard.builder().maxTags(4, 2, GuardAction.TRUNCATE).build();
+        // The closed tags and the void elements don't increase the depth.
+        XssDefender unguarded = xssDefender(null);
+        Assertions.assertEquals(unguarded.defend("<b>a</b><i>b</i><br>c"), xssDefender(guard).defend("<b>a</b><i>b</i><br>c"));
+        Assertions.assertEquals("<b><i>a</i></b>", xssDefender(guard).defend("<b><i>a<u>b</u></i></b>"));
+        Assertions.assertEquals(unguarded.defend("<b>a</b><b>b</b><br><br>"), xssDefender(guard).defend("<b>a</b><b>b</b><br><br><br>"));
+        // Not a tag at all.
+        Assertions.assertEquals("a &lt; b &lt;&lt;&lt; c", xssDefender(guard).defend("a < b <<< c"));
+        Assertions.assertEquals(2, guard.markupTripCount());
+    }
+
+    @Test
+    void exceededTagsAreRejectedByTheThrowStrategy() {
+        for (GuardAction action : new GuardAction[]{GuardAction.ESCAPE, GuardAction.TRUNCATE}) {
+            XssInputGuard guard = XssInputGuard.builder().maxTags(4, 2, action).build();
+            XssDefender xssDefender = XssDefender.builder(XssSanitizerChain.builder()
+                    .strategy(DefenseStrategy.THROW, SafelistType.BASIC.create(), false).build()).inputGuard(guard).build();
+            Assertions.assertEquals("<b>a</b><i>b</i>", xssDefender.defend("<b>a</b><i>b</i>"));
+            Assertions.assertThrows(XssInputLimitExceededException.class, () -> xssDefender.defend("<b><i><u>a</u></i></b>"), action.name());
+            Assertions.assertThrows(XssInputLimitExceededException.class, () -> xssDefender.defend(repeat("<b>a</b>", 5)), action.name());
+            Assertions.assertEquals(2, guard.markupTripCount());
+        }
+    }
+
+    @Test
+    void pathologicalPayloadIsEscapedWithoutJsoup() {
+        XssInputGuard guard = XssInputGuard.builder()
+                .maxLength(8 * 1024 * 1024, GuardAction.REJECT)
+                .maxTags(10000, 256, GuardAction.ESCAPE)
+                .build();
+        String payload = repeat("<div><span>", 256 * 1024);
+        String safeText = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> xssDefender(guard).defend(payload));
+        Assertions.assertTrue(safeText.startsWith("&lt;div&gt;&lt;span&gt;"));
+        Assertions.assertEquals(1, guard.markupTripCount());
+    }
+
+    @Test
+    void requestBudget() {
+        XssInputGuard guard = XssInputGuard.builder().requestBudget(20, GuardAction.REJECT).build();
+        XssDefender xssDefender = xssDefender(guard);
+
+        // No limit without a request.
+        for (int i = 0; i < 10; i++) {
+            xssDefender.defend("<b>XssDefenderTest</b>");
+        }
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Assertions.assertEquals("<b>12345678</b>", xssDefender.defend("<b>12345678</b>"));
+        // Plain text doesn't go through the sanitizer, so it's not charged.
+        Assertions.assertEquals(repeat("a", 100), xssDefender.defend(repeat("a", 100)));
+        Assertions.assertThrows(XssInputLimitExceededException.class, () -> xssDefender.defend("<b>12345678</b>"));
+        Assertions.assertEquals(1, guard.budgetTripCount());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        XssDefender truncateXssDefender = xssDefender(XssInputGuard.builder().requestBudget(20, GuardAction.TRUNCATE).build());
+        Assertions.assertEquals("<b>12345678</b>", truncateXssDefender.defend("<b>12345678</b>"));
+        Assertions.assertEquals("<i>12</i>", truncateXssDefender.defend("<i>12345678</i>"));
+        Assertions.assertEquals(XssDefender.EMPTY_STRING, truncateXssDefender.defend("<i>12345678</i>"));
+    }
+
+}
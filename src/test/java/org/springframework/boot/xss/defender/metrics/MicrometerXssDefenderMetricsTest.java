@@ -0,0 +1,59 @@
+package org.springframework.boot.xss.defender.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+
+/**
+ * Junit test for {@link MicrometerXssDefenderMetrics}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class MicrometerXssDefenderMetricsTest {
+
+    static XssDefender xssDefender(DefenseStrategy strategy, MeterRegistry registry) {
+        XssSanitizerChain sanitizer = XssSanitizerChain.builder().strategy(strategy, SafelistType.BASIC.create(), false).build();
+        XssDefenderMetrics metrics = new MicrometerXssDefenderMetrics(registry, strategy.name().toLowerCase());
+        return XssDefender.builder(sanitizer).metrics(metrics).build();
+    }
+
+    static double count(MeterRegistry registry, String name, DefenseEntryPoint entryPoint) {
+        return registry.get(name).tag(MicrometerXssDefenderMetrics.TAG_ENTRY_POINT, entryPoint.tagValue()).counter().count();
+    }
+
+    @Test
+    void recordTrimStrategy() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        XssDefender xssDefender = xssDefender(DefenseStrategy.TRIM, registry);
+        xssDefender.defend(" ", DefenseEntryPoint.FORM);
+        xssDefender.defend("XssDefenderTest", DefenseEntryPoint.FORM);
+        xssDefender.defend("<b>XssDefenderTest</b>", DefenseEntryPoint.FORM);
+        xssDefender.defend("XssDefenderTest<script>alert(1);</script>", DefenseEntryPoint.JSON);
+
+        Assertions.assertEquals(2, count(registry, "xss.defender.values.inspected", DefenseEntryPoint.FORM));
+        Assertions.assertEquals(1, count(registry, "xss.defender.values.fast.path", DefenseEntryPoint.FORM));
+        Assertions.assertEquals(0, count(registry, "xss.defender.values.modified", DefenseEntryPoint.FORM));
+        Assertions.assertEquals(1, count(registry, "xss.defender.values.modified", DefenseEntryPoint.JSON));
+        Assertions.assertEquals(1, registry.get("xss.defender.sanitize").tag(MicrometerXssDefenderMetrics.TAG_ENTRY_POINT, "json")
+                .tag(MicrometerXssDefenderMetrics.TAG_STRATEGY, "trim").timer().count());
+        Assertions.assertEquals(2, registry.get("xss.defender.value.size").tag(MicrometerXssDefenderMetrics.TAG_ENTRY_POINT, "form")
+                .summary().count());
+    }
+
+    @Test
+    void recordThrowStrategy() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        XssDefender xssDefender = xssDefender(DefenseStrategy.THROW, registry);
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> xssDefender.defend("<script>alert(1);</script>", DefenseEntryPoint.JSON));
+        Assertions.assertEquals(1, count(registry, "xss.defender.values.rejected", DefenseEntryPoint.JSON));
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.springframework.boot.xss.defender.reactive;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junit test for {@link XssDefenderJackson2JsonDecoder}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderJackson2JsonDecoderTest {
+
+    static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+    NettyDataBuffer json(String value) {
+        return bufferFactory.wrap(Unpooled.copiedBuffer("\"" + value + "\"", StandardCharsets.UTF_8));
+    }
+
+    static Mono<Object> decodeToMono(XssDefenderJackson2JsonDecoder decoder, NettyDataBuffer dataBuffer) {
+        return decoder.decodeToMono(Mono.just(dataBuffer), STRING_TYPE, null, Collections.emptyMap());
+    }
+
+    @Test
+    void cancelledBeforeTheTaskRunsReleasesTheBuffer() {
+        List<Runnable> tasks = new ArrayList<>();
+        XssDefenderJackson2JsonDecoder decoder = new XssDefenderJackson2JsonDecoder(new ObjectMapper(), Schedulers.fromExecutor(tasks::add), 0);
+        NettyDataBuffer dataBuffer = json("XssDefenderTest");
+        ByteBuf byteBuf = dataBuffer.getNativeBuffer();
+
+        Disposable subscription = decodeToMono(decoder, dataBuffer).subscribe();
+        Assertions.assertEquals(1, tasks.size());
+        Assertions.assertEquals(1, byteBuf.refCnt());
+        subscription.dispose();
+        Assertions.assertEquals(0, byteBuf.refCnt());
+        // The task scheduled before the cancellation never touches the released buffer.
+        Assertions.assertDoesNotThrow(() -> tasks.forEach(Runnable::run));
+    }
+
+    @Test
+    void rejectedSchedulingDecodesInPlace() {
+        Scheduler saturated = Schedulers.fromExecutor(task -> {
+            throw new RejectedExecutionException("saturated");
+        });
+        XssDefenderJackson2JsonDecoder decoder = new XssDefenderJackson2JsonDecoder(new ObjectMapper(), saturated, 0);
+        NettyDataBuffer dataBuffer = json("XssDefenderTest");
+        Assertions.assertEquals("XssDefenderTest", decodeToMono(decoder, dataBuffer).block());
+        Assertions.assertEquals(0, dataBuffer.getNativeBuffer().refCnt());
+    }
+
+    @Test
+    void rejectionFromTheDecodingIsNotDecodedAgain() {
+        AtomicInteger decoded = new AtomicInteger();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new JsonDeserializer<String>() {
+            @Override
+            public String deserialize(JsonParser parser, DeserializationContext context) {
+                decoded.incrementAndGet();
+                throw new RejectedExecutionException("rejected by the sanitizer");
+            }
+        });
+        XssDefenderJackson2JsonDecoder decoder = new XssDefenderJackson2JsonDecoder(
+                new ObjectMapper().registerModule(module), Schedulers.immediate(), 0);
+        NettyDataBuffer dataBuffer = json("XssDefenderTest");
+        Assertions.assertThrows(RejectedExecutionException.class, () -> decodeToMono(decoder, dataBuffer).block());
+        Assertions.assertEquals(1, decoded.get());
+        Assertions.assertEquals(0, dataBuffer.getNativeBuffer().refCnt());
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.springframework.boot.xss.defender.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.filter.XssNamePolicy;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+import org.springframework.boot.xss.defender.support.StringXssJsonDeserializer;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Junit test for the reactive support, based on {@link WebTestClient}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssDefenderWebTestClientTest {
+
+    static final String RISKY_TEXT = "XssDefenderTest<script>alert(1);</script>";
+
+    static final ParameterizedTypeReference<List<String>> STRING_LIST = new ParameterizedTypeReference<List<String>>() {
+    };
+
+    @RestController
+    static class EchoController {
+        @PostMapping("/json")
+        Mono<List<String>> json(@RequestBody Mono<List<String>> body) {
+            return body;
+        }
+
+        @GetMapping("/query")
+        Mono<String> query(ServerWebExchange exchange) {
+            return Mono.just(exchange.getRequest().getQueryParams().getFirst("q") + "|" + exchange.getRequest().getHeaders().getFirst("X-Name"));
+        }
+    }
+
+    final Set<String> sanitizerThreads = ConcurrentHashMap.newKeySet();
+
+    Scheduler scheduler;
+
+    WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        XssDefender xssDefender = new XssDefender(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false)
+                .add(text -> {
+                    sanitizerThreads.add(Thread.currentThread().getName());
+                    return text;
+                })
+                .build());
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(true, xssDefender));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(module);
+
+        scheduler = Schedulers.newBoundedElastic(2, 16, "xss-defender");
+        XssNamePolicy parameterPolicy = new XssNamePolicy(xssDefender, Collections.emptyMap(), false);
+        XssNamePolicy headerPolicy = new XssNamePolicy(null, Collections.singletonMap("x-name", xssDefender), true);
+        client = WebTestClient.bindToController(new EchoController())
+                .webFilter(new XssDefenderWebFilter(parameterPolicy, headerPolicy))
+                .httpMessageCodecs(configurer -> configurer.defaultCodecs()
+                        .jackson2JsonDecoder(new XssDefenderJackson2JsonDecoder(objectMapper, scheduler, 1024)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    List<String> postJson(List<String> body) {
+        return client.post().uri("/json").contentType(MediaType.APPLICATION_JSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody(STRING_LIST).returnResult().getResponseBody();
+    }
+
+    @Test
+    void processQueryParamsAndHeaders() {
+        client.get().uri(builder -> builder.path("/query").queryParam("q", "{q}").build(RISKY_TEXT))
+                .header("X-Name", "<b>XssDefenderTest</b><img src=x onerror=alert(1)>")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("XssDefenderTest|<b>XssDefenderTest</b>");
+    }
+
+    @Test
+    void decodeSmallBodyInPlace() {
+        Assertions.assertEquals(Collections.singletonList("XssDefenderTest"), postJson(Collections.singletonList(RISKY_TEXT)));
+        Assertions.assertTrue(sanitizerThreads.stream().noneMatch(thread -> thread.startsWith("xss-defender")));
+    }
+
+    @Test
+    void decodeLargeBodyOnBoundedScheduler() {
+        List<String> lines = XssCorpus.ATTACK.lines();
+        List<String> expected = lines.stream().map(new XssDefender(DefenseStrategy.TRIM.name(), false)::defend).collect(Collectors.toList());
+        Assertions.assertEquals(expected, postJson(lines));
+        Assertions.assertTrue(sanitizerThreads.stream().allMatch(thread -> thread.startsWith("xss-defender")));
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.autoconfigure.XssDefenderProperties;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Junit test for {@link StreamingTrimXssSanitizer}, the output must be the same as {@link TrimXssSanitizer}.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class StreamingTrimXssSanitizerTest {
+
+    private static final String[] FRAGMENTS = {
+            "<", ">", "</", "/>", "<b>", "</b>", "<i>", "</i>", "<em>", "</em>", "<a href=\"http://example.com\">",
+            "<a href='javascript:alert(1)'>", "<a href=/relative title=x>", "</a>", "<span class=x>", "</span>", "<u>", "</u>",
+            "<img src=\"https://example.com/a.png\" alt=\"&quot;a&quot;\">", "<img src=x onerror=alert(1)>", "<br>", "<br/>",
+            "<wbr>", "<script>alert(1)</script>", "<script>a</scripts></script>", "<style>b{}</style>", "<xmp><b></xmp>",
+            "<iframe src=x></iframe>", "<noembed><i></noembed>", "<!-- c -->", "<!--->", "<!-- a -- b --!>", "<!x>", "<?php ?>",
+            "</ x>", "</>", "<custom-tag attr>", "</custom-tag>", "<q cite=\"http://a\">", "</q>", "<cite>", "</cite>",
+            "<b CLASS=a class=b Title=t>", "<abbr title=\"a&amp;b\" title=c>", "<span checked hidden=hidden>", "<code>", "</code>",
+            "&amp;", "&lt;", "&gt;", "&quot;", "&nbsp;", "&#1;", "&#0;", "&#x41;", "&notin;", "&not", "&unknown;", "&", "\"", "'",
+            "\u00A0", "  ", "\t", "\n", "\r\n", "a", "xss", "\u4E2D\u6587", "\uD83D\uDE00", "=", "<b/>", "<i/>", "<a/>", "<b x=\"1\"y=2>",
+            "<b x='1'/>", "<s>", "</s>", "<small>", "</small>", "<sub>", "</sub>", "<dfn>", "</dfn>", "<kbd>", "</kbd>"
+    };
+
+    private static final Safelist[] SAFELISTS = {
+            Safelist.none(), Safelist.simpleText(), Safelist.basic(), Safelist.basicWithImages(), Safelist.relaxed()
+    };
+
+    @Test
+    void corporaAreTheSameAsJsoup() {
+        for (Safelist safelist : SAFELISTS) {
+            TrimXssSanitizer jsoup = new TrimXssSanitizer(safelist);
+            StreamingTrimXssSanitizer streaming = new StreamingTrimXssSanitizer(safelist);
+            for (XssCorpus corpus : XssCorpus.values()) {
+                for (String line : corpus.lines()) {
+                    String text = line.trim();
+                    if (!text.isEmpty()) {
+                        Assertions.assertEquals(jsoup.sanitize(text), streaming.sanitize(text), text);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void nativeCleaningIsTheSameAsJsoup() {
+        Random random = new Random(20221017L);
+        for (Safelist safelist : SAFELISTS) {
+            TrimXssSanitizer jsoup = new TrimXssSanitizer(safelist);
+            StreamingTrimXssSanitizer streaming = new StreamingTrimXssSanitizer(safelist);
+            for (int i = 0; i < 5000; i++) {
+                StringBuilder builder = new StringBuilder();
+                for (int j = random.nextInt(12); j >= 0; j--) {
+                    builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                }
+                String text = builder.toString().trim();
+                String safeText = streaming.clean(text);
+                if (!text.isEmpty() && safeText != null) {
+                    Assertions.assertEquals(jsoup.sanitize(text), safeText, text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void commonTextIsCleanedNatively() {
+        StreamingTrimXssSanitizer streaming = new StreamingTrimXssSanitizer(Safelist.basic());
+        Assertions.assertEquals(XssCorpus.BENIGN.lines().size(), countNativeCleaning(streaming, XssCorpus.BENIGN.lines()));
+        Assertions.assertTrue(countNativeCleaning(streaming, XssCorpus.ATTACK.lines()) * 2 > XssCorpus.ATTACK.lines().size());
+        Assertions.assertEquals("<b>XssDefenderTest</b>", streaming.clean("<b>XssDefenderTest</b><script>alert(1);</script>"));
+        Assertions.assertNull(streaming.clean("<div>XssDefenderTest</div>"));
+        Assertions.assertEquals("<p>XssDefenderTest</p>", streaming.sanitize("<div><p>XssDefenderTest</div>"));
+    }
+
+    @Test
+    void engineIsConfigurable() {
+        XssDefenderProperties properties = new XssDefenderProperties();
+        Assertions.assertEquals(TrimEngine.JSOUP, properties.getEngine());
+        Assertions.assertInstanceOf(StreamingTrimXssSanitizer.class, TrimEngine.STREAMING.create(Safelist.basic()));
+        XssSanitizerChain chain = XssSanitizerChain.builder()
+                .trimEngine(TrimEngine.STREAMING)
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), true)
+                .build();
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;", chain.sanitize("<b>XssDefenderTest</b><script>alert(1);</script>"));
+    }
+
+    private static int countNativeCleaning(StreamingTrimXssSanitizer streaming, List<String> lines) {
+        int count = 0;
+        for (String line : lines) {
+            String text = line.trim();
+            if (text.isEmpty() || streaming.clean(text) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
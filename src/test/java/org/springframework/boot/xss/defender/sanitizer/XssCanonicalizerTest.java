@@ -0,0 +1,134 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+
+import java.util.Arrays;
+
+/**
+ * Junit test for {@link XssCanonicalizer}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssCanonicalizerTest {
+
+    final XssCanonicalizer canonicalizer = new XssCanonicalizer();
+
+    @Test
+    void canonicalize() {
+        Assertions.assertEquals("<script>", canonicalizer.canonicalize("%3Cscript%3E"));
+        Assertions.assertEquals("<script>", canonicalizer.canonicalize("%253Cscript%253E"));
+        Assertions.assertEquals("<script", canonicalizer.canonicalize("&#x3C;script"));
+        Assertions.assertEquals("<script", canonicalizer.canonicalize("&#60script"));
+        Assertions.assertEquals("<script", canonicalizer.canonicalize("\\u003cscript"));
+        Assertions.assertEquals("<svg/onload=alert(1)>", canonicalizer.canonicalize("\\x3Csvg%2Fonload&equals;alert&lpar;1&rpar;&gt;"));
+        Assertions.assertEquals("<img src=x>", canonicalizer.canonicalize("&amp;lt;img src=x&amp;gt;"));
+        Assertions.assertEquals("<a>", canonicalizer.canonicalize("%26%2360%3Ba%5Cu003e"));
+        Assertions.assertEquals("é中😀", canonicalizer.canonicalize("%C3%A9%E4%B8%AD&#x1F600;"));
+        Assertions.assertEquals("😀", canonicalizer.canonicalize("\\u{1F600}"));
+    }
+
+    @Test
+    void malformedEscapesAreKept() {
+        for (String text : Arrays.asList("50% off", "%3", "%zz", "%C3", "%C0%BC", "&unknown;", "&lt", "&#;", "&#xD800;",
+                "&#0;", "%00", "\\u12", "\\q", "C:\\path", "a\\", "&#99999999;")) {
+            Assertions.assertSame(text, canonicalizer.canonicalize(text), text);
+        }
+        // The broken UTF-8 sequence is kept, the valid escapes around it are still decoded.
+        Assertions.assertEquals("%C3(", canonicalizer.canonicalize("%C3%28"));
+    }
+
+    @Test
+    void noEscapeMarkerIsIdentity() {
+        String text = "a plain <b>text</b> without any escape marker";
+        Assertions.assertFalse(XssCanonicalizer.containsEscapeMarker(text));
+        Assertions.assertSame(text, canonicalizer.canonicalize(text));
+        Assertions.assertSame(text, canonicalizer.canonicalizeIfRisky(text));
+    }
+
+    @Test
+    void roundsAreBounded() {
+        String fourTimesEncoded = "%2525253Cscript%2525253E";
+        Assertions.assertEquals("%3Cscript%3E", canonicalizer.canonicalize(fourTimesEncoded));
+        Assertions.assertEquals("<script>", new XssCanonicalizer(4).canonicalize(fourTimesEncoded));
+        Assertions.assertEquals("%253Cscript%253E", new XssCanonicalizer(1).canonicalize("%25253Cscript%25253E"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new XssCanonicalizer(0));
+    }
+
+    @Test
+    void longInputBypassesTheReusedBuffers() {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 20000) {
+            builder.append("%253Cb%253E");
+        }
+        String canonical = canonicalizer.canonicalize(builder.toString());
+        Assertions.assertEquals(builder.length() / "%253Cb%253E".length() * "<b>".length(), canonical.length());
+        Assertions.assertEquals("<b>", canonicalizer.canonicalize("%253Cb%253E"));
+    }
+
+    @Test
+    void originalIsKeptUnlessMarkupIsRevealed() {
+        for (String text : Arrays.asList("https://example.com/?q=a%20b&c=1", "Tom &amp; Jerry", "100%25", "caf%C3%A9")) {
+            Assertions.assertSame(text, canonicalizer.canonicalizeIfRisky(text), text);
+        }
+        Assertions.assertEquals("<script>alert(1)</script>", canonicalizer.canonicalizeIfRisky("%253Cscript%253Ealert(1)%253C/script%253E"));
+        Assertions.assertEquals("\" onmouseover=\"alert(1)", canonicalizer.canonicalizeIfRisky("%22 onmouseover=%22alert(1)"));
+    }
+
+    @Test
+    void detectionRunsOnTheCanonicalForm() {
+        XssDefender reject = XssDefender.builder(XssSanitizerChain.builder()
+                        .detection(XssPatternAutomaton.defaults(), true)
+                        .throwIfRisky(Safelist.basic())
+                        .build())
+                .canonicalizer(canonicalizer)
+                .build();
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> reject.defend("%25253Cimg src=x onerror=alert(1)%25253E"));
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> reject.defend("&lt;script&gt;alert(1)&lt;/script&gt;"));
+        char[] buffer = " %3Cscript%3Ealert(1)%3C/script%3E ".toCharArray();
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> reject.defend(buffer, 0, buffer.length, DefenseEntryPoint.JSON));
+        Assertions.assertEquals("%20", reject.defend("%20"));
+
+        // Without the canonicalizer, the plain text with the escape markers skips the sanitizer.
+        XssDefender plain = XssDefender.builder(XssSanitizerChain.builder().throwIfRisky(Safelist.basic()).build()).build();
+        Assertions.assertEquals("%253Cscript%253E", plain.defend("%253Cscript%253E"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> canonicalizer.before(new EscapeXssSanitizer()));
+    }
+
+    @Test
+    void originalIsPreservedByEveryStrategy() {
+        XssDefender reject = XssDefender.builder(XssSanitizerChain.builder()
+                        .detection(XssPatternAutomaton.defaults(), true)
+                        .throwIfRisky(Safelist.basic())
+                        .build())
+                .canonicalizer(canonicalizer)
+                .build();
+        for (String text : Arrays.asList("&lt;b&gt;hi&lt;/b&gt;", "https://x/?q=%3Cb%3Ehi%3C%2Fb%3E", "https://x/?q=%22a%22", "?next=%3Cb%3E")) {
+            Assertions.assertEquals(text, reject.defend(text), text);
+        }
+
+        // The canonical form never replaces the input text which is rewritten by its own strategy.
+        XssDefender trim = XssDefender.builder(XssSanitizerChain.builder().trim(Safelist.basic()).build())
+                .canonicalizer(canonicalizer)
+                .build();
+        XssDefender plainTrim = XssDefender.builder(XssSanitizerChain.builder().trim(Safelist.basic()).build()).build();
+        for (String text : Arrays.asList("https://x/?q=%22a%22", "?next=%3Cb%3E", "&lt;b&gt;bold&lt;/b&gt;", "<b>%3Cb%3E</b>")) {
+            Assertions.assertEquals(plainTrim.defend(text), trim.defend(text), text);
+        }
+        Assertions.assertEquals("https://x/?q=%22a%22", trim.defend("https://x/?q=%22a%22"));
+        Assertions.assertEquals("?next=%3Cb%3E", trim.defend("?next=%3Cb%3E"));
+
+        XssDefender escape = XssDefender.builder(XssSanitizerChain.builder().escape().build())
+                .canonicalizer(canonicalizer)
+                .build();
+        Assertions.assertEquals("&amp;lt;", escape.defend("&lt;"));
+        Assertions.assertEquals("%253Cscript%253E", escape.defend("%253Cscript%253E"));
+        Assertions.assertEquals("a%20b", escape.defend("a%20b"));
+    }
+
+}
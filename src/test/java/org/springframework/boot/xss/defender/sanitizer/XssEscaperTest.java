@@ -0,0 +1,108 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Junit test for {@link XssEscaper}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssEscaperTest {
+
+    static final String ALPHABET = "aZ09.-_~*+ /?#=&<>\"'`\\\u0000\b\t\n\f\r\u007F\u0085\u00A0é\u07FF\u0800\u2028\u2029中\uFFFF😀";
+
+    static final List<String> CORPUS = new ArrayList<>(Arrays.asList(
+            "", "john.doe", "Tom & Jerry", "<script>alert('1')</script>", "<img src=\"x\" onerror=alert(1)>",
+            "&amp;&lt;", "a`b", "中文 café", "emoji 😀"
+    ));
+
+    static {
+        Random random = new Random(20220501L);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int j = random.nextInt(24); j >= 0; j--) {
+                builder.appendCodePoint(ALPHABET.codePointAt(ALPHABET.offsetByCodePoints(0, random.nextInt(ALPHABET.codePointCount(0, ALPHABET.length())))));
+            }
+            CORPUS.add(builder.toString());
+        }
+        StringBuilder allChars = new StringBuilder();
+        for (char c = 0; c < 0x3000; c++) {
+            allChars.append(c);
+        }
+        CORPUS.add(allChars.toString());
+    }
+
+    @Test
+    void htmlBodyIsCompatibleWithHtmlUtils() {
+        for (String text : CORPUS) {
+            Assertions.assertEquals(HtmlUtils.htmlEscape(text, StandardCharsets.UTF_8.name()), XssEscaper.HTML_BODY.escape(text), text);
+        }
+    }
+
+    @Test
+    void sameInstanceIsReturnedWhenNothingChanges() {
+        for (String text : Arrays.asList("", "john.doe", "中文 café 😀", "a\u2028b")) {
+            Assertions.assertSame(text, XssEscaper.HTML_BODY.escape(text));
+            Assertions.assertSame(text, XssEscaper.HTML_ATTRIBUTE.escape(text));
+        }
+        Assertions.assertSame("john.doe_1~", XssEscaper.URL_COMPONENT.escape("john.doe_1~"));
+        Assertions.assertSame("john doe", XssEscaper.JAVASCRIPT_STRING.escape("john doe"));
+    }
+
+    @Test
+    void readerIsTheSameAsEscape() throws IOException {
+        Random random = new Random(20221017L);
+        char[] buffer = new char[16];
+        for (XssEscaper escaper : XssEscaper.values()) {
+            for (String text : CORPUS) {
+                String escaped = escaper.escape(text);
+                Assertions.assertEquals(escaped == text, escaper.indexOfEscape(text) == text.length(), text);
+                StringBuilder read = new StringBuilder();
+                Reader reader = escaper.reader(text);
+                for (int n = reader.read(buffer, 0, 1 + random.nextInt(16)); n >= 0; n = reader.read(buffer, 0, 1 + random.nextInt(16))) {
+                    read.append(buffer, 0, n);
+                }
+                Assertions.assertEquals(escaped, read.toString(), text);
+            }
+        }
+    }
+
+    @Test
+    void htmlAttribute() {
+        Assertions.assertEquals("&quot; onclick=&#96;alert(1)&#96; &#39;&lt;&gt;&amp;", XssEscaper.HTML_ATTRIBUTE.escape("\" onclick=`alert(1)` '<>&"));
+    }
+
+    @Test
+    void javaScriptString() {
+        Assertions.assertEquals("\\'\\\"\\\\\\/\\n\\r\\t\\b\\f\\u0000\\u003C\\/script\\u003E\\u0026\\u2028\\u2029\\u007F中",
+                XssEscaper.JAVASCRIPT_STRING.escape("'\"\\/\n\r\t\b\f\u0000</script>&\u2028\u2029\u007F中"));
+    }
+
+    @Test
+    void urlComponentIsCompatibleWithUrlEncoder() throws UnsupportedEncodingException {
+        for (String text : CORPUS) {
+            // URLEncoder replaces the unpaired surrogates with '?', which is not comparable.
+            if (!StandardCharsets.UTF_8.newEncoder().canEncode(text)) {
+                continue;
+            }
+            String expected = URLEncoder.encode(text, StandardCharsets.UTF_8.name())
+                    .replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+            Assertions.assertEquals(expected, XssEscaper.URL_COMPONENT.escape(text), text);
+        }
+        Assertions.assertEquals("a%EF%BF%BDb%EF%BF%BD", XssEscaper.URL_COMPONENT.escape("a\uD800b\uDC00"));
+    }
+
+}
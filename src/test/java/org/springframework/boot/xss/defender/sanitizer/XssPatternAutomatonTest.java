@@ -0,0 +1,138 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.XssCorpus;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Junit test for {@link XssPatternAutomaton}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssPatternAutomatonTest {
+
+    static final String ALPHABET = "aZ09.-_:=()  \t\n\r\u0000\u007F中<>&\"'#;/%\\xXsScCrRiIpPtT";
+
+    static final List<String> CORPUS = new ArrayList<>();
+
+    static {
+        CORPUS.addAll(XssCorpus.BENIGN.lines());
+        CORPUS.addAll(XssCorpus.ATTACK.lines());
+        Random random = new Random(20220501L);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int j = random.nextInt(24); j >= 0; j--) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            CORPUS.add(builder.toString());
+        }
+    }
+
+    final XssPatternAutomaton automaton = XssPatternAutomaton.defaults();
+
+    @Test
+    void scan() {
+        for (String text : Arrays.asList("<ScRiPt>alert(1)</script>", "<b>a</b><STYLE>", "a <iframe src=x>")) {
+            Assertions.assertEquals(XssPatternAutomaton.REJECT, automaton.scan(text), text);
+        }
+        for (String text : Arrays.asList("<b>bold</b>", "Tom & Jerry", "JavaScript:alert(1)", "x onerror=alert(1)", "a < b",
+                "%3Cscript%3Ealert(1)", "&#x3C;iframe src=x>", "\\u003csvg onload=alert(1)>")) {
+            Assertions.assertEquals(XssPatternAutomaton.SUSPICIOUS, automaton.scan(text), text);
+        }
+        for (String text : Arrays.asList("", "john doe", "5 > 3", "it's \"quoted\"", "scripts", "中文")) {
+            Assertions.assertEquals(XssPatternAutomaton.ACCEPT, automaton.scan(text), text);
+        }
+    }
+
+    @Test
+    void encodedTagsAreRejectedWhenEnabled() {
+        XssPatternAutomaton strict = XssPatternAutomaton.builder().rejectEncodedTags().build();
+        for (String text : Arrays.asList("%3Cscript%3Ealert(1)", "&#x3C;iframe src=x>", "\\u003csvg onload=alert(1)>", "Use &lt;script&gt; tags")) {
+            Assertions.assertEquals(XssPatternAutomaton.REJECT, strict.scan(text), text);
+        }
+        Assertions.assertEquals(XssPatternAutomaton.SUSPICIOUS, strict.scan("&lt;b&gt;bold&lt;/b&gt;"));
+    }
+
+    @Test
+    void customPatterns() {
+        XssPatternAutomaton custom = XssPatternAutomaton.builder()
+                .reject(Collections.singletonList("AlErT("))
+                .suspicious(Collections.singletonList("eval"))
+                .build();
+        Assertions.assertEquals(XssPatternAutomaton.REJECT, custom.scan("x=alert(1)"));
+        Assertions.assertEquals(XssPatternAutomaton.SUSPICIOUS, custom.scan("medieval"));
+        Assertions.assertEquals(XssPatternAutomaton.ACCEPT, automaton.scan("medieval"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> XssPatternAutomaton.builder().reject(Collections.singletonList("中")));
+    }
+
+    @Test
+    void acceptedTextIsValidForJsoup() {
+        int accepted = 0;
+        for (String text : CORPUS) {
+            if (automaton.scan(text) == XssPatternAutomaton.ACCEPT) {
+                accepted++;
+                Assertions.assertTrue(Jsoup.isValid(text, Safelist.basic()), text);
+            }
+        }
+        Assertions.assertTrue(accepted > 0);
+    }
+
+    @Test
+    void sameResultsAsJsoupUnlessRejectedByPattern() {
+        ThrowXssSanitizer sanitizer = new ThrowXssSanitizer(Safelist.basic(), automaton, true);
+        for (String text : CORPUS) {
+            boolean valid = Jsoup.isValid(text, Safelist.basic());
+            if (automaton.scan(text) == XssPatternAutomaton.REJECT) {
+                Assertions.assertThrows(XssRiskDetectedException.class, () -> sanitizer.sanitize(text), text);
+            } else if (valid) {
+                Assertions.assertEquals(text, sanitizer.sanitize(text), text);
+            } else {
+                Assertions.assertThrows(XssRiskDetectedException.class, () -> sanitizer.sanitize(text), text);
+            }
+        }
+    }
+
+    @Test
+    void noFalseRejectionOfEncodedText() {
+        ThrowXssSanitizer sanitizer = new ThrowXssSanitizer(Safelist.basic(), automaton, true);
+        for (String text : Arrays.asList("Use &lt;script&gt; tags carefully", "?next=%3Cform%3E",
+                "The \\u003cstyle\\u003e element", "&#60;iframe&#62; is deprecated", "a%3Cb and &lt;svg&gt;")) {
+            Assertions.assertEquals(text, sanitizer.sanitize(text), text);
+        }
+        // Every text valid for jsoup is accepted, including the escaped and the URL-encoded corpus.
+        List<String> texts = new ArrayList<>(CORPUS);
+        for (String line : CORPUS) {
+            texts.add(HtmlUtils.htmlEscape(line));
+            texts.add(UriUtils.encode(line, StandardCharsets.UTF_8));
+        }
+        int valid = 0;
+        for (String text : texts) {
+            if (Jsoup.isValid(text, Safelist.basic())) {
+                valid++;
+                Assertions.assertEquals(text, sanitizer.sanitize(text), text);
+            }
+        }
+        Assertions.assertTrue(valid > CORPUS.size());
+    }
+
+    @Test
+    void ambiguousTextIsRejectedWithoutConfirmation() {
+        ThrowXssSanitizer sanitizer = new ThrowXssSanitizer(Safelist.basic(), automaton, false);
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> sanitizer.sanitize("<b>bold</b>"));
+        Assertions.assertEquals("5 > 3", sanitizer.sanitize("5 > 3"));
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.springframework.boot.xss.defender.sanitizer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.UnsupportedXssDefenseStrategyException;
+
+/**
+ * Junit test for {@link XssSanitizerChain}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssSanitizerChainTest {
+
+    @Test
+    void stagesAreExecutedInOrder() {
+        XssSanitizerChain chain = XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), true)
+                .add(text -> text + "!")
+                .build();
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;!", chain.sanitize("<b>XssDefenderTest</b><script>alert(1);</script>"));
+    }
+
+    @Test
+    void plainTextIsSkippedOnlyWhenAllStagesPreserveIt() {
+        Assertions.assertTrue(XssSanitizerChain.builder().strategy(DefenseStrategy.ESCAPE, SafelistType.BASIC.create(), false).build().preservesPlainText());
+        XssSanitizerChain customChain = XssSanitizerChain.builder().escape().add(String::toUpperCase).build();
+        Assertions.assertFalse(customChain.preservesPlainText());
+        Assertions.assertEquals("XSSDEFENDERTEST", new XssDefender(customChain).defend("XssDefenderTest"));
+    }
+
+    @Test
+    void safelistIsConfigurable() {
+        XssSanitizerChain chain = XssSanitizerChain.builder().trim(SafelistType.NONE.create()).build();
+        Assertions.assertEquals("XssDefenderTest", chain.sanitize("<b>XssDefenderTest</b>"));
+    }
+
+    @Test
+    void unsupportedStrategyFailsWhenResolving() {
+        Assertions.assertEquals(DefenseStrategy.ESCAPE, DefenseStrategy.of("escape"));
+        Assertions.assertEquals(DefenseStrategy.TRIM, DefenseStrategy.of(null));
+        Assertions.assertThrowsExactly(UnsupportedXssDefenseStrategyException.class, () -> DefenseStrategy.of("ignore"));
+    }
+
+}
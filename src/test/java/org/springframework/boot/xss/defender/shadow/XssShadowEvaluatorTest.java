@@ -0,0 +1,110 @@
+package org.springframework.boot.xss.defender.shadow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Junit test for {@link XssShadowEvaluator}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssShadowEvaluatorTest {
+
+    static XssSanitizerChain sanitizer(DefenseStrategy strategy) {
+        return XssSanitizerChain.builder().strategy(strategy, SafelistType.BASIC.create(), false).build();
+    }
+
+    @Test
+    void reportDivergences() {
+        XssShadowEvaluator evaluator = XssShadowEvaluator.builder(new XssDefender(sanitizer(DefenseStrategy.TRIM)), "trim")
+                .sampleRate(1.0)
+                .maxExamples(2)
+                .maxInputLength(16)
+                .build();
+        XssDefender escapeXssDefender = XssDefender.builder(sanitizer(DefenseStrategy.ESCAPE)).shadowEvaluator(evaluator).build();
+        // Plain text never goes through the sanitizer.
+        escapeXssDefender.defend("XssDefenderTest");
+        escapeXssDefender.defend("a &amp; b", DefenseEntryPoint.JSON, "title");
+        escapeXssDefender.defend("<b>XssDefenderTest</b>", DefenseEntryPoint.JSON, "name");
+        escapeXssDefender.defend("XssDefenderTest<script>alert(1)</script>", DefenseEntryPoint.FORM, "bio");
+        evaluator.close();
+
+        Assertions.assertEquals(3, evaluator.evaluatedCount());
+        Assertions.assertEquals(3, evaluator.divergenceCount(XssShadowDivergence.Type.OUTPUT));
+        Assertions.assertEquals(0, evaluator.divergenceCount(XssShadowDivergence.Type.CANDIDATE_REJECTS));
+        List<XssShadowDivergence> examples = evaluator.examples();
+        Assertions.assertEquals(2, examples.size());
+        XssShadowDivergence divergence = examples.get(1);
+        Assertions.assertEquals(DefenseEntryPoint.FORM, divergence.getEntryPoint());
+        Assertions.assertEquals("bio", divergence.getField());
+        Assertions.assertEquals("XssDefenderTest<", divergence.getInput());
+        Assertions.assertEquals("XssDefenderTest&", divergence.getActiveOutput());
+        Assertions.assertEquals("XssDefenderTest", divergence.getCandidateOutput());
+    }
+
+    @Test
+    void reportRejections() {
+        XssShadowEvaluator evaluator = XssShadowEvaluator.builder(new XssDefender(sanitizer(DefenseStrategy.THROW)), "throw")
+                .sampleRate(1.0)
+                .build();
+        XssDefender trimXssDefender = XssDefender.builder(sanitizer(DefenseStrategy.TRIM)).shadowEvaluator(evaluator).build();
+        trimXssDefender.defend("<b>XssDefenderTest</b>");
+        trimXssDefender.defend("<script>alert(1)</script>");
+        evaluator.close();
+        Assertions.assertEquals(1, evaluator.divergenceCount(XssShadowDivergence.Type.CANDIDATE_REJECTS));
+        Assertions.assertNull(evaluator.examples().get(0).getCandidateOutput());
+
+        XssShadowEvaluator reverseEvaluator = XssShadowEvaluator.builder(new XssDefender(sanitizer(DefenseStrategy.TRIM)), "trim")
+                .sampleRate(1.0)
+                .build();
+        XssDefender throwXssDefender = XssDefender.builder(sanitizer(DefenseStrategy.THROW)).shadowEvaluator(reverseEvaluator).build();
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> throwXssDefender.defend("<script>alert(1)</script>"));
+        reverseEvaluator.close();
+        Assertions.assertEquals(1, reverseEvaluator.divergenceCount(XssShadowDivergence.Type.CANDIDATE_ACCEPTS));
+    }
+
+    @Test
+    void dropWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        XssDefender slowCandidate = new XssDefender(text -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return text;
+        });
+        XssShadowEvaluator evaluator = XssShadowEvaluator.builder(slowCandidate, "slow")
+                .sampleRate(1.0)
+                .threads(1)
+                .queueSize(2)
+                .build();
+        evaluator.offer(DefenseEntryPoint.OTHER, null, "<b>0</b>", "0");
+        blocked.await();
+        for (int i = 1; i <= 5; i++) {
+            evaluator.offer(DefenseEntryPoint.OTHER, null, "<b>" + i + "</b>", "" + i);
+        }
+        Assertions.assertEquals(3, evaluator.droppedCount());
+        release.countDown();
+        evaluator.close();
+        Assertions.assertEquals(3, evaluator.evaluatedCount());
+
+        XssShadowEvaluator unsampled = XssShadowEvaluator.builder(slowCandidate, "slow").sampleRate(0.0).build();
+        unsampled.offer(DefenseEntryPoint.OTHER, null, "<b>0</b>", "0");
+        unsampled.close();
+        Assertions.assertEquals(0, unsampled.evaluatedCount());
+    }
+
+}
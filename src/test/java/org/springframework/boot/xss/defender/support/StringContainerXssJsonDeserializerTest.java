@@ -0,0 +1,102 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseEntryPoint;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.sanitizer.SafelistType;
+import org.springframework.boot.xss.defender.sanitizer.XssSanitizerChain;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junit test for {@link StringContainerXssJsonDeserializer}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class StringContainerXssJsonDeserializerTest {
+
+    static final String JSON_ARRAY = "[\" john.doe \", null, \"XssDefenderTest<script>alert(1)</script>\", 1024, true]";
+
+    static final List<String> SAFE_VALUES = Arrays.asList("john.doe", null, "XssDefenderTest", "1024", "true");
+
+    static class ImportRequest {
+        public List<String> names;
+
+        public Set<String> tags;
+
+        public String[] notes;
+
+        @JsonDeserialize(contentUsing = StringDeserializer.class)
+        public List<String> raws;
+    }
+
+    final AtomicInteger batches = new AtomicInteger();
+
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        XssDefender xssDefender = new XssDefender(XssSanitizerChain.builder()
+                .strategy(DefenseStrategy.TRIM, SafelistType.BASIC.create(), false).build()) {
+            @Override
+            public String[] defendAll(String[] texts, DefenseEntryPoint entryPoint, String field) {
+                batches.incrementAndGet();
+                return super.defendAll(texts, entryPoint, field);
+            }
+        };
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(true, xssDefender));
+        module.addDeserializer(String[].class, StringContainerXssJsonDeserializer.forStringArray());
+        module.setDeserializerModifier(new XssBeanDeserializerModifier(true, (strategy, escapeAfterTrim) -> xssDefender));
+        objectMapper = new ObjectMapper().registerModule(module);
+    }
+
+    @Test
+    void deserializeRootContainers() throws IOException {
+        Assertions.assertEquals(SAFE_VALUES, objectMapper.readValue(JSON_ARRAY, new TypeReference<List<String>>() {
+        }));
+        Assertions.assertEquals(new LinkedHashSet<>(SAFE_VALUES), objectMapper.readValue(JSON_ARRAY, new TypeReference<Set<String>>() {
+        }));
+        Assertions.assertArrayEquals(SAFE_VALUES.toArray(), objectMapper.readValue(JSON_ARRAY, String[].class));
+        Assertions.assertEquals(3, batches.get());
+    }
+
+    @Test
+    void deserializeContainerProperties() throws IOException {
+        final String json = "{\"names\": " + JSON_ARRAY + ", \"tags\": [\"<b>a</b><script></script>\"], \"notes\": [],"
+                + " \"raws\": [\" <script>x</script> \"]}";
+        ImportRequest request = objectMapper.readValue(json, ImportRequest.class);
+        Assertions.assertEquals(SAFE_VALUES, request.names);
+        Assertions.assertEquals(Collections.singleton("<b>a</b>"), request.tags);
+        Assertions.assertEquals(0, request.notes.length);
+        // The elements with their own deserializer are left to Jackson.
+        Assertions.assertEquals(Collections.singletonList(" <script>x</script> "), request.raws);
+        Assertions.assertEquals(3, batches.get());
+    }
+
+    @Test
+    void deserializeSingleValueAsArray() throws IOException {
+        ObjectMapper objectMapper = this.objectMapper.copy().enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+        Assertions.assertEquals(Collections.singletonList("XssDefenderTest"), objectMapper.readValue(
+                "\"XssDefenderTest<script>alert(1)</script>\"", new TypeReference<List<String>>() {
+                }));
+        Assertions.assertEquals(0, batches.get());
+    }
+
+}
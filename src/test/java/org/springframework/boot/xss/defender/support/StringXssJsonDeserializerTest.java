@@ -0,0 +1,43 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Junit test for {@link StringXssJsonDeserializer}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class StringXssJsonDeserializerTest {
+
+    static ObjectMapper objectMapper(boolean isXssDefenderEnabled, DefenseStrategy strategy) {
+        XssDefender xssDefender = new XssDefender(strategy.name(), false);
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(isXssDefenderEnabled, xssDefender));
+        return new ObjectMapper().registerModule(module);
+    }
+
+    @Test
+    void deserializeFromParserBuffer() throws IOException {
+        ObjectMapper objectMapper = objectMapper(true, DefenseStrategy.TRIM);
+        final String json = "[\"  john.doe \", \" \", \"XssDefenderTest<script>alert(1);</script>\", \"\\u003cscript>alert(1)\\u003c/script>\", 1024]";
+        List<?> result = objectMapper.readValue(json, objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+        Assertions.assertEquals(Arrays.asList("john.doe", "", "XssDefenderTest", "", "1024"), result);
+    }
+
+    @Test
+    void deserializeWhenXssDefenderIsDisabled() throws IOException {
+        ObjectMapper objectMapper = objectMapper(false, DefenseStrategy.TRIM);
+        Assertions.assertEquals("<b>XssDefenderTest</b>", objectMapper.readValue("\" <b>XssDefenderTest</b> \"", String.class));
+    }
+
+}
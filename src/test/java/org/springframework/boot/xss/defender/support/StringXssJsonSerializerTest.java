@@ -0,0 +1,146 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssEncode;
+import org.springframework.boot.xss.defender.interceptor.XssDefenderInterceptor;
+import org.springframework.boot.xss.defender.sanitizer.XssEscaper;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Junit test for {@link StringXssJsonSerializer}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class StringXssJsonSerializerTest {
+
+    static final String RISKY_TEXT = "<b>\"Tom\" & 'Jerry'</b>";
+
+    static final String ENCODED_TEXT = XssEscaper.HTML_BODY.escape(RISKY_TEXT);
+
+    static class Comment {
+        public String author = "john.doe";
+
+        @XssEncode
+        public String content = RISKY_TEXT;
+
+        @XssEncode(XssEscaper.URL_COMPONENT)
+        public String link = "a b&c";
+
+        public String raw = RISKY_TEXT;
+
+        @XssEncode
+        @JsonSerialize(using = ToStringSerializer.class)
+        public String custom = RISKY_TEXT;
+    }
+
+    @XssEncode
+    static class LegacyComment {
+        public String content = RISKY_TEXT;
+
+        @XssEncode(XssEscaper.JAVASCRIPT_STRING)
+        @JsonProperty("script")
+        public String getScript() {
+            return "</script>";
+        }
+    }
+
+    static class Controller {
+        public void plain() {
+        }
+
+        @XssEncode
+        public void encoded() {
+        }
+    }
+
+    XssDefenderInterceptor interceptor;
+
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        XssPolicyHolder policyHolder = XssPolicyHolder.of(true, new XssDefender("trim", false));
+        interceptor = new XssDefenderInterceptor(new XssHandlerPolicyRegistry(policyHolder,
+                new StaticListableBeanFactory().getBeanProvider(RequestMappingHandlerMapping.class)));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new XssBeanSerializerModifier());
+        module.addSerializer(String.class, StringXssJsonSerializer.HANDLER);
+        objectMapper = new ObjectMapper().registerModule(module);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    void startRequest(String method) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        interceptor.preHandle(request, new MockHttpServletResponse(), new HandlerMethod(new Controller(), method));
+    }
+
+    @Test
+    void annotatedPropertiesAreEncoded() throws IOException {
+        JsonNode comment = objectMapper.readTree(objectMapper.writeValueAsString(new Comment()));
+        Assertions.assertEquals("john.doe", comment.get("author").asText());
+        Assertions.assertEquals(ENCODED_TEXT, comment.get("content").asText());
+        Assertions.assertEquals("a%20b%26c", comment.get("link").asText());
+        Assertions.assertEquals(RISKY_TEXT, comment.get("raw").asText());
+        Assertions.assertEquals(RISKY_TEXT, comment.get("custom").asText());
+
+        JsonNode legacyComment = objectMapper.readTree(objectMapper.writeValueAsBytes(new LegacyComment()));
+        Assertions.assertEquals(ENCODED_TEXT, legacyComment.get("content").asText());
+        Assertions.assertEquals("\\u003C\\/script\\u003E", legacyComment.get("script").asText());
+    }
+
+    @Test
+    void handlerEncodesAllValues() throws IOException, NoSuchMethodException {
+        Map<String, String> body = Collections.singletonMap("content", RISKY_TEXT);
+        startRequest("plain");
+        Assertions.assertEquals(RISKY_TEXT, objectMapper.readTree(objectMapper.writeValueAsString(body)).get("content").asText());
+
+        startRequest("encoded");
+        Assertions.assertEquals(ENCODED_TEXT, objectMapper.readTree(objectMapper.writeValueAsString(body)).get("content").asText());
+        Assertions.assertEquals(ENCODED_TEXT, objectMapper.readTree(objectMapper.writeValueAsString(new Comment())).get("raw").asText());
+        // The token buffer holds the encoded text.
+        Assertions.assertEquals(ENCODED_TEXT, objectMapper.valueToTree(body).get("content").asText());
+    }
+
+    @Test
+    void longValuesAreStreamed() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append(RISKY_TEXT).append('中');
+        }
+        String text = builder.toString();
+        String expected = objectMapper.writeValueAsString(XssEscaper.HTML_BODY.escape(text));
+        ObjectMapper encodingMapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(String.class, StringXssJsonSerializer.of(XssEscaper.HTML_BODY)));
+        Assertions.assertEquals(expected, encodingMapper.writeValueAsString(text));
+        Assertions.assertEquals(expected, new String(encodingMapper.writeValueAsBytes(text), StandardCharsets.UTF_8));
+        Assertions.assertEquals("\"john.doe\"", encodingMapper.writeValueAsString("john.doe"));
+    }
+
+}
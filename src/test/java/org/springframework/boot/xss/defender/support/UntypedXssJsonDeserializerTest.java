@@ -0,0 +1,126 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.exception.XssInputLimitExceededException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Junit test for {@link UntypedXssJsonDeserializer} and {@link JsonNodeXssJsonDeserializer}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class UntypedXssJsonDeserializerTest {
+
+    static final String JSON = "{\"<k>\":\" <b>bold</b><script>alert(1)</script> \",\"form\":{\"items\":[\"<i>x</i><img src=x onerror=alert(1)>\","
+            + "1,2.5,true,null,{}],\"empty\":[]}}";
+
+    static class DynamicForm {
+        public String name;
+
+        public Object payload;
+
+        public JsonNode tree;
+
+        public Map<String, Object> attributes;
+    }
+
+    static ObjectMapper objectMapper(boolean isXssDefenderEnabled, XssJsonTreeLimits limits) {
+        StringXssJsonDeserializer stringDeserializer = new StringXssJsonDeserializer(isXssDefenderEnabled, new XssDefender("trim", false));
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, stringDeserializer);
+        module.addDeserializer(Object.class, new UntypedXssJsonDeserializer(stringDeserializer, limits));
+        module.addDeserializer(JsonNode.class, new JsonNodeXssJsonDeserializer<>(JsonNode.class, stringDeserializer, limits));
+        module.addDeserializer(ObjectNode.class, new JsonNodeXssJsonDeserializer<>(ObjectNode.class, stringDeserializer, limits));
+        module.addDeserializer(ArrayNode.class, new JsonNodeXssJsonDeserializer<>(ArrayNode.class, stringDeserializer, limits));
+        return new ObjectMapper().registerModule(module);
+    }
+
+    final ObjectMapper objectMapper = objectMapper(true, XssJsonTreeLimits.UNLIMITED);
+
+    @Test
+    void deserializeMap() throws IOException {
+        Map<String, Object> map = objectMapper.readValue(JSON, new TypeReference<Map<String, Object>>() {
+        });
+        // The field names are kept as they are.
+        Assertions.assertEquals("<b>bold</b>", map.get("<k>"));
+        Map<String, Object> expectedForm = new LinkedHashMap<>();
+        expectedForm.put("items", Arrays.asList("<i>x</i>", 1, 2.5, true, null, Collections.emptyMap()));
+        expectedForm.put("empty", Collections.emptyList());
+        Assertions.assertEquals(expectedForm, map.get("form"));
+        Assertions.assertEquals(map, objectMapper.readValue(JSON, Object.class));
+
+        ObjectMapper arrayMapper = objectMapper.copy().enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY)
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        Object[] array = (Object[]) arrayMapper.readValue("[\"<script>x</script>\", 2.5]", Object.class);
+        Assertions.assertArrayEquals(new Object[]{"", new BigDecimal("2.5")}, array);
+    }
+
+    @Test
+    void deserializeJsonNode() throws IOException {
+        JsonNode tree = objectMapper.readTree(JSON);
+        Assertions.assertEquals(objectMapper.readTree(new ObjectMapper().writeValueAsString(
+                objectMapper.readValue(JSON, Object.class))), tree);
+        Assertions.assertEquals("<b>bold</b>", objectMapper.readValue(JSON, JsonNode.class).get("<k>").textValue());
+        Assertions.assertEquals("<i>x</i>", objectMapper.readValue(JSON, ObjectNode.class).at("/form/items/0").textValue());
+        Assertions.assertEquals(2.5, objectMapper.readValue(JSON, ObjectNode.class).at("/form/items/2").doubleValue());
+        Assertions.assertEquals("", objectMapper.readValue("[\"<script>x</script>\"]", ArrayNode.class).get(0).textValue());
+        Assertions.assertThrows(JsonMappingException.class, () -> objectMapper.readValue("[]", ObjectNode.class));
+        Assertions.assertThrows(JsonMappingException.class, () -> objectMapper.readValue("{}", ArrayNode.class));
+    }
+
+    @Test
+    void deserializeFields() throws IOException {
+        String json = "{\"name\":\"<script>n</script>\",\"payload\":" + JSON + ",\"tree\":" + JSON + ",\"attributes\":" + JSON + "}";
+        DynamicForm form = objectMapper.readValue(json, DynamicForm.class);
+        Assertions.assertEquals("", form.name);
+        Assertions.assertEquals("<b>bold</b>", ((Map<?, ?>) form.payload).get("<k>"));
+        Assertions.assertEquals("<i>x</i>", form.tree.at("/form/items/0").textValue());
+        Assertions.assertEquals("<b>bold</b>", form.attributes.get("<k>"));
+        Assertions.assertTrue(objectMapper.readValue("{\"tree\":null}", DynamicForm.class).tree.isNull());
+
+        // The values are only trimmed if the XSS defender is disabled.
+        DynamicForm disabled = objectMapper(false, XssJsonTreeLimits.UNLIMITED).readValue(json, DynamicForm.class);
+        Assertions.assertEquals("<b>bold</b><script>alert(1)</script>", disabled.tree.get("<k>").textValue());
+    }
+
+    @Test
+    void limits() throws IOException {
+        ObjectMapper limited = objectMapper(true, new XssJsonTreeLimits(3, 10));
+        List<?> list = limited.readValue("[[[\"a\"]]]", List.class);
+        Assertions.assertEquals(Collections.singletonList(Collections.singletonList(Collections.singletonList("a"))), list);
+        assertLimitExceeded(limited, "[[[[\"a\"]]]]", Object.class);
+        assertLimitExceeded(limited, "{\"a\":{\"b\":{\"c\":{}}}}", JsonNode.class);
+        assertLimitExceeded(limited, "[1,2,3,4,5,6,7,8,9,10]", JsonNode.class);
+
+        // The nodes are counted across all the untyped fields of a call.
+        limited.readValue("{\"payload\":[1,2,3,4],\"tree\":[1,2,3,4]}", DynamicForm.class);
+        assertLimitExceeded(limited, "{\"payload\":[1,2,3,4],\"tree\":[1,2,3,4],\"attributes\":{\"a\":1}}", DynamicForm.class);
+    }
+
+    static void assertLimitExceeded(ObjectMapper objectMapper, String json, Class<?> type) {
+        Exception e = Assertions.assertThrows(Exception.class, () -> objectMapper.readValue(json, type));
+        while (!(e instanceof XssInputLimitExceededException) && e.getCause() instanceof Exception) {
+            e = (Exception) e.getCause();
+        }
+        Assertions.assertTrue(e instanceof XssInputLimitExceededException, json);
+    }
+
+}
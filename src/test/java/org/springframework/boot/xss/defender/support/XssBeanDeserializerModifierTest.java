@@ -0,0 +1,191 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssSanitize;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.boot.xss.defender.support.dto.PackageDefaultRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junit test for {@link XssBeanDeserializerModifier}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssBeanDeserializerModifierTest {
+
+    static final String RISKY_TEXT = "<b>XssDefenderTest</b><script>alert(1)</script>";
+
+    static class UserRequest {
+        public String name;
+
+        @XssSanitize(XssSanitize.Policy.NONE)
+        public String password;
+
+        private String bio;
+
+        @XssSanitize(XssSanitize.Policy.ESCAPE)
+        public void setBio(String bio) {
+            this.bio = bio;
+        }
+    }
+
+    @XssSanitize(XssSanitize.Policy.THROW)
+    static class StrictRequest {
+        public String title;
+
+        @XssSanitize
+        public String body;
+
+        private final String signature;
+
+        @JsonCreator
+        StrictRequest(@JsonProperty("signature") @XssSanitize(XssSanitize.Policy.NONE) String signature) {
+            this.signature = signature;
+        }
+    }
+
+    static class TokenRequest {
+        public List<String> names;
+
+        @XssSanitize(XssSanitize.Policy.NONE)
+        public List<String> tokens;
+
+        @XssSanitize(XssSanitize.Policy.ESCAPE)
+        public String[] notes;
+    }
+
+    @XssSanitize(XssSanitize.Policy.NONE)
+    static class RawTokenRequest {
+        public Set<String> tokens;
+
+        public String[] codes;
+
+        @XssSanitize(value = XssSanitize.Policy.TRIM, escapeAfterTrim = true)
+        public List<String> names;
+    }
+
+    final AtomicInteger createdXssDefenders = new AtomicInteger();
+
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(true, new XssDefender(DefenseStrategy.TRIM.name(), false)));
+        module.addDeserializer(String[].class, StringContainerXssJsonDeserializer.forStringArray());
+        module.setDeserializerModifier(new XssBeanDeserializerModifier(true, (strategy, escapeAfterTrim) -> {
+            createdXssDefenders.incrementAndGet();
+            return new XssDefender(strategy.name(), escapeAfterTrim);
+        }));
+        objectMapper = new ObjectMapper().registerModule(module);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    static String json(String... namesAndValues) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            json.append(i == 0 ? "" : ",").append('"').append(namesAndValues[i]).append("\":\"")
+                    .append(namesAndValues[i + 1].replace("\"", "\\\"")).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    @Test
+    void propertyAnnotations() throws IOException {
+        UserRequest request = objectMapper.readValue(json("name", RISKY_TEXT, "password", " <p@ss> ", "bio", RISKY_TEXT), UserRequest.class);
+        Assertions.assertEquals("<b>XssDefenderTest</b>", request.name);
+        Assertions.assertEquals(" <p@ss> ", request.password);
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;&lt;script&gt;alert(1)&lt;/script&gt;", request.bio);
+    }
+
+    @Test
+    void classAnnotation() throws IOException {
+        StrictRequest request = objectMapper.readValue(json("signature", RISKY_TEXT, "body", RISKY_TEXT), StrictRequest.class);
+        Assertions.assertEquals(RISKY_TEXT, request.signature);
+        Assertions.assertEquals("<b>XssDefenderTest</b>", request.body);
+
+        JsonMappingException e = Assertions.assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(json("title", RISKY_TEXT), StrictRequest.class));
+        Assertions.assertTrue(e.getCause() instanceof XssRiskDetectedException);
+    }
+
+    @Test
+    void packageAnnotation() throws IOException {
+        PackageDefaultRequest request = objectMapper.readValue(json("comment", "<i>a</i>", "token", "<i>a</i>"), PackageDefaultRequest.class);
+        Assertions.assertEquals("&lt;i&gt;a&lt;/i&gt;", request.comment);
+        Assertions.assertEquals("<i>a</i>", request.token);
+    }
+
+    @Test
+    void containerPropertyAnnotations() throws IOException {
+        String json = "{\"names\":[\"a<b>c</b><script>1</script>\"],\"tokens\":[\" a<b>c</b> \"],\"notes\":[\"<i>a</i>\",null]}";
+        TokenRequest request = objectMapper.readValue(json, TokenRequest.class);
+        Assertions.assertEquals(Collections.singletonList("a<b>c</b>"), request.names);
+        Assertions.assertEquals(Collections.singletonList(" a<b>c</b> "), request.tokens);
+        Assertions.assertArrayEquals(new String[]{"&lt;i&gt;a&lt;/i&gt;", null}, request.notes);
+    }
+
+    @Test
+    void containerClassAndPackageAnnotations() throws IOException {
+        String json = "{\"tokens\":[\"a<b>c</b>\"],\"codes\":[\"<script>1</script>\"],\"names\":[\"<code>a</code><script>1</script>\"]}";
+        RawTokenRequest request = objectMapper.readValue(json, RawTokenRequest.class);
+        Assertions.assertEquals(Collections.singleton("a<b>c</b>"), request.tokens);
+        Assertions.assertArrayEquals(new String[]{"<script>1</script>"}, request.codes);
+        Assertions.assertEquals(Collections.singletonList("&lt;code&gt;a&lt;/code&gt;"), request.names);
+
+        PackageDefaultRequest packageRequest = objectMapper.readValue("{\"comments\":[\"<i>a</i>\"]}", PackageDefaultRequest.class);
+        Assertions.assertEquals(Collections.singletonList("&lt;i&gt;a&lt;/i&gt;"), packageRequest.comments);
+    }
+
+    @Test
+    void resolvedOncePerStrategy() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            objectMapper.readValue(json("bio", RISKY_TEXT), UserRequest.class);
+            objectMapper.readValue(json("comment", RISKY_TEXT), PackageDefaultRequest.class);
+            objectMapper.readValue(json("body", RISKY_TEXT, "title", "XssDefenderTest"), StrictRequest.class);
+        }
+        // The XSS defenders of trim, trim-escape, escape and throw are created once, none of them is created per value.
+        Assertions.assertEquals(4, createdXssDefenders.get());
+    }
+
+    @Test
+    void ignoredControllerMethodTakesPrecedence() throws IOException {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE, XssHandlerPolicy.IGNORED, RequestAttributes.SCOPE_REQUEST);
+        UserRequest request = objectMapper.readValue(json("name", RISKY_TEXT, "bio", RISKY_TEXT), UserRequest.class);
+        Assertions.assertEquals(RISKY_TEXT, request.name);
+        Assertions.assertEquals(RISKY_TEXT, request.bio);
+
+        RequestContextHolder.currentRequestAttributes().setAttribute(XssHandlerPolicy.REQUEST_ATTRIBUTE,
+                XssHandlerPolicy.of(new XssDefender(DefenseStrategy.THROW.name(), false)), RequestAttributes.SCOPE_REQUEST);
+        request = objectMapper.readValue(json("bio", RISKY_TEXT), UserRequest.class);
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;&lt;script&gt;alert(1)&lt;/script&gt;", request.bio);
+    }
+
+}
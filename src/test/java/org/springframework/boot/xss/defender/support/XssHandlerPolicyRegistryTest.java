@@ -0,0 +1,109 @@
+package org.springframework.boot.xss.defender.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssDefenderIgnore;
+import org.springframework.boot.xss.defender.annotation.XssDefenderStrategy;
+import org.springframework.boot.xss.defender.exception.XssRiskDetectedException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junit test for {@link XssHandlerPolicyRegistry}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssHandlerPolicyRegistryTest {
+
+    static class DefaultController {
+        public void inherit() {
+        }
+
+        @XssDefenderIgnore
+        public void ignore() {
+        }
+
+        @XssDefenderStrategy(DefenseStrategy.THROW)
+        public void reject() {
+        }
+
+        @XssDefenderStrategy(DefenseStrategy.THROW)
+        public void rejectAgain() {
+        }
+    }
+
+    @XssDefenderStrategy(value = DefenseStrategy.TRIM, escapeAfterTrim = true)
+    static class TrimEscapeController {
+        public void inherit() {
+        }
+
+        @XssDefenderStrategy(DefenseStrategy.ESCAPE)
+        public void escape() {
+        }
+    }
+
+    @XssDefenderIgnore
+    static class IgnoredController {
+        public void inherit() {
+        }
+    }
+
+    final XssDefender defaultXssDefender = new XssDefender(DefenseStrategy.TRIM.name(), false);
+
+    final AtomicInteger createdXssDefenders = new AtomicInteger();
+
+    XssHandlerPolicyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new XssHandlerPolicyRegistry(defaultXssDefender, (strategy, escapeAfterTrim) -> {
+            createdXssDefenders.incrementAndGet();
+            return new XssDefender(strategy.name(), escapeAfterTrim);
+        }, new StaticListableBeanFactory().getBeanProvider(RequestMappingHandlerMapping.class));
+        registry.afterSingletonsInstantiated();
+    }
+
+    XssHandlerPolicy resolve(Object controller, String method) throws NoSuchMethodException {
+        return registry.resolve(new HandlerMethod(controller, method));
+    }
+
+    @Test
+    void resolveDefaultPolicy() throws NoSuchMethodException {
+        XssHandlerPolicy policy = resolve(new DefaultController(), "inherit");
+        Assertions.assertTrue(policy.isEnabled());
+        Assertions.assertSame(defaultXssDefender, policy.getXssDefender());
+        Assertions.assertSame(policy, resolve(new DefaultController(), "inherit"));
+    }
+
+    @Test
+    void resolveIgnoredPolicy() throws NoSuchMethodException {
+        Assertions.assertSame(XssHandlerPolicy.IGNORED, resolve(new DefaultController(), "ignore"));
+        Assertions.assertSame(XssHandlerPolicy.IGNORED, resolve(new IgnoredController(), "inherit"));
+        Assertions.assertFalse(XssHandlerPolicy.IGNORED.isEnabled());
+    }
+
+    @Test
+    void resolveMethodOverride() throws NoSuchMethodException {
+        XssHandlerPolicy policy = resolve(new DefaultController(), "reject");
+        Assertions.assertThrows(XssRiskDetectedException.class, () -> policy.getXssDefender().defend("<script>alert(1)</script>"));
+        // The same override shares one XSS defender, all of them are created once with the snapshot.
+        Assertions.assertSame(policy, resolve(new DefaultController(), "rejectAgain"));
+        Assertions.assertEquals(4, createdXssDefenders.get());
+    }
+
+    @Test
+    void resolveClassOverride() throws NoSuchMethodException {
+        XssHandlerPolicy classPolicy = resolve(new TrimEscapeController(), "inherit");
+        Assertions.assertEquals("&lt;i&gt;XssDefenderTest&lt;/i&gt;", classPolicy.getXssDefender().defend("<script>alert(1)</script><i>XssDefenderTest</i>"));
+        XssHandlerPolicy methodPolicy = resolve(new TrimEscapeController(), "escape");
+        Assertions.assertEquals("&lt;b&gt;", methodPolicy.getXssDefender().defend("<b>"));
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.springframework.boot.xss.defender.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.xss.defender.DefenseStrategy;
+import org.springframework.boot.xss.defender.XssDefender;
+import org.springframework.boot.xss.defender.annotation.XssDefenderStrategy;
+import org.springframework.boot.xss.defender.exception.UnsupportedXssDefenseStrategyException;
+import org.springframework.boot.xss.defender.filter.XssDefenderFilter;
+import org.springframework.boot.xss.defender.interceptor.XssDefenderInterceptor;
+import org.springframework.boot.xss.defender.reload.XssPolicyRefreshListener;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Junit test for {@link XssPolicyHolder}
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+class XssPolicyHolderTest {
+
+    static final String RISKY_TEXT = "<b>XssDefenderTest</b><script>alert(1)</script>";
+
+    static class DefaultController {
+        public void inherit() {
+        }
+
+        @XssDefenderStrategy(DefenseStrategy.ESCAPE)
+        public void escape() {
+        }
+    }
+
+    final AtomicReference<String> strategy = new AtomicReference<>("trim");
+
+    final AtomicInteger createdXssDefenders = new AtomicInteger();
+
+    XssPolicyHolder policyHolder;
+
+    XssDefenderInterceptor interceptor;
+
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        policyHolder = new XssPolicyHolder(version -> XssPolicySnapshot.builder(version, new XssDefender(strategy.get(), false))
+                .description(strategy.get())
+                .xssDefenderFactory((override, escapeAfterTrim) -> {
+                    createdXssDefenders.incrementAndGet();
+                    return new XssDefender(override.name(), escapeAfterTrim);
+                })
+                .build());
+        interceptor = new XssDefenderInterceptor(new XssHandlerPolicyRegistry(policyHolder,
+                new StaticListableBeanFactory().getBeanProvider(RequestMappingHandlerMapping.class)));
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(String.class, new StringXssJsonDeserializer(policyHolder));
+        objectMapper = new ObjectMapper().registerModule(module);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    String deserialize() throws IOException {
+        return objectMapper.readValue('"' + RISKY_TEXT.replace("\"", "\\\"") + '"', String.class);
+    }
+
+    MockHttpServletRequest startRequest(String method) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        interceptor.preHandle(request, new MockHttpServletResponse(), new HandlerMethod(new DefaultController(), method));
+        return request;
+    }
+
+    @Test
+    void reloadSwapsTheWholeSnapshot() throws IOException {
+        XssPolicySnapshot initial = policyHolder.current();
+        Assertions.assertEquals(1, initial.getVersion());
+        Assertions.assertEquals("<b>XssDefenderTest</b>", deserialize());
+
+        strategy.set("escape");
+        XssPolicySnapshot reloaded = policyHolder.reload();
+        Assertions.assertEquals(2, reloaded.getVersion());
+        Assertions.assertSame(reloaded, policyHolder.current());
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;&lt;script&gt;alert(1)&lt;/script&gt;", deserialize());
+
+        // An invalid configuration keeps the policy in effect.
+        strategy.set("unsupported");
+        Assertions.assertThrows(UnsupportedXssDefenseStrategyException.class, policyHolder::reload);
+        Assertions.assertSame(reloaded, policyHolder.current());
+
+        // A fixed policy can't be reloaded.
+        Assertions.assertThrows(IllegalStateException.class, () -> XssPolicyHolder.of(true, new XssDefender("trim", false)).reload());
+    }
+
+    @Test
+    void inFlightRequestKeepsItsSnapshot() throws Exception {
+        MockHttpServletRequest inFlight = startRequest("inherit");
+        XssPolicySnapshot pinned = (XssPolicySnapshot) inFlight.getAttribute(XssPolicySnapshot.REQUEST_ATTRIBUTE);
+        Assertions.assertSame(policyHolder.current(), pinned);
+
+        strategy.set("escape");
+        policyHolder.reload();
+        Assertions.assertSame(pinned, XssHandlerPolicy.current().getSnapshot());
+        Assertions.assertEquals("<b>XssDefenderTest</b>", deserialize());
+
+        startRequest("inherit");
+        Assertions.assertSame(policyHolder.current(), XssHandlerPolicy.current().getSnapshot());
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;&lt;script&gt;alert(1)&lt;/script&gt;", deserialize());
+
+        // The XSS defenders of trim, trim-escape, escape and throw are created once by each snapshot,
+        // and the same override shares one XSS defender in a snapshot.
+        Assertions.assertEquals(8, createdXssDefenders.get());
+        startRequest("escape");
+        XssHandlerPolicy policy = XssHandlerPolicy.current();
+        startRequest("escape");
+        Assertions.assertSame(policy, XssHandlerPolicy.current());
+        Assertions.assertSame(policyHolder.current().xssDefender(DefenseStrategy.ESCAPE, false),
+                policyHolder.current().xssDefender(DefenseStrategy.ESCAPE, true));
+        Assertions.assertEquals(8, createdXssDefenders.get());
+    }
+
+    @Test
+    void readersWithoutHandlerPolicyKeepThePinnedSnapshot() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Assertions.assertEquals("<b>XssDefenderTest</b>", deserialize());
+        XssPolicySnapshot pinned = (XssPolicySnapshot) request.getAttribute(XssPolicySnapshot.REQUEST_ATTRIBUTE);
+        Assertions.assertSame(policyHolder.current(), pinned);
+
+        strategy.set("escape");
+        policyHolder.reload();
+        Assertions.assertSame(pinned, policyHolder.pin());
+        Assertions.assertEquals("<b>XssDefenderTest</b>", deserialize());
+        StringXssPropertyEditor editor = new StringXssPropertyEditor(policyHolder);
+        editor.setValue(null);
+        editor.setAsText(RISKY_TEXT);
+        Assertions.assertEquals("<b>XssDefenderTest</b>", editor.getValue());
+
+        // The filter pins the snapshot before the interceptor resolves the policy of the controller method.
+        MockHttpServletRequest filtered = new MockHttpServletRequest();
+        new XssDefenderFilter(policyHolder).doFilter(filtered, new MockHttpServletResponse(), new MockFilterChain());
+        XssPolicySnapshot filteredSnapshot = (XssPolicySnapshot) filtered.getAttribute(XssPolicySnapshot.REQUEST_ATTRIBUTE);
+        strategy.set("trim");
+        policyHolder.reload();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(filtered));
+        interceptor.preHandle(filtered, new MockHttpServletResponse(), new HandlerMethod(new DefaultController(), "inherit"));
+        Assertions.assertSame(filteredSnapshot, XssHandlerPolicy.current().getSnapshot());
+        Assertions.assertEquals("&lt;b&gt;XssDefenderTest&lt;/b&gt;&lt;script&gt;alert(1)&lt;/script&gt;", deserialize());
+
+        // A fixed holder reads its own snapshot, and outside a request the current snapshot is read.
+        XssPolicyHolder fixed = XssPolicyHolder.of(true, new XssDefender("escape", false));
+        Assertions.assertSame(fixed.current(), fixed.pin());
+        Assertions.assertSame(filteredSnapshot, policyHolder.pin());
+        RequestContextHolder.resetRequestAttributes();
+        Assertions.assertSame(policyHolder.current(), policyHolder.pin());
+    }
+
+    @Test
+    void refreshListenerReloadsOnlyOnItsOwnKeys() {
+        XssPolicyRefreshListener listener = new XssPolicyRefreshListener(policyHolder, "spring.xss-defender");
+        listener.onApplicationEvent(new EnvironmentChangeEvent(Collections.singleton("server.port")));
+        Assertions.assertEquals(1, policyHolder.current().getVersion());
+
+        strategy.set("escape");
+        listener.onApplicationEvent(new EnvironmentChangeEvent(Collections.singleton("SPRING_XSSDEFENDER_STRATEGY")));
+        Assertions.assertEquals(2, policyHolder.current().getVersion());
+        Assertions.assertEquals("escape", policyHolder.current().getDescription());
+
+        // The error is logged, and the policy in effect is kept.
+        strategy.set("unsupported");
+        listener.onApplicationEvent(new EnvironmentChangeEvent(Collections.singleton("spring.xss-defender.strategy")));
+        Assertions.assertEquals(2, policyHolder.current().getVersion());
+    }
+
+}
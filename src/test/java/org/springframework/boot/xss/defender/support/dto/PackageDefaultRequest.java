@@ -0,0 +1,22 @@
+package org.springframework.boot.xss.defender.support.dto;
+
+import org.springframework.boot.xss.defender.annotation.XssSanitize;
+
+import java.util.List;
+
+/**
+ * A JSON request body following the package default of {@link XssSanitize}.
+ *
+ * @author codeboyzhou
+ * @since 1.0.0
+ */
+public class PackageDefaultRequest {
+
+    public String comment;
+
+    public List<String> comments;
+
+    @XssSanitize(XssSanitize.Policy.NONE)
+    public String token;
+
+}
@@ -0,0 +1,8 @@
+/**
+ * The JSON request bodies of {@link org.springframework.boot.xss.defender.support.XssBeanDeserializerModifierTest},
+ * escaped by default.
+ */
+@XssSanitize(XssSanitize.Policy.ESCAPE)
+package org.springframework.boot.xss.defender.support.dto;
+
+import org.springframework.boot.xss.defender.annotation.XssSanitize;